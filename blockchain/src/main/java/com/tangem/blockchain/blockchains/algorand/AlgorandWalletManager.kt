@@ -14,6 +14,7 @@ import com.tangem.blockchain.extensions.successOr
 import com.tangem.blockchain.extensions.toSimpleFailure
 import com.tangem.common.CompletionResult
 import java.math.BigDecimal
+import java.util.Locale
 
 internal class AlgorandWalletManager(
     wallet: Wallet,
@@ -38,15 +39,12 @@ internal class AlgorandWalletManager(
     private fun updateWallet(accountModel: AlgorandAccountModel) {
         wallet.setCoinValue(accountModel.availableCoinBalance)
         wallet.setReserveValue(accountModel.reserveValue)
-        accountModel.transactionsInfo
+        val completedTxHashes = accountModel.transactionsInfo
             .asSequence()
             .filter { it.status != AlgorandTransactionInfo.Status.STILL }
-            .mapNotNullTo(hashSetOf(), AlgorandTransactionInfo::transactionHash)
-            .forEach { txHash ->
-                wallet.recentTransactions.find { txHash.equals(it.hash, ignoreCase = true) }?.let { transactionData ->
-                    transactionData.status = TransactionStatus.Confirmed
-                }
-            }
+            .mapNotNull(AlgorandTransactionInfo::transactionHash)
+            .mapTo(hashSetOf()) { it.lowercase(Locale.US) }
+        wallet.confirmRecentTransactions { it.hash?.lowercase(Locale.US) in completedTxHashes }
 
         if (accountModel.reserveValue > accountModel.balanceIncludingReserve) {
             updateError(BlockchainSdkError.AccountNotFound(amountToCreateAccount = accountModel.reserveValue))
@@ -71,8 +69,10 @@ internal class AlgorandWalletManager(
                     )
                 when (val sendResult = networkService.sendTransaction(rawTx)) {
                     is Result.Success -> {
-                        transactionData.hash = sendResult.data
-                        wallet.addOutgoingTransaction(transactionData, hashToLowercase = false)
+                        wallet.addOutgoingTransaction(
+                            transactionData.copy(hash = sendResult.data),
+                            hashToLowercase = false,
+                        )
 
                         SimpleResult.Success
                     }
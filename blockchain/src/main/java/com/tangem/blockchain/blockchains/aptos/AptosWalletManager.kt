@@ -89,7 +89,7 @@ internal class AptosWalletManager(
 
     private fun updateWallet(info: AptosAccountInfo) {
         if (info.sequenceNumber != sequenceNumber) {
-            wallet.recentTransactions.forEach { it.status = TransactionStatus.Confirmed }
+            wallet.confirmRecentTransactions()
         }
 
         wallet.setCoinValue(value = info.balance.movePointLeft(wallet.blockchain.decimals()))
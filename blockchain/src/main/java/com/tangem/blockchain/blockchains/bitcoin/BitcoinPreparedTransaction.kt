@@ -0,0 +1,26 @@
+package com.tangem.blockchain.blockchains.bitcoin
+
+import com.tangem.blockchain.common.TransactionData
+import java.math.BigDecimal
+
+/**
+ * Transaction prepared by [BitcoinTransactionBuilder.prepareToSign]. It's immutable and doesn't depend on the
+ * builder state, so several transactions can be prepared and sent concurrently
+ *
+ * @property hashesToSign hashes to sign, one for every input
+ */
+class BitcoinPreparedTransaction internal constructor(
+    val hashesToSign: List<ByteArray>,
+    internal val transactionData: TransactionData,
+    internal val outputsToSend: List<BitcoinUnspentOutput>,
+    internal val change: BigDecimal,
+)
+
+/**
+ * @property bytes serialized transaction
+ * @property hash transaction id
+ */
+class BitcoinSignedTransaction internal constructor(
+    val bytes: ByteArray,
+    val hash: ByteArray,
+)
@@ -4,14 +4,21 @@ import com.tangem.blockchain.blockchains.dash.DashMainNetParams
 import com.tangem.blockchain.blockchains.ducatus.DucatusMainNetParams
 import com.tangem.blockchain.blockchains.ravencoin.RavencoinMainNetParams
 import com.tangem.blockchain.blockchains.ravencoin.RavencoinTestNetParams
+import com.tangem.blockchain.common.Amount
 import com.tangem.blockchain.common.Blockchain
 import com.tangem.blockchain.common.BlockchainSdkError
 import com.tangem.blockchain.common.TransactionData
+import com.tangem.blockchain.common.transaction.Fee
+import com.tangem.blockchain.common.utxo.CoinSelection
+import com.tangem.blockchain.common.utxo.CoinSelectionParams
+import com.tangem.blockchain.common.utxo.CoinSelector
+import com.tangem.blockchain.common.utxo.toSmallestUnitsOrNull
 import com.tangem.blockchain.extensions.Result
 import com.tangem.common.extensions.calculateRipemd160
 import com.tangem.common.extensions.calculateSha256
 import com.tangem.common.extensions.isZero
 import com.tangem.common.extensions.toCompressedPublicKey
+import com.tangem.common.extensions.toHexString
 import org.bitcoinj.core.*
 import org.bitcoinj.crypto.TransactionSignature
 import org.bitcoinj.params.MainNetParams
@@ -23,6 +30,7 @@ import org.libdohj.params.DogecoinMainNetParams
 import org.libdohj.params.LitecoinMainNetParams
 import java.math.BigDecimal
 import java.math.BigInteger
+import java.math.RoundingMode
 
 open class BitcoinTransactionBuilder(
     private val walletPublicKey: ByteArray,
@@ -31,8 +39,16 @@ open class BitcoinTransactionBuilder(
 ) {
     private val walletScripts =
         walletAddresses.filterIsInstance<BitcoinScriptAddress>().map { it.script }
-    protected lateinit var transaction: Transaction
-    private var transactionSizeWithoutWitness = 0
+    private val decimals = blockchain.decimals()
+    private val coinSelector = CoinSelector()
+
+    /** Smallest output relayed by nodes of the network in the smallest units, change below it isn't created */
+    private val dustLimit: Long = when (blockchain) {
+        Blockchain.Litecoin -> LITECOIN_DUST_LIMIT
+        Blockchain.Dogecoin -> DOGECOIN_DUST_LIMIT
+        Blockchain.Ravencoin, Blockchain.RavencoinTestnet -> RAVENCOIN_DUST_LIMIT
+        else -> Transaction.MIN_NONDUST_OUTPUT.value
+    }
 
     protected var networkParameters = when (blockchain) {
         Blockchain.Bitcoin, Blockchain.BitcoinCash -> MainNetParams()
@@ -45,58 +61,75 @@ open class BitcoinTransactionBuilder(
         Blockchain.RavencoinTestnet -> RavencoinTestNetParams()
         else -> error("${blockchain.fullName} blockchain is not supported by ${this::class.simpleName}")
     }
+
+    /** Latest known outputs of the wallet, they are taken as a snapshot by every prepared transaction */
+    @Volatile
     var unspentOutputs: List<BitcoinUnspentOutput>? = null
 
+    // transactions of the last buildToSign and buildToSend calls
+    @Volatile
+    private var preparedTransaction: BitcoinPreparedTransaction? = null
+
+    @Volatile
+    private var signedTransaction: BitcoinSignedTransaction? = null
+
+    /** Prepares the transaction and keeps it for [buildToSend], use [prepareToSign] to build concurrently */
     open fun buildToSign(transactionData: TransactionData): Result<List<ByteArray>> {
-        if (unspentOutputs.isNullOrEmpty()) {
-            return Result.Failure(BlockchainSdkError.CustomError("Unspent outputs are missing"))
+        return when (val prepareResult = prepareToSign(transactionData)) {
+            is Result.Failure -> prepareResult
+            is Result.Success -> {
+                preparedTransaction = prepareResult.data
+                Result.Success(prepareResult.data.hashesToSign)
+            }
         }
+    }
 
-        val outputsToSend = getOutputsToSend(unspentOutputs!!, transactionData)
-        val change: BigDecimal = calculateChange(transactionData, outputsToSend)
-        transaction =
-            transactionData.toBitcoinJTransaction(networkParameters, outputsToSend, change)
+    /** Signs the transaction of the last [buildToSign] call */
+    open fun buildToSend(signatures: ByteArray): ByteArray {
+        val preparedTransaction = requireNotNull(preparedTransaction) { "Transaction is not built to sign" }
+        val signedTransaction = buildToSend(preparedTransaction, signatures)
+        this.signedTransaction = signedTransaction
+        return signedTransaction.bytes
+    }
 
-        val hashesToSign = MutableList(transaction.inputs.size) { byteArrayOf() }
-        for (input in transaction.inputs) {
-            val index = input.index
-            val scriptPubKey = Script(transaction.inputs[index].scriptBytes)
+    /** Hash of the transaction of the last [buildToSend] call */
+    fun getTransactionHash() = requireNotNull(signedTransaction) { "Transaction is not built to send" }.hash
 
-            val scriptToSign = when (scriptPubKey.scriptType) {
-                Script.ScriptType.P2PKH -> scriptPubKey
-                Script.ScriptType.P2SH, Script.ScriptType.P2WSH -> findSpendingScript(scriptPubKey)
-                Script.ScriptType.P2WPKH -> ScriptBuilder.createP2PKHOutputScript(
-                    ECKey.fromPublicOnly(walletPublicKey.toCompressedPublicKey()),
-                )
-                else -> error("Unsupported output script")
-            }
-            hashesToSign[index] = when (scriptPubKey.scriptType) {
-                Script.ScriptType.P2PKH, Script.ScriptType.P2SH -> {
-                    transaction.hashForSignature(
-                        index,
-                        scriptToSign,
-                        Transaction.SigHash.ALL,
-                        false,
-                    ).bytes
-                }
-                Script.ScriptType.P2WPKH, Script.ScriptType.P2WSH -> {
-                    transaction.hashForWitnessSignature(
-                        index,
-                        scriptToSign,
-                        Coin.parseCoin(outputsToSend[index].amount.toPlainString()),
-                        Transaction.SigHash.ALL,
-                        false,
-                    ).bytes
-                }
-                else -> error("Unsupported output script")
-            }
+    /**
+     * @param unspentOutputs snapshot of outputs to spend, latest known outputs by default
+     * @param minimalFee minimal fee which [Fee.Bitcoin] of the transaction is calculated with, see [getFee]
+     */
+    fun prepareToSign(
+        transactionData: TransactionData,
+        unspentOutputs: List<BitcoinUnspentOutput>? = this.unspentOutputs,
+        minimalFee: BigDecimal = BigDecimal.ZERO,
+    ): Result<BitcoinPreparedTransaction> {
+        if (unspentOutputs.isNullOrEmpty()) {
+            return Result.Failure(BlockchainSdkError.CustomError("Unspent outputs are missing"))
         }
-        return Result.Success(hashesToSign)
+
+        val outputsToSend = getOutputsToSend(unspentOutputs, transactionData, minimalFee)
+        val change: BigDecimal = dropDustChange(calculateChange(transactionData, outputsToSend))
+        val transaction = createTransaction(transactionData, outputsToSend, change)
+
+        return Result.Success(
+            BitcoinPreparedTransaction(
+                hashesToSign = getHashesToSign(transaction, outputsToSend),
+                transactionData = transactionData,
+                outputsToSend = outputsToSend,
+                change = change,
+            ),
+        )
     }
 
+    /** Creates the transaction of [preparedTransaction] again and adds [signatures] to it */
     @Suppress("MagicNumber")
-    open fun buildToSend(signatures: ByteArray): ByteArray {
-//        witnessSize = 0
+    fun buildToSend(preparedTransaction: BitcoinPreparedTransaction, signatures: ByteArray): BitcoinSignedTransaction {
+        val transaction = createTransaction(
+            transactionData = preparedTransaction.transactionData,
+            outputsToSend = preparedTransaction.outputsToSend,
+            change = preparedTransaction.change,
+        )
 
         for (index in transaction.inputs.indices) {
             val scriptPubKey = Script(transaction.inputs[index].scriptBytes) // output script
@@ -117,7 +150,6 @@ open class BitcoinTransactionBuilder(
                 Script.ScriptType.P2WPKH, Script.ScriptType.P2WSH -> ScriptBuilder.createEmpty()
                 else -> error("Unsupported output script")
             }
-            transactionSizeWithoutWitness = transaction.messageSize
 
             transaction.inputs[index].witness = when (scriptPubKey.scriptType) {
                 Script.ScriptType.P2WPKH -> TransactionWitness.redeemP2WPKH(
@@ -134,28 +166,128 @@ open class BitcoinTransactionBuilder(
                 else -> null
             }
         }
-        return transaction.bitcoinSerialize()
+        return BitcoinSignedTransaction(bytes = transaction.bitcoinSerialize(), hash = transaction.txId.bytes)
     }
 
-    fun getTransactionHash() = transaction.txId.bytes
+    protected open fun createTransaction(
+        transactionData: TransactionData,
+        outputsToSend: List<BitcoinUnspentOutput>,
+        change: BigDecimal,
+    ): Transaction {
+        return transactionData.toBitcoinJTransaction(networkParameters, outputsToSend, change)
+    }
 
-    @Suppress("MagicNumber")
-    fun getEstimateSize(transactionData: TransactionData): Result<Int> {
-        return when (val buildTransactionResult = buildToSign(transactionData)) {
-            is Result.Failure -> buildTransactionResult
-            is Result.Success -> {
-                val hashes = buildTransactionResult.data
-                val finalTransactionSize =
-                    buildToSend(ByteArray(64 * hashes.size) { -128 }).size // needed for longer signature
-                val vsize = if (transaction.hasWitnesses()) {
-                    val weight = transactionSizeWithoutWitness * 3 + finalTransactionSize
-                    (weight + 3) / 4 // round up
-                } else {
-                    finalTransactionSize
+    protected open fun getHashesToSign(
+        transaction: Transaction,
+        outputsToSend: List<BitcoinUnspentOutput>,
+    ): List<ByteArray> {
+        val witnessSigHashContext by lazy { BitcoinWitnessSigHashContext(transaction) }
+        val hashesToSign = MutableList(transaction.inputs.size) { byteArrayOf() }
+        for (input in transaction.inputs) {
+            val index = input.index
+            val scriptPubKey = Script(transaction.inputs[index].scriptBytes)
+
+            val scriptToSign = when (scriptPubKey.scriptType) {
+                Script.ScriptType.P2PKH -> scriptPubKey
+                Script.ScriptType.P2SH, Script.ScriptType.P2WSH -> findSpendingScript(scriptPubKey)
+                Script.ScriptType.P2WPKH -> ScriptBuilder.createP2PKHOutputScript(
+                    ECKey.fromPublicOnly(walletPublicKey.toCompressedPublicKey()),
+                )
+                else -> error("Unsupported output script")
+            }
+            hashesToSign[index] = when (scriptPubKey.scriptType) {
+                Script.ScriptType.P2PKH, Script.ScriptType.P2SH -> {
+                    transaction.hashForSignature(
+                        index,
+                        scriptToSign,
+                        Transaction.SigHash.ALL,
+                        false,
+                    ).bytes
+                }
+                Script.ScriptType.P2WPKH, Script.ScriptType.P2WSH -> {
+                    witnessSigHashContext.hashForSignature(
+                        index,
+                        scriptToSign,
+                        Coin.parseCoin(outputsToSend[index].amount.toPlainString()),
+                    ).bytes
                 }
-                Result.Success(vsize)
+                else -> error("Unsupported output script")
             }
         }
+        return hashesToSign
+    }
+
+    /** Virtual size of the transaction, calculated from types of selected outputs without building it */
+    fun getEstimateSize(
+        transactionData: TransactionData,
+        unspentOutputs: List<BitcoinUnspentOutput>? = this.unspentOutputs,
+    ): Result<Int> {
+        if (unspentOutputs.isNullOrEmpty()) {
+            return Result.Failure(BlockchainSdkError.CustomError("Unspent outputs are missing"))
+        }
+
+        val outputsToSend = getOutputsToSend(unspentOutputs, transactionData)
+        val change = dropDustChange(calculateChange(transactionData, outputsToSend))
+        if (change < BigDecimal.ZERO) {
+            return Result.Failure(BlockchainSdkError.CustomError("Unspent outputs are not enough"))
+        }
+
+        return Result.Success(getVirtualSize(transactionData, outputsToSend, hasChange = !change.isZero()))
+    }
+
+    /**
+     * Fee of the transaction paying [satoshiPerByte] for every virtual byte, but not less than [minimalFee]. It's
+     * calculated for outputs selected for the rate, and the transaction sent with the returned fee spends the same
+     * outputs. Excess of a changeless selection goes to miners, so it's included in the fee
+     *
+     * @param transactionData transaction to send, its fee is ignored
+     */
+    fun getFee(
+        transactionData: TransactionData,
+        satoshiPerByte: BigDecimal,
+        minimalFee: BigDecimal,
+        unspentOutputs: List<BitcoinUnspentOutput>? = this.unspentOutputs,
+    ): Result<Fee.Bitcoin> {
+        if (unspentOutputs.isNullOrEmpty()) {
+            return Result.Failure(BlockchainSdkError.CustomError("Unspent outputs are missing"))
+        }
+
+        val amount = transactionData.amount.value!!
+        // when outputs are not enough for the rate, fee is calculated for all of them, as for sending the balance
+        val selection = selectOutputs(unspentOutputs, transactionData, satoshiPerByte, minimalFee)
+        val outputsToSend = selection?.inputs ?: unspentOutputs
+        val total = outputsToSend.sumOf { it.amount }
+        if (total < amount) {
+            return Result.Failure(BlockchainSdkError.CustomError("Unspent outputs are not enough"))
+        }
+
+        val fee = if (selection?.isChangeless == true) {
+            total - amount
+        } else {
+            val size = getVirtualSize(transactionData, outputsToSend, hasChange = selection != null)
+            val feeForSize = satoshiPerByte.multiply(size.toBigDecimal())
+                .setScale(0, RoundingMode.DOWN)
+                .movePointLeft(decimals)
+            maxOf(feeForSize, minimalFee)
+        }
+        return Result.Success(Fee.Bitcoin(Amount(transactionData.amount, fee), satoshiPerByte))
+    }
+
+    private fun getVirtualSize(
+        transactionData: TransactionData,
+        outputsToSend: List<BitcoinUnspentOutput>,
+        hasChange: Boolean,
+    ): Int {
+        val inputTypes = outputsToSend.map { getInputType(Script(it.outputScript)) }
+        val outputScriptSizes = if (hasChange) {
+            listOf(
+                getOutputScriptSize(transactionData.destinationAddress),
+                getOutputScriptSize(transactionData.sourceAddress),
+            )
+        } else {
+            listOf(getOutputScriptSize(transactionData.destinationAddress))
+        }
+        return BitcoinTransactionSizeCalculator.virtualSize(inputTypes, outputScriptSizes)
     }
 
     fun calculateChange(transactionData: TransactionData, unspentOutputs: List<BitcoinUnspentOutput>): BigDecimal {
@@ -176,21 +308,104 @@ open class BitcoinTransactionBuilder(
         return TransactionSignature(r, canonicalS)
     }
 
-    private fun getOutputsToSend(
+    /**
+     * Outputs for [Fee.Bitcoin] are selected for its rate, as on calculating the fee in [getFee]. All outputs are
+     * returned if they are not enough, so that the change turns out negative
+     */
+    protected fun getOutputsToSend(
         unspentOutputs: List<BitcoinUnspentOutput>,
         transactionData: TransactionData,
+        minimalFee: BigDecimal = BigDecimal.ZERO,
     ): List<BitcoinUnspentOutput> {
-        val outputs = mutableListOf<BitcoinUnspentOutput>()
-        val amount = transactionData.amount.value!! + transactionData.fee?.amount?.value!!
-        var sum = BigDecimal.ZERO
-        var i = 0
-        while (sum <= amount && i < unspentOutputs.size) {
-            val output = unspentOutputs[i]
-            sum = sum.plus(output.amount)
-            outputs.add(output)
-            i++
+        val amount = transactionData.amount.value!!
+        val fee = transactionData.fee?.amount?.value!!
+
+        // selection for the rate doesn't cover a fee calculated for other outputs, e.g. for the whole balance
+        val selectionForRate = (transactionData.fee as? Fee.Bitcoin)
+            ?.let { selectOutputs(unspentOutputs, transactionData, it.satoshiPerByte, minimalFee) }
+            ?.takeIf { selection -> selection.inputs.sumOf { it.amount } >= amount + fee }
+        if (selectionForRate != null) return selectionForRate.inputs
+
+        val params = CoinSelectionParams.of(
+            amount = amount,
+            fee = fee,
+            decimals = decimals,
+            costOfChange = dustLimit,
+        ) ?: return unspentOutputs
+        val selection = coinSelector.select(unspentOutputs, params, decimals, BitcoinUnspentOutput::amount)
+
+        return selection?.inputs ?: unspentOutputs
+    }
+
+    /**
+     * Outputs to send [transactionData] paying [satoshiPerByte] for every virtual byte, but not less than [minimalFee].
+     * They are compared by their value minus the fee for spending them, so every input pays for itself and outputs
+     * worth less than that aren't spent. Null is returned if outputs are not enough
+     */
+    private fun selectOutputs(
+        unspentOutputs: List<BitcoinUnspentOutput>,
+        transactionData: TransactionData,
+        satoshiPerByte: BigDecimal,
+        minimalFee: BigDecimal,
+    ): CoinSelection<BitcoinUnspentOutput>? {
+        val destinationOutput = listOf(getOutputScriptSize(transactionData.destinationAddress))
+        val fixedSize = BitcoinTransactionSizeCalculator.virtualSize(emptyList(), destinationOutput)
+        val changeSize = BitcoinTransactionSizeCalculator.virtualSize(
+            inputs = emptyList(),
+            outputScriptSizes = destinationOutput + getOutputScriptSize(transactionData.sourceAddress),
+        ) - fixedSize
+        // outputs of different addresses are spent by inputs of different sizes, the largest one is paid for
+        val inputSize = unspentOutputs
+            .distinctBy { it.outputScript.toHexString() }
+            .maxOf { output ->
+                val inputType = getInputType(Script(output.outputScript))
+                BitcoinTransactionSizeCalculator.virtualSize(listOf(inputType), destinationOutput) - fixedSize
+            }
+
+        val fixedFee = satoshiPerByte.multiply(fixedSize.toBigDecimal()).movePointLeft(decimals)
+        val params = CoinSelectionParams.of(
+            amount = transactionData.amount.value!!,
+            fee = maxOf(fixedFee, minimalFee),
+            decimals = decimals,
+            costPerInput = satoshiPerByte.feeForSize(inputSize) ?: return null,
+            costOfChange = (satoshiPerByte.feeForSize(changeSize) ?: return null) + dustLimit,
+        ) ?: return null
+
+        return coinSelector.select(unspentOutputs, params, decimals, BitcoinUnspentOutput::amount)
+    }
+
+    /** Fee in the smallest units for [size] virtual bytes, rounded up, null if it's out of the [Long] range */
+    private fun BigDecimal.feeForSize(size: Int): Long? {
+        return multiply(size.toBigDecimal()).toSmallestUnitsOrNull(0, RoundingMode.UP)
+    }
+
+    /** Change below dust can't be sent, so it's left to miners. Outputs are selected with dust as cost of change */
+    protected fun dropDustChange(change: BigDecimal): BigDecimal {
+        val dust = dustLimit.toBigDecimal().movePointLeft(decimals)
+        return if (change > BigDecimal.ZERO && change < dust) BigDecimal.ZERO else change
+    }
+
+    protected open fun getOutputScriptSize(address: String): Int {
+        return BitcoinTransactionSizeCalculator.outputScriptSize(
+            Address.fromString(networkParameters, address).outputScriptType,
+        )
+    }
+
+    private fun getInputType(scriptPubKey: Script): BitcoinInputType {
+        // only 1 of 2 multisig script for now, so it's spent with one signature
+        return when (scriptPubKey.scriptType) {
+            Script.ScriptType.P2PKH -> BitcoinInputType.P2PKH(walletPublicKey.size)
+            Script.ScriptType.P2SH -> BitcoinInputType.P2SHMultisig(
+                signaturesCount = 1,
+                redeemScriptSize = findSpendingScript(scriptPubKey).program.size,
+            )
+            Script.ScriptType.P2WPKH -> BitcoinInputType.P2WPKH
+            Script.ScriptType.P2WSH -> BitcoinInputType.P2WSHMultisig(
+                signaturesCount = 1,
+                witnessScriptSize = findSpendingScript(scriptPubKey).program.size,
+            )
+            else -> error("Unsupported output script")
         }
-        return outputs
     }
 
     @Suppress("MagicNumber")
@@ -206,6 +421,16 @@ open class BitcoinTransactionBuilder(
             else -> null
         } ?: error("No script for P2SH output found")
     }
+
+    private companion object {
+        // dust relay fee of Litecoin Core is 10 times higher than of Bitcoin Core
+        const val LITECOIN_DUST_LIMIT = 5_460L
+
+        // Dogecoin Core rejects outputs below 0.01 DOGE
+        const val DOGECOIN_DUST_LIMIT = 1_000_000L
+
+        const val RAVENCOIN_DUST_LIMIT = 642L
+    }
 }
 
 internal fun TransactionData.toBitcoinJTransaction(
@@ -0,0 +1,111 @@
+package com.tangem.blockchain.blockchains.bitcoin
+
+import org.bitcoinj.core.VarInt
+import org.bitcoinj.script.Script
+
+/**
+ * Calculates virtual size of a transaction from types of its inputs and sizes of its output scripts, without
+ * building and serializing it. Signatures are counted with the longest DER encoding, so the estimation is never
+ * less than the size of the signed transaction.
+ */
+internal object BitcoinTransactionSizeCalculator {
+
+    private const val VERSION_SIZE = 4
+    private const val LOCK_TIME_SIZE = 4
+    private const val OUTPOINT_SIZE = 36
+    private const val SEQUENCE_SIZE = 4
+    private const val VALUE_SIZE = 8
+    private const val SEGWIT_MARKER_AND_FLAG_SIZE = 2
+    private const val WITNESS_SCALE_FACTOR = 4
+
+    private const val SIGNATURE_SIZE = 72 // DER signature with 33 bytes r and s, and sighash byte
+    private const val COMPRESSED_PUBLIC_KEY_SIZE = 33
+    private const val MAX_SINGLE_BYTE_PUSH = 75
+    private const val MAX_PUSHDATA1 = 0xff
+
+    private const val P2PKH_SCRIPT_SIZE = 25
+    private const val P2SH_SCRIPT_SIZE = 23
+    private const val P2WPKH_SCRIPT_SIZE = 22
+    private const val P2WSH_SCRIPT_SIZE = 34
+
+    /**
+     * @param inputs types of spent outputs
+     * @param outputScriptSizes sizes of output scripts, see [outputScriptSize]
+     */
+    fun virtualSize(inputs: List<BitcoinInputType>, outputScriptSizes: List<Int>): Int {
+        var baseSize = VERSION_SIZE + VarInt.sizeOf(inputs.size.toLong()) +
+            VarInt.sizeOf(outputScriptSizes.size.toLong()) + LOCK_TIME_SIZE
+        var witnessSize = 0
+        var hasWitness = false
+
+        for (input in inputs) {
+            val scriptSigSize = input.scriptSigSize
+            baseSize += OUTPOINT_SIZE + VarInt.sizeOf(scriptSigSize.toLong()) + scriptSigSize + SEQUENCE_SIZE
+            // inputs without witness still have an empty stack in a segwit transaction
+            witnessSize += maxOf(input.witnessSize, 1)
+            hasWitness = hasWitness || input.witnessSize > 0
+        }
+        for (scriptSize in outputScriptSizes) {
+            baseSize += VALUE_SIZE + VarInt.sizeOf(scriptSize.toLong()) + scriptSize
+        }
+
+        if (!hasWitness) return baseSize
+
+        val weight = baseSize * WITNESS_SCALE_FACTOR + SEGWIT_MARKER_AND_FLAG_SIZE + witnessSize
+        return (weight + WITNESS_SCALE_FACTOR - 1) / WITNESS_SCALE_FACTOR // round up
+    }
+
+    fun outputScriptSize(scriptType: Script.ScriptType): Int = when (scriptType) {
+        Script.ScriptType.P2PKH -> P2PKH_SCRIPT_SIZE
+        Script.ScriptType.P2SH -> P2SH_SCRIPT_SIZE
+        Script.ScriptType.P2WPKH -> P2WPKH_SCRIPT_SIZE
+        Script.ScriptType.P2WSH -> P2WSH_SCRIPT_SIZE
+        else -> error("Unsupported output script")
+    }
+
+    fun pushSize(dataSize: Int): Int = when {
+        dataSize <= MAX_SINGLE_BYTE_PUSH -> 1 + dataSize
+        dataSize <= MAX_PUSHDATA1 -> 2 + dataSize
+        else -> 3 + dataSize
+    }
+
+    fun witnessItemSize(dataSize: Int): Int = VarInt.sizeOf(dataSize.toLong()) + dataSize
+
+    val signaturePushSize = pushSize(SIGNATURE_SIZE)
+    val signatureWitnessItemSize = witnessItemSize(SIGNATURE_SIZE)
+    val compressedPublicKeyWitnessItemSize = witnessItemSize(COMPRESSED_PUBLIC_KEY_SIZE)
+}
+
+/** Spending of an output, [scriptSigSize] and [witnessSize] are sizes in the signed transaction */
+internal sealed class BitcoinInputType {
+
+    abstract val scriptSigSize: Int
+    abstract val witnessSize: Int
+
+    class P2PKH(publicKeySize: Int) : BitcoinInputType() {
+        override val scriptSigSize = BitcoinTransactionSizeCalculator.signaturePushSize +
+            BitcoinTransactionSizeCalculator.pushSize(publicKeySize)
+        override val witnessSize = 0
+    }
+
+    /** OP_0, signatures and redeem script */
+    class P2SHMultisig(signaturesCount: Int, redeemScriptSize: Int) : BitcoinInputType() {
+        override val scriptSigSize = 1 + signaturesCount * BitcoinTransactionSizeCalculator.signaturePushSize +
+            BitcoinTransactionSizeCalculator.pushSize(redeemScriptSize)
+        override val witnessSize = 0
+    }
+
+    object P2WPKH : BitcoinInputType() {
+        override val scriptSigSize = 0
+        override val witnessSize = VarInt.sizeOf(2) + BitcoinTransactionSizeCalculator.signatureWitnessItemSize +
+            BitcoinTransactionSizeCalculator.compressedPublicKeyWitnessItemSize
+    }
+
+    /** Empty item, signatures and witness script */
+    class P2WSHMultisig(signaturesCount: Int, witnessScriptSize: Int) : BitcoinInputType() {
+        override val scriptSigSize = 0
+        override val witnessSize = VarInt.sizeOf(signaturesCount + 2L) + 1 +
+            signaturesCount * BitcoinTransactionSizeCalculator.signatureWitnessItemSize +
+            BitcoinTransactionSizeCalculator.witnessItemSize(witnessScriptSize)
+    }
+}
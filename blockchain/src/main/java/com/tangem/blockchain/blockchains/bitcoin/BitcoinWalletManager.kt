@@ -11,6 +11,7 @@ import com.tangem.blockchain.common.txhistory.DefaultTransactionHistoryProvider
 import com.tangem.blockchain.common.txhistory.TransactionHistoryProvider
 import com.tangem.blockchain.extensions.Result
 import com.tangem.blockchain.extensions.SimpleResult
+import com.tangem.blockchain.extensions.successOr
 import com.tangem.common.CompletionResult
 import com.tangem.common.extensions.toHexString
 import kotlinx.coroutines.async
@@ -101,7 +102,7 @@ open class BitcoinWalletManager(
         } else {
             when (response.hasUnconfirmed) {
                 true -> wallet.addTransactionDummy()
-                else -> wallet.recentTransactions.clear()
+                else -> wallet.clearRecentTransactions()
             }
         }
     }
@@ -112,20 +113,23 @@ open class BitcoinWalletManager(
     }
 
     override suspend fun send(transactionData: TransactionData, signer: TransactionSigner): SimpleResult {
-        when (val buildTransactionResult = transactionBuilder.buildToSign(transactionData)) {
-            is Result.Failure -> return SimpleResult.Failure(buildTransactionResult.error)
+        when (val prepareResult = transactionBuilder.prepareToSign(transactionData, minimalFee = minimalFee)) {
+            is Result.Failure -> return SimpleResult.Failure(prepareResult.error)
             is Result.Success -> {
-                val signerResult = signer.sign(buildTransactionResult.data, wallet.publicKey)
+                val preparedTransaction = prepareResult.data
+                val signerResult = signer.sign(preparedTransaction.hashesToSign, wallet.publicKey)
                 return when (signerResult) {
                     is CompletionResult.Success -> {
-                        val transactionToSend = transactionBuilder.buildToSend(
-                            signerResult.data.reduce { acc, bytes -> acc + bytes },
+                        val signedTransaction = transactionBuilder.buildToSend(
+                            preparedTransaction = preparedTransaction,
+                            signatures = signerResult.data.reduce { acc, bytes -> acc + bytes },
                         )
-                        val sendResult = networkProvider.sendTransaction(transactionToSend.toHexString())
+                        val sendResult = networkProvider.sendTransaction(signedTransaction.bytes.toHexString())
 
                         if (sendResult is SimpleResult.Success) {
-                            transactionData.hash = transactionBuilder.getTransactionHash().toHexString()
-                            wallet.addOutgoingTransaction(transactionData)
+                            wallet.addOutgoingTransaction(
+                                transactionData.copy(hash = signedTransaction.hash.toHexString()),
+                            )
                         }
                         sendResult
                     }
@@ -140,34 +144,19 @@ open class BitcoinWalletManager(
             when (val feeResult = getBitcoinFeePerKb()) {
                 is Result.Failure -> return feeResult
                 is Result.Success -> {
-                    val feeValue = BigDecimal.ONE.movePointLeft(blockchain.decimals())
-
-                    val newAmount = amount.copy(value = amount.value!! - feeValue)
-
-                    val sizeResult = transactionBuilder.getEstimateSize(
-                        TransactionData(
-                            amount = newAmount,
-                            fee = Fee.Common(Amount(newAmount, feeValue)),
-                            sourceAddress = wallet.address,
-                            destinationAddress = destination,
-                        ),
+                    // outputs are selected for every rate, so fees of the same transaction differ in its inputs
+                    val transactionData = TransactionData(
+                        amount = amount,
+                        fee = null,
+                        sourceAddress = wallet.address,
+                        destinationAddress = destination,
                     )
-
-                    return when (sizeResult) {
-                        is Result.Failure -> sizeResult
-                        is Result.Success -> {
-                            val transactionSize = sizeResult.data.toBigDecimal()
-                            val minFee = feeResult.data.minimalPerKb.calculateFee(transactionSize)
-                            val normalFee = feeResult.data.normalPerKb.calculateFee(transactionSize)
-                            val priorityFee = feeResult.data.priorityPerKb.calculateFee(transactionSize)
-                            val fees = TransactionFee.Choosable(
-                                minimum = Fee.Common(Amount(minFee, blockchain)),
-                                normal = Fee.Common(Amount(normalFee, blockchain)),
-                                priority = Fee.Common(Amount(priorityFee, blockchain)),
-                            )
-                            Result.Success(fees)
-                        }
-                    }
+                    val fees = TransactionFee.Choosable(
+                        minimum = getFee(transactionData, feeResult.data.minimalPerKb).successOr { return it },
+                        normal = getFee(transactionData, feeResult.data.normalPerKb).successOr { return it },
+                        priority = getFee(transactionData, feeResult.data.priorityPerKb).successOr { return it },
+                    )
+                    return Result.Success(fees)
                 }
             }
         } catch (exception: Exception) {
@@ -188,14 +177,13 @@ open class BitcoinWalletManager(
 
     protected open suspend fun getBitcoinFeePerKb(): Result<BitcoinFee> = networkProvider.getFee()
 
-    protected open fun BigDecimal.calculateFee(transactionSize: BigDecimal): BigDecimal {
-        val feePerKb = maxOf(a = this, b = minimalFeePerKb)
-        val calculatedFee = feePerKb
+    /** Fee paying [feePerKb], but not less than [minimalFeePerKb] and [minimalFee] */
+    private fun getFee(transactionData: TransactionData, feePerKb: BigDecimal): Result<Fee.Bitcoin> {
+        val satoshiPerByte = maxOf(a = feePerKb, b = minimalFeePerKb)
+            .movePointRight(blockchain.decimals())
             .divide(BigDecimal(BYTES_IN_KB))
-            .multiply(transactionSize)
-            .setScale(blockchain.decimals(), BigDecimal.ROUND_DOWN)
 
-        return maxOf(calculatedFee, minimalFee)
+        return transactionBuilder.getFee(transactionData, satoshiPerByte, minimalFee)
     }
 
     companion object {
@@ -0,0 +1,77 @@
+package com.tangem.blockchain.blockchains.bitcoin
+
+import org.bitcoinj.core.Coin
+import org.bitcoinj.core.Sha256Hash
+import org.bitcoinj.core.Transaction
+import org.bitcoinj.core.UnsafeByteArrayOutputStream
+import org.bitcoinj.core.Utils.uint32ToByteStreamLE
+import org.bitcoinj.core.Utils.uint64ToByteStreamLE
+import org.bitcoinj.core.VarInt
+import org.bitcoinj.crypto.TransactionSignature
+import org.bitcoinj.script.Script
+import java.io.ByteArrayOutputStream
+
+/**
+ * BIP143 signature hashes for SIGHASH_ALL of [transaction] inputs. Unlike [Transaction.hashForWitnessSignature],
+ * hashes of all prevouts, sequences and outputs are calculated once and reused for every input.
+ *
+ * Inputs and outputs of [transaction] must not be changed after the context is created.
+ */
+internal class BitcoinWitnessSigHashContext(private val transaction: Transaction) {
+
+    private val hashPrevouts: ByteArray = hashTwice {
+        transaction.inputs.forEach { input ->
+            write(input.outpoint.hash.reversedBytes)
+            uint32ToByteStreamLE(input.outpoint.index, this)
+        }
+    }
+
+    private val hashSequence: ByteArray = hashTwice {
+        transaction.inputs.forEach { uint32ToByteStreamLE(it.sequenceNumber, this) }
+    }
+
+    private val hashOutputs: ByteArray = hashTwice {
+        transaction.outputs.forEach { output ->
+            uint64ToByteStreamLE(output.value.value.toBigInteger(), this)
+            write(VarInt(output.scriptBytes.size.toLong()).encode())
+            write(output.scriptBytes)
+        }
+    }
+
+    /**
+     * @param inputIndex index of the signed input
+     * @param scriptCode script code of the input, P2PKH script for P2WPKH
+     * @param prevValue value of the output spent by the input
+     */
+    fun hashForSignature(inputIndex: Int, scriptCode: Script, prevValue: Coin): Sha256Hash {
+        val input = transaction.inputs[inputIndex]
+        val program = scriptCode.program
+
+        val bos = UnsafeByteArrayOutputStream(INITIAL_BUFFER_SIZE + program.size)
+        uint32ToByteStreamLE(transaction.version, bos)
+        bos.write(hashPrevouts)
+        bos.write(hashSequence)
+        bos.write(input.outpoint.hash.reversedBytes)
+        uint32ToByteStreamLE(input.outpoint.index, bos)
+        bos.write(VarInt(program.size.toLong()).encode())
+        bos.write(program)
+        uint64ToByteStreamLE(prevValue.value.toBigInteger(), bos)
+        uint32ToByteStreamLE(input.sequenceNumber, bos)
+        bos.write(hashOutputs)
+        uint32ToByteStreamLE(transaction.lockTime, bos)
+        uint32ToByteStreamLE(SIG_HASH_ALL, bos)
+
+        return Sha256Hash.twiceOf(bos.toByteArray())
+    }
+
+    private inline fun hashTwice(block: ByteArrayOutputStream.() -> Unit): ByteArray {
+        val bos = UnsafeByteArrayOutputStream(INITIAL_BUFFER_SIZE)
+        bos.block()
+        return Sha256Hash.hashTwice(bos.toByteArray())
+    }
+
+    private companion object {
+        const val INITIAL_BUFFER_SIZE = 256
+        val SIG_HASH_ALL = TransactionSignature.calcSigHashValue(Transaction.SigHash.ALL, false).toLong()
+    }
+}
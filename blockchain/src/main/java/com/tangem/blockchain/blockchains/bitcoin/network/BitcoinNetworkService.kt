@@ -16,7 +16,7 @@ open class BitcoinNetworkService(providers: List<BitcoinNetworkProvider>) : Bitc
         get() = multiProvider.currentProvider.baseUrl
 
     override suspend fun getInfo(address: String): Result<BitcoinAddressInfo> =
-        multiProvider.performRequest(BitcoinNetworkProvider::getInfo, address)
+        multiProvider.performRequest(BitcoinNetworkProvider::getInfo, address, isHedged = true)
 
     override suspend fun getFee(): Result<BitcoinFee> {
         return coroutineScope {
@@ -15,6 +15,7 @@ import com.tangem.blockchain.network.blockbook.network.responses.GetAddressRespo
 import com.tangem.blockchain.network.blockbook.network.responses.GetUtxoResponseItem
 import com.tangem.common.extensions.hexToBytes
 import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.async
 import kotlinx.coroutines.withContext
 import java.math.BigDecimal
 import java.math.RoundingMode
@@ -33,8 +34,10 @@ class BitcoinCashNowNodesNetworkProvider(
 
     override suspend fun getInfo(address: String): Result<BitcoinAddressInfo> {
         return try {
-            val getAddressResponse = withContext(Dispatchers.IO) { api.getAddress(address) }
-            val getUtxoResponseItems = withContext(Dispatchers.IO) { api.getUtxo(address) }
+            val (getAddressResponse, getUtxoResponseItems) = withContext(Dispatchers.IO) {
+                val getUtxoResponseItems = async { api.getUtxo(address) }
+                api.getAddress(address) to getUtxoResponseItems.await()
+            }
             val balance = getAddressResponse.balance.toBigDecimalOrNull() ?: BigDecimal.ZERO
 
             Result.Success(
@@ -39,72 +39,111 @@ public class BitcoinCashTransaction extends Transaction {
             SigHash type,
             boolean anyoneCanPay)
     {
-        byte sigHashType = (byte) TransactionSignature.calcSigHashValue(type, anyoneCanPay);
-        sigHashType |= SIGHASH_FORK_ID;
-
-        ByteArrayOutputStream bos = new UnsafeByteArrayOutputStream(length == UNKNOWN_LENGTH ? 256 : length + 4);
-        try {
-            byte[] hashPrevouts = new byte[32];
-            byte[] hashSequence = new byte[32];
-            byte[] hashOutputs = new byte[32];
-            anyoneCanPay = (sigHashType & SIGHASH_ANYONECANPAY_VALUE) == SIGHASH_ANYONECANPAY_VALUE;
-            List<TransactionInput> inputs = getInputs();
-            List<TransactionOutput> outputs = getOutputs();
-
-            if (!anyoneCanPay) {
-                ByteArrayOutputStream bosHashPrevouts = new UnsafeByteArrayOutputStream(256);
-                for (int i = 0; i < inputs.size(); ++i) {
-                    bosHashPrevouts.write(inputs.get(i).getOutpoint().getHash().getReversedBytes());
-                    uint32ToByteStreamLE(inputs.get(i).getOutpoint().getIndex(), bosHashPrevouts);
+        return createSigHashContext(type, anyoneCanPay).hashForSignatureWitness(inputIndex, connectedScript, prevValue);
+    }
+
+    // aggregate hashes of inputs and outputs are the same for every input, so they are calculated once per context.
+    // context must not be used after inputs or outputs of the transaction are changed
+    public synchronized SigHashContext createSigHashContext(SigHash type, boolean anyoneCanPay) {
+        return new SigHashContext(type, anyoneCanPay);
+    }
+
+    public final class SigHashContext {
+        private final SigHash type;
+        private final byte sigHashType;
+        private final byte[] hashPrevouts;
+        private final byte[] hashSequence;
+        private final byte[] hashOutputs;
+
+        private SigHashContext(SigHash type, boolean anyoneCanPay) {
+            byte sigHashType = (byte) TransactionSignature.calcSigHashValue(type, anyoneCanPay);
+            sigHashType |= SIGHASH_FORK_ID;
+            this.type = type;
+            this.sigHashType = sigHashType;
+
+            try {
+                anyoneCanPay = (sigHashType & SIGHASH_ANYONECANPAY_VALUE) == SIGHASH_ANYONECANPAY_VALUE;
+                List<TransactionInput> inputs = getInputs();
+                List<TransactionOutput> outputs = getOutputs();
+
+                byte[] hashPrevouts = new byte[32];
+                if (!anyoneCanPay) {
+                    ByteArrayOutputStream bosHashPrevouts = new UnsafeByteArrayOutputStream(256);
+                    for (int i = 0; i < inputs.size(); ++i) {
+                        bosHashPrevouts.write(inputs.get(i).getOutpoint().getHash().getReversedBytes());
+                        uint32ToByteStreamLE(inputs.get(i).getOutpoint().getIndex(), bosHashPrevouts);
+                    }
+                    hashPrevouts = Sha256Hash.hashTwice(bosHashPrevouts.toByteArray());
                 }
-                hashPrevouts = Sha256Hash.hashTwice(bosHashPrevouts.toByteArray());
-            }
+                this.hashPrevouts = hashPrevouts;
+
+                byte[] hashSequence = new byte[32];
+                if (!anyoneCanPay && type != SigHash.SINGLE && type != SigHash.NONE) {
+                    ByteArrayOutputStream bosSequence = new UnsafeByteArrayOutputStream(256);
+                    for (int i = 0; i < inputs.size(); ++i) {
+                        uint32ToByteStreamLE(inputs.get(i).getSequenceNumber(), bosSequence);
+                    }
+                    hashSequence = Sha256Hash.hashTwice(bosSequence.toByteArray());
+                }
+                this.hashSequence = hashSequence;
 
-            if (!anyoneCanPay && type != SigHash.SINGLE && type != SigHash.NONE) {
-                ByteArrayOutputStream bosSequence = new UnsafeByteArrayOutputStream(256);
-                for (int i = 0; i < inputs.size(); ++i) {
-                    uint32ToByteStreamLE(inputs.get(i).getSequenceNumber(), bosSequence);
+                // for SINGLE hash of outputs depends on the input and is calculated for it
+                byte[] hashOutputs = new byte[32];
+                if (type != SigHash.SINGLE && type != SigHash.NONE) {
+                    ByteArrayOutputStream bosHashOutputs = new UnsafeByteArrayOutputStream(256);
+                    for (int i = 0; i < outputs.size(); ++i) {
+                        writeOutput(outputs.get(i), bosHashOutputs);
+                    }
+                    hashOutputs = Sha256Hash.hashTwice(bosHashOutputs.toByteArray());
                 }
-                hashSequence = Sha256Hash.hashTwice(bosSequence.toByteArray());
+                this.hashOutputs = hashOutputs;
+            } catch (IOException e) {
+                throw new RuntimeException(e);  // Cannot happen.
             }
+        }
+
+        public Sha256Hash hashForSignatureWitness(int inputIndex, byte[] connectedScript, Coin prevValue) {
+            synchronized (BitcoinCashTransaction.this) {
+                return calculateHash(inputIndex, connectedScript, prevValue);
+            }
+        }
 
-            if (type != SigHash.SINGLE && type != SigHash.NONE) {
-                ByteArrayOutputStream bosHashOutputs = new UnsafeByteArrayOutputStream(256);
-                for (int i = 0; i < outputs.size(); ++i) {
-                    uint64ToByteStreamLE(
-                            BigInteger.valueOf(outputs.get(i).getValue().getValue()),
-                            bosHashOutputs
-                    );
-                    bosHashOutputs.write(new VarInt(outputs.get(i).getScriptBytes().length).encode());
-                    bosHashOutputs.write(outputs.get(i).getScriptBytes());
+        private Sha256Hash calculateHash(int inputIndex, byte[] connectedScript, Coin prevValue) {
+            ByteArrayOutputStream bos = new UnsafeByteArrayOutputStream(length == UNKNOWN_LENGTH ? 256 : length + 4);
+            try {
+                List<TransactionInput> inputs = getInputs();
+                List<TransactionOutput> outputs = getOutputs();
+
+                byte[] hashOutputs = this.hashOutputs;
+                if (type == SigHash.SINGLE && inputIndex < outputs.size()) {
+                    ByteArrayOutputStream bosHashOutputs = new UnsafeByteArrayOutputStream(256);
+                    writeOutput(outputs.get(inputIndex), bosHashOutputs);
+                    hashOutputs = Sha256Hash.hashTwice(bosHashOutputs.toByteArray());
                 }
-                hashOutputs = Sha256Hash.hashTwice(bosHashOutputs.toByteArray());
-            } else if (type == SigHash.SINGLE && inputIndex < outputs.size()) {
-                ByteArrayOutputStream bosHashOutputs = new UnsafeByteArrayOutputStream(256);
-                uint64ToByteStreamLE(
-                        BigInteger.valueOf(outputs.get(inputIndex).getValue().getValue()),
-                        bosHashOutputs
-                );
-                bosHashOutputs.write(new VarInt(outputs.get(inputIndex).getScriptBytes().length).encode());
-                bosHashOutputs.write(outputs.get(inputIndex).getScriptBytes());
-                hashOutputs = Sha256Hash.hashTwice(bosHashOutputs.toByteArray());
+
+                uint32ToByteStreamLE(getVersion(), bos);
+                bos.write(hashPrevouts);
+                bos.write(hashSequence);
+                bos.write(inputs.get(inputIndex).getOutpoint().getHash().getReversedBytes());
+                uint32ToByteStreamLE(inputs.get(inputIndex).getOutpoint().getIndex(), bos);
+                bos.write(new VarInt(connectedScript.length).encode());
+                bos.write(connectedScript);
+                uint64ToByteStreamLE(BigInteger.valueOf(prevValue.getValue()), bos);
+                uint32ToByteStreamLE(inputs.get(inputIndex).getSequenceNumber(), bos);
+                bos.write(hashOutputs);
+                uint32ToByteStreamLE(getLockTime(), bos);
+                uint32ToByteStreamLE(0x000000ff & sigHashType, bos);
+            } catch (IOException e) {
+                throw new RuntimeException(e);  // Cannot happen.
             }
-            uint32ToByteStreamLE(getVersion(), bos);
-            bos.write(hashPrevouts);
-            bos.write(hashSequence);
-            bos.write(inputs.get(inputIndex).getOutpoint().getHash().getReversedBytes());
-            uint32ToByteStreamLE(inputs.get(inputIndex).getOutpoint().getIndex(), bos);
-            bos.write(new VarInt(connectedScript.length).encode());
-            bos.write(connectedScript);
-            uint64ToByteStreamLE(BigInteger.valueOf(prevValue.getValue()), bos);
-            uint32ToByteStreamLE(inputs.get(inputIndex).getSequenceNumber(), bos);
-            bos.write(hashOutputs);
-            uint32ToByteStreamLE(getLockTime(), bos);
-            uint32ToByteStreamLE(0x000000ff & sigHashType, bos);
-        } catch (IOException e) {
-            throw new RuntimeException(e);  // Cannot happen.
+
+            return Sha256Hash.twiceOf(bos.toByteArray());
         }
+    }
 
-        return Sha256Hash.twiceOf(bos.toByteArray());
+    private void writeOutput(TransactionOutput output, ByteArrayOutputStream bos) throws IOException {
+        uint64ToByteStreamLE(BigInteger.valueOf(output.getValue().getValue()), bos);
+        bos.write(new VarInt(output.getScriptBytes().length).encode());
+        bos.write(output.getScriptBytes());
     }
 }
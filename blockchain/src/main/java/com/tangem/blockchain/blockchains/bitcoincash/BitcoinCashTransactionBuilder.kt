@@ -1,11 +1,10 @@
 package com.tangem.blockchain.blockchains.bitcoincash
 
 import com.tangem.blockchain.blockchains.bitcoin.BitcoinTransactionBuilder
+import com.tangem.blockchain.blockchains.bitcoin.BitcoinTransactionSizeCalculator
 import com.tangem.blockchain.blockchains.bitcoin.BitcoinUnspentOutput
 import com.tangem.blockchain.common.Blockchain
-import com.tangem.blockchain.common.BlockchainSdkError
 import com.tangem.blockchain.common.TransactionData
-import com.tangem.blockchain.extensions.Result
 import com.tangem.common.extensions.isZero
 import com.tangem.common.extensions.toCompressedPublicKey
 import org.bitcoinj.core.*
@@ -17,30 +16,24 @@ import java.math.BigInteger
 class BitcoinCashTransactionBuilder(walletPublicKey: ByteArray, private val blockchain: Blockchain) :
     BitcoinTransactionBuilder(walletPublicKey.toCompressedPublicKey(), blockchain) {
 
-    override fun buildToSign(transactionData: TransactionData): Result<List<ByteArray>> {
-        if (unspentOutputs.isNullOrEmpty()) {
-            return Result.Failure(
-                BlockchainSdkError.CustomError("Unspent outputs are missing"),
-            )
-        }
-
-        val change: BigDecimal = calculateChange(transactionData, unspentOutputs!!)
-
-        transaction = transactionData.toBitcoinCashTransaction(networkParameters, unspentOutputs!!, change, blockchain)
+    override fun createTransaction(
+        transactionData: TransactionData,
+        outputsToSend: List<BitcoinUnspentOutput>,
+        change: BigDecimal,
+    ): Transaction {
+        return transactionData.toBitcoinCashTransaction(networkParameters, outputsToSend, change, blockchain)
+    }
 
+    override fun getHashesToSign(transaction: Transaction, outputsToSend: List<BitcoinUnspentOutput>): List<ByteArray> {
+        val sigHashContext = (transaction as BitcoinCashTransaction)
+            .createSigHashContext(Transaction.SigHash.ALL, false)
         val hashesForSign: MutableList<ByteArray> = MutableList(transaction.inputs.size) { byteArrayOf() }
         for (input in transaction.inputs) {
             val index = input.index
-            val value = Coin.parseCoin(unspentOutputs!![index].amount.toString())
-            hashesForSign[index] = getTransaction().hashForSignatureWitness(
-                index,
-                input.scriptBytes,
-                value,
-                Transaction.SigHash.ALL,
-                false,
-            ).bytes
+            val value = Coin.parseCoin(outputsToSend[index].amount.toString())
+            hashesForSign[index] = sigHashContext.hashForSignatureWitness(index, input.scriptBytes, value).bytes
         }
-        return Result.Success(hashesForSign)
+        return hashesForSign
     }
 
     @Suppress("MagicNumber")
@@ -52,7 +45,14 @@ class BitcoinCashTransactionBuilder(walletPublicKey: ByteArray, private val bloc
         return TransactionSignature(r, canonicalS, sigHash)
     }
 
-    private fun getTransaction() = transaction as BitcoinCashTransaction
+    override fun getOutputScriptSize(address: String): Int {
+        // cash addresses are sent to P2PKH script, see toBitcoinCashTransaction
+        return if (BitcoinCashAddressService(blockchain).validateCashAddrAddress(address)) {
+            BitcoinTransactionSizeCalculator.outputScriptSize(Script.ScriptType.P2PKH)
+        } else {
+            super.getOutputScriptSize(address)
+        }
+    }
 }
 
 internal fun TransactionData.toBitcoinCashTransaction(
@@ -0,0 +1,38 @@
+package com.tangem.blockchain.blockchains.cardano
+
+import com.tangem.blockchain.common.BlockchainSdkError
+import wallet.core.jni.CoinType
+import wallet.core.jni.TransactionCompiler
+import wallet.core.jni.proto.Cardano
+import wallet.core.jni.proto.Common
+import wallet.core.jni.proto.TransactionCompiler.PreSigningOutput
+
+/**
+ * Signing input of a [transfer] with its plan. Wallet-core takes the plan from the input instead of planning
+ * again, so the input is serialized and planned once for fee estimation, signing and sending
+ */
+internal class CardanoPreparedTransaction(
+    val transfer: Transfer,
+    val signingInput: Cardano.SigningInput,
+) {
+
+    val plan: Cardano.TransactionPlan
+        get() = signingInput.plan
+
+    val dataHash: ByteArray by lazy {
+        val preImageHashes = TransactionCompiler.preImageHashes(CoinType.CARDANO, signingInput.toByteArray())
+        val preSigningOutput = PreSigningOutput.parseFrom(preImageHashes)
+
+        if (preSigningOutput.error != Common.SigningError.OK) {
+            throw BlockchainSdkError.FailedToBuildTx
+        }
+
+        preSigningOutput.dataHash.toByteArray()
+    }
+
+    data class Transfer(
+        val destinationAddress: String,
+        val changeAddress: String,
+        val amount: Long,
+    )
+}
@@ -1,7 +1,6 @@
 package com.tangem.blockchain.blockchains.cardano
 
 import com.google.protobuf.ByteString
-import com.tangem.blockchain.common.Blockchain
 import com.tangem.blockchain.common.BlockchainSdkError
 import com.tangem.blockchain.common.TransactionData
 import wallet.core.java.AnySigner
@@ -10,38 +9,40 @@ import wallet.core.jni.DataVector
 import wallet.core.jni.TransactionCompiler
 import wallet.core.jni.proto.Cardano
 import wallet.core.jni.proto.Common
-import wallet.core.jni.proto.TransactionCompiler.PreSigningOutput
 import java.math.BigDecimal
 
 // You can decode your CBOR transaction here: https://cbor.me
 class CardanoTransactionBuilder {
 
-    private var outputs: List<CardanoUnspentOutput> = emptyList()
     private val coinType: CoinType = CoinType.CARDANO
-    private var decimalValue: Int = Blockchain.Cardano.decimals()
+
+    // latest known outputs of the wallet, they are taken as a snapshot by every prepared transaction
+    @Volatile
+    private var outputs: List<CardanoUnspentOutput> = emptyList()
+
+    // transaction of the last transfer, valid for the outputs it was prepared of
+    @Volatile
+    private var lastTransaction: CachedTransaction? = null
 
     fun update(outputs: List<CardanoUnspentOutput>) {
         this.outputs = outputs
     }
 
     internal fun buildForSign(transaction: TransactionData): ByteArray {
-        val input = buildCardanoSigningInput(transaction)
-        val txInputData = input.toByteArray()
-
-        val preImageHashes = TransactionCompiler.preImageHashes(coinType, txInputData)
-        val preSigningOutput = PreSigningOutput.parseFrom(preImageHashes)
+        return buildForSign(prepare(transaction))
+    }
 
-        if (preSigningOutput.error != Common.SigningError.OK) {
-            throw BlockchainSdkError.FailedToBuildTx
-        }
+    internal fun buildForSign(transaction: CardanoPreparedTransaction): ByteArray {
+        return transaction.dataHash
+    }
 
-        return preSigningOutput.dataHash.toByteArray()
+    internal fun buildForSend(transaction: TransactionData, signatureInfo: SignatureInfo): ByteArray {
+        return buildForSend(prepare(transaction), signatureInfo)
     }
 
     @Suppress("MagicNumber")
-    internal fun buildForSend(transaction: TransactionData, signatureInfo: SignatureInfo): ByteArray {
-        val input = buildCardanoSigningInput(transaction)
-        val txInputData = input.toByteArray()
+    internal fun buildForSend(transaction: CardanoPreparedTransaction, signatureInfo: SignatureInfo): ByteArray {
+        val txInputData = transaction.signingInput.toByteArray()
 
         val signatures = DataVector()
         signatures.add(signatureInfo.signature)
@@ -77,14 +78,82 @@ class CardanoTransactionBuilder {
     }
 
     fun estimatedFee(transaction: TransactionData): BigDecimal {
-        val input = buildCardanoSigningInput(transaction)
+        return BigDecimal(prepare(transaction).plan.fee)
+    }
+
+    /**
+     * Prepares [transaction] spending [outputs]. The result doesn't depend on the builder state, so transactions can
+     * be prepared and sent concurrently
+     *
+     * @param outputs snapshot of outputs to spend, latest known outputs by default
+     */
+    internal fun prepare(
+        transaction: TransactionData,
+        outputs: List<CardanoUnspentOutput> = this.outputs,
+    ): CardanoPreparedTransaction {
+        if (outputs.isEmpty()) {
+            throw BlockchainSdkError.CustomError("Outputs are empty")
+        }
+
+        val transfer = CardanoPreparedTransaction.Transfer(
+            destinationAddress = transaction.destinationAddress,
+            changeAddress = transaction.sourceAddress,
+            amount = transaction.amount.longValue!!,
+        )
+        lastTransaction
+            ?.takeIf { it.outputs === outputs && it.transaction.transfer == transfer }
+            ?.let { return it.transaction }
+
+        val preselectedOutputs = preselectOutputs(transfer.amount, outputs)
+        val prepared = plan(transfer, preselectedOutputs)
+            .takeIf { it.plan.error == Common.SigningError.OK || preselectedOutputs.size == outputs.size }
+            ?: plan(transfer, outputs)
+
+        // change output below the minimum ADA per UTxO is rejected by the network
+        if (prepared.plan.change in 1 until MIN_CHANGE) {
+            throw BlockchainSdkError.FailedToBuildTx
+        }
+
+        lastTransaction = CachedTransaction(outputs, prepared)
+        return prepared
+    }
+
+    /**
+     * The largest outputs covering [amount] with a margin for fee and change. Wallet-core selects coins only among
+     * given outputs, so the rest of them isn't serialized and planned at all
+     */
+    private fun preselectOutputs(amount: Long, outputs: List<CardanoUnspentOutput>): List<CardanoUnspentOutput> {
+        val targetAmount = amount + PRESELECTION_MARGIN
+        val selectedOutputs = mutableListOf<CardanoUnspentOutput>()
+        var selectedAmount = 0L
+
+        for (output in outputs.sortedByDescending(CardanoUnspentOutput::amount)) {
+            if (selectedAmount >= targetAmount) break
+            selectedOutputs.add(output)
+            selectedAmount += output.amount
+        }
+
+        return selectedOutputs
+    }
+
+    private fun plan(
+        transfer: CardanoPreparedTransaction.Transfer,
+        outputs: List<CardanoUnspentOutput>,
+    ): CardanoPreparedTransaction {
+        val input = buildCardanoSigningInput(transfer, outputs)
         val plan = AnySigner.plan(input, coinType, Cardano.TransactionPlan.parser())
 
-        return BigDecimal(plan.fee)
+        return CardanoPreparedTransaction(
+            transfer = transfer,
+            signingInput = input.toBuilder().setPlan(plan).build(),
+        )
     }
 
     @Suppress("MagicNumber")
-    private fun buildCardanoSigningInput(transaction: TransactionData): Cardano.SigningInput {
+    private fun buildCardanoSigningInput(
+        transfer: CardanoPreparedTransaction.Transfer,
+        outputs: List<CardanoUnspentOutput>,
+    ): Cardano.SigningInput {
         val utxos = outputs.map { output ->
             Cardano.TxInput.newBuilder()
                 .setOutPoint(
@@ -98,32 +167,32 @@ class CardanoTransactionBuilder {
                 .build()
         }
 
-        val input = Cardano.SigningInput.newBuilder()
+        return Cardano.SigningInput.newBuilder()
             .setTransferMessage(
                 Cardano.Transfer.newBuilder()
-                    .setToAddress(transaction.destinationAddress)
-                    .setChangeAddress(transaction.sourceAddress)
-                    .setAmount(transaction.amount.longValue!!)
+                    .setToAddress(transfer.destinationAddress)
+                    .setChangeAddress(transfer.changeAddress)
+                    .setAmount(transfer.amount)
                     .setUseMaxAmount(false),
             )
             .setTtl(190000000)
             .addAllUtxos(utxos)
             .build()
+    }
 
-        if (outputs.isEmpty()) {
-            throw BlockchainSdkError.CustomError("Outputs are empty")
-        }
+    @Suppress("MagicNumber")
+    private fun ByteArray.isExtendedPublicKey() = this.size == 128
 
-        val minChange = decimalValue.toBigInteger().toLong()
-        val acceptableChangeRange = 1L..minChange
+    private class CachedTransaction(
+        val outputs: List<CardanoUnspentOutput>,
+        val transaction: CardanoPreparedTransaction,
+    )
 
-        if (acceptableChangeRange.contains(input.plan.change)) {
-            throw BlockchainSdkError.FailedToBuildTx
-        }
+    private companion object {
+        // 3 ADA in lovelace, enough for fee of hundreds of inputs and for the minimal change output
+        const val PRESELECTION_MARGIN = 3_000_000L
 
-        return input
+        // 1 ADA in lovelace, covers the minimum ADA of an output without tokens
+        const val MIN_CHANGE = 1_000_000L
     }
-
-    @Suppress("MagicNumber")
-    private fun ByteArray.isExtendedPublicKey() = this.size == 128
 }
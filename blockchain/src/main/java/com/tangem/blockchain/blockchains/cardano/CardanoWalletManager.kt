@@ -11,6 +11,7 @@ import com.tangem.blockchain.extensions.SimpleResult
 import com.tangem.common.CompletionResult
 import com.tangem.common.extensions.toHexString
 import java.math.BigDecimal
+import java.util.Locale
 
 class CardanoWalletManager(
     wallet: Wallet,
@@ -41,22 +42,16 @@ class CardanoWalletManager(
 
         transactionBuilder.update(response.unspentOutputs)
 
-        wallet.recentTransactions.forEach { recentTransaction ->
-            if (response.recentTransactionsHashes.isEmpty()) { // case for Rosetta API, it lacks recent transactions
-                if (response.unspentOutputs.isEmpty() ||
-                    response.unspentOutputs.find {
-                        it.transactionHash.toHexString()
-                            .equals(recentTransaction.hash, ignoreCase = true)
-                    } != null
-                ) {
-                    recentTransaction.status = TransactionStatus.Confirmed
-                }
-            } else { // case for APIs with recent transactions
-                val recentTx = response.recentTransactionsHashes.find { it.equals(recentTransaction.hash, true) }
-                if (recentTx != null) {
-                    recentTransaction.status = TransactionStatus.Confirmed
-                }
+        if (response.recentTransactionsHashes.isEmpty()) { // case for Rosetta API, it lacks recent transactions
+            val outputHashes = response.unspentOutputs.mapTo(hashSetOf()) {
+                it.transactionHash.toHexString().lowercase(Locale.US)
+            }
+            wallet.confirmRecentTransactions {
+                outputHashes.isEmpty() || it.hash?.lowercase(Locale.US) in outputHashes
             }
+        } else { // case for APIs with recent transactions
+            val recentHashes = response.recentTransactionsHashes.mapTo(hashSetOf()) { it.lowercase(Locale.US) }
+            wallet.confirmRecentTransactions { it.hash?.lowercase(Locale.US) in recentHashes }
         }
     }
 
@@ -66,18 +61,18 @@ class CardanoWalletManager(
     }
 
     override suspend fun send(transactionData: TransactionData, signer: TransactionSigner): SimpleResult {
-        val transactionHash = transactionBuilder.buildForSign(transactionData)
+        val preparedTransaction = transactionBuilder.prepare(transactionData)
+        val transactionHash = transactionBuilder.buildForSign(preparedTransaction)
 
         return when (val signatureResult = signer.sign(transactionHash, wallet.publicKey)) {
             is CompletionResult.Success -> {
                 val signatureInfo = SignatureInfo(signatureResult.data, wallet.publicKey.blockchainKey)
 
-                val transactionToSend = transactionBuilder.buildForSend(transactionData, signatureInfo)
+                val transactionToSend = transactionBuilder.buildForSend(preparedTransaction, signatureInfo)
                 val sendResult = networkProvider.sendTransaction(transactionToSend)
 
                 if (sendResult is SimpleResult.Success) {
-                    transactionData.hash = transactionHash.toHexString()
-                    wallet.addOutgoingTransaction(transactionData)
+                    wallet.addOutgoingTransaction(transactionData.copy(hash = transactionHash.toHexString()))
                 }
 
                 sendResult
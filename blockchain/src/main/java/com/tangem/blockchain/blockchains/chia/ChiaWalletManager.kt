@@ -37,7 +37,7 @@ class ChiaWalletManager(
 
         if (balance != wallet.amounts[AmountType.Coin]?.value) {
             // assume outgoing transaction has been finalized if balance has changed
-            wallet.recentTransactions.clear()
+            wallet.clearRecentTransactions()
         }
         wallet.changeAmountValue(AmountType.Coin, balance)
         transactionBuilder.unspentCoins = unspentCoins
@@ -59,8 +59,9 @@ class ChiaWalletManager(
                         val sendResult = networkProvider.sendTransaction(transactionToSend)
 
                         if (sendResult is SimpleResult.Success) {
-                            transactionData.hash = transactionToSend.spendBundle.aggregatedSignature
-                            wallet.addOutgoingTransaction(transactionData)
+                            wallet.addOutgoingTransaction(
+                                transactionData.copy(hash = transactionToSend.spendBundle.aggregatedSignature),
+                            )
                         }
                         sendResult
                     }
@@ -95,7 +95,7 @@ class CosmosWalletManager(
                     status = TransactionStatus.Unconfirmed,
                     sourceAddress = wallet.address,
                 )
-                wallet.recentTransactions.add(transaction)
+                wallet.addRecentTransactions(listOf(transaction), skipKnownHashes = false)
                 SimpleResult.Success
             }
         }
@@ -162,9 +162,7 @@ class CosmosWalletManager(
     }
 
     private fun updateWallet(cosmosAccountInfo: CosmosAccountInfo) {
-        wallet.recentTransactions.forEach {
-            if (cosmosAccountInfo.confirmedTransactionHashes.contains(it.hash)) it.status = TransactionStatus.Confirmed
-        }
+        wallet.confirmRecentTransactions { cosmosAccountInfo.confirmedTransactionHashes.contains(it.hash) }
         wallet.setAmount(cosmosAccountInfo.amount)
         accountNumber = cosmosAccountInfo.accountNumber
         sequenceNumber = cosmosAccountInfo.sequenceNumber
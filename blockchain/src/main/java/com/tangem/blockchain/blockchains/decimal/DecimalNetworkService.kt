@@ -5,6 +5,7 @@ import com.tangem.blockchain.blockchains.ethereum.network.EthereumJsonRpcProvide
 import com.tangem.blockchain.blockchains.ethereum.network.EthereumNetworkService
 import com.tangem.blockchain.common.Token
 import com.tangem.blockchain.extensions.Result
+import com.tangem.blockchain.network.TokenBalances
 import com.tangem.blockchain.network.blockchair.BlockchairToken
 import java.math.BigDecimal
 import java.math.BigInteger
@@ -25,7 +26,7 @@ internal class DecimalNetworkService(
         return super.getSignatureCount(convertAddress(address))
     }
 
-    override suspend fun getTokensBalance(address: String, tokens: Set<Token>): Result<Map<Token, BigDecimal>> {
+    override suspend fun getTokensBalance(address: String, tokens: Set<Token>): Result<TokenBalances<BigDecimal>> {
         return super.getTokensBalance(convertAddress(address), tokens)
     }
 
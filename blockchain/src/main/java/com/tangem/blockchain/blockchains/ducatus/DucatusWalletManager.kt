@@ -4,11 +4,10 @@ import com.tangem.blockchain.blockchains.bitcoin.BitcoinTransactionBuilder
 import com.tangem.blockchain.blockchains.bitcoin.BitcoinWalletManager
 import com.tangem.blockchain.blockchains.bitcoin.network.BitcoinNetworkProvider
 import com.tangem.blockchain.common.*
-import com.tangem.blockchain.common.transaction.Fee
 import com.tangem.blockchain.common.transaction.TransactionFee
 import com.tangem.blockchain.common.txhistory.TransactionHistoryProvider
 import com.tangem.blockchain.extensions.Result
-import java.math.BigDecimal
+import com.tangem.blockchain.extensions.successOr
 
 class DucatusWalletManager(
     wallet: Wallet,
@@ -28,7 +27,7 @@ class DucatusWalletManager(
 
     override fun updateRecentTransactionsBasic(transactions: List<BasicTransactionData>) {
         if (transactions.isEmpty()) {
-            wallet.recentTransactions.forEach { it.status = TransactionStatus.Confirmed }
+            wallet.confirmRecentTransactions()
         } else if (wallet.recentTransactions.find { it.status == TransactionStatus.Unconfirmed } == null) {
             wallet.addTransactionDummy()
         }
@@ -36,24 +35,20 @@ class DucatusWalletManager(
 
     @Suppress("MagicNumber")
     override suspend fun getFee(amount: Amount, destination: String): Result<TransactionFee> {
-        val feeValue = BigDecimal.ONE.movePointLeft(blockchain.decimals())
-        val sizeResult = transactionBuilder.getEstimateSize(
-            TransactionData(amount, Fee.Common(Amount(amount, feeValue)), wallet.address, destination),
+        val transactionData = TransactionData(
+            amount = amount,
+            fee = null,
+            sourceAddress = wallet.address,
+            destinationAddress = destination,
         )
-        return when (sizeResult) {
-            is Result.Failure -> sizeResult
-            is Result.Success -> {
-                val transactionSize = sizeResult.data.toBigDecimal()
-                val minFee = BigDecimal.valueOf(0.00000089).multiply(transactionSize)
-                val normalFee = BigDecimal.valueOf(0.00000144).multiply(transactionSize)
-                val priorityFee = BigDecimal.valueOf(0.00000350).multiply(transactionSize)
-                val fees = TransactionFee.Choosable(
-                    minimum = Fee.Common(Amount(minFee, blockchain)),
-                    normal = Fee.Common(Amount(normalFee, blockchain)),
-                    priority = Fee.Common(Amount(priorityFee, blockchain)),
-                )
-                Result.Success(fees)
-            }
-        }
+        fun feeFor(satoshiPerByte: Int) =
+            transactionBuilder.getFee(transactionData, satoshiPerByte.toBigDecimal(), minimalFee)
+
+        val fees = TransactionFee.Choosable(
+            minimum = feeFor(satoshiPerByte = 89).successOr { return it },
+            normal = feeFor(satoshiPerByte = 144).successOr { return it },
+            priority = feeFor(satoshiPerByte = 350).successOr { return it },
+        )
+        return Result.Success(fees)
     }
 }
@@ -0,0 +1,181 @@
+package com.tangem.blockchain.blockchains.ethereum
+
+import com.tangem.blockchain.blockchains.ethereum.network.EthereumFeeHistory
+import com.tangem.blockchain.common.Blockchain
+import com.tangem.blockchain.common.cache.ExpiringCache
+import com.tangem.blockchain.extensions.Result
+import com.tangem.blockchain.extensions.map
+import java.math.BigInteger
+import java.util.concurrent.TimeUnit
+
+/**
+ * Provides [EthereumNetworkFees] of EVM networks, shared by all wallet managers of a network. Fees are loaded from
+ * eth_feeHistory, eth_gasPrice is requested only if the network has no base fee or the fee history failed to load.
+ * Fees are kept for one block time of the network and concurrent requests wait for a single load, so any number of
+ * fee quotes on the network makes one request per block. Fees of a block are never replaced by fees of an older one,
+ * which a lagging node may answer with.
+ *
+ * Transport errors aren't cached. Only a definite answer that the network has no fee history is remembered, for
+ * [FEE_HISTORY_UNSUPPORTED_TTL_MILLIS]
+ */
+internal class EthereumFeeOracle(
+    clock: () -> Long = { TimeUnit.NANOSECONDS.toMillis(System.nanoTime()) },
+) {
+
+    private val fees = ExpiringCache<Blockchain, EthereumNetworkFees>(
+        ttlOf = ::getBlockTimeMillis,
+        clock = clock,
+        isCacheable = { it !is EthereumNetworkFees.Legacy || it.isFeeHistoryUnsupported },
+    )
+
+    private val latestFeeMarkets = HashMap<Blockchain, EthereumNetworkFees.FeeMarket>()
+
+    private val feeHistoryUnsupportedNetworks = ExpiringCache<Blockchain, Unit>(
+        ttlMillis = FEE_HISTORY_UNSUPPORTED_TTL_MILLIS,
+        clock = clock,
+    )
+
+    suspend fun getFees(
+        blockchain: Blockchain,
+        loadFeeHistory: suspend (blockCount: Int, rewardPercentiles: List<Int>) -> Result<EthereumFeeHistory?>,
+        loadGasPrice: suspend () -> Result<BigInteger>,
+    ): Result<EthereumNetworkFees> {
+        return fees.getOrLoad(blockchain) { loadFees(blockchain, loadFeeHistory, loadGasPrice) }
+    }
+
+    private suspend fun loadFees(
+        blockchain: Blockchain,
+        loadFeeHistory: suspend (blockCount: Int, rewardPercentiles: List<Int>) -> Result<EthereumFeeHistory?>,
+        loadGasPrice: suspend () -> Result<BigInteger>,
+    ): Result<EthereumNetworkFees> {
+        val feeHistory = if (feeHistoryUnsupportedNetworks.get(blockchain) == null) {
+            loadFeeHistory(FEE_HISTORY_BLOCK_COUNT, REWARD_PERCENTILES)
+        } else {
+            Result.Success(null)
+        }
+        val feeHistoryData = (feeHistory as? Result.Success)?.data
+        val feeMarket = feeHistoryData?.let(EthereumNetworkFees.FeeMarket::fromFeeHistory)
+        if (feeMarket != null) {
+            return Result.Success(getLatestFeeMarket(blockchain, feeMarket))
+        }
+
+        val isFeeHistoryUnsupported = feeHistory is Result.Success &&
+            (feeHistoryData == null || EthereumNetworkFees.FeeMarket.hasNoBaseFee(feeHistoryData))
+        if (isFeeHistoryUnsupported) feeHistoryUnsupportedNetworks.put(blockchain, Unit)
+
+        return loadGasPrice().map { EthereumNetworkFees.Legacy(it, isFeeHistoryUnsupported) }
+    }
+
+    private fun getLatestFeeMarket(
+        blockchain: Blockchain,
+        loaded: EthereumNetworkFees.FeeMarket,
+    ): EthereumNetworkFees.FeeMarket = synchronized(latestFeeMarkets) {
+        val latest = latestFeeMarkets[blockchain]
+        if (latest != null && latest.blockNumber >= loaded.blockNumber) return latest
+
+        latestFeeMarkets[blockchain] = loaded
+        loaded
+    }
+
+    companion object {
+        private const val FEE_HISTORY_BLOCK_COUNT = 5
+        private const val FEE_HISTORY_UNSUPPORTED_TTL_MILLIS = 3_600_000L
+        private const val DEFAULT_BLOCK_TIME_MILLIS = 3_000L
+
+        internal val REWARD_PERCENTILES = listOf(25, 50, 75)
+
+        val shared = EthereumFeeOracle()
+
+        @Suppress("MagicNumber")
+        private fun getBlockTimeMillis(blockchain: Blockchain): Long = when (blockchain) {
+            Blockchain.Arbitrum, Blockchain.ArbitrumTestnet -> 250L
+            Blockchain.Fantom, Blockchain.FantomTestnet,
+            Blockchain.Aurora, Blockchain.AuroraTestnet,
+            -> 1_000L
+            Blockchain.Optimism, Blockchain.OptimismTestnet,
+            Blockchain.Polygon, Blockchain.PolygonTestnet,
+            Blockchain.Avalanche, Blockchain.AvalancheTestnet,
+            Blockchain.XDC, Blockchain.XDCTestnet,
+            -> 2_000L
+            Blockchain.BSC, Blockchain.BSCTestnet -> 3_000L
+            Blockchain.Gnosis,
+            Blockchain.Shibarium, Blockchain.ShibariumTestnet,
+            -> 5_000L
+            Blockchain.Kava, Blockchain.KavaTestnet,
+            Blockchain.Cronos,
+            -> 6_000L
+            Blockchain.PulseChain, Blockchain.PulseChainTestnet -> 10_000L
+            Blockchain.Ethereum, Blockchain.EthereumTestnet,
+            Blockchain.EthereumPow, Blockchain.EthereumPowTestnet,
+            Blockchain.Dischain,
+            -> 12_000L
+            else -> DEFAULT_BLOCK_TIME_MILLIS
+        }
+    }
+}
+
+internal sealed class EthereumNetworkFees {
+
+    /**
+     * EIP-1559 fee market after [blockNumber]
+     *
+     * @property baseFee base fee of the next block
+     * @property lowPriorityFee average 25th percentile of priority fees in the last blocks
+     * @property normalPriorityFee average 50th percentile of priority fees in the last blocks
+     * @property highPriorityFee average 75th percentile of priority fees in the last blocks
+     */
+    class FeeMarket(
+        val blockNumber: Long,
+        val baseFee: BigInteger,
+        val lowPriorityFee: BigInteger,
+        val normalPriorityFee: BigInteger,
+        val highPriorityFee: BigInteger,
+    ) : EthereumNetworkFees() {
+
+        companion object {
+            private const val HEX_RADIX = 16
+
+            /** Returns null if the network has no base fee or the fee history is invalid */
+            fun fromFeeHistory(feeHistory: EthereumFeeHistory): FeeMarket? {
+                val baseFee = feeHistory.baseFeePerGas.lastOrNull()?.hexToBigIntegerOrNull()
+                    ?.takeIf { it.signum() > 0 }
+                    ?: return null
+                val oldestBlock = feeHistory.oldestBlock.hexToBigIntegerOrNull() ?: return null
+                val rewards = feeHistory.reward
+                    .filter { it.size == EthereumFeeOracle.REWARD_PERCENTILES.size }
+                    .map { blockRewards -> blockRewards.map { it.hexToBigIntegerOrNull() ?: return null } }
+
+                fun averageReward(percentileIndex: Int): BigInteger {
+                    if (rewards.isEmpty()) return BigInteger.ZERO
+                    return rewards.sumOf { it[percentileIndex] } / rewards.size.toBigInteger()
+                }
+
+                return FeeMarket(
+                    // base fees list contains the next block
+                    blockNumber = oldestBlock.toLong() + feeHistory.baseFeePerGas.size - 2,
+                    baseFee = baseFee,
+                    lowPriorityFee = averageReward(percentileIndex = 0),
+                    normalPriorityFee = averageReward(percentileIndex = 1),
+                    highPriorityFee = averageReward(percentileIndex = 2),
+                )
+            }
+
+            /** Networks without EIP-1559 answer with no or zero base fees */
+            fun hasNoBaseFee(feeHistory: EthereumFeeHistory): Boolean {
+                val baseFee = feeHistory.baseFeePerGas.lastOrNull() ?: return true
+                return baseFee.hexToBigIntegerOrNull()?.signum() == 0
+            }
+
+            private fun String.hexToBigIntegerOrNull(): BigInteger? {
+                return removePrefix("0x").ifBlank { "0" }.toBigIntegerOrNull(HEX_RADIX)
+            }
+        }
+    }
+
+    /**
+     * Gas price of a network without fee history, or the fallback when fee history failed to load
+     *
+     * @property isFeeHistoryUnsupported true if the network definitely has no fee history, only then it's cached
+     */
+    class Legacy(val gasPrice: BigInteger, val isFeeHistoryUnsupported: Boolean) : EthereumNetworkFees()
+}
@@ -50,6 +50,35 @@ class EthereumFeesCalculator {
         )
     }
 
+    /**
+     * Legacy transactions pay the whole gas price and are included only while it covers the base fee. The base fee
+     * of the next block may grow by 12.5% every block, so every tier multiplies it to stay valid for a few blocks
+     * and adds its priority fee. The gas price is capped by EIP-1559 max fee, which allows the base fee to double
+     */
+    internal fun calculateFees(
+        amountParams: Amount,
+        gasLimit: BigInteger,
+        feeMarket: EthereumNetworkFees.FeeMarket,
+    ): TransactionFee.Choosable {
+        val baseFeeDecimal = BigDecimal(feeMarket.baseFee)
+
+        fun createTierFee(baseFeeMultiplier: BigDecimal, priorityFee: BigInteger): Fee.Ethereum {
+            val maxFeePerGas = feeMarket.baseFee * baseFeeMaxGrowth + priorityFee
+            val gasPrice = ((baseFeeDecimal * baseFeeMultiplier).toBigInteger() + priorityFee).min(maxFeePerGas)
+            return Fee.Ethereum(
+                amount = createFee(amountParams, gasPrice * gasLimit),
+                gasLimit = gasLimit,
+                gasPrice = gasPrice,
+            )
+        }
+
+        return TransactionFee.Choosable(
+            minimum = createTierFee(minimalBaseFeeMultiplier, feeMarket.lowPriorityFee),
+            normal = createTierFee(normalBaseFeeMultiplier, feeMarket.normalPriorityFee),
+            priority = createTierFee(priorityBaseFeeMultiplier, feeMarket.highPriorityFee),
+        )
+    }
+
     internal fun calculateSingleFee(
         amountParams: Amount,
         gasLimit: BigInteger,
@@ -81,6 +110,13 @@ class EthereumFeesCalculator {
 
     companion object {
 
+        private val baseFeeMaxGrowth: BigInteger = BigInteger.valueOf(2)
+
+        // about two, four and six blocks of the maximal base fee growth
+        private val minimalBaseFeeMultiplier: BigDecimal = BigDecimal("1.27")
+        private val normalBaseFeeMultiplier: BigDecimal = BigDecimal("1.61")
+        private val priorityBaseFeeMultiplier: BigDecimal = BigDecimal("2")
+
         val minimalMultiplier: BigDecimal = BigDecimal.valueOf(1)
 
         val normalMultiplier: BigDecimal =
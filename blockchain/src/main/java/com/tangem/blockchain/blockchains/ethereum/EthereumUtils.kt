@@ -8,10 +8,8 @@ import com.tangem.blockchain.extensions.toBigDecimalOrDefault
 import com.tangem.common.extensions.hexToBytes
 import com.tangem.common.extensions.remove
 import com.tangem.common.extensions.toByteArray
-import com.tangem.common.extensions.toDecompressedPublicKey
 import org.kethereum.DEFAULT_GAS_LIMIT
 import org.kethereum.crypto.api.ec.ECDSASignature
-import org.kethereum.crypto.determineRecId
 import org.kethereum.crypto.impl.ec.canonicalise
 import org.kethereum.extensions.toBytesPadded
 import org.kethereum.extensions.toFixedLengthByteArray
@@ -19,7 +17,6 @@ import org.kethereum.extensions.transactions.encode
 import org.kethereum.extensions.transactions.tokenTransferSignature
 import org.kethereum.keccakshortcut.keccak
 import org.kethereum.model.Address
-import org.kethereum.model.PublicKey
 import org.kethereum.model.SignatureData
 import org.kethereum.model.createTransactionWithDefaults
 import org.komputing.khex.extensions.toHexString
@@ -83,10 +80,7 @@ object EthereumUtils {
 
         val ecdsaSignature = ECDSASignature(r, s).canonicalise()
 
-        val recId = ecdsaSignature.determineRecId(
-            hashToSign,
-            PublicKey(publicKey.sliceArray(1..64)),
-        )
+        val recId = Secp256k1Recovery.recoveryId(ecdsaSignature, hashToSign, publicKey)
         val v = (recId + 27).toBigInteger()
 
         return HEX_PREFIX +
@@ -155,8 +149,7 @@ object EthereumUtils {
         walletPublicKey: Wallet.PublicKey,
         blockchain: Blockchain,
     ): ByteArray {
-        val publicKey = walletPublicKey.blockchainKey.toDecompressedPublicKey().sliceArray(1..64)
-        return prepareTransactionToSend(signature, transactionToSign, publicKey, blockchain)
+        return prepareTransactionToSend(signature, transactionToSign, walletPublicKey.blockchainKey, blockchain)
     }
 
     fun prepareTransactionToSend(
@@ -170,10 +163,7 @@ object EthereumUtils {
 
         val ecdsaSignature = ECDSASignature(r, s).canonicalise()
 
-        val recId = ecdsaSignature.determineRecId(
-            transactionToSign.hash,
-            PublicKey(walletPublicKey),
-        )
+        val recId = Secp256k1Recovery.recoveryId(ecdsaSignature, transactionToSign.hash, walletPublicKey)
         val chainId = blockchain.getChainId()
             ?: error("${blockchain.fullName} blockchain is not supported by ${this::class.simpleName}")
         val v = (recId + 27 + 8 + chainId * 2).toBigInteger() // EIP-155
@@ -51,12 +51,15 @@ open class EthereumWalletManager(
     private fun updateWallet(data: EthereumInfoResponse) {
         wallet.setCoinValue(data.coinBalance)
         data.tokenBalances.forEach { wallet.addTokenValue(it.value, it.key) }
+        data.failedTokens.forEach { (token, error) ->
+            Log.w(this::class.java.simpleName, "Failed to update ${token.symbol} balance: ${error.customMessage}")
+        }
 
         txCount = data.txCount
         pendingTxCount = data.pendingTxCount
 
         if (txCount == pendingTxCount) {
-            wallet.recentTransactions.forEach { it.status = TransactionStatus.Confirmed }
+            wallet.confirmRecentTransactions()
         } else if (!data.recentTransactions.isNullOrEmpty()) {
             updateRecentTransactions(data.recentTransactions)
         } else {
@@ -81,8 +84,7 @@ open class EthereumWalletManager(
                     .sendTransaction(transactionToSend.toHexString())
 
                 if (sendResult is SimpleResult.Success) {
-                    transactionData.hash = transactionToSend.keccak().toHexString()
-                    wallet.addOutgoingTransaction(transactionData)
+                    wallet.addOutgoingTransaction(transactionData.copy(hash = transactionToSend.keccak().toHexString()))
                 }
                 sendResult
             }
@@ -140,20 +142,33 @@ open class EthereumWalletManager(
                         getGasLimit(amount, destination)
                     }
                 }
-                val gasPriceResponsesDeferred = async { getGasPrice() }
+                val networkFeesDeferred = async {
+                    EthereumFeeOracle.shared.getFees(
+                        blockchain = wallet.blockchain,
+                        loadFeeHistory = networkProvider::getFeeHistory,
+                        loadGasPrice = { getGasPrice() },
+                    )
+                }
 
                 val gLimit = gasLimitResponsesDeferred.await().successOr {
                     return@coroutineScope Result.Failure(it.error)
                 }
-                val gPrice = gasPriceResponsesDeferred.await().successOr {
+                val networkFees = networkFeesDeferred.await().successOr {
                     return@coroutineScope Result.Failure(it.error)
                 }
 
-                val fees = feesCalculator.calculateFees(
-                    amountParams = getAmountParams(),
-                    gasLimit = gLimit,
-                    gasPrice = gPrice,
-                )
+                val fees = when (networkFees) {
+                    is EthereumNetworkFees.FeeMarket -> feesCalculator.calculateFees(
+                        amountParams = getAmountParams(),
+                        gasLimit = gLimit,
+                        feeMarket = networkFees,
+                    )
+                    is EthereumNetworkFees.Legacy -> feesCalculator.calculateFees(
+                        amountParams = getAmountParams(),
+                        gasLimit = gLimit,
+                        gasPrice = networkFees.gasPrice,
+                    )
+                }
 
                 Result.Success(fees)
             }
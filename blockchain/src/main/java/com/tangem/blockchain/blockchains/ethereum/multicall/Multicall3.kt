@@ -0,0 +1,99 @@
+package com.tangem.blockchain.blockchains.ethereum.multicall
+
+import com.tangem.common.extensions.hexToBytes
+import java.math.BigInteger
+
+/**
+ * ABI encoding of Multicall3 `aggregate3((address,bool,bytes)[])` and its `(bool,bytes)[]` result
+ *
+ * @see <a href="https://github.com/mds1/multicall">Multicall3</a>
+ */
+internal object Multicall3 {
+
+    private const val AGGREGATE3_SELECTOR = "82ad56cb"
+    private const val WORD_SIZE = 32
+    private const val CALL_HEAD_WORDS = 3
+
+    fun encodeAggregate3(calls: List<Call>): ByteArray {
+        val encodedCalls = calls.map { it.encode() }
+
+        var offset = calls.size * WORD_SIZE
+        val offsets = encodedCalls.map { encodedCall ->
+            encodeUInt(offset).also { offset += encodedCall.size }
+        }
+
+        return AGGREGATE3_SELECTOR.hexToBytes() +
+            encodeUInt(WORD_SIZE) +
+            encodeUInt(calls.size) +
+            offsets.reduceOrEmpty() +
+            encodedCalls.reduceOrEmpty()
+    }
+
+    /**
+     * Decodes `aggregate3` result
+     *
+     * @throws IllegalArgumentException if [data] isn't a valid `(bool,bytes)[]` encoding, e.g. if the contract
+     * isn't deployed and the node returned empty data
+     */
+    fun decodeAggregate3(data: ByteArray): List<CallResult> {
+        val arrayOffset = data.readUInt(offset = 0)
+        val count = data.readUInt(arrayOffset)
+        val elementsStart = arrayOffset + WORD_SIZE
+
+        return List(count) { index ->
+            val tupleStart = elementsStart + data.readUInt(elementsStart + index * WORD_SIZE)
+            val isSuccess = data.readUInt(tupleStart) != 0
+            val bytesStart = tupleStart + data.readUInt(tupleStart + WORD_SIZE)
+            val length = data.readUInt(bytesStart)
+
+            require(bytesStart + WORD_SIZE + length <= data.size) { "Invalid aggregate3 result" }
+            CallResult(
+                isSuccess = isSuccess,
+                returnData = data.copyOfRange(bytesStart + WORD_SIZE, bytesStart + WORD_SIZE + length),
+            )
+        }
+    }
+
+    private fun Call.encode(): ByteArray {
+        val paddedCallData = callData.copyOf(newSize = callData.size.roundUpToWord())
+
+        return encodeAddress(target) +
+            encodeUInt(if (allowFailure) 1 else 0) +
+            encodeUInt(CALL_HEAD_WORDS * WORD_SIZE) +
+            encodeUInt(callData.size) +
+            paddedCallData
+    }
+
+    private fun encodeAddress(address: String): ByteArray {
+        val addressData = address.removePrefix("0x").hexToBytes()
+        return ByteArray(WORD_SIZE - addressData.size) + addressData
+    }
+
+    private fun encodeUInt(value: Int): ByteArray {
+        val data = BigInteger.valueOf(value.toLong()).toByteArray().dropWhile { it == 0.toByte() }.toByteArray()
+        return ByteArray(WORD_SIZE - data.size) + data
+    }
+
+    private fun ByteArray.readUInt(offset: Int): Int {
+        require(offset >= 0 && offset + WORD_SIZE <= size) { "Invalid aggregate3 result" }
+
+        val value = BigInteger(1, copyOfRange(offset, offset + WORD_SIZE))
+        require(value.bitLength() < Int.SIZE_BITS) { "Invalid aggregate3 result" }
+        return value.toInt()
+    }
+
+    private fun Int.roundUpToWord(): Int = (this + WORD_SIZE - 1) / WORD_SIZE * WORD_SIZE
+
+    private fun List<ByteArray>.reduceOrEmpty(): ByteArray = fold(ByteArray(0)) { acc, bytes -> acc + bytes }
+
+    class Call(
+        val target: String,
+        val callData: ByteArray,
+        val allowFailure: Boolean = true,
+    )
+
+    class CallResult(
+        val isSuccess: Boolean,
+        val returnData: ByteArray,
+    )
+}
@@ -0,0 +1,29 @@
+package com.tangem.blockchain.blockchains.ethereum.multicall
+
+import com.tangem.blockchain.common.Blockchain
+
+private const val MULTICALL3_ADDRESS = "0xcA11bde05977b3631167028862bE2a173976CA11"
+private const val MULTICALL3_ZKSYNC_ERA_ADDRESS = "0xF9cda624FBC7e059355ce98a31693d299FACd963"
+
+/** Returns address of Multicall3 contract or null if it isn't deployed to the blockchain */
+internal fun Blockchain.getMulticall3Address(): String? {
+    return when (this) {
+        Blockchain.Ethereum, Blockchain.EthereumTestnet,
+        Blockchain.EthereumClassic,
+        Blockchain.Arbitrum, Blockchain.ArbitrumTestnet,
+        Blockchain.Optimism, Blockchain.OptimismTestnet,
+        Blockchain.Polygon, Blockchain.PolygonTestnet,
+        Blockchain.BSC, Blockchain.BSCTestnet,
+        Blockchain.Avalanche, Blockchain.AvalancheTestnet,
+        Blockchain.Fantom, Blockchain.FantomTestnet,
+        Blockchain.Gnosis,
+        Blockchain.Kava,
+        Blockchain.Cronos,
+        Blockchain.RSK,
+        Blockchain.Aurora, Blockchain.AuroraTestnet,
+        Blockchain.PulseChain,
+        -> MULTICALL3_ADDRESS
+        Blockchain.ZkSyncEra -> MULTICALL3_ZKSYNC_ERA_ADDRESS
+        else -> null
+    }
+}
@@ -3,6 +3,7 @@ package com.tangem.blockchain.blockchains.ethereum.network
 import com.squareup.moshi.JsonClass
 import com.tangem.blockchain.common.NowNodeCredentials
 import retrofit2.http.*
+import java.util.concurrent.atomic.AtomicInteger
 
 interface EthereumApi {
     @Headers("Content-Type: application/json")
@@ -13,6 +14,24 @@ interface EthereumApi {
         @Header("Authorization") token: String? = null,
         @Header(NowNodeCredentials.headerApiKey) nowNodesApiKey: String? = null,
     ): EthereumResponse
+
+    @Headers("Content-Type: application/json")
+    @POST
+    suspend fun postBatch(
+        @Body body: List<EthereumBody>,
+        @Url infuraProjectId: String,
+        @Header("Authorization") token: String? = null,
+        @Header(NowNodeCredentials.headerApiKey) nowNodesApiKey: String? = null,
+    ): List<EthereumResponse>
+
+    @Headers("Content-Type: application/json")
+    @POST
+    suspend fun postFeeHistory(
+        @Body body: EthereumBody,
+        @Url infuraProjectId: String,
+        @Header("Authorization") token: String? = null,
+        @Header(NowNodeCredentials.headerApiKey) nowNodesApiKey: String? = null,
+    ): EthereumFeeHistoryResponse
 }
 
 @JsonClass(generateAdapter = true)
@@ -20,8 +39,15 @@ data class EthereumBody(
     val method: String,
     val params: List<Any> = listOf(),
     val jsonrpc: String = "2.0",
-    val id: Int = 67,
-)
+    val id: Int = nextId(),
+) {
+    companion object {
+        private val idCounter = AtomicInteger()
+
+        /** Ids are unique within the process, so responses of a batch can be matched with requests */
+        private fun nextId(): Int = idCounter.incrementAndGet() and Int.MAX_VALUE
+    }
+}
 
 data class EthCallObject(
     val to: String,
@@ -37,6 +63,7 @@ enum class EthereumMethod(val value: String) {
     SEND_RAW_TRANSACTION("eth_sendRawTransaction"),
     ESTIMATE_GAS("eth_estimateGas"),
     GAS_PRICE("eth_gasPrice"),
+    FEE_HISTORY("eth_feeHistory"),
 }
 
 enum class EthBlockParam(val value: String) {
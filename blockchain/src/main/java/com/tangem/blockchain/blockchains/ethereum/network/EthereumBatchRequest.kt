@@ -0,0 +1,19 @@
+package com.tangem.blockchain.blockchains.ethereum.network
+
+/**
+ * Read request that can be sent as an item of JSON-RPC batch by [EthereumJsonRpcProvider.postBatch]
+ */
+sealed interface EthereumBatchRequest {
+
+    data class GetBalance(val address: String) : EthereumBatchRequest
+
+    data class GetTxCount(val address: String) : EthereumBatchRequest
+
+    data class GetPendingTxCount(val address: String) : EthereumBatchRequest
+
+    data class GetTokenBalance(val data: EthereumTokenBalanceRequestData) : EthereumBatchRequest
+
+    data class GetTokenAllowance(val data: EthereumTokenAllowanceRequestData) : EthereumBatchRequest
+
+    data class Call(val callObject: EthCallObject) : EthereumBatchRequest
+}
@@ -1,13 +1,21 @@
 package com.tangem.blockchain.blockchains.ethereum.network
 
+import com.squareup.moshi.JsonDataException
 import com.tangem.blockchain.blockchains.ethereum.EthereumUtils
 import com.tangem.blockchain.blockchains.ethereum.EthereumUtils.toKeccak
+import com.tangem.blockchain.common.BlockchainSdkError
 import com.tangem.blockchain.common.NetworkProvider
 import com.tangem.blockchain.common.toBlockchainSdkError
 import com.tangem.blockchain.extensions.Result
 import com.tangem.blockchain.extensions.retryIO
+import com.tangem.blockchain.network.ProviderRequestLimiters
 import com.tangem.blockchain.network.createRetrofitInstance
+import kotlinx.coroutines.CancellationException
+import kotlinx.coroutines.async
+import kotlinx.coroutines.awaitAll
+import kotlinx.coroutines.coroutineScope
 import org.komputing.khex.extensions.toHexString
+import retrofit2.HttpException
 import java.math.BigDecimal
 
 class EthereumJsonRpcProvider(
@@ -19,23 +27,14 @@ class EthereumJsonRpcProvider(
 
     private val api = createRetrofitInstance(baseUrl).create(EthereumApi::class.java)
 
-    suspend fun getBalance(address: String) = createEthereumBody(
-        EthereumMethod.GET_BALANCE,
-        address,
-        EthBlockParam.LATEST.value,
-    ).post()
+    @Volatile
+    private var isBatchSupported = true
 
-    suspend fun getTokenBalance(data: EthereumTokenBalanceRequestData) = createEthereumBody(
-        EthereumMethod.CALL,
-        createTokenBalanceCallObject(data.address, data.contractAddress),
-        EthBlockParam.LATEST.value,
-    ).post()
+    suspend fun getBalance(address: String) = createBalanceBody(address).post()
 
-    suspend fun getTokenAllowance(data: EthereumTokenAllowanceRequestData) = createEthereumBody(
-        EthereumMethod.CALL,
-        createTokenAllowanceCallObject(data.ownerAddress, data.contractAddress, data.spenderAddress),
-        EthBlockParam.LATEST.value,
-    ).post()
+    suspend fun getTokenBalance(data: EthereumTokenBalanceRequestData) = createTokenBalanceBody(data).post()
+
+    suspend fun getTokenAllowance(data: EthereumTokenAllowanceRequestData) = createTokenAllowanceBody(data).post()
 
     suspend fun call(data: Any): Result<EthereumResponse> {
         return createEthereumBody(EthereumMethod.CALL, data, EthBlockParam.LATEST.value).post()
@@ -55,17 +54,9 @@ class EthereumJsonRpcProvider(
         EthBlockParam.LATEST.value,
     ).post()
 
-    suspend fun getTxCount(address: String) = createEthereumBody(
-        EthereumMethod.GET_TRANSACTION_COUNT,
-        address,
-        EthBlockParam.LATEST.value,
-    ).post()
+    suspend fun getTxCount(address: String) = createTxCountBody(address).post()
 
-    suspend fun getPendingTxCount(address: String) = createEthereumBody(
-        EthereumMethod.GET_TRANSACTION_COUNT,
-        address,
-        EthBlockParam.PENDING.value,
-    ).post()
+    suspend fun getPendingTxCount(address: String) = createPendingTxCountBody(address).post()
 
     suspend fun sendTransaction(transaction: String) =
         createEthereumBody(EthereumMethod.SEND_RAW_TRANSACTION, transaction).post()
@@ -74,9 +65,155 @@ class EthereumJsonRpcProvider(
 
     suspend fun getGasPrice() = createEthereumBody(EthereumMethod.GAS_PRICE).post()
 
+    suspend fun getFeeHistory(request: EthereumFeeHistoryRequestData): Result<EthereumFeeHistoryResponse> {
+        val body = createEthereumBody(
+            EthereumMethod.FEE_HISTORY,
+            "0x" + request.blockCount.toString(HEX_RADIX),
+            EthBlockParam.LATEST.value,
+            request.rewardPercentiles,
+        )
+        return try {
+            val result = retryIO {
+                api.postFeeHistory(
+                    body = body,
+                    infuraProjectId = postfixUrl,
+                    token = authToken,
+                    nowNodesApiKey = nowNodesApiKey,
+                )
+            }
+            Result.Success(result)
+        } catch (exception: CancellationException) {
+            throw exception
+        } catch (exception: Exception) {
+            Result.Failure(exception.toBlockchainSdkError())
+        }
+    }
+
+    /**
+     * Sends [requests] as JSON-RPC batches and returns responses in the order of requests. Item without a response
+     * in the batch is returned as failure, item with JSON-RPC error is returned as is, like for a single request.
+     *
+     * If the node definitely rejects batches, requests are sent separately and the provider doesn't try batches
+     * anymore. Other failures, like timeouts or 5xx, are returned, so that MultiNetworkProvider switches provider.
+     */
+    suspend fun postBatch(requests: List<EthereumBatchRequest>): Result<List<Result<EthereumResponse>>> {
+        val bodies = requests.map { it.toEthereumBody() }
+        if (!isBatchSupported) return postSeparately(bodies)
+
+        return try {
+            Result.Success(postInBatches(bodies))
+        } catch (exception: CancellationException) {
+            throw exception
+        } catch (exception: HttpException) {
+            if (exception.code() in BATCH_REJECTED_HTTP_CODES) {
+                disableBatches(bodies)
+            } else {
+                Result.Failure(exception.toBlockchainSdkError())
+            }
+        } catch (exception: JsonDataException) {
+            // node answered with a single object instead of array
+            disableBatches(bodies)
+        } catch (exception: BatchNotSupportedException) {
+            disableBatches(bodies)
+        } catch (exception: Exception) {
+            Result.Failure(exception.toBlockchainSdkError())
+        }
+    }
+
+    private suspend fun disableBatches(bodies: List<EthereumBody>): Result<List<Result<EthereumResponse>>> {
+        isBatchSupported = false
+        return postSeparately(bodies)
+    }
+
+    private suspend fun postInBatches(bodies: List<EthereumBody>): List<Result<EthereumResponse>> = coroutineScope {
+        bodies.chunked(MAX_BATCH_SIZE)
+            .map { chunk ->
+                async {
+                    val responses = retryIO {
+                        api.postBatch(
+                            body = chunk,
+                            infuraProjectId = postfixUrl,
+                            token = authToken,
+                            nowNodesApiKey = nowNodesApiKey,
+                        )
+                    }
+                    if (responses.any(::isBatchNotSupportedError)) throw BatchNotSupportedException()
+                    val responsesById = responses.associateBy(EthereumResponse::id)
+
+                    chunk.map { body ->
+                        responsesById[body.id]
+                            ?.let { Result.Success(it) }
+                            ?: Result.Failure(BlockchainSdkError.CustomError("No batch response for ${body.method}"))
+                    }
+                }
+            }
+            .awaitAll()
+            .flatten()
+    }
+
+    /** Some nodes answer a batch with one error without id instead of rejecting it with HTTP status */
+    private fun isBatchNotSupportedError(response: EthereumResponse): Boolean {
+        val message = response.error?.message ?: return false
+        return response.id == null && message.contains(BATCH_ERROR_MESSAGE_PART, ignoreCase = true)
+    }
+
+    /** Requests are limited per provider, so a long list doesn't exceed the provider quota */
+    private suspend fun postSeparately(bodies: List<EthereumBody>): Result<List<Result<EthereumResponse>>> {
+        val limiter = ProviderRequestLimiters.shared.get(baseUrl)
+        val results = coroutineScope { bodies.map { async { limiter.perform { it.post() } } }.awaitAll() }
+
+        // network failure of any request fails the whole call, so that MultiNetworkProvider can switch the provider
+        return results.filterIsInstance<Result.Failure>().firstOrNull() ?: Result.Success(results)
+    }
+
+    private fun EthereumBatchRequest.toEthereumBody(): EthereumBody {
+        return when (this) {
+            is EthereumBatchRequest.GetBalance -> createBalanceBody(address)
+            is EthereumBatchRequest.GetTxCount -> createTxCountBody(address)
+            is EthereumBatchRequest.GetPendingTxCount -> createPendingTxCountBody(address)
+            is EthereumBatchRequest.GetTokenBalance -> createTokenBalanceBody(data)
+            is EthereumBatchRequest.GetTokenAllowance -> createTokenAllowanceBody(data)
+            is EthereumBatchRequest.Call -> createEthereumBody(
+                EthereumMethod.CALL,
+                callObject,
+                EthBlockParam.LATEST.value,
+            )
+        }
+    }
+
     private fun createEthereumBody(method: EthereumMethod, vararg params: Any) =
         EthereumBody(method.value, params.toList())
 
+    private fun createBalanceBody(address: String) = createEthereumBody(
+        EthereumMethod.GET_BALANCE,
+        address,
+        EthBlockParam.LATEST.value,
+    )
+
+    private fun createTxCountBody(address: String) = createEthereumBody(
+        EthereumMethod.GET_TRANSACTION_COUNT,
+        address,
+        EthBlockParam.LATEST.value,
+    )
+
+    private fun createPendingTxCountBody(address: String) = createEthereumBody(
+        EthereumMethod.GET_TRANSACTION_COUNT,
+        address,
+        EthBlockParam.PENDING.value,
+    )
+
+    private fun createTokenBalanceBody(data: EthereumTokenBalanceRequestData) = createEthereumBody(
+        EthereumMethod.CALL,
+        createTokenBalanceCallObject(data.address, data.contractAddress),
+        EthBlockParam.LATEST.value,
+    )
+
+    private fun createTokenAllowanceBody(data: EthereumTokenAllowanceRequestData) = createEthereumBody(
+        EthereumMethod.CALL,
+        createTokenAllowanceCallObject(data.ownerAddress, data.contractAddress, data.spenderAddress),
+        EthBlockParam.LATEST.value,
+    )
+
     // TODO: https://tangem.atlassian.net/browse/AND-5811 Replace with SmartContractMethod interface implementations
     private fun createTokenBalanceCallObject(address: String, contractAddress: String) = EthCallObject(
         to = contractAddress,
@@ -142,9 +279,19 @@ class EthereumJsonRpcProvider(
         private const val CALL_DATA_SEPARATOR = "000000000000000000000000"
 
         private const val ETH_VALUABLE_ADDRESS_PART_LENGTH = 40
+
+        // most of public nodes limit batch size by 100 requests
+        private const val MAX_BATCH_SIZE = 50
+        private const val BATCH_ERROR_MESSAGE_PART = "batch"
+
+        // bad request, method not allowed and payload too large
+        private val BATCH_REJECTED_HTTP_CODES = setOf(400, 405, 413)
+        private const val HEX_RADIX = 16
     }
 }
 
+private class BatchNotSupportedException : Exception()
+
 data class EthereumTokenBalanceRequestData(
     val address: String,
     val contractAddress: String,
@@ -156,6 +303,11 @@ data class EthereumTokenAllowanceRequestData(
     val spenderAddress: String,
 )
 
+data class EthereumFeeHistoryRequestData(
+    val blockCount: Int,
+    val rewardPercentiles: List<Int>,
+)
+
 data class EthereumGasLimitRequestData(
     val to: String,
     val from: String,
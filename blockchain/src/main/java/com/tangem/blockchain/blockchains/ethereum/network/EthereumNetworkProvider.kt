@@ -1,10 +1,12 @@
 package com.tangem.blockchain.blockchains.ethereum.network
 
+import com.tangem.blockchain.common.BlockchainError
 import com.tangem.blockchain.common.NetworkProvider
 import com.tangem.blockchain.common.Token
 import com.tangem.blockchain.common.TransactionData
 import com.tangem.blockchain.extensions.Result
 import com.tangem.blockchain.extensions.SimpleResult
+import com.tangem.blockchain.network.TokenBalances
 import com.tangem.blockchain.network.blockchair.BlockchairToken
 import java.math.BigDecimal
 import java.math.BigInteger
@@ -16,8 +18,14 @@ interface EthereumNetworkProvider : NetworkProvider {
     suspend fun getSignatureCount(address: String): Result<Int>
     suspend fun findErc20Tokens(address: String): Result<List<BlockchairToken>>
     suspend fun getGasPrice(): Result<BigInteger>
+
+    /** Returns null if the node doesn't support eth_feeHistory */
+    suspend fun getFeeHistory(blockCount: Int, rewardPercentiles: List<Int>): Result<EthereumFeeHistory?>
+
     suspend fun getGasLimit(to: String, from: String, value: String?, data: String?): Result<BigInteger>
-    suspend fun getTokensBalance(address: String, tokens: Set<Token>): Result<Map<Token, BigDecimal>>
+
+    /** Fails only if the request failed, tokens whose balances failed to load are in [TokenBalances.errors] */
+    suspend fun getTokensBalance(address: String, tokens: Set<Token>): Result<TokenBalances<BigDecimal>>
 
     suspend fun callContractForFee(data: ContractCallData): Result<BigInteger>
 }
@@ -25,6 +33,7 @@ interface EthereumNetworkProvider : NetworkProvider {
 class EthereumInfoResponse(
     val coinBalance: BigDecimal,
     val tokenBalances: Map<Token, BigDecimal>,
+    val failedTokens: Map<Token, BlockchainError>,
     val txCount: Long,
     val pendingTxCount: Long,
     val recentTransactions: List<TransactionData>?,
@@ -1,18 +1,26 @@
 package com.tangem.blockchain.blockchains.ethereum.network
 
 import com.tangem.blockchain.blockchains.ethereum.EthereumUtils
+import com.tangem.blockchain.blockchains.ethereum.multicall.Multicall3
+import com.tangem.blockchain.blockchains.ethereum.tokenmethods.TokenBalanceERC20TokenMethod
 import com.tangem.blockchain.common.Blockchain
+import com.tangem.blockchain.common.BlockchainError
 import com.tangem.blockchain.common.BlockchainSdkError
 import com.tangem.blockchain.common.Token
 import com.tangem.blockchain.common.toBlockchainSdkError
 import com.tangem.blockchain.extensions.Result
 import com.tangem.blockchain.extensions.SimpleResult
+import com.tangem.blockchain.extensions.successOr
 import com.tangem.blockchain.network.MultiNetworkProvider
+import com.tangem.blockchain.network.TokenBalances
 import com.tangem.blockchain.network.blockchair.BlockchairEthNetworkProvider
 import com.tangem.blockchain.network.blockchair.BlockchairToken
 import com.tangem.blockchain.network.blockcypher.BlockcypherNetworkProvider
+import com.tangem.common.extensions.hexToBytes
+import kotlinx.coroutines.CancellationException
 import kotlinx.coroutines.async
 import kotlinx.coroutines.coroutineScope
+import org.komputing.khex.extensions.toHexString
 import java.math.BigDecimal
 import java.math.BigInteger
 
@@ -20,6 +28,7 @@ open class EthereumNetworkService(
     jsonRpcProviders: List<EthereumJsonRpcProvider>,
     private val blockcypherNetworkProvider: BlockcypherNetworkProvider? = null,
     private val blockchairEthNetworkProvider: BlockchairEthNetworkProvider? = null,
+    private val multicall3Address: String? = null,
 ) : EthereumNetworkProvider {
 
     private val multiJsonRpcProvider = MultiNetworkProvider(jsonRpcProviders)
@@ -28,33 +37,45 @@ open class EthereumNetworkService(
 
     private val decimals = Blockchain.Ethereum.decimals()
 
+    @Volatile
+    private var isMulticallAvailable = multicall3Address != null
+
     override suspend fun getInfo(address: String, tokens: Set<Token>): Result<EthereumInfoResponse> {
         return try {
             coroutineScope {
-                val balanceResponseDeferred = async {
-                    multiJsonRpcProvider.performRequest(EthereumJsonRpcProvider::getBalance, address)
-                }
-                val txCountResponseDeferred = async {
-                    multiJsonRpcProvider.performRequest(EthereumJsonRpcProvider::getTxCount, address)
-                }
-                val pendingTxCountResponseDeferred = async {
-                    multiJsonRpcProvider.performRequest(EthereumJsonRpcProvider::getPendingTxCount, address)
-                }
                 val transactionsResponseDeferred = async {
                     blockchairEthNetworkProvider?.getTransactions(address, tokens)
                 }
 
-                val balance = balanceResponseDeferred.await().extractResult().let { balanceResponse ->
+                val tokensList = tokens.toList()
+                val tokenRequests = createTokenBalanceRequests(address, tokensList)
+                val requests = listOf(
+                    EthereumBatchRequest.GetBalance(address),
+                    EthereumBatchRequest.GetTxCount(address),
+                    EthereumBatchRequest.GetPendingTxCount(address),
+                ) + tokenRequests
+
+                val responses = multiJsonRpcProvider.performRequest(
+                    request = EthereumJsonRpcProvider::postBatch,
+                    data = requests,
+                    isHedged = true,
+                ).extractBatchResults()
+
+                val balance = responses[BALANCE_INDEX].extractResult().let { balanceResponse ->
                     requireNotNull(
                         value = EthereumUtils.parseEthereumDecimal(value = balanceResponse, decimalsCount = decimals),
                         lazyMessage = { "Error while parsing balance. Balance response: $balanceResponse" },
                     )
                 }
-                val txCount = txCountResponseDeferred.await().extractResult().responseToBigInteger().toLong()
-                val pendingTxCount = pendingTxCountResponseDeferred.await().extractResult()
-                    .responseToBigInteger().toLong()
+                val txCount = responses[TX_COUNT_INDEX].extractResult().responseToBigInteger().toLong()
+                val pendingTxCount = responses[PENDING_TX_COUNT_INDEX].extractResult().responseToBigInteger().toLong()
 
-                val tokenBalances = getTokensBalanceInternal(address, tokens)
+                val tokenBalances = parseTokenBalances(
+                    address = address,
+                    tokens = tokensList,
+                    requests = tokenRequests,
+                    responses = responses.drop(INFO_REQUESTS_COUNT),
+                )
 
                 val recentTransactions = when (val result = transactionsResponseDeferred.await()) {
                     is Result.Success -> result.data
@@ -64,7 +85,8 @@ open class EthereumNetworkService(
                 Result.Success(
                     EthereumInfoResponse(
                         coinBalance = balance,
-                        tokenBalances = tokenBalances,
+                        tokenBalances = tokenBalances.balances,
+                        failedTokens = tokenBalances.errors,
                         txCount = txCount,
                         pendingTxCount = pendingTxCount,
                         recentTransactions = recentTransactions,
@@ -117,7 +139,7 @@ open class EthereumNetworkService(
             ?: Result.Failure(BlockchainSdkError.CustomError("No signature count provider found"))
     }
 
-    override suspend fun getTokensBalance(address: String, tokens: Set<Token>): Result<Map<Token, BigDecimal>> {
+    override suspend fun getTokensBalance(address: String, tokens: Set<Token>): Result<TokenBalances<BigDecimal>> {
         return try {
             Result.Success(getTokensBalanceInternal(address, tokens))
         } catch (exception: Exception) {
@@ -125,26 +147,121 @@ open class EthereumNetworkService(
         }
     }
 
-    private suspend fun getTokensBalanceInternal(address: String, tokens: Set<Token>): Map<Token, BigDecimal> {
-        return coroutineScope {
-            val tokenBalancesDeferred = tokens.map { token ->
-                token to async {
-                    multiJsonRpcProvider.performRequest(
-                        EthereumJsonRpcProvider::getTokenBalance,
-                        EthereumTokenBalanceRequestData(
-                            address,
-                            token.contractAddress,
-                        ),
-                    )
-                }
-            }.toMap()
-            val tokenBalanceResponses = tokenBalancesDeferred.mapValues { it.value.await() }
-            tokenBalanceResponses.mapValues {
-                requireNotNull(EthereumUtils.parseEthereumDecimal(it.value.extractResult(), it.key.decimals)) {
-                    "Failed to parse token balance. Token: ${it.key.name}. Balance: ${it.value.extractResult()}"
-                }
+    private suspend fun getTokensBalanceInternal(address: String, tokens: Set<Token>): TokenBalances<BigDecimal> {
+        if (tokens.isEmpty()) return TokenBalances.empty()
+
+        val tokensList = tokens.toList()
+        val requests = createTokenBalanceRequests(address, tokensList)
+        val responses = multiJsonRpcProvider.performRequest(
+            request = EthereumJsonRpcProvider::postBatch,
+            data = requests,
+            isHedged = true,
+        ).extractBatchResults()
+
+        return parseTokenBalances(address, tokensList, requests, responses)
+    }
+
+    private suspend fun getTokensBalanceSeparately(address: String, tokens: List<Token>): TokenBalances<BigDecimal> {
+        if (tokens.isEmpty()) return TokenBalances.empty()
+
+        val responses = multiJsonRpcProvider.performRequest(
+            request = EthereumJsonRpcProvider::postBatch,
+            data = tokens.map { token -> createTokenBalanceRequest(address, token) },
+            isHedged = true,
+        ).extractBatchResults()
+
+        return parseTokenBalances(tokens, responses)
+    }
+
+    /**
+     * Returns single Multicall3 request with all `balanceOf` calls, so balances are read at the same block,
+     * or a request per token if Multicall3 isn't available for the blockchain
+     */
+    private fun createTokenBalanceRequests(address: String, tokens: List<Token>): List<EthereumBatchRequest> {
+        val multicallAddress = multicall3Address
+        return if (multicallAddress != null && isMulticallAvailable && tokens.size > 1) {
+            val calls = tokens.map { token ->
+                Multicall3.Call(
+                    target = token.contractAddress,
+                    callData = TokenBalanceERC20TokenMethod(address.removePrefix(HEX_PREFIX)).data,
+                )
+            }
+            val callData = Multicall3.encodeAggregate3(calls).toHexString()
+
+            listOf(EthereumBatchRequest.Call(EthCallObject(to = multicallAddress, data = callData)))
+        } else {
+            tokens.map { token -> createTokenBalanceRequest(address, token) }
+        }
+    }
+
+    private fun createTokenBalanceRequest(address: String, token: Token): EthereumBatchRequest {
+        return EthereumBatchRequest.GetTokenBalance(EthereumTokenBalanceRequestData(address, token.contractAddress))
+    }
+
+    private suspend fun parseTokenBalances(
+        address: String,
+        tokens: List<Token>,
+        requests: List<EthereumBatchRequest>,
+        responses: List<Result<EthereumResponse>>,
+    ): TokenBalances<BigDecimal> {
+        return if (requests.singleOrNull() is EthereumBatchRequest.Call) {
+            parseMulticallTokenBalances(address, tokens, responses.single())
+        } else {
+            parseTokenBalances(tokens, responses)
+        }
+    }
+
+    /** Tokens whose calls failed inside Multicall3 or the whole failed multicall are requested separately */
+    private suspend fun parseMulticallTokenBalances(
+        address: String,
+        tokens: List<Token>,
+        response: Result<EthereumResponse>,
+    ): TokenBalances<BigDecimal> {
+        val results = try {
+            Multicall3.decodeAggregate3(response.extractResult().removePrefix(HEX_PREFIX).hexToBytes())
+        } catch (exception: IllegalArgumentException) {
+            // contract isn't deployed, so node returns empty data
+            isMulticallAvailable = false
+            null
+        } catch (exception: BlockchainSdkError) {
+            null
+        }
+
+        if (results == null || results.size != tokens.size) return getTokensBalanceSeparately(address, tokens)
+
+        val (succeeded, failed) = tokens.zip(results).partition { (_, result) -> result.isSuccess }
+        val balances = succeeded.parseEach { token, result ->
+            parseTokenBalance(token, result.returnData.toHexString())
+        }
+
+        return balances + getTokensBalanceSeparately(address, failed.map { (token, _) -> token })
+    }
+
+    private fun parseTokenBalances(
+        tokens: List<Token>,
+        responses: List<Result<EthereumResponse>>,
+    ): TokenBalances<BigDecimal> {
+        return tokens.zip(responses).parseEach { token, response -> parseTokenBalance(token, response.extractResult()) }
+    }
+
+    /** Every token is parsed separately, so a failed call or malformed balance of one token doesn't fail others */
+    private inline fun <R> List<Pair<Token, R>>.parseEach(parse: (Token, R) -> BigDecimal): TokenBalances<BigDecimal> {
+        val balances = mutableMapOf<Token, BigDecimal>()
+        val errors = mutableMapOf<Token, BlockchainError>()
+        forEach { (token, response) ->
+            try {
+                balances[token] = parse(token, response)
+            } catch (exception: Exception) {
+                errors[token] = exception as? BlockchainSdkError ?: exception.toBlockchainSdkError()
             }
         }
+        return TokenBalances(balances = balances, errors = errors)
+    }
+
+    private fun parseTokenBalance(token: Token, balance: String): BigDecimal {
+        return requireNotNull(EthereumUtils.parseEthereumDecimal(balance, token.decimals)) {
+            "Failed to parse token balance. Token: ${token.name}. Balance: $balance"
+        }
     }
 
     override suspend fun findErc20Tokens(address: String): Result<List<BlockchairToken>> {
@@ -166,6 +283,32 @@ open class EthereumNetworkService(
         }
     }
 
+    override suspend fun getFeeHistory(blockCount: Int, rewardPercentiles: List<Int>): Result<EthereumFeeHistory?> {
+        return try {
+            val response = multiJsonRpcProvider.performRequest(
+                EthereumJsonRpcProvider::getFeeHistory,
+                EthereumFeeHistoryRequestData(blockCount, rewardPercentiles),
+            ).successOr { return it }
+
+            val error = response.error
+            when {
+                response.result != null -> Result.Success(response.result)
+                error?.code == METHOD_NOT_FOUND_CODE -> Result.Success(null)
+                error != null -> Result.Failure(
+                    BlockchainSdkError.Ethereum.Api(
+                        code = error.code ?: 0,
+                        message = error.message ?: "No error message",
+                    ),
+                )
+                else -> Result.Failure(BlockchainSdkError.CustomError("Unknown response format"))
+            }
+        } catch (exception: CancellationException) {
+            throw exception
+        } catch (exception: Exception) {
+            Result.Failure(exception.toBlockchainSdkError())
+        }
+    }
+
     override suspend fun getGasLimit(to: String, from: String, value: String?, data: String?): Result<BigInteger> {
         return try {
             coroutineScope {
@@ -202,6 +345,15 @@ open class EthereumNetworkService(
 
     private fun String.parseAmount(decimals: Int) = this.responseToBigInteger().toBigDecimal().movePointLeft(decimals)
 
+    private fun Result<List<Result<EthereumResponse>>>.extractBatchResults(): List<Result<EthereumResponse>> {
+        return when (this) {
+            is Result.Success -> data
+            is Result.Failure -> {
+                throw error as? BlockchainSdkError ?: BlockchainSdkError.CustomError("Unknown error format")
+            }
+        }
+    }
+
     private fun Result<EthereumResponse>.extractResult(): String = when (this) {
         is Result.Success -> {
             this.data.result
@@ -216,4 +368,13 @@ open class EthereumNetworkService(
             throw this.error as? BlockchainSdkError ?: BlockchainSdkError.CustomError("Unknown error format")
         }
     }
+
+    private companion object {
+        const val BALANCE_INDEX = 0
+        const val TX_COUNT_INDEX = 1
+        const val PENDING_TX_COUNT_INDEX = 2
+        const val INFO_REQUESTS_COUNT = 3
+        const val HEX_PREFIX = "0x"
+        const val METHOD_NOT_FOUND_CODE = -32601
+    }
 }
@@ -18,6 +18,34 @@ data class EthereumResponse(
     val error: EthereumError? = null,
 )
 
+/** Response of eth_feeHistory, its result is an object unlike results of other methods */
+@JsonClass(generateAdapter = true)
+data class EthereumFeeHistoryResponse(
+    @Json(name = "result")
+    val result: EthereumFeeHistory? = null,
+
+    @Json(name = "error")
+    val error: EthereumError? = null,
+)
+
+/**
+ * @property oldestBlock number of the first block of the range, hex
+ * @property baseFeePerGas base fees of the blocks, hex. It has one more item than blocks, the base fee of the next
+ * block. Base fees are zero for blocks before London fork
+ * @property reward priority fees of the requested percentiles for every block, hex
+ */
+@JsonClass(generateAdapter = true)
+data class EthereumFeeHistory(
+    @Json(name = "oldestBlock")
+    val oldestBlock: String,
+
+    @Json(name = "baseFeePerGas")
+    val baseFeePerGas: List<String> = emptyList(),
+
+    @Json(name = "reward")
+    val reward: List<List<String>> = emptyList(),
+)
+
 @JsonClass(generateAdapter = true)
 data class EthereumError(
     @Json(name = "code")
@@ -56,7 +56,7 @@ internal class HederaWalletManager(
 
         if (balance != wallet.amounts[AmountType.Coin]?.value) {
             // assume outgoing transaction has been finalized if balance has changed
-            wallet.recentTransactions.clear()
+            wallet.clearRecentTransactions()
         }
         wallet.changeAmountValue(AmountType.Coin, balance)
     }
@@ -0,0 +1,17 @@
+package com.tangem.blockchain.blockchains.kaspa
+
+import com.tangem.blockchain.common.TransactionData
+import java.math.BigDecimal
+
+/**
+ * Transaction prepared by [KaspaTransactionBuilder.prepareToSign]. It's immutable and doesn't depend on the
+ * builder state, so several transactions can be prepared and sent concurrently
+ *
+ * @property hashesToSign hashes to sign, one for every input
+ */
+class KaspaPreparedTransaction internal constructor(
+    val hashesToSign: List<ByteArray>,
+    internal val transactionData: TransactionData,
+    internal val unspentsToSpend: List<KaspaUnspentOutput>,
+    internal val change: BigDecimal,
+)
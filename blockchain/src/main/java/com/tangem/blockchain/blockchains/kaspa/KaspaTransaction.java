@@ -40,94 +40,142 @@ public class KaspaTransaction extends Transaction {
             SigHash type, // sighash type https://en.bitcoin.it/wiki/BIP_0143
             boolean anyoneCanPay // parameter for sighash type
     ) {
-        byte sigHashType = (byte) TransactionSignature.calcSigHashValue(type, anyoneCanPay);
-
-        ByteArrayOutputStream bos = new UnsafeByteArrayOutputStream(length == UNKNOWN_LENGTH ? 256 : length + 4);
-        try {
-            byte[] hashPrevouts = new byte[32];
-            byte[] hashSequence = new byte[32];
-            byte[] hashSigOpCounts = new byte[32];
-            byte[] hashOutputs = new byte[32];
-            anyoneCanPay = (sigHashType & SIGHASH_ANYONECANPAY_VALUE) == SIGHASH_ANYONECANPAY_VALUE;
-            List<TransactionInput> inputs = getInputs();
-            List<TransactionOutput> outputs = getOutputs();
-
-            if (!anyoneCanPay) {
-                ByteArrayOutputStream bosHashPrevouts = new UnsafeByteArrayOutputStream(256);
-                for (int i = 0; i < inputs.size(); ++i) {
-                    bosHashPrevouts.write(inputs.get(i).getOutpoint().getHash().getBytes());
-                    uint32ToByteStreamLE(inputs.get(i).getOutpoint().getIndex(), bosHashPrevouts);
-                }
-                hashPrevouts = blake2bDigestOf(bosHashPrevouts.toByteArray());
-            }
+        return createSigHashContext(type, anyoneCanPay).hashForSignatureWitness(inputIndex, connectedScript, prevValue);
+    }
+
+    // aggregate hashes of inputs and outputs are the same for every input, so they are calculated once per context.
+    // context must not be used after inputs or outputs of the transaction are changed
+    public synchronized SigHashContext createSigHashContext(SigHash type, boolean anyoneCanPay) {
+        return new SigHashContext(type, anyoneCanPay);
+    }
 
-            if (!anyoneCanPay && type != SigHash.SINGLE && type != SigHash.NONE) {
-                ByteArrayOutputStream bosSequence = new UnsafeByteArrayOutputStream(256);
-                for (int i = 0; i < inputs.size(); ++i) {
-                    uint64ToByteStreamLE(BigInteger.valueOf(0), bosSequence);
+    public final class SigHashContext {
+        private final SigHash type;
+        private final byte sigHashType;
+        private final byte[] hashPrevouts;
+        private final byte[] hashSequence;
+        private final byte[] hashSigOpCounts;
+        private final byte[] hashOutputs;
+
+        private SigHashContext(SigHash type, boolean anyoneCanPay) {
+            this.type = type;
+            this.sigHashType = (byte) TransactionSignature.calcSigHashValue(type, anyoneCanPay);
+
+            try {
+                anyoneCanPay = (sigHashType & SIGHASH_ANYONECANPAY_VALUE) == SIGHASH_ANYONECANPAY_VALUE;
+                List<TransactionInput> inputs = getInputs();
+                List<TransactionOutput> outputs = getOutputs();
+
+                byte[] hashPrevouts = new byte[32];
+                if (!anyoneCanPay) {
+                    ByteArrayOutputStream bosHashPrevouts = new UnsafeByteArrayOutputStream(256);
+                    for (int i = 0; i < inputs.size(); ++i) {
+                        bosHashPrevouts.write(inputs.get(i).getOutpoint().getHash().getBytes());
+                        uint32ToByteStreamLE(inputs.get(i).getOutpoint().getIndex(), bosHashPrevouts);
+                    }
+                    hashPrevouts = blake2bDigestOf(bosHashPrevouts.toByteArray());
+                }
+                this.hashPrevouts = hashPrevouts;
+
+                byte[] hashSequence = new byte[32];
+                if (!anyoneCanPay && type != SigHash.SINGLE && type != SigHash.NONE) {
+                    ByteArrayOutputStream bosSequence = new UnsafeByteArrayOutputStream(256);
+                    for (int i = 0; i < inputs.size(); ++i) {
+                        uint64ToByteStreamLE(BigInteger.valueOf(0), bosSequence);
+                    }
+                    hashSequence = blake2bDigestOf(bosSequence.toByteArray());
+                }
+                this.hashSequence = hashSequence;
+
+                byte[] hashSigOpCounts = new byte[32];
+                if (!anyoneCanPay) {
+                    ByteArrayOutputStream bosSigOpCounts = new UnsafeByteArrayOutputStream(256);
+                    for (int i = 0; i < inputs.size(); ++i) {
+                        bosSigOpCounts.write(1);
+                    }
+                    hashSigOpCounts = blake2bDigestOf(bosSigOpCounts.toByteArray());
+                }
+                this.hashSigOpCounts = hashSigOpCounts;
+
+                // for SINGLE hash of outputs depends on the input and is calculated for it
+                byte[] hashOutputs = new byte[32];
+                if (type != SigHash.SINGLE && type != SigHash.NONE) {
+                    ByteArrayOutputStream bosHashOutputs = new UnsafeByteArrayOutputStream(256);
+                    for (int i = 0; i < outputs.size(); ++i) {
+                        writeOutput(outputs.get(i), bosHashOutputs);
+                    }
+                    hashOutputs = blake2bDigestOf(bosHashOutputs.toByteArray());
                 }
-                hashSequence = blake2bDigestOf(bosSequence.toByteArray());
+                this.hashOutputs = hashOutputs;
+            } catch (IOException e) {
+                throw new RuntimeException(e);  // Cannot happen.
             }
+        }
 
-            if (!anyoneCanPay) {
-                ByteArrayOutputStream bosSigOpCounts = new UnsafeByteArrayOutputStream(256);
-                for (int i = 0; i < inputs.size(); ++i) {
-                    bosSigOpCounts.write(1);
-                }
-                hashSigOpCounts = blake2bDigestOf(bosSigOpCounts.toByteArray());
+        public byte[] hashForSignatureWitness(
+                int inputIndex, // index of the input
+                byte[] connectedScript, // script of the output this input is spending
+                Coin prevValue // value of the output this input is spending
+        ) {
+            synchronized (KaspaTransaction.this) {
+                return calculateHash(inputIndex, connectedScript, prevValue);
             }
+        }
 
-            if (type != SigHash.SINGLE && type != SigHash.NONE) {
-                ByteArrayOutputStream bosHashOutputs = new UnsafeByteArrayOutputStream(256);
-                for (int i = 0; i < outputs.size(); ++i) {
-                    uint64ToByteStreamLE(BigInteger.valueOf(outputs.get(i).getValue().getValue()), bosHashOutputs);
-                    uint16ToByteStreamLE(0, bosHashOutputs); // script version
-                    uint64ToByteStreamLE(BigInteger.valueOf(outputs.get(i).getScriptBytes().length), bosHashOutputs);
-                    bosHashOutputs.write(outputs.get(i).getScriptBytes());
+        private byte[] calculateHash(int inputIndex, byte[] connectedScript, Coin prevValue) {
+            ByteArrayOutputStream bos = new UnsafeByteArrayOutputStream(length == UNKNOWN_LENGTH ? 256 : length + 4);
+            try {
+                List<TransactionInput> inputs = getInputs();
+                List<TransactionOutput> outputs = getOutputs();
+
+                byte[] hashOutputs = this.hashOutputs;
+                if (type == SigHash.SINGLE && inputIndex < outputs.size()) {
+                    ByteArrayOutputStream bosHashOutputs = new UnsafeByteArrayOutputStream(256);
+                    writeOutput(outputs.get(inputIndex), bosHashOutputs);
+                    hashOutputs = blake2bDigestOf(bosHashOutputs.toByteArray());
                 }
-                hashOutputs = blake2bDigestOf(bosHashOutputs.toByteArray());
-            } else if (type == SigHash.SINGLE && inputIndex < outputs.size()) {
-                ByteArrayOutputStream bosHashOutputs = new UnsafeByteArrayOutputStream(256);
-                uint64ToByteStreamLE(BigInteger.valueOf(outputs.get(inputIndex).getValue().getValue()), bosHashOutputs);
+
+                uint16ToByteStreamLE((int) getVersion(), bos);
+                bos.write(hashPrevouts);
+                bos.write(hashSequence);
+                bos.write(hashSigOpCounts);
+                bos.write(inputs.get(inputIndex).getOutpoint().getHash().getBytes());
+                uint32ToByteStreamLE(inputs.get(inputIndex).getOutpoint().getIndex(), bos);
                 uint16ToByteStreamLE(0, bos); // script version
-                uint64ToByteStreamLE(BigInteger.valueOf(outputs.get(inputIndex).getScriptBytes().length), bosHashOutputs);
-                bosHashOutputs.write(outputs.get(inputIndex).getScriptBytes());
-                hashOutputs = blake2bDigestOf(bosHashOutputs.toByteArray());
+                uint64ToByteStreamLE(BigInteger.valueOf(connectedScript.length), bos);
+                bos.write(connectedScript);
+                uint64ToByteStreamLE(BigInteger.valueOf(prevValue.getValue()), bos);
+                uint64ToByteStreamLE(BigInteger.valueOf(inputs.get(inputIndex).getSequenceNumber()), bos);
+                bos.write(1); // sig op count
+                bos.write(hashOutputs);
+                uint64ToByteStreamLE(BigInteger.valueOf(getLockTime()), bos);
+                bos.write(new byte[20]); // subnetwork id
+                uint64ToByteStreamLE(BigInteger.valueOf(0), bos); // gas
+                bos.write(new byte[32]); // payload hash
+                bos.write(sigHashType); // sig op count
+            } catch (IOException e) {
+                throw new RuntimeException(e);  // Cannot happen.
             }
 
-            uint16ToByteStreamLE((int) getVersion(), bos);
-            bos.write(hashPrevouts);
-            bos.write(hashSequence);
-            bos.write(hashSigOpCounts);
-            bos.write(inputs.get(inputIndex).getOutpoint().getHash().getBytes());
-            uint32ToByteStreamLE(inputs.get(inputIndex).getOutpoint().getIndex(), bos);
-            uint16ToByteStreamLE(0, bos); // script version
-            uint64ToByteStreamLE(BigInteger.valueOf(connectedScript.length), bos);
-            bos.write(connectedScript);
-            uint64ToByteStreamLE(BigInteger.valueOf(prevValue.getValue()), bos);
-            uint64ToByteStreamLE(BigInteger.valueOf(inputs.get(inputIndex).getSequenceNumber()), bos);
-            bos.write(1); // sig op count
-            bos.write(hashOutputs);
-            uint64ToByteStreamLE(BigInteger.valueOf(getLockTime()), bos);
-            bos.write(new byte[20]); // subnetwork id
-            uint64ToByteStreamLE(BigInteger.valueOf(0), bos); // gas
-            bos.write(new byte[32]); // payload hash
-            bos.write(sigHashType); // sig op count
-        } catch (IOException e) {
-            throw new RuntimeException(e);  // Cannot happen.
-        }
+            byte[] blakeHash = blake2bDigestOf(bos.toByteArray()); // used as is for Schnorr addresses
 
-        byte[] blakeHash = blake2bDigestOf(bos.toByteArray()); // used as is for Schnorr addresses
+            ByteArrayOutputStream finalBos = new UnsafeByteArrayOutputStream(64);
+            try {
+                finalBos.write(TRANSACTION_SIGNING_ECDSA_DOMAIN_HASH);
+                finalBos.write(blakeHash);
+            } catch (IOException e) {
+                throw new RuntimeException(e);  // Cannot happen.
+            }
 
-        ByteArrayOutputStream finalBos = new UnsafeByteArrayOutputStream(64);
-        try {
-            finalBos.write(TRANSACTION_SIGNING_ECDSA_DOMAIN_HASH);
-            finalBos.write(blakeHash);
-        } catch (IOException e) {
-            throw new RuntimeException(e);  // Cannot happen.
+            return Sha256Hash.of(finalBos.toByteArray()).getBytes();
         }
+    }
 
-        return Sha256Hash.of(finalBos.toByteArray()).getBytes();
+    private void writeOutput(TransactionOutput output, ByteArrayOutputStream bos) throws IOException {
+        uint64ToByteStreamLE(BigInteger.valueOf(output.getValue().getValue()), bos);
+        uint16ToByteStreamLE(0, bos); // script version
+        uint64ToByteStreamLE(BigInteger.valueOf(output.getScriptBytes().length), bos);
+        bos.write(output.getScriptBytes());
     }
 
     private byte[] blake2bDigestOf(byte[] input) {
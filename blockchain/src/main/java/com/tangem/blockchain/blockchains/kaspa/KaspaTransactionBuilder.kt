@@ -5,6 +5,10 @@ import com.tangem.blockchain.blockchains.kaspa.kaspacashaddr.KaspaCashAddr
 import com.tangem.blockchain.blockchains.kaspa.network.*
 import com.tangem.blockchain.common.BlockchainSdkError
 import com.tangem.blockchain.common.TransactionData
+import com.tangem.blockchain.common.utxo.CoinSelection
+import com.tangem.blockchain.common.utxo.CoinSelectionParams
+import com.tangem.blockchain.common.utxo.CoinSelector
+import com.tangem.blockchain.common.utxo.toSmallestUnitsOrNull
 import com.tangem.blockchain.extensions.Result
 import com.tangem.common.extensions.isZero
 import com.tangem.common.extensions.toHexString
@@ -14,48 +18,91 @@ import org.bitcoinj.script.ScriptBuilder
 import org.bitcoinj.script.ScriptOpCodes.*
 import java.math.BigDecimal
 import java.math.BigInteger
+import java.math.RoundingMode
 
 class KaspaTransactionBuilder {
-    private lateinit var transaction: KaspaTransaction
     private var networkParameters = KaspaMainNetParams()
+    private val coinSelector = CoinSelector()
+
+    /** Latest known outputs of the wallet, they are taken as a snapshot by every prepared transaction */
+    @Volatile
     var unspentOutputs: List<KaspaUnspentOutput>? = null
 
+    // transaction of the last buildToSign call
+    @Volatile
+    private var preparedTransaction: KaspaPreparedTransaction? = null
+
+    /** Prepares the transaction and keeps it for [buildToSend], use [prepareToSign] to build concurrently */
     fun buildToSign(transactionData: TransactionData): Result<List<ByteArray>> {
+        return when (val prepareResult = prepareToSign(transactionData)) {
+            is Result.Failure -> prepareResult
+            is Result.Success -> {
+                preparedTransaction = prepareResult.data
+                Result.Success(prepareResult.data.hashesToSign)
+            }
+        }
+    }
+
+    /** Signs the transaction of the last [buildToSign] call */
+    fun buildToSend(signatures: ByteArray): KaspaTransactionBody {
+        val preparedTransaction = requireNotNull(preparedTransaction) { "Transaction is not built to sign" }
+        return buildToSend(preparedTransaction, signatures)
+    }
+
+    /**
+     * @param unspentOutputs snapshot of outputs to spend, latest known outputs by default
+     */
+    fun prepareToSign(
+        transactionData: TransactionData,
+        unspentOutputs: List<KaspaUnspentOutput>? = this.unspentOutputs,
+    ): Result<KaspaPreparedTransaction> {
         if (unspentOutputs.isNullOrEmpty()) {
             return Result.Failure(
                 BlockchainSdkError.CustomError("Unspent outputs are missing"),
             )
         }
 
-        val unspentsToSpend = getUnspentsToSpend()
+        val amount = requireNotNull(transactionData.amount.value) { "Transaction amount is null" }
+        val unspentsToSpend = selectUnspents(amount, unspentOutputs)?.inputs ?: getUnspentsToSpend(unspentOutputs)
 
         val change = calculateChange(
-            amount = requireNotNull(transactionData.amount.value) { "Transaction amount is null" },
+            amount = amount,
             fee = transactionData.fee?.amount?.value ?: BigDecimal.ZERO,
             unspentOutputs = unspentsToSpend,
         )
         if (change < BigDecimal.ZERO) { // unspentsToSpend not enough to cover transaction amount
-            val maxAmount = transactionData.amount.value + change
+            val maxAmount = amount + change
             return Result.Failure(BlockchainSdkError.Kaspa.UtxoAmountError(MAX_INPUT_COUNT, maxAmount))
         }
+        // change below dust is left to miners
+        val dust = KaspaWalletManager.FEE_PER_UNSPENT_OUTPUT.toBigDecimal()
+        val changeToSend = if (change < dust) BigDecimal.ZERO else change
 
-        transaction = transactionData.toKaspaTransaction(networkParameters, unspentsToSpend, change)
+        val transaction = transactionData.toKaspaTransaction(networkParameters, unspentsToSpend, changeToSend)
 
+        val sigHashContext = transaction.createSigHashContext(SigHash.ALL, false)
         val hashesForSign: MutableList<ByteArray> = MutableList(transaction.inputs.size) { byteArrayOf() }
         for (input in transaction.inputs) {
             val index = input.index
-            hashesForSign[index] = transaction.hashForSignatureWitness(
-                index,
-                input.scriptBytes,
-                input.value,
-                SigHash.ALL,
-                false,
-            )
+            hashesForSign[index] = sigHashContext.hashForSignatureWitness(index, input.scriptBytes, input.value)
         }
-        return Result.Success(hashesForSign)
+        return Result.Success(
+            KaspaPreparedTransaction(
+                hashesToSign = hashesForSign,
+                transactionData = transactionData,
+                unspentsToSpend = unspentsToSpend,
+                change = changeToSend,
+            ),
+        )
     }
 
-    fun buildToSend(signatures: ByteArray): KaspaTransactionBody {
+    /** Creates the transaction of [preparedTransaction] again and adds [signatures] to it */
+    fun buildToSend(preparedTransaction: KaspaPreparedTransaction, signatures: ByteArray): KaspaTransactionBody {
+        val transaction = preparedTransaction.transactionData.toKaspaTransaction(
+            networkParameters = networkParameters,
+            unspentOutputs = preparedTransaction.unspentsToSpend,
+            change = preparedTransaction.change,
+        )
         for (index in transaction.inputs.indices) {
             val signature = extractSignature(index, signatures)
             transaction.inputs[index].scriptSig = ScriptBuilder().data(signature).build()
@@ -97,15 +144,40 @@ class KaspaTransactionBuilder {
         return fullAmount - (amount + fee)
     }
 
-    fun getUnspentsToSpendCount(): Int {
+    fun getUnspentsToSpendCount(unspentOutputs: List<KaspaUnspentOutput>? = this.unspentOutputs): Int {
         val count = unspentOutputs?.size ?: 0
         return if (count < MAX_INPUT_COUNT) count else MAX_INPUT_COUNT
     }
 
-    fun getUnspentsToSpend() = unspentOutputs!!.sortedByDescending { it.amount }.take(getUnspentsToSpendCount())
+    /** Largest outputs allowed in one transaction, they give the maximum amount which can be sent */
+    fun getUnspentsToSpend(unspentOutputs: List<KaspaUnspentOutput> = this.unspentOutputs!!) =
+        unspentOutputs.sortedByDescending { it.amount }.take(getUnspentsToSpendCount(unspentOutputs))
+
+    /**
+     * Outputs to send [amount] with fee paid for every input, null if [MAX_INPUT_COUNT] outputs are not enough.
+     * Fee of the transaction is [KaspaWalletManager.FEE_PER_UNSPENT_OUTPUT] multiplied by count of selected outputs
+     */
+    fun selectUnspents(
+        amount: BigDecimal,
+        unspentOutputs: List<KaspaUnspentOutput>? = this.unspentOutputs,
+    ): CoinSelection<KaspaUnspentOutput>? {
+        if (unspentOutputs == null) return null
+        val feePerInput = KaspaWalletManager.FEE_PER_UNSPENT_OUTPUT.toBigDecimal()
+            .toSmallestUnitsOrNull(KASPA_DECIMALS, RoundingMode.UP) ?: return null
+        val amountUnits = amount.toSmallestUnitsOrNull(KASPA_DECIMALS, RoundingMode.UP) ?: return null
+        val params = CoinSelectionParams(
+            amount = amountUnits,
+            target = amountUnits,
+            costPerInput = feePerInput,
+            costOfChange = feePerInput, // change below dust isn't created
+            maxInputs = MAX_INPUT_COUNT,
+        )
+        return coinSelector.select(unspentOutputs, params, KASPA_DECIMALS, KaspaUnspentOutput::amount)
+    }
 
     companion object {
         const val MAX_INPUT_COUNT = 84 // Kaspa rejects transactions with more inputs
+        private const val KASPA_DECIMALS = 8
     }
 }
 
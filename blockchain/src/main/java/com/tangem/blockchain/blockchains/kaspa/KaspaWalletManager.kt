@@ -34,7 +34,7 @@ class KaspaWalletManager(
         Log.d(this::class.java.simpleName, "Balance is ${response.balance}")
         if (response.balance != wallet.amounts[AmountType.Coin]?.value) {
             // assume outgoing transaction has been finalized if balance has changed
-            wallet.recentTransactions.clear()
+            wallet.clearRecentTransactions()
         }
         wallet.changeAmountValue(AmountType.Coin, response.balance)
         transactionBuilder.unspentOutputs = response.unspentOutputs
@@ -46,14 +46,16 @@ class KaspaWalletManager(
     }
 
     override suspend fun send(transactionData: TransactionData, signer: TransactionSigner): SimpleResult {
-        when (val buildTransactionResult = transactionBuilder.buildToSign(transactionData)) {
-            is Result.Failure -> return SimpleResult.Failure(buildTransactionResult.error)
+        when (val prepareResult = transactionBuilder.prepareToSign(transactionData)) {
+            is Result.Failure -> return SimpleResult.Failure(prepareResult.error)
             is Result.Success -> {
-                val signerResult = signer.sign(buildTransactionResult.data, wallet.publicKey)
+                val preparedTransaction = prepareResult.data
+                val signerResult = signer.sign(preparedTransaction.hashesToSign, wallet.publicKey)
                 return when (signerResult) {
                     is CompletionResult.Success -> {
                         val transactionToSend = transactionBuilder.buildToSend(
-                            signerResult.data.reduce { acc, bytes -> acc + bytes },
+                            preparedTransaction = preparedTransaction,
+                            signatures = signerResult.data.reduce { acc, bytes -> acc + bytes },
                         )
                         val sendResult = networkProvider.sendTransaction(transactionToSend)
 
@@ -69,7 +71,10 @@ class KaspaWalletManager(
     }
 
     override suspend fun getFee(amount: Amount, destination: String): Result<TransactionFee> {
-        val unspentOutputCount = transactionBuilder.getUnspentsToSpendCount()
+        val unspentOutputs = transactionBuilder.unspentOutputs
+        // when outputs are not enough for the amount, fee is calculated for the maximum count of them
+        val selection = amount.value?.let { transactionBuilder.selectUnspents(it, unspentOutputs) }
+        val unspentOutputCount = selection?.inputs?.size ?: transactionBuilder.getUnspentsToSpendCount(unspentOutputs)
 
         return if (unspentOutputCount == 0) {
             Result.Failure(Exception("No unspent outputs found").toBlockchainSdkError()) // shouldn't happen
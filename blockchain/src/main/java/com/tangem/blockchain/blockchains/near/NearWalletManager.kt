@@ -64,7 +64,7 @@ class NearWalletManager(
         wallet.recentTransactions.firstOrNull()?.let {
             val status = networkService.getStatus(requireNotNull(it.hash), it.sourceAddress).successOr { return }
             if (status.isSuccessful) {
-                it.status = TransactionStatus.Confirmed
+                wallet.confirmRecentTransactions { recent -> recent.hash == it.hash }
             }
         }
     }
@@ -118,8 +118,10 @@ class NearWalletManager(
                 )
                 when (val sendResultHash = networkService.sendTransaction(txToSend.encodeBase64NoWrap())) {
                     is Result.Success -> {
-                        transactionData.hash = sendResultHash.data
-                        wallet.addOutgoingTransaction(transactionData = transactionData, hashToLowercase = false)
+                        wallet.addOutgoingTransaction(
+                            transactionData = transactionData.copy(hash = sendResultHash.data),
+                            hashToLowercase = false,
+                        )
 
                         SimpleResult.Success
                     }
@@ -10,6 +10,11 @@ import com.tangem.blockchain.extensions.SimpleResult
 import com.tangem.blockchain.extensions.map
 import com.tangem.blockchain.extensions.successOr
 import com.tangem.common.extensions.toHexString
+import kotlinx.coroutines.flow.Flow
+import kotlinx.coroutines.flow.distinctUntilChanged
+import kotlinx.coroutines.flow.map
+import kotlinx.coroutines.flow.onCompletion
+import kotlinx.coroutines.flow.onEach
 import org.bitcoinj.core.LegacyAddress
 import org.bitcoinj.core.Sha256Hash
 import org.bitcoinj.params.MainNetParams
@@ -33,12 +38,37 @@ class NexaWalletManager(
         sha256Hash.reversedArray().toHexString()
     }
 
+    /** Latest status pushed by the server, null while there is no active subscription */
+    @Volatile
+    private var subscribedStatus: AccountStatus? = null
+
+    /** Subscribed status the wallet was updated with */
+    @Volatile
+    private var updatedStatus: AccountStatus? = null
+
+    /**
+     * Emits every time the account status pushed by the server changes, the first emission is the current status.
+     * While the flow is collected [update] doesn't request the account until its status changes,
+     * so the app may call [update] on emissions instead of polling.
+     * The flow completes when the connection is lost, after that [update] requests the account on every call.
+     */
+    val accountStatusChanges: Flow<Unit>
+        get() = networkProvider.subscribeStatus(addressScriptHash)
+            .distinctUntilChanged()
+            .onEach { status -> subscribedStatus = AccountStatus(status) }
+            .onCompletion { subscribedStatus = null }
+            .map { }
+
     override suspend fun updateInternal() {
+        val status = subscribedStatus
+        if (status != null && status == updatedStatus) return
+
         val accountRes = networkProvider.getAccount(addressScriptHash)
 
         val account = accountRes.successOr { throw it.error }
 
         wallet.setCoinValue(account.confirmedAmount)
+        updatedStatus = status
 
         // TODO
         // val outputsRes = networkProvider.getUnspentUTXOs(addressScriptHash)
@@ -84,6 +114,9 @@ class NexaWalletManager(
         }
     }
 
+    /** Wrapper to tell the status of account without history (null) from the absent subscription */
+    private data class AccountStatus(val value: String?)
+
     companion object {
         private const val TEST_TRANSACTION_SIZE = 256 // TODO delete
         private val DEFAULT_FEE_IN_COINS_PER_1000_BYTES = 1000.toBigDecimal()
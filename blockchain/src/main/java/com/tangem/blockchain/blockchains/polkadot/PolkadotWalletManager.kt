@@ -105,10 +105,9 @@ class PolkadotWalletManager(
     }
 
     override suspend fun send(transactionData: TransactionData, signer: TransactionSigner): SimpleResult {
-        val latestBlockHash = networkProvider.getLatestBlockHash().successOr { return it.toSimpleFailure() }
-        val blockNumber = networkProvider.getBlockNumber(latestBlockHash).successOr { return it.toSimpleFailure() }
-        currentContext.era = Era.Mortal.forCurrent(TRANSACTION_LIFE_PERIOD, blockNumber.toLong())
-        currentContext.eraBlockHash = Hash256(latestBlockHash.hexToBytes())
+        val eraBlock = networkProvider.getLatestBlockParent().successOr { return it.toSimpleFailure() }
+        currentContext.era = Era.Mortal.forCurrent(TRANSACTION_LIFE_PERIOD, eraBlock.number.toLong())
+        currentContext.eraBlockHash = Hash256(eraBlock.hash.hexToBytes())
         return when (transactionData.amount.type) {
             AmountType.Coin -> sendCoin(transactionData, signer, currentContext)
             else -> SimpleResult.Failure(UnsupportedOperation())
@@ -145,9 +144,7 @@ class PolkadotWalletManager(
             return SimpleResult.Failure(it.error)
         }
 
-        transactionData.hash = txHash
-        transactionData.date = Calendar.getInstance()
-        wallet.addOutgoingTransaction(transactionData)
+        wallet.addOutgoingTransaction(transactionData.copy(hash = txHash))
 
         return SimpleResult.Success
     }
@@ -10,4 +10,8 @@ interface PolkadotApi {
     @Headers("Content-Type: application/json")
     @POST(".")
     suspend fun postWithStringResult(@Body body: RpcBody?): RpcStringResponse
+
+    @Headers("Content-Type: application/json")
+    @POST(".")
+    suspend fun postWithStorageResult(@Body body: RpcBody?): RpcStorageResponse
 }
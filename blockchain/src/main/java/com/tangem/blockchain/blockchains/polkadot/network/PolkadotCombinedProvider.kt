@@ -13,12 +13,16 @@ import io.emeraldpay.polkaj.api.RpcCoder
 import io.emeraldpay.polkaj.api.StandardCommands
 import io.emeraldpay.polkaj.apihttp.JavaRetrofitAdapter
 import io.emeraldpay.polkaj.json.jackson.PolkadotModule
-import io.emeraldpay.polkaj.scaletypes.AccountInfo
+import io.emeraldpay.polkaj.scale.ScaleCodecReader
 import io.emeraldpay.polkaj.tx.AccountRequests
 import io.emeraldpay.polkaj.tx.ExtrinsicContext
+import io.emeraldpay.polkaj.tx.StorageRequest
 import io.emeraldpay.polkaj.types.Address
 import io.emeraldpay.polkaj.types.ByteData
+import io.emeraldpay.polkaj.types.Hash256
 import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.async
+import kotlinx.coroutines.coroutineScope
 import kotlinx.coroutines.withContext
 import java.math.BigDecimal
 import java.math.BigInteger
@@ -29,23 +33,28 @@ import java.math.BigInteger
 class PolkadotCombinedProvider(
     private val decimals: Int,
     override val baseUrl: String,
+    private val runtimeCache: PolkadotRuntimeCache = PolkadotRuntimeCache(),
 ) : PolkadotNetworkProvider {
 
     private val polkadotApi: PolkadotApi = PolkadotApi.Builder().rpcCallAdapter(rpcCallAdapter(baseUrl)).build()
     private val polkadotProvider: PolkadotJsonRpcProvider = PolkadotJsonRpcProvider(baseUrl)
     private val commands = StandardCommands.getInstance()
 
-    override suspend fun getBalance(address: String): Result<BigDecimal> = withContext(Dispatchers.IO) {
-        val accountInfo = getAccountInfo(Address.from(address)).successOr { return@withContext it }
-
-        val amount = accountInfo?.data?.free?.toBigDecimal(decimals) ?: BigDecimal.ZERO
-        Result.Success(amount)
+    override suspend fun getBalance(address: String): Result<BigDecimal> {
+        val balances = getBalances(listOf(address)).successOr { return it }
+        return Result.Success(balances.getValue(address))
     }
 
-    private suspend fun getAccountInfo(address: Address): Result<AccountInfo?> = withContext(Dispatchers.IO) {
-        try {
-            val info = AccountRequests.balanceOf(address).execute(polkadotApi).get()
-            Result.Success(info)
+    override suspend fun getBalances(addresses: List<String>): Result<Map<String, BigDecimal>> {
+        return try {
+            val requests = addresses.associateWith { AccountRequests.balanceOf(Address.from(it)) }
+            val values = polkadotProvider.queryStorage(requests.values.map { it.key() }).successOr { return it }
+
+            val balances = requests.mapValues { (_, request) ->
+                val accountInfo = values[request.key()]?.let { request.apply(ByteData.from(it)) }
+                accountInfo?.data?.free?.toBigDecimal(decimals) ?: BigDecimal.ZERO
+            }
+            Result.Success(balances)
         } catch (ex: Exception) {
             Result.Failure(BlockchainSdkError.Polkadot.Api(ex))
         }
@@ -90,16 +99,63 @@ class PolkadotCombinedProvider(
         }
     }
 
-    override suspend fun extrinsicContext(address: String): Result<ExtrinsicContext> = withContext(Dispatchers.IO) {
-        try {
-            Result.Success(polkadotApi.autoContext(Address.from(address)))
+    override suspend fun getLatestBlockParent(): Result<PolkadotBlock> {
+        return try {
+            polkadotProvider.getLatestBlockParent()
+        } catch (ex: Exception) {
+            Result.Failure(BlockchainSdkError.Polkadot.Api(ex))
+        }
+    }
+
+    /**
+     * Nonce and the spec version of the last runtime upgrade are requested at once, genesis hash and runtime
+     * version are taken from [runtimeCache] while the spec version stays the same
+     */
+    override suspend fun extrinsicContext(address: String): Result<ExtrinsicContext> {
+        return try {
+            val accountRequest = AccountRequests.balanceOf(Address.from(address))
+            val values = polkadotProvider.queryStorage(listOf(accountRequest.key(), LAST_RUNTIME_UPGRADE_KEY))
+                .successOr { return it }
+
+            val nonce = values[accountRequest.key()]?.let { accountRequest.apply(ByteData.from(it)).nonce } ?: 0L
+            val specVersion = values[LAST_RUNTIME_UPGRADE_KEY]
+                ?.let { ScaleCodecReader(ByteData.from(it).bytes).readCompactInt() }
+            val runtime = specVersion?.let(runtimeCache::get) ?: getRuntime().successOr { return it }
+
+            val context = ExtrinsicContext.newBuilder()
+                .runtime(runtime.runtimeVersion.transactionVersion, runtime.runtimeVersion.specVersion)
+                .genesis(runtime.genesis)
+                .nonce(nonce)
+                .build()
+            Result.Success(context)
         } catch (ex: Exception) {
             Result.Failure(BlockchainSdkError.Polkadot.Api(ex))
         }
     }
 
+    private suspend fun getRuntime(): Result<PolkadotRuntime> = coroutineScope {
+        val genesisHash = async { polkadotProvider.getGenesisHash() }
+        val runtimeVersion = polkadotProvider.getRuntimeVersion().successOr {
+            genesisHash.cancel()
+            return@coroutineScope it
+        }
+
+        val runtime = PolkadotRuntime(
+            genesis = Hash256.from(genesisHash.await().successOr { return@coroutineScope it }),
+            runtimeVersion = runtimeVersion,
+        )
+        runtimeCache.put(runtime)
+        Result.Success(runtime)
+    }
+
+    private fun StorageRequest<*>.key(): String = encodeRequest().toString().lowercase()
+
     companion object {
 
+        /** twox128("System") + twox128("LastRuntimeUpgrade"), value starts with the compact spec version */
+        private const val LAST_RUNTIME_UPGRADE_KEY =
+            "0x26aa394eea5630e07c48ae0c9558cef7f9cce9c888469bb1a0dceaa129672ef8"
+
         private fun rpcCallAdapter(baseUrl: String): RpcCallAdapter {
             val okHttpClient = BlockchainSdkRetrofitBuilder.build()
             val rpcCoder = RpcCoder(ObjectMapper().apply { registerModule(PolkadotModule()) })
@@ -108,7 +164,3 @@ class PolkadotCombinedProvider(
         }
     }
 }
-
-internal fun PolkadotApi.autoContext(address: Address): ExtrinsicContext {
-    return ExtrinsicContext.newAutoBuilder(address, this).get().build()
-}
@@ -2,6 +2,7 @@ package com.tangem.blockchain.blockchains.polkadot.network
 
 import com.squareup.moshi.Json
 import com.squareup.moshi.JsonClass
+import java.math.BigInteger
 
 @JsonClass(generateAdapter = true)
 data class RpcBody(
@@ -41,6 +42,33 @@ data class RpcStringResponse(
     val error: PolkadotError? = null,
 )
 
+@JsonClass(generateAdapter = true)
+data class RpcStorageResponse(
+    @Json(name = "jsonrpc")
+    val jsonrpc: String = "",
+
+    @Json(name = "id")
+    val id: Int? = null,
+
+    @Json(name = "result")
+    val result: List<StorageChangeSet>? = null,
+
+    @Json(name = "error")
+    val error: PolkadotError? = null,
+)
+
+/**
+ * Values of storage keys at [block], every change is a pair of a key and its value or null if it isn't set
+ */
+@JsonClass(generateAdapter = true)
+data class StorageChangeSet(
+    @Json(name = "block")
+    val block: String,
+
+    @Json(name = "changes")
+    val changes: List<List<String?>>,
+)
+
 @JsonClass(generateAdapter = true)
 data class PolkadotError(
     @Json(name = "code")
@@ -50,6 +78,16 @@ data class PolkadotError(
     val message: String? = null,
 )
 
+data class PolkadotBlock(
+    val hash: String,
+    val number: BigInteger,
+)
+
+data class PolkadotRuntimeVersion(
+    val specVersion: Int,
+    val transactionVersion: Int,
+)
+
 enum class PolkadotMethod(val method: String) {
     GET_FEE("payment_queryInfo"),
 }
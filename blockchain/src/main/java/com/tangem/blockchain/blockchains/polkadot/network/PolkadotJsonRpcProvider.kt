@@ -9,6 +9,8 @@ import com.tangem.blockchain.network.createRetrofitInstance
 import com.tangem.common.extensions.toHexString
 import io.emeraldpay.polkaj.api.PolkadotMethod.CHAIN_GET_BLOCK_HASH
 import io.emeraldpay.polkaj.api.PolkadotMethod.CHAIN_GET_HEADER
+import io.emeraldpay.polkaj.api.PolkadotMethod.STATE_GET_RUNTIME_VERSION
+import io.emeraldpay.polkaj.api.PolkadotMethod.STATE_QUERY_STORAGE_AT
 import org.kethereum.extensions.hexToBigInteger
 import org.komputing.khex.model.HexString
 import java.math.BigDecimal
@@ -47,6 +49,55 @@ class PolkadotJsonRpcProvider(baseUrl: String) {
         return Result.Success(HexString(blockNumber).hexToBigInteger())
     }
 
+    /**
+     * Parent of the best block. Header doesn't contain the hash of its own block, but contains the hash of
+     * the parent, so a block suitable for a transaction era is got with one request
+     */
+    suspend fun getLatestBlockParent(): Result<PolkadotBlock> {
+        val header = RpcBody(CHAIN_GET_HEADER).post().extractResult()
+        val parentHash = header["parentHash"] as? String
+            ?: return Result.Failure(BlockchainSdkError.CustomError("parent hash is null"))
+        val blockNumber = header["number"] as? String
+            ?: return Result.Failure(BlockchainSdkError.CustomError("wrong block number"))
+        return Result.Success(PolkadotBlock(parentHash, HexString(blockNumber).hexToBigInteger() - BigInteger.ONE))
+    }
+
+    suspend fun getGenesisHash(): Result<String> {
+        val genesisHash = RpcBody(
+            CHAIN_GET_BLOCK_HASH,
+            params = listOf(0),
+        ).postWithStringResult().successOr { return it }.result
+            ?: return Result.Failure(BlockchainSdkError.CustomError("hash is null"))
+        return Result.Success(genesisHash)
+    }
+
+    suspend fun getRuntimeVersion(): Result<PolkadotRuntimeVersion> {
+        val runtimeVersion = RpcBody(STATE_GET_RUNTIME_VERSION).post().extractResult()
+        val specVersion = (runtimeVersion["specVersion"] as? Number)?.toInt()
+        val transactionVersion = (runtimeVersion["transactionVersion"] as? Number)?.toInt()
+        if (specVersion == null || transactionVersion == null) {
+            return Result.Failure(BlockchainSdkError.CustomError("wrong runtime version"))
+        }
+        return Result.Success(PolkadotRuntimeVersion(specVersion, transactionVersion))
+    }
+
+    /** Values of storage [keys] at the best block requested at once, keys of the result are lowercase */
+    suspend fun queryStorage(keys: List<String>): Result<Map<String, String?>> {
+        val response = RpcBody(
+            STATE_QUERY_STORAGE_AT,
+            params = listOf(keys),
+        ).postWithStorageResult().successOr { return it }
+        val changeSet = response.result?.firstOrNull()
+            ?: return Result.Failure(
+                response.error?.toSdkError() ?: BlockchainSdkError.CustomError("Unknown response format"),
+            )
+
+        val values = changeSet.changes.associate { change ->
+            change.first().orEmpty().lowercase() to change.getOrNull(1)
+        }
+        return Result.Success(values)
+    }
+
     private suspend fun RpcBody.post(): Result<RpcMapResponse> {
         return try {
             val result = retryIO { api.post(this) }
@@ -65,21 +116,33 @@ class PolkadotJsonRpcProvider(baseUrl: String) {
         }
     }
 
+    private suspend fun RpcBody.postWithStorageResult(): Result<RpcStorageResponse> {
+        return try {
+            val result = retryIO { api.postWithStorageResult(this) }
+            Result.Success(result)
+        } catch (exception: Exception) {
+            Result.Failure(exception.toBlockchainSdkError())
+        }
+    }
+
     private fun Result<RpcMapResponse>.extractResult(): Map<String, Any> = when (this) {
         is Result.Success -> {
             this.data.result
-                ?: throw this.data.error?.let { error ->
-                    BlockchainSdkError.Polkadot.ApiWithCode(
-                        code = error.code ?: 0,
-                        message = error.message ?: "No error message",
-                    )
-                } ?: BlockchainSdkError.CustomError("Unknown response format")
+                ?: throw this.data.error?.toSdkError()
+                ?: BlockchainSdkError.CustomError("Unknown response format")
         }
         is Result.Failure -> {
             throw this.error as? BlockchainSdkError ?: BlockchainSdkError.CustomError("Unknown error format")
         }
     }
 
+    private fun PolkadotError.toSdkError(): BlockchainSdkError {
+        return BlockchainSdkError.Polkadot.ApiWithCode(
+            code = code ?: 0,
+            message = message ?: "No error message",
+        )
+    }
+
     private fun Map<String, Any>.getFee(decimals: Int): BigDecimal {
         val feeString = this[FEE] as? String
         return feeString?.toBigDecimal()?.movePointLeft(decimals) ?: BigDecimal.ZERO
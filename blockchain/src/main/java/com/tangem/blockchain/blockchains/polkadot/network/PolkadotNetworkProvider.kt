@@ -9,6 +9,9 @@ import java.math.BigInteger
 interface PolkadotNetworkProvider : NetworkProvider {
     suspend fun getBalance(address: String): Result<BigDecimal>
 
+    /** Balances of several accounts requested at once */
+    suspend fun getBalances(addresses: List<String>): Result<Map<String, BigDecimal>>
+
     suspend fun getFee(builtTransaction: ByteArray): Result<BigDecimal>
 
     suspend fun sendTransaction(builtTransaction: ByteArray): Result<String>
@@ -18,4 +21,7 @@ interface PolkadotNetworkProvider : NetworkProvider {
     suspend fun getLatestBlockHash(): Result<String>
 
     suspend fun getBlockNumber(blockHash: String): Result<BigInteger>
+
+    /** Recent block suitable for a transaction era, requested at once with its number */
+    suspend fun getLatestBlockParent(): Result<PolkadotBlock>
 }
@@ -14,12 +14,18 @@ class PolkadotNetworkService(providers: List<PolkadotNetworkProvider>) : Polkado
     override suspend fun getBalance(address: String): Result<BigDecimal> =
         multiProvider.performRequest(PolkadotNetworkProvider::getBalance, address)
 
+    override suspend fun getBalances(addresses: List<String>): Result<Map<String, BigDecimal>> =
+        multiProvider.performRequest(PolkadotNetworkProvider::getBalances, addresses)
+
     override suspend fun getLatestBlockHash(): Result<String> =
         multiProvider.performRequest(PolkadotNetworkProvider::getLatestBlockHash)
 
     override suspend fun getBlockNumber(blockHash: String): Result<BigInteger> =
         multiProvider.performRequest(PolkadotNetworkProvider::getBlockNumber, blockHash)
 
+    override suspend fun getLatestBlockParent(): Result<PolkadotBlock> =
+        multiProvider.performRequest(PolkadotNetworkProvider::getLatestBlockParent)
+
     override suspend fun getFee(builtTransaction: ByteArray): Result<BigDecimal> =
         multiProvider.performRequest(PolkadotNetworkProvider::getFee, builtTransaction)
 
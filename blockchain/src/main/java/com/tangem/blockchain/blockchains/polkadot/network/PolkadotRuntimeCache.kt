@@ -0,0 +1,36 @@
+package com.tangem.blockchain.blockchains.polkadot.network
+
+import com.tangem.blockchain.common.Blockchain
+import io.emeraldpay.polkaj.types.Hash256
+import java.util.concurrent.ConcurrentHashMap
+
+/**
+ * Genesis hash and runtime version of a network shared by all its providers.
+ * Runtime is valid only for the spec version it was requested for, so it's refetched after a runtime upgrade
+ */
+class PolkadotRuntimeCache {
+
+    @Volatile
+    private var runtime: PolkadotRuntime? = null
+
+    internal fun get(specVersion: Int): PolkadotRuntime? {
+        return runtime?.takeIf { it.runtimeVersion.specVersion == specVersion }
+    }
+
+    internal fun put(runtime: PolkadotRuntime) {
+        this.runtime = runtime
+    }
+
+    companion object {
+        private val networks = ConcurrentHashMap<Blockchain, PolkadotRuntimeCache>()
+
+        fun shared(blockchain: Blockchain): PolkadotRuntimeCache {
+            return networks.getOrPut(blockchain) { PolkadotRuntimeCache() }
+        }
+    }
+}
+
+internal class PolkadotRuntime(
+    val genesis: Hash256,
+    val runtimeVersion: PolkadotRuntimeVersion,
+)
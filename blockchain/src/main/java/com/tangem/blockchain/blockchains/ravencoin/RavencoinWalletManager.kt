@@ -6,6 +6,7 @@ import com.tangem.blockchain.blockchains.bitcoin.network.BitcoinNetworkProvider
 import com.tangem.blockchain.common.*
 import com.tangem.blockchain.common.txhistory.TransactionHistoryProvider
 import java.math.BigDecimal
+import java.util.Locale
 
 class RavencoinWalletManager(
     wallet: Wallet,
@@ -22,22 +23,11 @@ class RavencoinWalletManager(
         val (confirmedTransactions, unconfirmedTransactions) =
             transactions.partition { it.isConfirmed }
 
-        wallet.recentTransactions.forEach { recent ->
-            if (confirmedTransactions.containsRecent(recent)) {
-                recent.status = TransactionStatus.Confirmed
-            }
-        }
-        unconfirmedTransactions.forEach { unconfirmed ->
-            val recentTx = wallet.recentTransactions.find { recent -> recent.hash.equals(unconfirmed.hash, true) }
-            if (recentTx == null) {
-                wallet.recentTransactions.add(unconfirmed.toTransactionData())
-            }
-        }
+        val confirmedHashes = confirmedTransactions.mapTo(hashSetOf()) { it.hash.lowercase(Locale.US) }
+        wallet.confirmRecentTransactions { it.hash?.lowercase(Locale.US) in confirmedHashes }
+        wallet.addRecentTransactions(unconfirmedTransactions.map { it.toTransactionData() })
     }
 
-    private fun List<BasicTransactionData>.containsRecent(recent: TransactionData): Boolean =
-        this.find { confirmed -> confirmed.hash.equals(recent.hash, true) } != null
-
     private fun BasicTransactionData.toTransactionData(): TransactionData {
         val coinAmount = requireNotNull(wallet.amounts[AmountType.Coin]) { "Coin amount must not be null" }
         return TransactionData(
@@ -0,0 +1,54 @@
+package com.tangem.blockchain.blockchains.solana
+
+import com.tangem.blockchain.blockchains.solana.SolanaNetworkConstantsMetrics.Kind
+import com.tangem.blockchain.blockchains.solana.solanaj.model.PrioritizationFee
+import com.tangem.blockchain.common.Blockchain
+import com.tangem.blockchain.common.cache.ExpiringCache
+import org.p2p.solanaj.rpc.types.config.Commitment
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.TimeUnit
+
+/**
+ * Network constants of a Solana cluster shared by all its wallet managers and providers:
+ *  - recent blockhash. It's valid for ~150 slots (~60 sec), so it's reused only for [BLOCKHASH_TTL_MILLIS]
+ *    to leave most of the validity window for signing and sending of a transaction
+ *  - minimal balance for rent exemption by account size. It changes only with the cluster rent parameters
+ *  - recent prioritization fees by accounts. They are collected over the last 150 slots
+ *
+ * Concurrent requests of the same value wait for a single network call, so fee estimation of several
+ * transfers fetches the blockhash once. Failures aren't cached
+ */
+internal class SolanaNetworkConstantsCache(
+    private val clock: () -> Long = { TimeUnit.NANOSECONDS.toMillis(System.nanoTime()) },
+) {
+
+    val blockhash: ExpiringCache<Commitment?, String> = createCache(Kind.BLOCKHASH, BLOCKHASH_TTL_MILLIS)
+
+    val rentExemption: ExpiringCache<Long, Long> = createCache(Kind.RENT_EXEMPTION, RENT_EXEMPTION_TTL_MILLIS)
+
+    /** Keyed by base58 addresses of accounts */
+    val prioritizationFees: ExpiringCache<List<String>, List<PrioritizationFee>> = createCache(
+        kind = Kind.PRIORITIZATION_FEES,
+        ttlMillis = PRIORITIZATION_FEES_TTL_MILLIS,
+    )
+
+    private fun <K, V> createCache(kind: Kind, ttlMillis: Long) = ExpiringCache<K, V>(
+        ttlMillis = ttlMillis,
+        clock = clock,
+        onHit = { SolanaNetworkConstantsMetrics.onHit(kind) },
+        onMiss = { SolanaNetworkConstantsMetrics.onMiss(kind) },
+    )
+
+    companion object {
+        private const val BLOCKHASH_TTL_MILLIS = 15_000L
+        private const val RENT_EXEMPTION_TTL_MILLIS = 3_600_000L
+        private const val PRIORITIZATION_FEES_TTL_MILLIS = 10_000L
+
+        private val clusters = ConcurrentHashMap<Blockchain, SolanaNetworkConstantsCache>()
+
+        /** Cache of the cluster of [blockchain], i.e. Solana mainnet or devnet */
+        fun shared(blockchain: Blockchain): SolanaNetworkConstantsCache {
+            return clusters.getOrPut(blockchain) { SolanaNetworkConstantsCache() }
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.tangem.blockchain.blockchains.solana
+
+import java.util.concurrent.atomic.AtomicLong
+
+/**
+ * Hits and misses of network constants cached by all Solana wallet managers
+ */
+object SolanaNetworkConstantsMetrics {
+
+    private val hits = Kind.values().associateWith { AtomicLong() }
+    private val misses = Kind.values().associateWith { AtomicLong() }
+
+    fun snapshot(): Snapshot = Snapshot(
+        blockhash = counts(Kind.BLOCKHASH),
+        rentExemption = counts(Kind.RENT_EXEMPTION),
+        prioritizationFees = counts(Kind.PRIORITIZATION_FEES),
+    )
+
+    internal fun onHit(kind: Kind) {
+        hits.getValue(kind).incrementAndGet()
+    }
+
+    internal fun onMiss(kind: Kind) {
+        misses.getValue(kind).incrementAndGet()
+    }
+
+    private fun counts(kind: Kind): Counts = Counts(
+        hits = hits.getValue(kind).get(),
+        misses = misses.getValue(kind).get(),
+    )
+
+    internal enum class Kind {
+        BLOCKHASH,
+        RENT_EXEMPTION,
+        PRIORITIZATION_FEES,
+    }
+
+    /**
+     * @property blockhash          counts of recent blockhash requests
+     * @property rentExemption      counts of minimal balance for rent exemption requests
+     * @property prioritizationFees counts of recent prioritization fees requests
+     */
+    data class Snapshot(
+        val blockhash: Counts,
+        val rentExemption: Counts,
+        val prioritizationFees: Counts,
+    )
+
+    /**
+     * @property hits   number of requests answered from cache
+     * @property misses number of requests sent to the network
+     */
+    data class Counts(
+        val hits: Long,
+        val misses: Long,
+    ) {
+        val hitRate: Double
+            get() = if (hits + misses == 0L) 0.0 else hits.toDouble() / (hits + misses)
+    }
+}
@@ -1,18 +1,17 @@
 package com.tangem.blockchain.blockchains.solana
 
+import com.tangem.blockchain.blockchains.solana.network.SolanaJsonRpcClient
+import com.tangem.blockchain.blockchains.solana.network.SolanaRpcCalls
 import com.tangem.blockchain.blockchains.solana.solanaj.core.SolanaTransaction
 import com.tangem.blockchain.blockchains.solana.solanaj.model.*
 import com.tangem.blockchain.blockchains.solana.solanaj.program.SolanaTokenProgram
-import com.tangem.blockchain.blockchains.solana.solanaj.rpc.SolanaRpcClient
 import com.tangem.blockchain.common.BlockchainSdkError
 import com.tangem.blockchain.common.BlockchainSdkError.Solana
 import com.tangem.blockchain.common.NetworkProvider
 import com.tangem.blockchain.extensions.Result
 import com.tangem.blockchain.extensions.successOr
-import kotlinx.coroutines.Dispatchers
 import kotlinx.coroutines.async
-import kotlinx.coroutines.awaitAll
-import kotlinx.coroutines.withContext
+import kotlinx.coroutines.coroutineScope
 import org.p2p.solanaj.core.PublicKey
 import org.p2p.solanaj.rpc.types.SignatureStatuses
 import org.p2p.solanaj.rpc.types.config.Commitment
@@ -22,17 +21,26 @@ import org.p2p.solanaj.rpc.types.config.Commitment
  */
 // FIXME: Refactor with wallet-core: https://tangem.atlassian.net/browse/AND-5706
 internal class SolanaNetworkService(
-    private val provider: SolanaRpcClient,
+    private val provider: SolanaJsonRpcClient,
+    private val constantsCache: SolanaNetworkConstantsCache,
 ) : NetworkProvider {
 
     override val baseUrl: String = provider.host
-    val endpoint: String = provider.endpoint
-
-    suspend fun getMainAccountInfo(account: PublicKey): Result<SolanaMainAccountInfo> = withContext(Dispatchers.IO) {
-        val accountInfo = getAccountInfo(account).successOr { return@withContext it }
-        val tokenAccounts = accountTokensInfo(account).successOr { return@withContext it }
+    val endpoint: String = provider.host
+
+    suspend fun getMainAccountInfo(
+        account: PublicKey,
+        txsInProgressCache: SolanaTransactionsInProgressCache,
+    ): Result<SolanaMainAccountInfo> = coroutineScope {
+        val txsInProgress = async {
+            getTransactionsInProgressInfo(account, txsInProgressCache).successOr { listOf() }
+        }
+        val accountInfo = getAccountWithTokens(account).successOr {
+            txsInProgress.cancel()
+            return@coroutineScope it
+        }
 
-        val tokensByMint = tokenAccounts.map {
+        val tokensByMint = accountInfo.tokenAccounts.map {
             SolanaTokenAccountInfo(
                 value = it,
                 address = it.pubkey,
@@ -41,166 +49,168 @@ internal class SolanaNetworkService(
             )
         }.associateBy { it.mint }
 
-        val txsInProgress = getTransactionsInProgressInfo(account).successOr { listOf() }
         Result.Success(
             SolanaMainAccountInfo(
-                value = accountInfo,
+                value = accountInfo.value,
                 tokensByMint = tokensByMint,
-                txsInProgress = txsInProgress,
+                txsInProgress = txsInProgress.await(),
             ),
         )
     }
 
     @Suppress("MagicNumber")
-    private suspend fun getTransactionsInProgressInfo(account: PublicKey): Result<List<TransactionInfo>> =
-        withContext(Dispatchers.IO) {
-            try {
-                val allSignatures = provider.api.getSignaturesForAddress(account.toBase58(), Commitment.CONFIRMED, 20)
-                val confirmedCommitmentSignatures = allSignatures
-                    .filter { it.confirmationStatus == Commitment.CONFIRMED.value }
-
-                val txInProgress = confirmedCommitmentSignatures.mapNotNull { addressSignature ->
-                    provider.api.getTransaction(addressSignature.signature, Commitment.CONFIRMED)?.let { transaction ->
-                        TransactionInfo(
-                            addressSignature.signature,
-                            transaction.meta.fee,
-                            transaction.transaction.message.instructions,
-                        )
-                    }
+    private suspend fun getTransactionsInProgressInfo(
+        account: PublicKey,
+        cache: SolanaTransactionsInProgressCache,
+    ): Result<List<TransactionInfo>> {
+        return try {
+            val confirmedCommitmentSignatures = provider
+                .call(SolanaRpcCalls.getSignaturesForAddress(account.toBase58(), Commitment.CONFIRMED, 20))
+                .filter { it.confirmationStatus == Commitment.CONFIRMED.value }
+                .map { it.signature }
+
+            // only transactions which weren't seen in previous updates are requested, all of them at once
+            val cached = cache.get(confirmedCommitmentSignatures)
+            val transactionCalls = confirmedCommitmentSignatures
+                .filterNot(cached::containsKey)
+                .associateWith { SolanaRpcCalls.getTransaction(it, Commitment.CONFIRMED) }
+            val results = provider.callAll(transactionCalls.values.toList())
+
+            val fetched = transactionCalls.mapNotNull { (signature, call) ->
+                results[call]?.let { transaction ->
+                    TransactionInfo(
+                        signature,
+                        transaction.meta.fee,
+                        transaction.transaction.message.instructions,
+                    )
                 }
-                Result.Success(txInProgress)
-            } catch (ex: Exception) {
-                Result.Failure(Solana.Api(ex))
             }
+            cache.update(confirmedCommitmentSignatures, fetched)
+
+            val fetchedBySignature = fetched.associateBy(TransactionInfo::signature)
+            val txInProgress = confirmedCommitmentSignatures.mapNotNull { cached[it] ?: fetchedBySignature[it] }
+            Result.Success(txInProgress)
+        } catch (ex: Exception) {
+            Result.Failure(Solana.Api(ex))
         }
+    }
 
-    suspend fun getSignatureStatuses(signatures: List<String>): Result<SignatureStatuses> =
-        withContext(Dispatchers.IO) {
-            try {
-                Result.Success(provider.api.getSignatureStatuses(signatures, true))
-            } catch (ex: Exception) {
-                Result.Failure(Solana.Api(ex))
-            }
+    suspend fun getSignatureStatuses(signatures: List<String>): Result<SignatureStatuses> {
+        return try {
+            Result.Success(provider.call(SolanaRpcCalls.getSignatureStatuses(signatures, true)))
+        } catch (ex: Exception) {
+            Result.Failure(Solana.Api(ex))
         }
+    }
 
     suspend fun getAccountInfoIfExist(account: PublicKey): Result<NewSolanaAccountInfo.Value> {
-        return withContext(Dispatchers.IO) {
-            try {
-                val accountInfo = getAccountInfo(account)
-                    .successOr { return@withContext it }
+        val accountInfo = getAccountInfo(account).successOr { return it }
 
-                if (accountInfo == null) {
-                    Result.Failure(BlockchainSdkError.AccountNotFound())
-                } else {
-                    Result.Success(accountInfo)
-                }
-            } catch (ex: Exception) {
-                Result.Failure(Solana.Api(ex))
-            }
+        return if (accountInfo == null) {
+            Result.Failure(BlockchainSdkError.AccountNotFound())
+        } else {
+            Result.Success(accountInfo)
         }
     }
 
     suspend fun getTokenAccountInfoIfExist(associatedAccount: PublicKey): Result<SolanaSplAccountInfo> {
-        return withContext(Dispatchers.IO) {
-            try {
-                val splAccountInfo = provider.api.getSplTokenAccountInfoNew(associatedAccount)
+        return try {
+            val splAccountInfo = provider.call(SolanaRpcCalls.getSplTokenAccountInfo(associatedAccount))
 
-                if (splAccountInfo.value == null) {
-                    Result.Failure(BlockchainSdkError.AccountNotFound())
-                } else {
-                    Result.Success(SolanaSplAccountInfo(splAccountInfo.value, associatedAccount))
-                }
-            } catch (ex: Exception) {
-                Result.Failure(Solana.Api(ex))
+            if (splAccountInfo.value == null) {
+                Result.Failure(BlockchainSdkError.AccountNotFound())
+            } else {
+                Result.Success(SolanaSplAccountInfo(splAccountInfo.value, associatedAccount))
             }
+        } catch (ex: Exception) {
+            Result.Failure(Solana.Api(ex))
         }
     }
 
     private suspend fun getAccountInfo(account: PublicKey): Result<NewSolanaAccountInfo.Value?> {
-        return withContext(Dispatchers.IO) {
-            try {
-                val params = mapOf("commitment" to Commitment.FINALIZED)
-                val accountInfo = provider.api.getAccountInfoNew(account, params)
+        return try {
+            val accountInfo = provider.call(SolanaRpcCalls.getAccountInfo(account, Commitment.FINALIZED))
 
-                Result.Success(accountInfo.value)
-            } catch (ex: Exception) {
-                Result.Failure(Solana.Api(ex))
-            }
+            Result.Success(accountInfo.value)
+        } catch (ex: Exception) {
+            Result.Failure(Solana.Api(ex))
         }
     }
 
-    private suspend fun accountTokensInfo(account: PublicKey): Result<List<NewSolanaTokenAccountInfo.Value>> =
-        withContext(Dispatchers.IO) {
-            try {
-                val tokensAccountsInfoDefault = async {
-                    tokenAccountInfo(account, SolanaTokenProgram.ID.TOKEN.value)
-                }
-                val tokensAccountsInfo2022 = async {
-                    tokenAccountInfo(account, SolanaTokenProgram.ID.TOKEN_2022.value)
-                }
-
-                val tokensAccountsInfo = awaitAll(tokensAccountsInfoDefault, tokensAccountsInfo2022)
-                    .flatMap { it.value }
-                    .distinct()
-
-                Result.Success(tokensAccountsInfo)
-            } catch (ex: Exception) {
-                Result.Failure(Solana.Api(ex))
+    /** Account and its token accounts of both token programs, requested together */
+    private suspend fun getAccountWithTokens(account: PublicKey): Result<AccountWithTokens> {
+        return try {
+            val accountInfoCall = SolanaRpcCalls.getAccountInfo(account, Commitment.FINALIZED)
+            val tokenAccountsCalls = listOf(SolanaTokenProgram.ID.TOKEN, SolanaTokenProgram.ID.TOKEN_2022).map {
+                SolanaRpcCalls.getTokenAccountsByOwner(account, it.value)
             }
-        }
 
-    private fun tokenAccountInfo(account: PublicKey, programId: PublicKey): NewSolanaTokenAccountInfo {
-        val params = buildMap {
-            put("programId", programId)
-            put("commitment", Commitment.RECENT.value)
-        }
+            val results = provider.callAll(listOf(accountInfoCall) + tokenAccountsCalls)
 
-        return provider.api.getTokenAccountsByOwnerNew(account, params)
+            Result.Success(
+                AccountWithTokens(
+                    value = results[accountInfoCall].value,
+                    tokenAccounts = tokenAccountsCalls.flatMap { results[it].value }.distinct(),
+                ),
+            )
+        } catch (ex: Exception) {
+            Result.Failure(Solana.Api(ex))
+        }
     }
 
-    suspend fun getFeeForMessage(transaction: SolanaTransaction): Result<FeeInfo> = withContext(Dispatchers.IO) {
-        try {
-            val params = provider.api.getFeeForMessage(transaction, Commitment.PROCESSED)
+    suspend fun getFeeForMessage(transaction: SolanaTransaction): Result<FeeInfo> {
+        return try {
+            val params = provider.call(SolanaRpcCalls.getFeeForMessage(transaction, Commitment.PROCESSED))
             Result.Success(params)
         } catch (ex: Exception) {
             Result.Failure(Solana.Api(ex))
         }
     }
 
-    suspend fun minimalBalanceForRentExemption(dataLength: Long): Result<Long> = withContext(Dispatchers.IO) {
-        try {
-            val rent = provider.api.getMinimumBalanceForRentExemption(dataLength)
-            Result.Success(rent)
-        } catch (ex: Exception) {
-            Result.Failure(Solana.Api(ex))
+    suspend fun minimalBalanceForRentExemption(dataLength: Long): Result<Long> {
+        return constantsCache.rentExemption.getOrLoad(dataLength) {
+            try {
+                val rent = provider.call(SolanaRpcCalls.getMinimumBalanceForRentExemption(dataLength))
+                Result.Success(rent)
+            } catch (ex: Exception) {
+                Result.Failure(Solana.Api(ex))
+            }
         }
     }
 
-    suspend fun sendTransaction(signedTransaction: SolanaTransaction): Result<String> = withContext(Dispatchers.IO) {
-        try {
-            val result = provider.api.sendSignedTransaction(signedTransaction)
+    suspend fun sendTransaction(signedTransaction: SolanaTransaction): Result<String> {
+        return try {
+            val result = provider.call(SolanaRpcCalls.sendTransaction(signedTransaction))
             Result.Success(result)
         } catch (ex: Exception) {
             Result.Failure(Solana.Api(ex))
         }
     }
 
-    suspend fun getRecentBlockhash(commitment: Commitment? = null): Result<String> = withContext(Dispatchers.IO) {
-        try {
-            Result.Success(provider.api.getRecentBlockhash(commitment))
-        } catch (ex: Exception) {
-            Result.Failure(Solana.Api(ex))
+    suspend fun getRecentBlockhash(commitment: Commitment? = null): Result<String> {
+        return constantsCache.blockhash.getOrLoad(commitment) {
+            try {
+                Result.Success(provider.call(SolanaRpcCalls.getRecentBlockhash(commitment)).value.blockhash)
+            } catch (ex: Exception) {
+                Result.Failure(Solana.Api(ex))
+            }
         }
     }
 
-    suspend fun getRecentPrioritizationFees(accounts: List<PublicKey>): Result<List<PrioritizationFee>> =
-        withContext(Dispatchers.IO) {
+    suspend fun getRecentPrioritizationFees(accounts: List<PublicKey>): Result<List<PrioritizationFee>> {
+        return constantsCache.prioritizationFees.getOrLoad(accounts.map(PublicKey::toBase58)) {
             try {
-                val fees = provider.api.getRecentPrioritizationFees(accounts)
+                val fees = provider.call(SolanaRpcCalls.getRecentPrioritizationFees(accounts))
 
                 Result.Success(fees)
             } catch (ex: Exception) {
                 Result.Failure(Solana.Api(ex))
             }
         }
+    }
+
+    private class AccountWithTokens(
+        val value: NewSolanaAccountInfo.Value?,
+        val tokenAccounts: List<NewSolanaTokenAccountInfo.Value>,
+    )
 }
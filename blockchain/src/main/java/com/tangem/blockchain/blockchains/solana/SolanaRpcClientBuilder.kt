@@ -1,6 +1,6 @@
 package com.tangem.blockchain.blockchains.solana
 
-import com.tangem.blockchain.blockchains.solana.solanaj.rpc.SolanaRpcClient
+import com.tangem.blockchain.blockchains.solana.network.SolanaJsonRpcClient
 import com.tangem.blockchain.common.BlockchainSdkConfig
 import com.tangem.blockchain.common.GetBlockCredentials
 import com.tangem.blockchain.common.NowNodeCredentials
@@ -14,7 +14,7 @@ import org.p2p.solanaj.rpc.Cluster
  */
 internal class SolanaRpcClientBuilder {
 
-    fun build(isTestnet: Boolean, config: BlockchainSdkConfig): List<SolanaRpcClient> {
+    fun build(isTestnet: Boolean, config: BlockchainSdkConfig): List<SolanaJsonRpcClient> {
         return if (isTestnet) {
             listOf(devNet())
         } else {
@@ -26,20 +26,20 @@ internal class SolanaRpcClientBuilder {
         }
     }
 
-    private fun mainNet(): SolanaRpcClient = SolanaRpcClient(Cluster.MAINNET.endpoint)
+    private fun mainNet(): SolanaJsonRpcClient = SolanaJsonRpcClient(Cluster.MAINNET.endpoint)
 
-    private fun devNet(): SolanaRpcClient = SolanaRpcClient(Cluster.DEVNET.endpoint)
+    private fun devNet(): SolanaJsonRpcClient = SolanaJsonRpcClient(Cluster.DEVNET.endpoint)
 
     @Suppress("UnusedPrivateMember")
-    private fun testNet(): SolanaRpcClient = SolanaRpcClient(Cluster.TESTNET.endpoint)
+    private fun testNet(): SolanaJsonRpcClient = SolanaJsonRpcClient(Cluster.TESTNET.endpoint)
 
-    private fun quickNode(cred: QuickNodeCredentials): SolanaRpcClient {
+    private fun quickNode(cred: QuickNodeCredentials): SolanaJsonRpcClient {
         val host = "https://${cred.subdomain}.solana-mainnet.discover.quiknode.pro/${cred.apiKey}"
-        return SolanaRpcClient(host)
+        return SolanaJsonRpcClient(host)
     }
 
-    private fun nowNode(cred: NowNodeCredentials): SolanaRpcClient {
-        return SolanaRpcClient(
+    private fun nowNode(cred: NowNodeCredentials): SolanaJsonRpcClient {
+        return SolanaJsonRpcClient(
             host = "https://sol.nownodes.io",
             httpInterceptors = createInterceptor(NowNodeCredentials.headerApiKey, cred.apiKey),
         )
@@ -47,20 +47,20 @@ internal class SolanaRpcClientBuilder {
 
     // contains old data about 7 hours
     @Suppress("UnusedPrivateMember")
-    private fun ankr(): SolanaRpcClient {
-        return SolanaRpcClient(host = "https://rpc.ankr.com/solana")
+    private fun ankr(): SolanaJsonRpcClient {
+        return SolanaJsonRpcClient(host = "https://rpc.ankr.com/solana")
     }
 
     // unstable
     @Suppress("UnusedPrivateMember")
-    private fun getBlock(cred: GetBlockCredentials): SolanaRpcClient {
-        return SolanaRpcClient(host = "https://go.getblock.io/${cred.solana}")
+    private fun getBlock(cred: GetBlockCredentials): SolanaJsonRpcClient {
+        return SolanaJsonRpcClient(host = "https://go.getblock.io/${cred.solana}")
     }
 
     // zero uptime
     @Suppress("UnusedPrivateMember")
-    private fun projectserum(): SolanaRpcClient {
-        return SolanaRpcClient(host = "https://solana-api.projectserum.com")
+    private fun projectserum(): SolanaJsonRpcClient {
+        return SolanaJsonRpcClient(host = "https://solana-api.projectserum.com")
     }
 
     private fun createInterceptor(key: String, value: String): List<Interceptor> {
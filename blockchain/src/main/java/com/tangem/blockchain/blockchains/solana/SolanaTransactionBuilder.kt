@@ -12,8 +12,6 @@ import com.tangem.blockchain.extensions.Result
 import com.tangem.blockchain.extensions.SimpleResult
 import com.tangem.blockchain.extensions.successOr
 import com.tangem.blockchain.network.MultiNetworkProvider
-import kotlinx.coroutines.Dispatchers
-import kotlinx.coroutines.withContext
 import org.p2p.solanaj.core.PublicKey
 import org.p2p.solanaj.programs.AssociatedTokenProgram
 import org.p2p.solanaj.programs.Program
@@ -168,21 +166,19 @@ internal class SolanaTransactionBuilder(
     }
 
     private suspend fun isTokenAccountExist(associatedAccount: PublicKey): Result<Boolean> {
-        return withContext(Dispatchers.IO) {
-            val infoResult = multiNetworkProvider.performRequest {
-                getTokenAccountInfoIfExist(associatedAccount)
-            }
+        val infoResult = multiNetworkProvider.performRequest {
+            getTokenAccountInfoIfExist(associatedAccount)
+        }
 
-            when {
-                infoResult is Result.Failure && infoResult.error is BlockchainSdkError.AccountNotFound -> {
-                    Result.Success(data = false)
-                }
-                infoResult is Result.Failure -> {
-                    Result.Failure(infoResult.error)
-                }
-                else -> {
-                    Result.Success(data = true)
-                }
+        return when {
+            infoResult is Result.Failure && infoResult.error is BlockchainSdkError.AccountNotFound -> {
+                Result.Success(data = false)
+            }
+            infoResult is Result.Failure -> {
+                Result.Failure(infoResult.error)
+            }
+            else -> {
+                Result.Success(data = true)
             }
         }
     }
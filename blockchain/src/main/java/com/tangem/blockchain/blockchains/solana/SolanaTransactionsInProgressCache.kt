@@ -0,0 +1,24 @@
+package com.tangem.blockchain.blockchains.solana
+
+import com.tangem.blockchain.blockchains.solana.solanaj.model.TransactionInfo
+
+/**
+ * Details of the wallet transactions in progress by signature.
+ * Details of a confirmed transaction don't change, so they're requested only once while it's in progress
+ */
+internal class SolanaTransactionsInProgressCache {
+
+    private val transactions = HashMap<String, TransactionInfo>()
+
+    @Synchronized
+    fun get(signatures: List<String>): Map<String, TransactionInfo> {
+        return signatures.mapNotNull { transactions[it] }.associateBy(TransactionInfo::signature)
+    }
+
+    /** Keeps only transactions which are still in progress and adds the [fetched] ones */
+    @Synchronized
+    fun update(inProgressSignatures: Collection<String>, fetched: List<TransactionInfo>) {
+        transactions.keys.retainAll(inProgressSignatures.toSet())
+        fetched.forEach { transactions[it.signature] = it }
+    }
+}
@@ -5,17 +5,16 @@ import com.tangem.blockchain.blockchains.solana.solanaj.core.SolanaTransaction
 import com.tangem.blockchain.blockchains.solana.solanaj.model.SolanaMainAccountInfo
 import com.tangem.blockchain.blockchains.solana.solanaj.model.SolanaSplAccountInfo
 import com.tangem.blockchain.blockchains.solana.solanaj.model.TransactionInfo
-import com.tangem.blockchain.blockchains.solana.solanaj.rpc.SolanaRpcClient
+import com.tangem.blockchain.blockchains.solana.network.SolanaJsonRpcClient
 import com.tangem.blockchain.common.*
 import com.tangem.blockchain.common.BlockchainSdkError.UnsupportedOperation
 import com.tangem.blockchain.common.transaction.Fee
 import com.tangem.blockchain.common.transaction.TransactionFee
 import com.tangem.blockchain.extensions.*
 import com.tangem.blockchain.network.MultiNetworkProvider
-import kotlinx.coroutines.Dispatchers
 import kotlinx.coroutines.async
 import kotlinx.coroutines.awaitAll
-import kotlinx.coroutines.withContext
+import kotlinx.coroutines.coroutineScope
 import org.p2p.solanaj.core.PublicKey
 import org.p2p.solanaj.programs.Program
 import org.p2p.solanaj.rpc.Cluster
@@ -28,11 +27,13 @@ import java.math.BigDecimal
 // FIXME: Refactor with wallet-core: https://tangem.atlassian.net/browse/AND-5706
 class SolanaWalletManager internal constructor(
     wallet: Wallet,
-    providers: List<SolanaRpcClient>,
+    providers: List<SolanaJsonRpcClient>,
 ) : WalletManager(wallet), TransactionSender, RentProvider {
 
     private val account = PublicKey(wallet.address)
-    private val networkServices = providers.map { SolanaNetworkService(it) }
+    private val networkServices = providers.map {
+        SolanaNetworkService(provider = it, constantsCache = SolanaNetworkConstantsCache.shared(wallet.blockchain))
+    }
 
     private val multiNetworkProvider: MultiNetworkProvider<SolanaNetworkService> =
         MultiNetworkProvider(networkServices)
@@ -41,13 +42,15 @@ class SolanaWalletManager internal constructor(
 
     private var accountSize: Long = MIN_ACCOUNT_DATA_SIZE
 
+    private val txsInProgressCache = SolanaTransactionsInProgressCache()
+
     override val currentHost: String
         get() = multiNetworkProvider.currentProvider.baseUrl
 
     private val feeRentHolder = mutableMapOf<Fee, BigDecimal>()
     override suspend fun updateInternal() {
         val accountInfo = multiNetworkProvider.performRequest {
-            getMainAccountInfo(account)
+            getMainAccountInfo(account, txsInProgressCache)
         }.successOr {
             return updateWithError(it.error)
         }
@@ -89,9 +92,7 @@ class SolanaWalletManager internal constructor(
         val signaturesStatuses = txSignatures.zip(signatureStatuses.value)
         signaturesStatuses.forEach { pair ->
             if (pair.second?.confirmationStatus == Commitment.FINALIZED.value) {
-                val foundRecentTxData =
-                    wallet.recentTransactions.firstOrNull { it.hash == pair.first }
-                foundRecentTxData?.let {
+                wallet.findRecentTransaction(pair.first)?.let {
                     confirmedTxData.add(it.copy(status = TransactionStatus.Confirmed))
                 }
             }
@@ -121,7 +122,7 @@ class SolanaWalletManager internal constructor(
                 null
             }
         }
-        wallet.recentTransactions.addAll(newUnconfirmedTxData)
+        wallet.addRecentTransactions(newUnconfirmedTxData, skipKnownHashes = false)
     }
 
     override fun createTransaction(amount: Amount, fee: Fee, destination: String): TransactionData {
@@ -169,8 +170,7 @@ class SolanaWalletManager internal constructor(
         }
 
         feeRentHolder.clear()
-        transactionData.hash = sendResult
-        wallet.addOutgoingTransaction(transactionData, hashToLowercase = false)
+        wallet.addOutgoingTransaction(transactionData.copy(hash = sendResult), hashToLowercase = false)
 
         return SimpleResult.Success
     }
@@ -198,7 +198,7 @@ class SolanaWalletManager internal constructor(
         amount: Amount,
         destination: String,
     ): Result<Pair<BigDecimal, BigDecimal>> {
-        val results = withContext(Dispatchers.IO) {
+        val results = coroutineScope {
             awaitAll(
                 async { getNetworkFee(amount, destination) },
                 async { getAccountCreationRent(amount, destination) },
@@ -0,0 +1,191 @@
+package com.tangem.blockchain.blockchains.solana.network
+
+import com.squareup.moshi.JsonAdapter
+import com.squareup.moshi.JsonDataException
+import com.squareup.moshi.JsonEncodingException
+import com.squareup.moshi.JsonReader
+import com.squareup.moshi.Types
+import com.tangem.blockchain.common.JsonRPCRequest
+import com.tangem.blockchain.common.JsonRPCRequestJsonAdapter
+import com.tangem.blockchain.network.BlockchainSdkRetrofitBuilder
+import com.tangem.blockchain.network.moshi
+import kotlinx.coroutines.async
+import kotlinx.coroutines.awaitAll
+import kotlinx.coroutines.coroutineScope
+import okhttp3.Interceptor
+import okhttp3.MediaType.Companion.toMediaType
+import okhttp3.Request
+import okhttp3.RequestBody.Companion.toRequestBody
+import okhttp3.ResponseBody
+import org.p2p.solanaj.rpc.RpcException
+import ru.gildor.coroutines.okhttp.await
+import java.io.IOException
+import java.util.concurrent.atomic.AtomicLong
+
+/**
+ * Solana JSON-RPC client on the shared sdk http stack.
+ * Unlike solanaj RpcClient, calls suspend instead of blocking a thread while waiting for the node.
+ *
+ * @throws RpcException if the node returned error, [IOException] on connection and parsing errors
+ */
+internal class SolanaJsonRpcClient(
+    val host: String,
+    httpInterceptors: List<Interceptor> = emptyList(),
+) {
+
+    private val client = BlockchainSdkRetrofitBuilder.build(internalInterceptors = httpInterceptors)
+
+    private val requestAdapter = JsonRPCRequestJsonAdapter(moshi)
+    private val requestListAdapter: JsonAdapter<List<JsonRPCRequest>> =
+        moshi.adapter(Types.newParameterizedType(List::class.java, JsonRPCRequest::class.java))
+
+    private val lastRequestId = AtomicLong()
+
+    @Volatile
+    private var isBatchSupported = true
+
+    suspend fun <T> call(call: SolanaRpcCall<T>): T {
+        val request = call.toRequest()
+        return post(requestAdapter.toJson(request)).use { body ->
+            parseOrThrow { call.responseAdapter().fromJson(body.source()) }.unpack()
+        }
+    }
+
+    /**
+     * Performs all calls with a single JSON-RPC batch if the node supports it, otherwise concurrently.
+     * Fails if any of the calls failed
+     */
+    suspend fun callAll(calls: List<SolanaRpcCall<*>>): SolanaRpcResults {
+        if (calls.size > 1 && isBatchSupported) {
+            try {
+                return callBatch(calls)
+            } catch (e: BatchNotSupportedException) {
+                isBatchSupported = false
+            }
+        }
+
+        return coroutineScope {
+            val results = calls
+                .map { call -> async { call to call(call) } }
+                .awaitAll()
+            SolanaRpcResults(results.toMap())
+        }
+    }
+
+    private suspend fun callBatch(calls: List<SolanaRpcCall<*>>): SolanaRpcResults {
+        val requests = calls.map { it.toRequest() }
+        val callsById = requests.zip(calls).associate { (request, call) -> request.id to call }
+
+        val body = try {
+            post(requestListAdapter.toJson(requests))
+        } catch (e: HttpStatusException) {
+            // other statuses, like rate limit or unavailable node, don't tell anything about batches support
+            if (e.code in BATCH_REJECTED_HTTP_CODES) throw BatchNotSupportedException(e) else throw e
+        }
+
+        return body.use {
+            try {
+                parseBatch(JsonReader.of(it.source()), callsById)
+            } catch (e: JsonDataException) {
+                throw IOException(e)
+            } catch (e: JsonEncodingException) {
+                throw IOException(e)
+            }
+        }
+    }
+
+    /** Responses of a batch may go in any order, so every item is parsed with the adapter of the call by its id */
+    private fun parseBatch(reader: JsonReader, callsById: Map<String, SolanaRpcCall<*>>): SolanaRpcResults {
+        // nodes without batches support answer with a single error object
+        if (reader.peek() != JsonReader.Token.BEGIN_ARRAY) throw BatchNotSupportedException(cause = null)
+
+        val results = HashMap<SolanaRpcCall<*>, Any?>(callsById.size)
+        reader.beginArray()
+        while (reader.hasNext()) {
+            val id = readId(reader.peekJson())
+            val call = callsById[id] ?: throw IOException("Unknown batch response id $id")
+            results[call] = call.responseAdapter().fromJson(reader).unpack()
+        }
+        reader.endArray()
+
+        if (results.size != callsById.size) throw IOException("Batch responses are missing")
+
+        return SolanaRpcResults(results)
+    }
+
+    private fun readId(reader: JsonReader): String? {
+        reader.beginObject()
+        while (reader.hasNext()) {
+            if (reader.nextName() == "id" && reader.peek() != JsonReader.Token.NULL) {
+                return reader.nextString()
+            }
+            reader.skipValue()
+        }
+        return null
+    }
+
+    private suspend fun post(json: String): ResponseBody {
+        val response = client
+            .newCall(
+                request = Request.Builder()
+                    .post(json.toRequestBody(APPLICATION_JSON.toMediaType()))
+                    .url(host)
+                    .build(),
+            )
+            .await()
+
+        val body = response.body
+        if (!response.isSuccessful || body == null) {
+            response.close()
+            throw HttpStatusException(response.code)
+        }
+
+        return body
+    }
+
+    private fun SolanaRpcCall<*>.toRequest(): JsonRPCRequest {
+        return JsonRPCRequest(
+            method = method,
+            params = params,
+            id = lastRequestId.incrementAndGet().toString(),
+        )
+    }
+
+    private fun <T> SolanaRpcCall<T>.responseAdapter(): JsonAdapter<SolanaRpcResponse<T>> {
+        return moshi.adapter(Types.newParameterizedType(SolanaRpcResponse::class.java, resultType))
+    }
+
+    private inline fun <T> parseOrThrow(parse: () -> T): T {
+        return try {
+            parse()
+        } catch (e: JsonDataException) {
+            throw IOException(e)
+        }
+    }
+
+    private fun <T> SolanaRpcResponse<T>?.unpack(): T {
+        if (this == null) throw IOException("Response is null")
+        if (error != null) throw RpcException(error.message)
+
+        @Suppress("UNCHECKED_CAST")
+        return result as T
+    }
+
+    private class HttpStatusException(val code: Int) : IOException("HTTP $code")
+
+    private class BatchNotSupportedException(cause: Throwable?) : IOException(cause)
+
+    private companion object {
+        const val APPLICATION_JSON = "application/json"
+
+        // bad request, method not allowed and payload too large
+        val BATCH_REJECTED_HTTP_CODES = setOf(400, 405, 413)
+    }
+}
+
+/** Results of [SolanaJsonRpcClient.callAll] */
+internal class SolanaRpcResults(private val results: Map<SolanaRpcCall<*>, Any?>) {
+
+    @Suppress("UNCHECKED_CAST")
+    operator fun <T> get(call: SolanaRpcCall<T>): T = results[call] as T
+}
@@ -0,0 +1,150 @@
+package com.tangem.blockchain.blockchains.solana.network
+
+import android.util.Base64
+import com.squareup.moshi.Types
+import com.tangem.blockchain.blockchains.solana.solanaj.core.SolanaTransaction
+import com.tangem.blockchain.blockchains.solana.solanaj.model.FeeInfo
+import com.tangem.blockchain.blockchains.solana.solanaj.model.NewSolanaAccountInfo
+import com.tangem.blockchain.blockchains.solana.solanaj.model.NewSolanaTokenAccountInfo
+import com.tangem.blockchain.blockchains.solana.solanaj.model.NewSplTokenAccountInfo
+import com.tangem.blockchain.blockchains.solana.solanaj.model.PrioritizationFee
+import com.tangem.blockchain.blockchains.solana.solanaj.model.SolanaSignatureInfo
+import org.p2p.solanaj.core.PublicKey
+import org.p2p.solanaj.rpc.types.RecentBlockhash
+import org.p2p.solanaj.rpc.types.SignatureStatuses
+import org.p2p.solanaj.rpc.types.TransactionResult
+import org.p2p.solanaj.rpc.types.config.Commitment
+import java.lang.reflect.Type
+
+/**
+ * Solana JSON-RPC method call, [resultType] is the type of the response result [T]
+ */
+internal class SolanaRpcCall<T>(
+    val method: String,
+    val params: List<Any>,
+    val resultType: Type,
+)
+
+/**
+ * Calls of Solana JSON-RPC methods used by sdk
+ * @see <a href="https://solana.com/docs/rpc/http">Specification</a>
+ */
+internal object SolanaRpcCalls {
+
+    fun getAccountInfo(account: PublicKey, commitment: Commitment): SolanaRpcCall<NewSolanaAccountInfo> {
+        return SolanaRpcCall(
+            method = "getAccountInfo",
+            params = listOf(
+                account.toBase58(),
+                mapOf("encoding" to "base64", "commitment" to commitment.value),
+            ),
+            resultType = NewSolanaAccountInfo::class.java,
+        )
+    }
+
+    fun getSplTokenAccountInfo(account: PublicKey): SolanaRpcCall<NewSplTokenAccountInfo> {
+        return SolanaRpcCall(
+            method = "getAccountInfo",
+            params = listOf(account.toBase58(), mapOf("encoding" to "jsonParsed")),
+            resultType = NewSplTokenAccountInfo::class.java,
+        )
+    }
+
+    fun getTokenAccountsByOwner(owner: PublicKey, programId: PublicKey): SolanaRpcCall<NewSolanaTokenAccountInfo> {
+        return SolanaRpcCall(
+            method = "getTokenAccountsByOwner",
+            params = listOf(
+                owner.toBase58(),
+                mapOf("programId" to programId.toBase58()),
+                mapOf("encoding" to "jsonParsed"),
+            ),
+            resultType = NewSolanaTokenAccountInfo::class.java,
+        )
+    }
+
+    fun getSignaturesForAddress(
+        address: String,
+        commitment: Commitment,
+        limit: Int,
+    ): SolanaRpcCall<List<SolanaSignatureInfo>> {
+        return SolanaRpcCall(
+            method = "getSignaturesForAddress",
+            params = listOf(address, mapOf("limit" to limit, "commitment" to commitment.value)),
+            resultType = Types.newParameterizedType(List::class.java, SolanaSignatureInfo::class.java),
+        )
+    }
+
+    fun getTransaction(signature: String, commitment: Commitment): SolanaRpcCall<TransactionResult?> {
+        return SolanaRpcCall(
+            method = "getTransaction",
+            params = listOf(signature, mapOf("encoding" to "jsonParsed", "commitment" to commitment.value)),
+            resultType = TransactionResult::class.java,
+        )
+    }
+
+    fun getSignatureStatuses(
+        signatures: List<String>,
+        searchTransactionHistory: Boolean,
+    ): SolanaRpcCall<SignatureStatuses> {
+        return SolanaRpcCall(
+            method = "getSignatureStatuses",
+            params = listOf(signatures, mapOf("searchTransactionHistory" to searchTransactionHistory)),
+            resultType = SignatureStatuses::class.java,
+        )
+    }
+
+    fun getFeeForMessage(transaction: SolanaTransaction, commitment: Commitment): SolanaRpcCall<FeeInfo> {
+        val message = Base64.encodeToString(transaction.getSerializedMessage(), Base64.NO_WRAP)
+        return SolanaRpcCall(
+            method = "getFeeForMessage",
+            params = listOf(message, mapOf("commitment" to commitment.value)),
+            resultType = FeeInfo::class.java,
+        )
+    }
+
+    fun getMinimumBalanceForRentExemption(dataLength: Long): SolanaRpcCall<Long> {
+        return SolanaRpcCall(
+            method = "getMinimumBalanceForRentExemption",
+            params = listOf(dataLength),
+            resultType = Long::class.javaObjectType,
+        )
+    }
+
+    fun getRecentBlockhash(commitment: Commitment?): SolanaRpcCall<RecentBlockhash> {
+        return SolanaRpcCall(
+            method = "getRecentBlockhash",
+            params = listOfNotNull(commitment?.let { mapOf("commitment" to it.value) }),
+            resultType = RecentBlockhash::class.java,
+        )
+    }
+
+    fun getRecentPrioritizationFees(accounts: List<PublicKey>): SolanaRpcCall<List<PrioritizationFee>> {
+        return SolanaRpcCall(
+            method = "getRecentPrioritizationFees",
+            params = listOf(accounts.map(PublicKey::toBase58)),
+            resultType = Types.newParameterizedType(List::class.java, PrioritizationFee::class.java),
+        )
+    }
+
+    fun sendTransaction(
+        transaction: SolanaTransaction,
+        maxRetries: Int = 12,
+        skipPreflight: Boolean = false,
+        commitment: Commitment = Commitment.FINALIZED,
+    ): SolanaRpcCall<String> {
+        val serializedTransaction = Base64.encodeToString(transaction.serialize(), Base64.NO_WRAP)
+        return SolanaRpcCall(
+            method = "sendTransaction",
+            params = listOf(
+                serializedTransaction,
+                mapOf(
+                    "encoding" to "base64",
+                    "maxRetries" to maxRetries,
+                    "skipPreflight" to skipPreflight,
+                    "commitment" to commitment.value,
+                ),
+            ),
+            resultType = String::class.java,
+        )
+    }
+}
@@ -0,0 +1,21 @@
+package com.tangem.blockchain.blockchains.solana.network
+
+import com.squareup.moshi.Json
+import com.squareup.moshi.JsonClass
+
+/**
+ * Solana JSON-RPC response, [T] is parsed directly from the stream to keep lamports precision
+ */
+@JsonClass(generateAdapter = true)
+internal data class SolanaRpcResponse<T>(
+    @Json(name = "id") val id: String?,
+    @Json(name = "result") val result: T?,
+    @Json(name = "error") val error: Error?,
+) {
+
+    @JsonClass(generateAdapter = true)
+    data class Error(
+        @Json(name = "code") val code: Int,
+        @Json(name = "message") val message: String,
+    )
+}
@@ -1,6 +1,10 @@
 package com.tangem.blockchain.blockchains.solana.solanaj.model
 
+import com.squareup.moshi.Json
+import com.squareup.moshi.JsonClass
+
+@JsonClass(generateAdapter = true)
 internal data class PrioritizationFee(
-    val slot: Long,
-    val prioritizationFee: Long,
+    @Json(name = "slot") val slot: Long,
+    @Json(name = "prioritizationFee") val prioritizationFee: Long,
 )
@@ -0,0 +1,12 @@
+package com.tangem.blockchain.blockchains.solana.solanaj.model
+
+import com.squareup.moshi.Json
+import com.squareup.moshi.JsonClass
+
+/** Item of getSignaturesForAddress response */
+@JsonClass(generateAdapter = true)
+internal data class SolanaSignatureInfo(
+    @Json(name = "signature") val signature: String,
+    @Json(name = "slot") val slot: Long,
+    @Json(name = "confirmationStatus") val confirmationStatus: String?,
+)
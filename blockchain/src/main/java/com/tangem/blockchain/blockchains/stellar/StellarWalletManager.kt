@@ -78,8 +78,9 @@ class StellarWalletManager(
                 val sendResult = networkProvider.sendTransaction(transactionToSend)
 
                 if (sendResult is SimpleResult.Success) {
-                    transactionData.hash = transactionBuilder.getTransactionHash().toHexString()
-                    wallet.addOutgoingTransaction(transactionData)
+                    wallet.addOutgoingTransaction(
+                        transactionData.copy(hash = transactionBuilder.getTransactionHash().toHexString()),
+                    )
                 }
                 sendResult
             }
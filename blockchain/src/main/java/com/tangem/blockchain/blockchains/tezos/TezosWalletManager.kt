@@ -47,7 +47,7 @@ class TezosWalletManager(
         Log.d(this::class.java.simpleName, "Balance is ${response.balance}")
         if (response.balance != wallet.amounts[AmountType.Coin]?.value) {
             // assume outgoing transaction has been finalized if balance has changed
-            wallet.recentTransactions.clear()
+            wallet.clearRecentTransactions()
         }
         wallet.changeAmountValue(AmountType.Coin, response.balance)
         transactionBuilder.counter = response.counter
@@ -65,7 +65,7 @@ class TonWalletManager(
 
     private fun updateWallet(info: TonWalletInfo) {
         if (info.sequenceNumber != sequenceNumber) {
-            wallet.recentTransactions.forEach { it.status = TransactionStatus.Confirmed }
+            wallet.confirmRecentTransactions()
         }
 
         wallet.setAmount(Amount(value = info.balance, blockchain = wallet.blockchain))
@@ -77,16 +77,21 @@ class TonWalletManager(
         if (error is BlockchainSdkError) throw error
     }
 
-    private fun buildTransaction(input: TheOpenNetwork.SigningInput, signer: TransactionSigner?): Result<String> {
-        val outputResult: Result<TheOpenNetwork.SigningOutput> = AnySignerWrapper().sign(
-            walletPublicKey = wallet.publicKey,
-            publicKeyType = PublicKeyType.ED25519,
-            input = input,
-            coin = CoinType.TON,
-            parser = TheOpenNetwork.SigningOutput.parser(),
-            signer = signer,
-            curve = wallet.blockchain.getSupportedCurves().first(),
-        )
+    private suspend fun buildTransaction(
+        input: TheOpenNetwork.SigningInput,
+        signer: TransactionSigner?,
+    ): Result<String> {
+        val signerWrapper = AnySignerWrapper()
+        val publicKeyType = PublicKeyType.ED25519
+        val parser = TheOpenNetwork.SigningOutput.parser()
+        val curve = wallet.blockchain.getSupportedCurves().first()
+
+        // fee is estimated with a dummy signature, which wallet-core makes without signer
+        val outputResult: Result<TheOpenNetwork.SigningOutput> = if (signer != null) {
+            signerWrapper.signWithCompiler(wallet.publicKey, publicKeyType, input, CoinType.TON, parser, curve, signer)
+        } else {
+            signerWrapper.sign(wallet.publicKey, publicKeyType, input, CoinType.TON, parser, curve, null)
+        }
         return when (outputResult) {
             is Result.Failure -> outputResult
             is Result.Success -> Result.Success(txBuilder.buildForSend(outputResult.data))
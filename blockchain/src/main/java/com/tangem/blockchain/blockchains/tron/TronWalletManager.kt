@@ -49,12 +49,11 @@ class TronWalletManager(
 
         wallet.changeAmountValue(AmountType.Coin, response.balance)
         response.tokenBalances.forEach { wallet.addTokenValue(it.value, it.key) }
-
-        wallet.recentTransactions.forEach {
-            if (response.confirmedTransactionIds.contains(it.hash)) {
-                it.status = TransactionStatus.Confirmed
-            }
+        response.failedTokens.forEach { (token, error) ->
+            Log.w(this::class.java.simpleName, "Failed to update ${token.symbol} balance: ${error.customMessage}")
         }
+
+        wallet.confirmRecentTransactions { response.confirmedTransactionIds.contains(it.hash) }
     }
 
     private fun updateError(error: BlockchainError) {
@@ -76,6 +75,7 @@ class TronWalletManager(
                 when (val sendResult = networkService.broadcastHex(signResult.data)) {
                     is Result.Failure -> SimpleResult.Failure(sendResult.error)
                     is Result.Success -> {
+                        networkService.invalidateAccountResource(wallet.address)
                         wallet.addOutgoingTransaction(
                             transactionData.copy(hash = sendResult.data.txid),
                         )
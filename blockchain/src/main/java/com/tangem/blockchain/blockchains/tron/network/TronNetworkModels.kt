@@ -2,12 +2,14 @@ package com.tangem.blockchain.blockchains.tron.network
 
 import com.squareup.moshi.Json
 import com.squareup.moshi.JsonClass
+import com.tangem.blockchain.common.BlockchainError
 import com.tangem.blockchain.common.Token
 import java.math.BigDecimal
 
 data class TronAccountInfo(
     val balance: BigDecimal,
     val tokenBalances: Map<Token, BigDecimal>,
+    val failedTokens: Map<Token, BlockchainError>,
     val confirmedTransactionIds: List<String>,
 )
 
@@ -3,8 +3,11 @@ package com.tangem.blockchain.blockchains.tron.network
 import com.tangem.blockchain.common.Blockchain
 import com.tangem.blockchain.common.BlockchainSdkError
 import com.tangem.blockchain.common.Token
+import com.tangem.blockchain.common.cache.ExpiringCache
 import com.tangem.blockchain.extensions.Result
 import com.tangem.blockchain.network.MultiNetworkProvider
+import com.tangem.blockchain.network.TokenBalanceFetcher
+import com.tangem.blockchain.network.TokenBalances
 import kotlinx.coroutines.async
 import kotlinx.coroutines.awaitAll
 import kotlinx.coroutines.coroutineScope
@@ -17,16 +20,25 @@ class TronNetworkService(
 ) {
 
     private val multiProvider = MultiNetworkProvider(rpcNetworkProviders)
+    private val tokenBalanceFetcher = TokenBalanceFetcher()
     val host: String
         get() = multiProvider.currentProvider.baseUrl
 
+    private val accountResourcesCache = ExpiringCache<String, TronGetAccountResourceResponse>(
+        ttlMillis = ACCOUNT_RESOURCES_TTL_MILLIS,
+    )
+    private val energyUseCache = ExpiringCache<EnergyUseRequest, Int>(ACCOUNT_RESOURCES_TTL_MILLIS)
+
+    // account can't be deleted, so only existing accounts are cached
+    private val existingAccountsCache = ExpiringCache<String, Boolean>(EXISTING_ACCOUNTS_TTL_MILLIS)
+
     suspend fun getAccountInfo(
         address: String,
         tokens: Collection<Token>,
         transactionIds: List<String>,
     ): Result<TronAccountInfo> {
         return coroutineScope {
-            val tokenBalancesDeferred = tokens.map { async { getTokenBalance(address, it) } }
+            val tokenBalancesDeferred = async { getTokenBalances(address, tokens) }
             val confirmedTransactionsDeferred =
                 transactionIds.map { async { checkIfTransactionConfirmed(it) } }
             when (
@@ -34,12 +46,13 @@ class TronNetworkService(
             ) {
                 is Result.Failure -> Result.Failure(accountInfoResult.error)
                 is Result.Success -> {
+                    val tokenBalances = tokenBalancesDeferred.await()
                     Result.Success(
                         TronAccountInfo(
                             balance = BigDecimal(accountInfoResult.data.balance ?: 0)
                                 .movePointLeft(blockchain.decimals()),
-                            tokenBalances = tokenBalancesDeferred.awaitAll()
-                                .mapNotNull { if (it is Result.Success) it.data else null }.toMap(),
+                            tokenBalances = tokenBalances.balances,
+                            failedTokens = tokenBalances.errors,
                             confirmedTransactionIds = confirmedTransactionsDeferred.awaitAll()
                                 .mapNotNull { if (it is Result.Success) it.data else null },
                         ),
@@ -71,25 +84,40 @@ class TronNetworkService(
     }
 
     suspend fun getMaxEnergyUse(address: String, contractAddress: String, parameter: String): Result<Int> {
-        val result =
-            multiProvider.performRequest { contractEnergyUsage(address, contractAddress, parameter) }
-        return when (result) {
-            is Result.Failure -> Result.Failure(result.error)
-            is Result.Success -> {
-                val maxEnergy = result.data.energyUsed
-                Result.Success(maxEnergy)
+        return energyUseCache.getOrLoad(EnergyUseRequest(address, contractAddress, parameter)) {
+            val result =
+                multiProvider.performRequest { contractEnergyUsage(address, contractAddress, parameter) }
+            when (result) {
+                is Result.Failure -> Result.Failure(result.error)
+                is Result.Success -> {
+                    val maxEnergy = result.data.energyUsed
+                    Result.Success(maxEnergy)
+                }
             }
         }
     }
 
     suspend fun getAccountResource(address: String): Result<TronGetAccountResourceResponse> {
-        return multiProvider.performRequest(TronJsonRpcNetworkProvider::getAccountResource, address)
+        return accountResourcesCache.getOrLoad(address) {
+            multiProvider.performRequest(TronJsonRpcNetworkProvider::getAccountResource, address)
+        }
+    }
+
+    /** Drops cached resources of [address] as they're consumed by its transaction */
+    fun invalidateAccountResource(address: String) {
+        accountResourcesCache.remove(address)
     }
 
     suspend fun checkIfAccountExists(address: String): Boolean {
+        if (existingAccountsCache.get(address) == true) return true
+
         return when (val result = getAccount(address)) {
             is Result.Failure -> false
-            is Result.Success -> result.data.address != null
+            is Result.Success -> {
+                val isExist = result.data.address != null
+                if (isExist) existingAccountsCache.put(address, true)
+                isExist
+            }
         }
     }
 
@@ -97,19 +125,19 @@ class TronNetworkService(
         return multiProvider.performRequest(TronJsonRpcNetworkProvider::getAccount, address)
     }
 
+    /** Chain parameters are changed only by proposals, so they're shared by all services of the network for a while */
     suspend fun getChainParameters(): Result<TronChainParameters> {
+        return chainParametersCache.getOrLoad(blockchain, ::loadChainParameters)
+    }
+
+    private suspend fun loadChainParameters(): Result<TronChainParameters> {
         return when (val result = multiProvider.performRequest(TronJsonRpcNetworkProvider::getChainParameters)) {
             is Result.Failure -> Result.Failure(result.error)
             is Result.Success -> {
-                val energyFee = result.data.chainParameters
-                    .firstOrNull { it.key == KEY_SUN_ENERGY_FEE }
-                    ?.value
-                val energyMaxFactor = result.data.chainParameters
-                    .firstOrNull { it.key == KEY_MAX_FACTOR }
-                    ?.value
-                val increaseFactor = result.data.chainParameters
-                    .firstOrNull { it.key == KEY_INCREASE_FACTOR }
-                    ?.value
+                val parameters = result.data.chainParameters.associate { it.key to it.value }
+                val energyFee = parameters[KEY_SUN_ENERGY_FEE]
+                val energyMaxFactor = parameters[KEY_MAX_FACTOR]
+                val increaseFactor = parameters[KEY_INCREASE_FACTOR]
 
                 if (energyFee != null && energyMaxFactor != null && increaseFactor != null) {
                     Result.Success(
@@ -126,22 +154,17 @@ class TronNetworkService(
         }
     }
 
+    /** Requests are limited per provider, so a wallet with many tokens doesn't exceed the provider quota */
     @Suppress("MagicNumber")
-    private suspend fun getTokenBalance(address: String, token: Token): Result<Pair<Token, BigDecimal>> {
-        val result = multiProvider.performRequest(
-            TronJsonRpcNetworkProvider::getTokenBalance,
-            TokenBalanceRequestData(address, token.contractAddress),
-        )
-        when (result) {
-            is Result.Failure -> {
-                return Result.Failure(result.error)
-            }
-
-            is Result.Success -> {
-                val hexValue = result.data.constantResult.firstOrNull()?.ifBlank { "0" }
-                    ?: return Result.Failure(BlockchainSdkError.CustomError("FailedToParseNetworkResponse"))
-                val value = BigInteger(hexValue, 16).toBigDecimal(token.decimals)
-                return Result.Success(token to value)
+    private suspend fun getTokenBalances(address: String, tokens: Collection<Token>): TokenBalances<BigDecimal> {
+        return tokenBalanceFetcher.fetch(multiProvider, tokens) { token ->
+            when (val result = getTokenBalance(TokenBalanceRequestData(address, token.contractAddress))) {
+                is Result.Failure -> Result.Failure(result.error)
+                is Result.Success -> {
+                    val hexValue = result.data.constantResult.firstOrNull()?.ifBlank { "0" }
+                        ?: return@fetch Result.Failure(BlockchainSdkError.CustomError("FailedToParseNetworkResponse"))
+                    Result.Success(BigInteger(hexValue, 16).toBigDecimal(token.decimals))
+                }
             }
         }
     }
@@ -149,6 +172,21 @@ class TronNetworkService(
     private suspend fun checkIfTransactionConfirmed(id: String): Result<String?> {
         return multiProvider.performRequest(TronJsonRpcNetworkProvider::getTransactionInfoById, id)
     }
+
+    private data class EnergyUseRequest(
+        val address: String,
+        val contractAddress: String,
+        val parameter: String,
+    )
+
+    private companion object {
+        const val CHAIN_PARAMETERS_TTL_MILLIS = 600_000L
+        const val ACCOUNT_RESOURCES_TTL_MILLIS = 10_000L
+        const val EXISTING_ACCOUNTS_TTL_MILLIS = 3_600_000L
+
+        // shared by all wallet managers of the network
+        val chainParametersCache = ExpiringCache<Blockchain, TronChainParameters>(CHAIN_PARAMETERS_TTL_MILLIS)
+    }
 }
 
 private const val KEY_SUN_ENERGY_FEE = "getEnergyFee"
@@ -8,10 +8,8 @@ import com.tangem.blockchain.common.transaction.TransactionFee
 import com.tangem.blockchain.extensions.trustWalletCoinType
 import com.tangem.common.extensions.toDecompressedPublicKey
 import org.kethereum.crypto.api.ec.ECDSASignature
-import org.kethereum.crypto.determineRecId
 import org.kethereum.crypto.impl.ec.canonicalise
 import org.kethereum.extensions.removeLeadingZero
-import org.kethereum.model.PublicKey
 import org.kethereum.model.SignatureData
 import wallet.core.jni.DataVector
 import wallet.core.jni.TransactionCompiler
@@ -181,13 +179,7 @@ class VeChainTransactionBuilder(blockchain: Blockchain, private val publicKey: W
 
         val ecdsaSignature = ECDSASignature(r, s).canonicalise()
 
-        val recId = ecdsaSignature.determineRecId(
-            hash,
-            PublicKey(
-                publicKey = publicKey.blockchainKey.toDecompressedPublicKey()
-                    .sliceArray(1..PUBLIC_KEY_LENGTH),
-            ),
-        )
+        val recId = Secp256k1Recovery.recoveryId(ecdsaSignature, hash, publicKey.blockchainKey)
         val signatureData = SignatureData(ecdsaSignature.r, ecdsaSignature.s, recId.toBigInteger())
 
         return signatureData.r.toByteArray().removeLeadingZero() +
@@ -204,7 +196,5 @@ class VeChainTransactionBuilder(blockchain: Blockchain, private val publicKey: W
         const val NZ_GAS = 68L
 
         const val EXPIRATION_BLOCKS = 180
-
-        const val PUBLIC_KEY_LENGTH = 64
     }
 }
@@ -65,11 +65,7 @@ internal class VeChainWalletManager(
         wallet.setAmount(Amount(value = info.balance, blockchain = wallet.blockchain))
         wallet.addTokenValue(value = info.energy, token = VTHO_TOKEN)
         info.tokenBalances.forEach { wallet.addTokenValue(it.value, it.key) }
-        info.completedTxIds.forEach { completedTxId ->
-            wallet.recentTransactions.find { it.hash == completedTxId }?.let { transactionData ->
-                transactionData.status = TransactionStatus.Confirmed
-            }
-        }
+        wallet.confirmRecentTransactions { info.completedTxIds.contains(it.hash) }
     }
 
     private fun updateError(error: BlockchainError) {
@@ -113,8 +109,10 @@ internal class VeChainWalletManager(
                     )
                 when (val sendResult = networkService.sendTransaction(rawTx)) {
                     is Result.Success -> {
-                        transactionData.hash = sendResult.data.txId
-                        wallet.addOutgoingTransaction(transactionData, hashToLowercase = false)
+                        wallet.addOutgoingTransaction(
+                            transactionData.copy(hash = sendResult.data.txId),
+                            hashToLowercase = false,
+                        )
 
                         SimpleResult.Success
                     }
@@ -45,7 +45,7 @@ class XrpWalletManager(
         if (response.hasUnconfirmed) {
             if (wallet.recentTransactions.isEmpty()) wallet.addTransactionDummy()
         } else {
-            wallet.recentTransactions.forEach { it.status = TransactionStatus.Confirmed }
+            wallet.confirmRecentTransactions()
         }
     }
 
@@ -66,8 +66,9 @@ class XrpWalletManager(
                 val sendResult = networkProvider.sendTransaction(transactionToSend)
 
                 if (sendResult is SimpleResult.Success) {
-                    transactionData.hash = transactionBuilder.getTransactionHash()?.toHexString()
-                    wallet.addOutgoingTransaction(transactionData)
+                    wallet.addOutgoingTransaction(
+                        transactionData.copy(hash = transactionBuilder.getTransactionHash()?.toHexString()),
+                    )
                 }
                 sendResult
             }
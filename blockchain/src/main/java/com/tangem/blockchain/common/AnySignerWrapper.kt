@@ -7,14 +7,19 @@ import com.tangem.common.CompletionResult
 import com.tangem.common.card.EllipticCurve
 import com.tangem.common.core.TangemError
 import com.tangem.common.extensions.toCompressedPublicKey
+import kotlinx.coroutines.CancellationException
 import kotlinx.coroutines.Dispatchers
 import kotlinx.coroutines.SupervisorJob
 import kotlinx.coroutines.runBlocking
 import wallet.core.java.AnySigner
 import wallet.core.java.Signer
 import wallet.core.jni.CoinType
+import wallet.core.jni.DataVector
 import wallet.core.jni.PublicKey
 import wallet.core.jni.PublicKeyType
+import wallet.core.jni.TransactionCompiler
+import wallet.core.jni.proto.Common
+import wallet.core.jni.proto.TransactionCompiler.PreSigningOutput
 
 class AnySignerWrapper {
 
@@ -75,6 +80,56 @@ class AnySignerWrapper {
         }
     }
 
+    /**
+     * Signs [input] in two phases: pre-image hash is taken from [TransactionCompiler] and signed by one call of
+     * [signer], then the transaction is compiled with the signature. Unlike [sign], it doesn't block a thread
+     * for every hash requested by wallet-core. Coins without compiler support are signed by [sign]
+     */
+    @Suppress("LongParameterList")
+    suspend fun <T : MessageLite> signWithCompiler(
+        walletPublicKey: Wallet.PublicKey,
+        publicKeyType: PublicKeyType,
+        input: MessageLite,
+        coin: CoinType,
+        parser: Parser<T>,
+        curve: EllipticCurve,
+        signer: TransactionSigner,
+    ): Result<T> {
+        return try {
+            val txInputData = input.toByteArray()
+            val preSigningOutput = PreSigningOutput.parseFrom(TransactionCompiler.preImageHashes(coin, txInputData))
+
+            // compiler returns empty output for unsupported coins
+            val isNotSupported = preSigningOutput.error == Common.SigningError.Error_not_supported
+            if (isNotSupported || preSigningOutput.dataHash.isEmpty) {
+                return sign(walletPublicKey, publicKeyType, input, coin, parser, curve, signer)
+            }
+            if (preSigningOutput.error != Common.SigningError.OK) {
+                return Result.Failure(BlockchainSdkError.WalletCoreException(preSigningOutput.errorMessage))
+            }
+
+            // pre-signing output has a single data hash, so the transaction is signed with one signature
+            val hash = preSigningOutput.dataHash.toByteArray()
+            val signature = when (val signResult = signer.sign(hash, walletPublicKey)) {
+                is CompletionResult.Success -> unmarshalIfNeeded(signResult.data, hash, walletPublicKey, curve)
+                is CompletionResult.Failure -> return Result.fromTangemSdkError(signResult.error)
+            }
+
+            val compiledTransaction = TransactionCompiler.compileWithSignatures(
+                coin,
+                txInputData,
+                DataVector().apply { add(signature) },
+                DataVector().apply { add(compressIfNeeded(walletPublicKey.blockchainKey, curve)) },
+            )
+
+            Result.Success(parser.parseFrom(compiledTransaction))
+        } catch (e: CancellationException) {
+            throw e
+        } catch (e: Exception) {
+            Result.Failure(BlockchainSdkError.WalletCoreException(e.message, e))
+        }
+    }
+
     private fun <T : MessageLite> signWithoutCard(input: MessageLite, coin: CoinType, parser: Parser<T>): Result<T> {
         return try {
             val result = AnySigner.sign(input, coin, parser)
@@ -96,7 +151,7 @@ private class WalletCoreSigner(
 
     override fun getPublicKey(): PublicKey {
         return PublicKey(
-            compressIfNeeded(publicKey.blockchainKey),
+            compressIfNeeded(publicKey.blockchainKey, curve),
             publicKeyType,
         )
     }
@@ -108,11 +163,7 @@ private class WalletCoreSigner(
         }
         return when (signResult) {
             is CompletionResult.Success -> {
-                if (curve == EllipticCurve.Secp256k1) {
-                    UnmarshalHelper().unmarshalSignature(signResult.data, data ?: ByteArray(0), publicKey)
-                } else {
-                    signResult.data
-                }
+                unmarshalIfNeeded(signResult.data, data ?: ByteArray(0), publicKey, curve)
             }
             is CompletionResult.Failure -> {
                 error = signResult.error
@@ -120,8 +171,21 @@ private class WalletCoreSigner(
             }
         }
     }
+}
+
+private fun compressIfNeeded(data: ByteArray, curve: EllipticCurve): ByteArray {
+    return if (curve == EllipticCurve.Secp256k1) data.toCompressedPublicKey() else data
+}
 
-    private fun compressIfNeeded(data: ByteArray): ByteArray {
-        return if (curve == EllipticCurve.Secp256k1) data.toCompressedPublicKey() else data
+private fun unmarshalIfNeeded(
+    signature: ByteArray,
+    hash: ByteArray,
+    publicKey: Wallet.PublicKey,
+    curve: EllipticCurve,
+): ByteArray {
+    return if (curve == EllipticCurve.Secp256k1) {
+        UnmarshalHelper().unmarshalSignature(signature, hash, publicKey)
+    } else {
+        signature
     }
 }
@@ -0,0 +1,14 @@
+package com.tangem.blockchain.common
+
+import com.squareup.moshi.Json
+import com.squareup.moshi.JsonClass
+
+/**
+ * JsonRPC notification object – a request without id pushed by the server, e.g. subscription updates
+ * @see <a href="https://www.jsonrpc.org/specification#notification">Specification</a>
+ */
+@JsonClass(generateAdapter = true)
+internal data class JsonRPCNotification(
+    @Json(name = "method") val method: String,
+    @Json(name = "params") val params: Any?,
+)
@@ -0,0 +1,81 @@
+package com.tangem.blockchain.common
+
+import com.tangem.common.extensions.toHexString
+import org.bouncycastle.crypto.ec.CustomNamedCurves
+import org.bouncycastle.math.ec.ECAlgorithms
+import org.bouncycastle.math.ec.ECPoint
+import org.kethereum.crypto.api.ec.ECDSASignature
+import java.math.BigInteger
+import java.util.Collections
+
+/**
+ * Determines recovery id of secp256k1 signatures.
+ *
+ * Instead of recovering a public key for every candidate id, the signature point R = (hash * G + r * Q) / s is
+ * computed once with Shamir's trick, its y parity and x overflow give the id. Decoded wallet keys are cached
+ * together with their precomputed multiples, so signing several hashes with the same key doesn't repeat it.
+ */
+internal object Secp256k1Recovery {
+
+    private const val MAX_CACHED_KEYS = 16
+    private const val RAW_PUBLIC_KEY_SIZE = 64
+    private const val UNCOMPRESSED_PREFIX: Byte = 0x04
+
+    private val curve = CustomNamedCurves.getByName("secp256k1")
+    private val order: BigInteger = curve.n
+
+    private val points: MutableMap<String, ECPoint> = Collections.synchronizedMap(
+        object : LinkedHashMap<String, ECPoint>(MAX_CACHED_KEYS, 1f, true) {
+            override fun removeEldestEntry(eldest: MutableMap.MutableEntry<String, ECPoint>?): Boolean {
+                return size > MAX_CACHED_KEYS
+            }
+        },
+    )
+
+    /**
+     * @param signature canonical signature
+     * @param hash signed hash
+     * @param publicKey compressed, uncompressed or raw 64 bytes public key
+     */
+    fun recoveryId(signature: ECDSASignature, hash: ByteArray, publicKey: ByteArray): Int {
+        return recoveryId(signature, hash, point(publicKey))
+    }
+
+    fun recoveryIds(signatures: List<ECDSASignature>, hashes: List<ByteArray>, publicKey: ByteArray): List<Int> {
+        require(signatures.size == hashes.size) { "Signatures count doesn't match hashes count" }
+
+        val point = point(publicKey)
+        return signatures.zip(hashes) { signature, hash -> recoveryId(signature, hash, point) }
+    }
+
+    private fun recoveryId(signature: ECDSASignature, hash: ByteArray, publicKey: ECPoint): Int {
+        val r = signature.r
+        val s = signature.s
+        require(r.signum() > 0 && r < order && s.signum() > 0 && s < order) { "Invalid signature" }
+
+        val sInverse = s.modInverse(order)
+        val u1 = BigInteger(1, hash).multiply(sInverse).mod(order)
+        val u2 = r.multiply(sInverse).mod(order)
+
+        val point = ECAlgorithms.sumOfTwoMultiplies(curve.g, u1, publicKey, u2).normalize()
+        check(!point.isInfinity) { "Could not construct a recoverable key" }
+
+        val x = point.affineXCoord.toBigInteger()
+        check(x.mod(order) == r) { "Could not construct a recoverable key" }
+
+        val isYOdd = point.affineYCoord.testBitZero()
+        val isXOverflowed = x >= order
+
+        return (if (isYOdd) 1 else 0) + (if (isXOverflowed) 2 else 0)
+    }
+
+    private fun point(publicKey: ByteArray): ECPoint {
+        val encoded = if (publicKey.size == RAW_PUBLIC_KEY_SIZE) {
+            byteArrayOf(UNCOMPRESSED_PREFIX) + publicKey
+        } else {
+            publicKey
+        }
+
+        return points.getOrPut(encoded.toHexString()) { curve.curve.decodePoint(encoded).normalize() }
+    }
+}
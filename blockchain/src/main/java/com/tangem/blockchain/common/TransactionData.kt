@@ -9,9 +9,9 @@ data class TransactionData(
     val fee: Fee?,
     val sourceAddress: String,
     val destinationAddress: String,
-    var status: TransactionStatus = TransactionStatus.Unconfirmed,
-    var date: Calendar? = null,
-    var hash: String? = null,
+    val status: TransactionStatus = TransactionStatus.Unconfirmed,
+    val date: Calendar? = null,
+    val hash: String? = null,
     val extras: TransactionExtras? = null,
     val contractAddress: String? = (amount.type as? AmountType.Token)?.token?.contractAddress,
 )
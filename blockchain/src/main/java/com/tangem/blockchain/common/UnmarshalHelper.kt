@@ -1,8 +1,6 @@
 package com.tangem.blockchain.common
 
-import com.tangem.common.extensions.toDecompressedPublicKey
 import org.kethereum.crypto.api.ec.ECDSASignature
-import org.kethereum.crypto.determineRecId
 import org.kethereum.crypto.impl.ec.canonicalise
 import org.kethereum.extensions.removeLeadingZero
 import org.kethereum.model.SignatureData
@@ -10,22 +8,32 @@ import java.math.BigInteger
 
 internal class UnmarshalHelper {
 
-    @Suppress("MagicNumber")
     fun unmarshalSignature(signature: ByteArray, hash: ByteArray, publicKey: Wallet.PublicKey): ByteArray {
-        val r = BigInteger(1, signature.copyOfRange(0, 32))
-        val s = BigInteger(1, signature.copyOfRange(32, 64))
+        return unmarshalSignatures(listOf(signature), listOf(hash), publicKey).single()
+    }
+
+    /** Signatures are expected to be made by [publicKey], so its decoded point is shared by the whole batch */
+    @Suppress("MagicNumber")
+    fun unmarshalSignatures(
+        signatures: List<ByteArray>,
+        hashes: List<ByteArray>,
+        publicKey: Wallet.PublicKey,
+    ): List<ByteArray> {
+        val ecdsaSignatures = signatures.map { signature ->
+            val r = BigInteger(1, signature.copyOfRange(0, 32))
+            val s = BigInteger(1, signature.copyOfRange(32, 64))
 
-        val ecdsaSignature = ECDSASignature(r, s).canonicalise()
+            ECDSASignature(r, s).canonicalise()
+        }
+        val recIds = Secp256k1Recovery.recoveryIds(ecdsaSignatures, hashes, publicKey.blockchainKey)
 
-        val recId = ecdsaSignature.determineRecId(
-            hash,
-            org.kethereum.model.PublicKey(publicKey.blockchainKey.toDecompressedPublicKey().sliceArray(1..64)),
-        )
-        val v = (recId + 27).toBigInteger()
-        val signatureData = SignatureData(ecdsaSignature.r, ecdsaSignature.s, v)
+        return ecdsaSignatures.zip(recIds) { ecdsaSignature, recId ->
+            val v = (recId + 27).toBigInteger()
+            val signatureData = SignatureData(ecdsaSignature.r, ecdsaSignature.s, v)
 
-        return signatureData.r.toByteArray().removeLeadingZero() +
-            signatureData.s.toByteArray().removeLeadingZero() +
-            signatureData.v.toByteArray().removeLeadingZero()
+            signatureData.r.toByteArray().removeLeadingZero() +
+                signatureData.s.toByteArray().removeLeadingZero() +
+                signatureData.v.toByteArray().removeLeadingZero()
+        }
     }
 }
@@ -5,6 +5,10 @@ import com.tangem.blockchain.common.address.Address
 import com.tangem.blockchain.common.address.AddressType
 import com.tangem.crypto.hdWallet.DerivationPath
 import com.tangem.crypto.hdWallet.bip32.ExtendedPublicKey
+import kotlinx.coroutines.flow.MutableStateFlow
+import kotlinx.coroutines.flow.StateFlow
+import kotlinx.coroutines.flow.asStateFlow
+import kotlinx.coroutines.flow.update
 import java.math.BigDecimal
 import java.util.Calendar
 import java.util.Locale
@@ -15,9 +19,16 @@ class Wallet(
     val publicKey: PublicKey,
     tokens: Set<Token>,
 ) {
+    private val mutableState = MutableStateFlow(WalletState(amounts = emptyMap(), recentTransactions = emptyList()))
+
+    /** Wallet amounts and recent transactions, every change publishes a new snapshot */
+    val state: StateFlow<WalletState> = mutableState.asStateFlow()
+
     // we put only unconfirmed transactions here, but never delete them, change status to confirmed instead
-    val recentTransactions: MutableList<TransactionData> = mutableListOf()
-    val amounts: MutableMap<AmountType, Amount> = mutableMapOf()
+    val recentTransactions: List<TransactionData>
+        get() = mutableState.value.recentTransactions
+    val amounts: Map<AmountType, Amount>
+        get() = mutableState.value.amounts
     val address: String
         get() = addresses.find { it.type == AddressType.Default }?.value
             ?: error("Addresses must contain default address")
@@ -28,12 +39,13 @@ class Wallet(
     }
 
     fun setAmount(amount: Amount) {
-        amounts[amount.type] = amount
+        updateAmounts { it + (amount.type to amount) }
     }
 
     fun changeAmountValue(amountType: AmountType, newValue: BigDecimal?) {
-        amounts[amountType]?.let {
-            amounts[amountType] = it.copy(value = newValue)
+        updateAmounts { amounts ->
+            val amount = amounts[amountType] ?: return@updateAmounts amounts
+            amounts + (amountType to amount.copy(value = newValue))
         }
     }
 
@@ -46,13 +58,11 @@ class Wallet(
     }
 
     fun removeToken(token: Token) {
-        amounts.remove(AmountType.Token(token))
+        updateAmounts { it - AmountType.Token(token) }
     }
 
     fun removeAllTokens() {
-        val coin = amounts[AmountType.Coin]
-        amounts.clear()
-        coin?.let { amounts[AmountType.Coin] = it }
+        updateAmounts { amounts -> amounts.filterKeys { it == AmountType.Coin } }
     }
 
     fun setReserveValue(value: BigDecimal) = setAmount(Amount(value, blockchain, AmountType.Reserve))
@@ -63,13 +73,48 @@ class Wallet(
         }
     }
 
-    fun getTokenAmount(token: Token): Amount? {
-        val key = amounts.keys.find { it is AmountType.Token && it.token == token }
-        return amounts[key]
-    }
+    fun getTokenAmount(token: Token): Amount? = amounts[AmountType.Token(token)]
 
     fun getTokens(): Set<Token> = amounts.keys.filterIsInstance<AmountType.Token>().map { it.token }.toSet()
 
+    fun findRecentTransaction(hash: String): TransactionData? = mutableState.value.findRecentTransaction(hash)
+
+    /**
+     * Adds [transactions] to recent ones. With [skipKnownHashes] a transaction is skipped if a recent one, including
+     * one added earlier from [transactions], has the same hash ignoring case; a null hash matches a null hash
+     */
+    fun addRecentTransactions(transactions: List<TransactionData>, skipKnownHashes: Boolean = true) {
+        if (transactions.isEmpty()) return
+
+        mutableState.update { state ->
+            val newTransactions = if (skipKnownHashes) {
+                val knownHashes = state.recentTransactions.mapTo(hashSetOf()) { it.hash?.lowercase(Locale.US) }
+                transactions.filter { knownHashes.add(it.hash?.lowercase(Locale.US)) }
+            } else {
+                transactions
+            }
+            state.copy(recentTransactions = state.recentTransactions + newTransactions)
+        }
+    }
+
+    /** Marks recent transactions which match [predicate] as confirmed */
+    fun confirmRecentTransactions(predicate: (TransactionData) -> Boolean = { true }) {
+        mutableState.update { state ->
+            val recentTransactions = state.recentTransactions.map { transaction ->
+                if (transaction.status == TransactionStatus.Unconfirmed && predicate(transaction)) {
+                    transaction.copy(status = TransactionStatus.Confirmed)
+                } else {
+                    transaction
+                }
+            }
+            state.copy(recentTransactions = recentTransactions)
+        }
+    }
+
+    fun clearRecentTransactions() {
+        mutableState.update { it.copy(recentTransactions = emptyList()) }
+    }
+
     fun addTransactionDummy(direction: TransactionDirection? = null) {
         var sourceAddress = "unknown"
         var destinationAddress = "unknown"
@@ -86,17 +131,20 @@ class Wallet(
             destinationAddress = destinationAddress,
             date = Calendar.getInstance(),
         )
-        recentTransactions.add(transaction)
+        addRecentTransactions(listOf(transaction), skipKnownHashes = false)
     }
 
+    /** Adds a copy of [transactionData] dated now, the passed instance isn't changed */
     fun addOutgoingTransaction(transactionData: TransactionData, hashToLowercase: Boolean = true) {
-        transactionData.apply {
-            date = Calendar.getInstance()
-            if (hashToLowercase) hash = hash?.lowercase(Locale.US)
+        val hash = if (hashToLowercase) transactionData.hash?.lowercase(Locale.US) else transactionData.hash
+        val transaction = transactionData.copy(date = Calendar.getInstance(), hash = hash)
+        mutableState.update { state ->
+            if (state.recentTransactions.any { it.hash == transaction.hash }) {
+                state
+            } else {
+                state.copy(recentTransactions = state.recentTransactions + transaction)
+            }
         }
-        if (recentTransactions.any { it.hash == transactionData.hash }) return
-
-        recentTransactions.add(transactionData)
     }
 
     fun fundsAvailable(amountType: AmountType): BigDecimal {
@@ -108,6 +156,10 @@ class Wallet(
 
     fun getShareUri(address: String? = null) = blockchain.getShareUri(address ?: this.address)
 
+    private inline fun updateAmounts(transform: (Map<AmountType, Amount>) -> Map<AmountType, Amount>) {
+        mutableState.update { it.copy(amounts = transform(it.amounts)) }
+    }
+
     class HDKey(
         val extendedPublicKey: ExtendedPublicKey,
         val path: DerivationPath,
@@ -13,6 +13,7 @@ import com.tangem.common.extensions.isZero
 import java.math.BigDecimal
 import java.util.Calendar
 import java.util.EnumSet
+import java.util.Locale
 
 abstract class WalletManager(
     var wallet: Wallet,
@@ -49,37 +50,23 @@ abstract class WalletManager(
     protected open fun updateRecentTransactionsBasic(transactions: List<BasicTransactionData>) {
         val (confirmedTransactions, unconfirmedTransactions) = transactions.partition { it.isConfirmed }
 
-        wallet.recentTransactions.forEach { recent ->
-            val confirmedTx = confirmedTransactions.find { confirmed -> confirmed.hash.equals(recent.hash, true) }
-            if (confirmedTx != null) {
-                recent.status = TransactionStatus.Confirmed
-            }
-        }
-
-        unconfirmedTransactions.forEach { unconfirmed ->
-            val recentTx = wallet.recentTransactions.find { recent -> recent.hash.equals(unconfirmed.hash, true) }
-            if (recentTx == null) {
-                wallet.recentTransactions.add(unconfirmed.toTransactionData())
-            }
-        }
+        confirmRecentTransactions(confirmedTransactions.map(BasicTransactionData::hash))
+        wallet.addRecentTransactions(unconfirmedTransactions.map { it.toTransactionData() })
     }
 
     protected fun updateRecentTransactions(transactions: List<TransactionData>) {
         val (confirmedTransactions, unconfirmedTransactions) =
             transactions.partition { it.status == TransactionStatus.Confirmed }
 
-        wallet.recentTransactions.forEach { recent ->
-            val confirmedTx = confirmedTransactions.find { confirmed -> confirmed.hash.equals(recent.hash, true) }
-            if (confirmedTx != null) {
-                recent.status = TransactionStatus.Confirmed
-            }
-        }
-        unconfirmedTransactions.forEach { unconfirmed ->
-            val recentTx = wallet.recentTransactions.find { recent -> recent.hash.equals(unconfirmed.hash, true) }
-            if (recentTx == null) {
-                wallet.recentTransactions.add(unconfirmed)
-            }
-        }
+        confirmRecentTransactions(confirmedTransactions.mapNotNull(TransactionData::hash))
+        wallet.addRecentTransactions(unconfirmedTransactions)
+    }
+
+    private fun confirmRecentTransactions(confirmedHashes: List<String>) {
+        if (confirmedHashes.isEmpty()) return
+
+        val hashes = confirmedHashes.mapTo(hashSetOf()) { it.lowercase(Locale.US) }
+        wallet.confirmRecentTransactions { it.hash?.lowercase(Locale.US) in hashes }
     }
 
     open fun createTransaction(amount: Amount, fee: Fee, destination: String): TransactionData {
@@ -0,0 +1,24 @@
+package com.tangem.blockchain.common
+
+import java.util.Locale
+
+/**
+ * Snapshot of [Wallet] amounts and recent transactions. Snapshots are never changed, [Wallet] replaces them as a whole
+ */
+data class WalletState(
+    val amounts: Map<AmountType, Amount>,
+    val recentTransactions: List<TransactionData>,
+) {
+
+    private val recentTransactionsByHash: Map<String, TransactionData> by lazy {
+        // the first transaction wins, as in a linear search
+        recentTransactions.asReversed()
+            .filter { it.hash != null }
+            .associateBy { it.hash!!.lowercase(Locale.US) }
+    }
+
+    /** Hashes are compared ignoring case */
+    fun findRecentTransaction(hash: String): TransactionData? {
+        return recentTransactionsByHash[hash.lowercase(Locale.US)]
+    }
+}
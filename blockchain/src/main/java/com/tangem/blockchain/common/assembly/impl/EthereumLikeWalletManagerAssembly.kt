@@ -3,6 +3,7 @@ package com.tangem.blockchain.common.assembly.impl
 import com.tangem.blockchain.blockchains.ethereum.EthereumTransactionBuilder
 import com.tangem.blockchain.blockchains.ethereum.EthereumWalletManager
 import com.tangem.blockchain.blockchains.ethereum.getEthereumJsonRpcProviders
+import com.tangem.blockchain.blockchains.ethereum.multicall.getMulticall3Address
 import com.tangem.blockchain.blockchains.ethereum.network.EthereumNetworkService
 import com.tangem.blockchain.common.assembly.WalletManagerAssembly
 import com.tangem.blockchain.common.assembly.WalletManagerAssemblyInput
@@ -20,6 +21,7 @@ internal object EthereumLikeWalletManagerAssembly : WalletManagerAssembly<Ethere
                 ),
                 networkProvider = EthereumNetworkService(
                     jsonRpcProviders = blockchain.getEthereumJsonRpcProviders(input.config),
+                    multicall3Address = blockchain.getMulticall3Address(),
                 ),
                 transactionHistoryProvider = blockchain.getTransactionHistoryProvider(input.config),
             )
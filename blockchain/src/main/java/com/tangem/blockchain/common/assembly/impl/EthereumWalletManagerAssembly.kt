@@ -3,6 +3,7 @@ package com.tangem.blockchain.common.assembly.impl
 import com.tangem.blockchain.blockchains.ethereum.EthereumTransactionBuilder
 import com.tangem.blockchain.blockchains.ethereum.EthereumWalletManager
 import com.tangem.blockchain.blockchains.ethereum.getEthereumJsonRpcProviders
+import com.tangem.blockchain.blockchains.ethereum.multicall.getMulticall3Address
 import com.tangem.blockchain.blockchains.ethereum.network.EthereumNetworkService
 import com.tangem.blockchain.common.assembly.WalletManagerAssembly
 import com.tangem.blockchain.common.assembly.WalletManagerAssemblyInput
@@ -25,6 +26,7 @@ internal object EthereumWalletManagerAssembly : WalletManagerAssembly<EthereumWa
                         blockchain = blockchain,
                         tokens = input.config.blockcypherTokens,
                     ),
+                    multicall3Address = blockchain.getMulticall3Address(),
                 ),
                 transactionHistoryProvider = blockchain.getTransactionHistoryProvider(input.config),
             )
@@ -2,6 +2,7 @@ package com.tangem.blockchain.common.assembly.impl
 
 import com.tangem.blockchain.blockchains.ethereum.EthereumTransactionBuilder
 import com.tangem.blockchain.blockchains.ethereum.getEthereumJsonRpcProviders
+import com.tangem.blockchain.blockchains.ethereum.multicall.getMulticall3Address
 import com.tangem.blockchain.blockchains.ethereum.network.EthereumNetworkService
 import com.tangem.blockchain.blockchains.optimism.OptimismWalletManager
 import com.tangem.blockchain.common.assembly.WalletManagerAssembly
@@ -19,6 +20,7 @@ internal object OptimismWalletManagerAssembly : WalletManagerAssembly<OptimismWa
                 ),
                 networkProvider = EthereumNetworkService(
                     jsonRpcProviders = blockchain.getEthereumJsonRpcProviders(input.config),
+                    multicall3Address = blockchain.getMulticall3Address(),
                 ),
             )
         }
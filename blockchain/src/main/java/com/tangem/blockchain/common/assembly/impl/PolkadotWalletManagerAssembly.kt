@@ -4,17 +4,24 @@ import com.tangem.blockchain.blockchains.polkadot.PolkadotWalletManager
 import com.tangem.blockchain.blockchains.polkadot.extensions.getPolkadotHosts
 import com.tangem.blockchain.blockchains.polkadot.network.PolkadotCombinedProvider
 import com.tangem.blockchain.blockchains.polkadot.network.PolkadotNetworkService
+import com.tangem.blockchain.blockchains.polkadot.network.PolkadotRuntimeCache
 import com.tangem.blockchain.common.assembly.WalletManagerAssembly
 import com.tangem.blockchain.common.assembly.WalletManagerAssemblyInput
 
 internal object PolkadotWalletManagerAssembly : WalletManagerAssembly<PolkadotWalletManager>() {
 
     override fun make(input: WalletManagerAssemblyInput): PolkadotWalletManager {
+        val blockchain = input.wallet.blockchain
         return PolkadotWalletManager(
             wallet = input.wallet,
             networkProvider = PolkadotNetworkService(
-                providers = input.wallet.blockchain.getPolkadotHosts()
-                    .map { PolkadotCombinedProvider(input.wallet.blockchain.decimals(), it) },
+                providers = blockchain.getPolkadotHosts().map {
+                    PolkadotCombinedProvider(
+                        decimals = blockchain.decimals(),
+                        baseUrl = it,
+                        runtimeCache = PolkadotRuntimeCache.shared(blockchain),
+                    )
+                },
             ),
         )
     }
@@ -0,0 +1,111 @@
+package com.tangem.blockchain.common.cache
+
+import com.tangem.blockchain.extensions.Result
+import kotlinx.coroutines.CancellationException
+import kotlinx.coroutines.CompletableDeferred
+import kotlinx.coroutines.currentCoroutineContext
+import kotlinx.coroutines.ensureActive
+import java.util.concurrent.TimeUnit
+
+/**
+ * Values kept for [ttlOf] milliseconds after they were loaded. Failures and values rejected by [isCacheable]
+ * aren't kept.
+ *
+ * Concurrent [getOrLoad] calls of the same key wait for a single load. The lock is taken only to look up or install
+ * an entry and the load is awaited outside of it, so slow loading of one key doesn't block other keys. A load
+ * cancelled with its caller is restarted by the next waiter
+ */
+internal class ExpiringCache<K, V>(
+    private val ttlOf: (key: K) -> Long,
+    private val clock: () -> Long = ::monotonicMillis,
+    private val onHit: () -> Unit = {},
+    private val onMiss: () -> Unit = {},
+    private val isCacheable: (value: V) -> Boolean = { true },
+) {
+
+    constructor(
+        ttlMillis: Long,
+        clock: () -> Long = ::monotonicMillis,
+        onHit: () -> Unit = {},
+        onMiss: () -> Unit = {},
+        isCacheable: (value: V) -> Boolean = { true },
+    ) : this(ttlOf = { ttlMillis }, clock = clock, onHit = onHit, onMiss = onMiss, isCacheable = isCacheable)
+
+    private val values = HashMap<K, Timestamped<V>>()
+    private val loads = HashMap<K, CompletableDeferred<Result<V>>>()
+
+    suspend fun getOrLoad(key: K, load: suspend () -> Result<V>): Result<V> {
+        while (true) {
+            val inFlightLoad = synchronized(this) {
+                getAlive(key)?.let { value ->
+                    onHit()
+                    return Result.Success(value)
+                }
+                loads[key]
+            }
+
+            if (inFlightLoad == null) {
+                val newLoad = CompletableDeferred<Result<V>>()
+                val isInstalled = synchronized(this) {
+                    // Map.putIfAbsent needs API 24
+                    !loads.containsKey(key) && loads.put(key, newLoad) == null
+                }
+                if (isInstalled) return performLoad(key, newLoad, load)
+                continue
+            }
+
+            try {
+                return inFlightLoad.await()
+            } catch (exception: CancellationException) {
+                // the loading caller was cancelled, this one loads again unless it's cancelled itself
+                currentCoroutineContext().ensureActive()
+            }
+        }
+    }
+
+    @Synchronized
+    fun get(key: K): V? = getAlive(key)
+
+    @Synchronized
+    fun put(key: K, value: V) {
+        values.entries.removeAll { (cachedKey, cached) -> !cached.isAlive(cachedKey) }
+        values[key] = Timestamped(value, clock())
+    }
+
+    @Synchronized
+    fun remove(key: K) {
+        values.remove(key)
+    }
+
+    private suspend fun performLoad(
+        key: K,
+        deferred: CompletableDeferred<Result<V>>,
+        load: suspend () -> Result<V>,
+    ): Result<V> {
+        onMiss()
+        try {
+            val result = load()
+            synchronized(this) {
+                if (result is Result.Success && isCacheable(result.data)) put(key, result.data)
+                loads.remove(key)
+            }
+            deferred.complete(result)
+            return result
+        } catch (exception: Throwable) {
+            synchronized(this) { loads.remove(key) }
+            deferred.completeExceptionally(exception)
+            throw exception
+        }
+    }
+
+    private fun getAlive(key: K): V? {
+        val cached = values[key] ?: return null
+        return if (cached.isAlive(key)) cached.value else null
+    }
+
+    private fun Timestamped<V>.isAlive(key: K): Boolean = clock() - timestamp < ttlOf(key)
+
+    private class Timestamped<V>(val value: V, val timestamp: Long)
+}
+
+private fun monotonicMillis(): Long = TimeUnit.NANOSECONDS.toMillis(System.nanoTime())
@@ -7,9 +7,33 @@ package com.tangem.blockchain.common.logging
  */
 interface BlockchainSDKLogger {
 
+    /** Detail level of network messages the logger wants to receive */
+    val networkLogLevel: NetworkLogLevel
+        get() = NetworkLogLevel.BODY
+
+    /** Maximum number of body bytes logged per request or response when [networkLogLevel] is BODY */
+    val maxNetworkBodyBytes: Long
+        get() = DEFAULT_MAX_NETWORK_BODY_BYTES
+
     fun log(level: Level, message: String)
 
     enum class Level {
         NETWORK,
     }
+
+    /** Detail levels ordered from the least to the most verbose */
+    enum class NetworkLogLevel {
+        /** No network logs */
+        NONE,
+
+        /** Request and response lines with headers */
+        HEADERS,
+
+        /** Lines, headers and bodies up to [maxNetworkBodyBytes] */
+        BODY,
+    }
+
+    companion object {
+        const val DEFAULT_MAX_NETWORK_BODY_BYTES = 64L * 1024
+    }
 }
@@ -1,6 +1,8 @@
 package com.tangem.blockchain.common.logging
 
 import com.tangem.blockchain.common.logging.BlockchainSDKLogger.Level
+import com.tangem.blockchain.common.logging.BlockchainSDKLogger.NetworkLogLevel
+import java.util.concurrent.CopyOnWriteArrayList
 
 /**
  * Internal logger
@@ -9,19 +11,32 @@ import com.tangem.blockchain.common.logging.BlockchainSDKLogger.Level
  */
 internal object Logger {
 
-    private val loggers = mutableListOf<BlockchainSDKLogger>()
+    private val loggers = CopyOnWriteArrayList<BlockchainSDKLogger>()
 
-    fun logNetwork(message: String) {
-        logInternal(Level.NETWORK, message)
-    }
+    /** The most verbose network level requested by registered loggers */
+    val networkLogLevel: NetworkLogLevel
+        get() = loggers.maxOfOrNull { it.networkLogLevel } ?: NetworkLogLevel.NONE
 
-    fun addLoggers(loggers: List<BlockchainSDKLogger>) {
-        this.loggers.addAll(loggers)
+    /** The largest body size requested by loggers that log network bodies */
+    val maxNetworkBodyBytes: Long
+        get() = loggers
+            .filter { it.networkLogLevel == NetworkLogLevel.BODY }
+            .maxOfOrNull { it.maxNetworkBodyBytes }
+            ?: 0L
+
+    /** Logs [message] to loggers with network level not less than [minLevel] */
+    fun logNetwork(message: String, minLevel: NetworkLogLevel = NetworkLogLevel.HEADERS) {
+        loggers.forEach {
+            if (it.networkLogLevel >= minLevel) it.log(Level.NETWORK, message)
+        }
     }
 
-    private fun logInternal(level: Level, message: String) {
-        if (loggers.isEmpty()) return
+    /** Builds and logs [message] only if some logger has network level not less than [minLevel] */
+    inline fun logNetwork(minLevel: NetworkLogLevel, message: () -> String) {
+        if (networkLogLevel >= minLevel) logNetwork(message(), minLevel)
+    }
 
-        loggers.forEach { it.log(level, message) }
+    fun addLoggers(loggers: List<BlockchainSDKLogger>) {
+        this.loggers.addAll(loggers)
     }
 }
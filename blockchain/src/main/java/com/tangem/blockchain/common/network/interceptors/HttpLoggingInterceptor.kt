@@ -3,6 +3,7 @@ package com.tangem.blockchain.common.network.interceptors
 import com.squareup.moshi.adapter
 import com.tangem.blockchain.common.BlockchainSdkConfig
 import com.tangem.blockchain.common.di.DepsContainer
+import com.tangem.blockchain.common.logging.BlockchainSDKLogger.NetworkLogLevel
 import com.tangem.blockchain.common.logging.Logger
 import com.tangem.blockchain.network.moshi
 import okhttp3.Headers
@@ -12,6 +13,9 @@ import okhttp3.Response
 import okhttp3.internal.http.promisesBody
 import okio.Buffer
 import okio.GzipSource
+import okio.Sink
+import okio.Timeout
+import okio.buffer
 import org.json.JSONArray
 import org.json.JSONObject
 import java.io.EOFException
@@ -29,13 +33,17 @@ private const val JSON_INDENT_SPACES = 4
  */
 internal object HttpLoggingInterceptor : Interceptor {
 
-    private val sensitiveKeys = initSensitiveKeys()
+    private val sensitiveKeys by lazy(::initSensitiveKeys)
 
     @Throws(IOException::class)
     override fun intercept(chain: Interceptor.Chain): Response {
+        val level = Logger.networkLogLevel
+        if (level == NetworkLogLevel.NONE) return chain.proceed(chain.request())
+
+        val maxBodyBytes = if (level == NetworkLogLevel.BODY) Logger.maxNetworkBodyBytes else 0L
         val request = chain.request()
 
-        logRequestMessage(chain, request)
+        logRequestMessage(chain, request, maxBodyBytes)
 
         val startNs = System.nanoTime()
         val response: Response
@@ -46,7 +54,7 @@ internal object HttpLoggingInterceptor : Interceptor {
             throw e
         }
 
-        logResponseMessage(response, startNs)
+        logResponseMessage(response, startNs, maxBodyBytes)
 
         return response
     }
@@ -72,17 +80,24 @@ internal object HttpLoggingInterceptor : Interceptor {
             .toList()
     }
 
-    private fun logRequestMessage(chain: Interceptor.Chain, request: Request) {
+    private fun logRequestMessage(chain: Interceptor.Chain, request: Request, maxBodyBytes: Long) {
         val connection = chain.connection()
         val connectionProtocol = if (connection != null) " ${connection.protocol()}" else ""
 
         Logger.logNetwork(
             "--> ${request.method} ${request.getUrlWithoutSensitiveInfo()}$connectionProtocol\n" +
-                createRequestEndMessage(request),
+                request.headers.toLogMessage(),
         )
+        if (maxBodyBytes > 0) {
+            Logger.logNetwork(minLevel = NetworkLogLevel.BODY) { createRequestEndMessage(request, maxBodyBytes) }
+        }
     }
 
-    private fun createRequestEndMessage(request: Request): String {
+    /**
+     * Writes no more than [maxBodyBytes] of the request body, bodies of unknown length are cut and logged as is,
+     * without JSON formatting
+     */
+    private fun createRequestEndMessage(request: Request, maxBodyBytes: Long): String {
         val requestBody = request.body
         val method = request.method
 
@@ -94,74 +109,98 @@ internal object HttpLoggingInterceptor : Interceptor {
             "--> END $method (duplex request body omitted)"
         } else if (requestBody.isOneShot()) {
             "--> END $method (one-shot body omitted)"
+        } else if (requestBody.contentLength() > maxBodyBytes) {
+            "--> END $method (${requestBody.contentLength()}-byte body omitted)"
         } else {
-            val buffer = Buffer()
-            requestBody.writeTo(buffer)
+            val sink = LimitedBufferSink(byteLimit = maxBodyBytes)
+            sink.buffer().use(requestBody::writeTo)
+            val buffer = sink.bytes
 
             val contentType = requestBody.contentType()
             val charset: Charset = contentType?.charset(StandardCharsets.UTF_8) ?: StandardCharsets.UTF_8
 
             if (buffer.isProbablyUtf8()) {
-                val json = buffer.readString(charset).beautifyJson()
-                "$json\n--> END $method (${requestBody.contentLength()}-byte body)"
+                val bodySize = buffer.size
+                val body = buffer.readString(charset)
+                if (sink.isTruncated) {
+                    "$body\n--> END $method (body truncated to $maxBodyBytes bytes)"
+                } else {
+                    "${body.beautifyJson()}\n--> END $method ($bodySize-byte body)"
+                }
             } else {
                 "--> END $method (binary ${requestBody.contentLength()}-byte body omitted)"
             }
         }
     }
 
-    private fun logResponseMessage(response: Response, startNs: Long) {
+    private fun logResponseMessage(response: Response, startNs: Long, maxBodyBytes: Long) {
         val tookMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNs)
 
         val responseMessage = if (response.message.isEmpty()) "" else ' ' + response.message
         val startMessage = "<-- ${response.code}$responseMessage ${response.request.getUrlWithoutSensitiveInfo()} " +
             "(${tookMs}ms)"
 
-        val responseHeaders = response.headers
-        val responseBody = response.body!!
-        val contentLength = responseBody.contentLength()
+        Logger.logNetwork(startMessage + "\n" + response.headers.toLogMessage())
+        if (maxBodyBytes > 0) {
+            Logger.logNetwork(minLevel = NetworkLogLevel.BODY) { createResponseEndMessage(response, maxBodyBytes) }
+        }
+    }
 
-        val message = if (!response.promisesBody()) {
-            "<-- END HTTP"
-        } else if (bodyHasUnknownEncoding(response.headers)) {
-            "<-- END HTTP (encoded body omitted)"
-        } else {
-            val source = responseBody.source()
-            source.request(Long.MAX_VALUE)
-            var buffer = source.buffer
-
-            var gzippedLength: Long? = null
-            if ("gzip".equals(responseHeaders["Content-Encoding"], ignoreCase = true)) {
-                gzippedLength = buffer.size
-                GzipSource(buffer.clone()).use { gzippedResponseBody ->
-                    buffer = Buffer()
-                    buffer.writeAll(gzippedResponseBody)
-                }
-            }
+    /**
+     * Reads no more than [maxBodyBytes] of the response body, so large payloads are neither buffered completely
+     * nor copied. Truncated bodies are logged as is, without JSON formatting.
+     */
+    private fun createResponseEndMessage(response: Response, maxBodyBytes: Long): String {
+        val responseBody = response.body ?: return "<-- END HTTP"
+        val contentLength = responseBody.contentLength()
+        val isGzipped = "gzip".equals(response.headers["Content-Encoding"], ignoreCase = true)
 
-            val contentType = responseBody.contentType()
-            val charset: Charset = contentType?.charset(StandardCharsets.UTF_8) ?: StandardCharsets.UTF_8
+        if (!response.promisesBody()) return "<-- END HTTP"
+        if (bodyHasUnknownEncoding(response.headers)) return "<-- END HTTP (encoded body omitted)"
+        if (isGzipped && (contentLength == -1L || contentLength > maxBodyBytes)) {
+            return "<-- END HTTP (gzipped body omitted)"
+        }
 
-            if (!buffer.isProbablyUtf8()) {
-                "<-- END HTTP (binary ${buffer.size}-byte body omitted)"
-            } else {
-                val json = if (contentLength != 0L) {
-                    buffer.clone().readString(charset).beautifyJson()
-                } else {
-                    ""
-                }
+        val source = responseBody.source()
+        source.request(maxBodyBytes + 1)
+        val isTruncated = source.buffer.size > maxBodyBytes
+        var buffer = Buffer()
+        source.buffer.copyTo(out = buffer, offset = 0, byteCount = source.buffer.size.coerceAtMost(maxBodyBytes))
+
+        var gzippedLength: Long? = null
+        if (isGzipped) {
+            gzippedLength = buffer.size
+            GzipSource(buffer).use { gzippedResponseBody ->
+                buffer = Buffer()
+                buffer.writeAll(gzippedResponseBody)
+            }
+        }
 
-                val end = if (gzippedLength != null) {
-                    "<-- END HTTP (${buffer.size}-byte, $gzippedLength-gzipped-byte body)"
-                } else {
-                    "<-- END HTTP (${buffer.size}-byte body)"
-                }
+        val contentType = responseBody.contentType()
+        val charset: Charset = contentType?.charset(StandardCharsets.UTF_8) ?: StandardCharsets.UTF_8
 
-                "$json\n$end"
+        return if (!buffer.isProbablyUtf8()) {
+            "<-- END HTTP (binary ${buffer.size}-byte body omitted)"
+        } else {
+            val bodySize = buffer.size
+            val body = buffer.readString(charset)
+            val json = if (isTruncated) body else body.beautifyJson()
+
+            val end = when {
+                isTruncated -> "<-- END HTTP (body truncated to $maxBodyBytes bytes)"
+                gzippedLength != null -> "<-- END HTTP ($bodySize-byte, $gzippedLength-gzipped-byte body)"
+                else -> "<-- END HTTP ($bodySize-byte body)"
             }
+
+            "$json\n$end"
         }
+    }
 
-        Logger.logNetwork(startMessage + "\n" + message)
+    private fun Headers.toLogMessage(): String {
+        return joinToString(separator = "") { (name, value) ->
+            val isSensitive = sensitiveKeys.any { value.contains(other = it, ignoreCase = true) }
+            "$name: ${if (isSensitive) "******" else value}\n"
+        }
     }
 
     private fun bodyHasUnknownEncoding(headers: Headers): Boolean {
@@ -227,4 +266,25 @@ internal object HttpLoggingInterceptor : Interceptor {
             null
         }
     }
+
+    /** Keeps the first [byteLimit] written bytes in [bytes] and skips the rest */
+    private class LimitedBufferSink(private val byteLimit: Long) : Sink {
+
+        val bytes = Buffer()
+        var isTruncated = false
+            private set
+
+        override fun write(source: Buffer, byteCount: Long) {
+            val keptCount = (byteLimit - bytes.size).coerceIn(minimumValue = 0, maximumValue = byteCount)
+            bytes.write(source, keptCount)
+            source.skip(byteCount - keptCount)
+            if (keptCount < byteCount) isTruncated = true
+        }
+
+        override fun flush() = Unit
+
+        override fun timeout(): Timeout = Timeout.NONE
+
+        override fun close() = Unit
+    }
 }
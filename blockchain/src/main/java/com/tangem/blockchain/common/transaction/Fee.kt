@@ -44,5 +44,14 @@ sealed class Fee {
         val gasLimit: Long,
     ) : Fee()
 
+    /**
+     * @property satoshiPerByte fee rate in the smallest units per virtual byte, outputs of the transaction are
+     * selected for it in the same way as on calculating [amount]
+     */
+    data class Bitcoin(
+        override val amount: Amount,
+        val satoshiPerByte: BigDecimal,
+    ) : Fee()
+
     data class Common(override val amount: Amount) : Fee()
 }
@@ -0,0 +1,168 @@
+package com.tangem.blockchain.common.utxo
+
+import kotlin.random.Random
+
+/**
+ * Depth-first search of a selection covering the target without change, i.e. exceeding it by less than cost of
+ * change. The selection with the smallest excess wins, ties are resolved by fewer inputs.
+ *
+ * Based on branch and bound coin selection of Bitcoin Core.
+ */
+internal class BranchAndBoundStrategy(private val maxTries: Int = MAX_TRIES) : CoinSelectionStrategy {
+
+    @Suppress("CyclomaticComplexMethod", "LoopWithTooManyJumpStatements")
+    override fun select(values: LongArray, params: CoinSelectionParams): List<Int>? {
+        val order = values.indices.sortedByDescending { values[it] }
+        val sorted = LongArray(order.size) { values[order[it]] }
+        val upperBound = params.target + params.costOfChange
+
+        var available = sorted.sum()
+        if (available < params.target) return null
+
+        // included[i] is a decision for sorted[i], depth is count of made decisions
+        val included = BooleanArray(sorted.size)
+        var depth = 0
+        var value = 0L
+        var inputsCount = 0
+
+        var best: BooleanArray? = null
+        var bestWaste = Long.MAX_VALUE
+        var bestInputsCount = Int.MAX_VALUE
+
+        for (i in 0 until maxTries) {
+            var backtrack = false
+            if (value + available < params.target || value > upperBound || inputsCount > params.maxInputs) {
+                backtrack = true
+            } else if (value >= params.target) {
+                val waste = value - params.target
+                if (waste < bestWaste || waste == bestWaste && inputsCount < bestInputsCount) {
+                    best = included.copyOf(depth)
+                    bestWaste = waste
+                    bestInputsCount = inputsCount
+                }
+                backtrack = true
+            }
+
+            if (backtrack) {
+                // walk back to the last included output, its omission branch isn't searched yet
+                while (depth > 0 && !included[depth - 1]) {
+                    depth--
+                    available += sorted[depth]
+                }
+                if (depth == 0) break
+
+                included[depth - 1] = false
+                value -= sorted[depth - 1]
+                inputsCount--
+            } else {
+                available -= sorted[depth]
+                // branch with the same value as the omitted previous output was already searched
+                val isSameAsOmitted = depth > 0 && !included[depth - 1] && sorted[depth] == sorted[depth - 1]
+                included[depth] = !isSameAsOmitted
+                if (!isSameAsOmitted) {
+                    value += sorted[depth]
+                    inputsCount++
+                }
+                depth++
+            }
+        }
+
+        return best?.let { decisions -> decisions.indices.filter { decisions[it] }.map(order::get) }
+    }
+
+    private companion object {
+        const val MAX_TRIES = 100_000
+    }
+}
+
+/**
+ * Randomized search of a subset covering the target together with change, with the smallest excess. A single
+ * output larger than the target is preferred when it doesn't exceed the found subset. Random is seeded, so the
+ * same outputs give the same selection for fee estimation and for sending.
+ *
+ * Based on knapsack coin selection of Bitcoin Core.
+ */
+internal class KnapsackStrategy(
+    private val iterations: Int = ITERATIONS,
+    private val seed: Int = SEED,
+) : CoinSelectionStrategy {
+
+    override fun select(values: LongArray, params: CoinSelectionParams): List<Int>? {
+        val target = params.target + params.costOfChange
+
+        val lowestLarger = values.indices.filter { values[it] >= target }.minByOrNull { values[it] }
+        val smaller = values.indices.filter { values[it] < target }.sortedByDescending { values[it] }
+        val smallerTotal = smaller.sumOf { values[it] }
+
+        if (smallerTotal < target) return lowestLarger?.let(::listOf)
+        if (smallerTotal == target) return smaller
+
+        val smallerValues = LongArray(smaller.size) { values[smaller[it]] }
+        val (subset, subsetTotal) = approximateBestSubset(smallerValues, smallerTotal, target)
+        val subsetIndices = subset.indices.filter { subset[it] }.map(smaller::get)
+
+        val isLowestLargerBetter = lowestLarger != null &&
+            (subsetTotal != target && values[lowestLarger] <= subsetTotal || subsetIndices.size > params.maxInputs)
+
+        return if (isLowestLargerBetter) listOfNotNull(lowestLarger) else subsetIndices
+    }
+
+    private fun approximateBestSubset(values: LongArray, total: Long, target: Long): Pair<BooleanArray, Long> {
+        val random = Random(seed)
+        var best = BooleanArray(values.size) { true }
+        var bestTotal = total
+
+        val included = BooleanArray(values.size)
+        for (repetition in 0 until iterations) {
+            if (bestTotal == target) break
+
+            included.fill(false)
+            var selectedTotal = 0L
+            var isTargetReached = false
+            // first pass includes random outputs, second pass includes the rest
+            for (pass in 0 until 2) {
+                if (isTargetReached) break
+
+                for (i in values.indices) {
+                    val shouldInclude = if (pass == 0) random.nextBoolean() else !included[i]
+                    if (!shouldInclude) continue
+
+                    selectedTotal += values[i]
+                    included[i] = true
+                    if (selectedTotal >= target) {
+                        isTargetReached = true
+                        if (selectedTotal < bestTotal) {
+                            bestTotal = selectedTotal
+                            best = included.copyOf()
+                        }
+                        selectedTotal -= values[i]
+                        included[i] = false
+                    }
+                }
+            }
+        }
+        return best to bestTotal
+    }
+
+    private companion object {
+        const val ITERATIONS = 1000
+        const val SEED = 42
+    }
+}
+
+/** Takes the largest outputs until the target is covered */
+internal class LargestFirstStrategy : CoinSelectionStrategy {
+
+    override fun select(values: LongArray, params: CoinSelectionParams): List<Int>? {
+        val selected = mutableListOf<Int>()
+        var total = 0L
+
+        for (index in values.indices.sortedByDescending { values[it] }) {
+            if (total >= params.target || selected.size == params.maxInputs) break
+            selected.add(index)
+            total += values[index]
+        }
+
+        return if (total >= params.target) selected else null
+    }
+}
@@ -0,0 +1,151 @@
+package com.tangem.blockchain.common.utxo
+
+import java.math.BigDecimal
+import java.math.RoundingMode
+
+/**
+ * Selects unspent outputs to cover [CoinSelectionParams.target]. Strategies are tried in order, the first found
+ * selection is used. By default a changeless selection is searched first, then a selection with the smallest
+ * change, then largest outputs are taken.
+ */
+internal class CoinSelector(
+    private val strategies: List<CoinSelectionStrategy> = listOf(
+        BranchAndBoundStrategy(),
+        KnapsackStrategy(),
+        LargestFirstStrategy(),
+    ),
+) {
+
+    /**
+     * @param utxos outputs to select from
+     * @param params selection parameters, values are in the smallest units
+     * @param valueOf value of the output in the smallest units
+     * @return selected outputs in order of [utxos] or null if outputs are not enough under the input limit
+     */
+    fun <T> select(utxos: List<T>, params: CoinSelectionParams, valueOf: (T) -> Long): CoinSelection<T>? {
+        // outputs which don't pay for their own spending are not worth selecting
+        val candidates = utxos.filter { valueOf(it) - params.costPerInput > 0 }
+        val effectiveValues = LongArray(candidates.size) { valueOf(candidates[it]) - params.costPerInput }
+
+        for (strategy in strategies) {
+            val indices = strategy.select(effectiveValues, params) ?: continue
+            if (indices.isEmpty() || indices.size > params.maxInputs) continue
+
+            val selectedIndices = indices.sorted()
+            val effectiveTotal = selectedIndices.sumOf { effectiveValues[it] }
+            val excess = effectiveTotal - params.target
+
+            return CoinSelection(
+                inputs = selectedIndices.map(candidates::get),
+                total = selectedIndices.sumOf { valueOf(candidates[it]) },
+                fee = params.target - params.amount + selectedIndices.size * params.costPerInput,
+                isChangeless = excess < params.costOfChange,
+                waste = if (excess < params.costOfChange) excess else params.costOfChange,
+                strategy = strategy::class.java.simpleName,
+            )
+        }
+        return null
+    }
+
+    /**
+     * Same as the other [select], but for values in coins with [decimals], rounded down to the smallest units.
+     * Returns null if any value is out of the [Long] range
+     */
+    fun <T> select(
+        utxos: List<T>,
+        params: CoinSelectionParams,
+        decimals: Int,
+        amountOf: (T) -> BigDecimal,
+    ): CoinSelection<T>? {
+        val values = utxos.map { amountOf(it).toSmallestUnitsOrNull(decimals) ?: return null }
+        return select(utxos.indices.toList(), params, values::get)?.mapInputs(utxos::get)
+    }
+}
+
+/**
+ * @property amount sent amount
+ * @property target value selected outputs must cover besides their own spending cost, amount and fixed fee
+ * @property costPerInput fee for spending one output, outputs are compared by their value minus this cost
+ * @property costOfChange cost of creating and later spending a change output. Selection exceeding [target] by less
+ * than this is made without change, the excess goes to miners
+ * @property maxInputs limit of inputs in the transaction
+ */
+internal class CoinSelectionParams(
+    val amount: Long,
+    val target: Long,
+    val costPerInput: Long = 0,
+    val costOfChange: Long = 0,
+    val maxInputs: Int = Int.MAX_VALUE,
+) {
+
+    companion object {
+
+        /**
+         * Amount and fee are rounded up to cover them, null is returned if they are out of the [Long] range
+         *
+         * @param fee fixed fee of the transaction, without [costPerInput] of its inputs
+         */
+        fun of(
+            amount: BigDecimal,
+            fee: BigDecimal,
+            decimals: Int,
+            costPerInput: Long = 0,
+            costOfChange: Long = 0,
+            maxInputs: Int = Int.MAX_VALUE,
+        ): CoinSelectionParams? {
+            val amountUnits = amount.toSmallestUnitsOrNull(decimals, RoundingMode.UP) ?: return null
+            val feeUnits = fee.toSmallestUnitsOrNull(decimals, RoundingMode.UP) ?: return null
+            if (amountUnits > Long.MAX_VALUE - feeUnits) return null
+
+            return CoinSelectionParams(
+                amount = amountUnits,
+                target = amountUnits + feeUnits,
+                costPerInput = costPerInput,
+                costOfChange = costOfChange,
+                maxInputs = maxInputs,
+            )
+        }
+    }
+}
+
+/**
+ * @property total value of [inputs]
+ * @property fee fee paid for the transaction without change, fixed part and cost of [inputs]
+ * @property isChangeless selection covers target without a change output worth creating
+ * @property waste value lost on the selection, excess over target for changeless selection or cost of change
+ * @property strategy name of the strategy which made the selection
+ */
+internal class CoinSelection<T>(
+    val inputs: List<T>,
+    val total: Long,
+    val fee: Long,
+    val isChangeless: Boolean,
+    val waste: Long,
+    val strategy: String,
+) {
+
+    fun <R> mapInputs(transform: (T) -> R): CoinSelection<R> {
+        return CoinSelection(inputs.map(transform), total, fee, isChangeless, waste, strategy)
+    }
+}
+
+internal interface CoinSelectionStrategy {
+
+    /**
+     * @param values effective values of outputs, value minus cost of spending
+     * @return indices of selected [values] or null if the strategy can't cover the target
+     */
+    fun select(values: LongArray, params: CoinSelectionParams): List<Int>?
+}
+
+/**
+ * Converts coins with [decimals] to the smallest units, a fraction of the smallest unit is rounded with
+ * [roundingMode]. Returns null if the value is out of the [Long] range
+ */
+internal fun BigDecimal.toSmallestUnitsOrNull(decimals: Int, roundingMode: RoundingMode = RoundingMode.DOWN): Long? {
+    return try {
+        movePointRight(decimals).setScale(0, roundingMode).longValueExact()
+    } catch (exception: ArithmeticException) {
+        null
+    }
+}
@@ -0,0 +1,42 @@
+package com.tangem.blockchain.network
+
+import java.util.concurrent.atomic.AtomicLong
+
+/**
+ * Counters of hedged requests performed by all [MultiNetworkProvider]s
+ */
+object HedgedRequestsMetrics {
+
+    private val requests = AtomicLong()
+    private val hedgesFired = AtomicLong()
+    private val hedgeWins = AtomicLong()
+
+    fun snapshot(): Snapshot = Snapshot(
+        requests = requests.get(),
+        hedgesFired = hedgesFired.get(),
+        hedgeWins = hedgeWins.get(),
+    )
+
+    internal fun onRequest() {
+        requests.incrementAndGet()
+    }
+
+    internal fun onHedgeFired() {
+        hedgesFired.incrementAndGet()
+    }
+
+    internal fun onHedgeWon() {
+        hedgeWins.incrementAndGet()
+    }
+
+    /**
+     * @property requests    number of requests performed with hedging enabled
+     * @property hedgesFired number of requests where the primary provider was too slow and the hedge was fired
+     * @property hedgeWins   number of requests answered by the hedge provider
+     */
+    data class Snapshot(
+        val requests: Long,
+        val hedgesFired: Long,
+        val hedgeWins: Long,
+    )
+}
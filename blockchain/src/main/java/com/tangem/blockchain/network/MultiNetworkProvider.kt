@@ -1,11 +1,18 @@
 package com.tangem.blockchain.network
 
 import com.tangem.blockchain.common.BlockchainSdkError
-import com.tangem.blockchain.common.CycleListIterator
 import com.tangem.blockchain.common.ExceptionHandler
 import com.tangem.blockchain.common.NetworkProvider
 import com.tangem.blockchain.extensions.Result
 import com.tangem.blockchain.extensions.SimpleResult
+import com.tangem.blockchain.network.health.ProviderSelector
+import kotlinx.coroutines.Deferred
+import kotlinx.coroutines.async
+import kotlinx.coroutines.coroutineScope
+import kotlinx.coroutines.currentCoroutineContext
+import kotlinx.coroutines.ensureActive
+import kotlinx.coroutines.selects.select
+import kotlinx.coroutines.withTimeoutOrNull
 import java.io.IOException
 
 class MultiNetworkProvider<P : NetworkProvider>(
@@ -15,50 +22,152 @@ class MultiNetworkProvider<P : NetworkProvider>(
         if (providers.isEmpty()) error("Empty providers list")
     }
 
-    private val providerIterator = CycleListIterator(providers)
-    var currentProvider = providerIterator.next()
+    private val providerSelector = ProviderSelector(providers)
 
+    /** Provider that served or is serving the latest request */
+    var currentProvider: P
+        get() = providerSelector.current
+        set(value) {
+            providerSelector.current = value
+        }
+
+    /**
+     * All `performRequest` methods try providers one by one until a result without a network error.
+     *
+     * [isHedged] enables a hedged request: if the selected provider doesn't answer within its latency percentile,
+     * the same request is sent to the next provider, the first answer wins and the other call is cancelled.
+     * Use it only for idempotent reads, never for sending transactions.
+     */
     @JvmName("performRawRequest")
-    suspend fun <D, R> performRequest(request: suspend P.(D) -> R, data: D): Result<R> =
-        RequestWithIOException(request, data).perform()
+    suspend fun <D, R> performRequest(request: suspend P.(D) -> R, data: D, isHedged: Boolean = false): Result<R> =
+        RequestWithIOException(request, data).perform(isHedged)
 
-    suspend fun <D, R> performRequest(request: suspend P.(D) -> Result<R>, data: D): Result<R> =
-        DefaultRequest(request, data).perform()
+    suspend fun <D, R> performRequest(
+        request: suspend P.(D) -> Result<R>,
+        data: D,
+        isHedged: Boolean = false,
+    ): Result<R> = DefaultRequest(request, data).perform(isHedged)
 
     @JvmName("performSimpleRequest")
     suspend fun <D> performRequest(request: suspend P.(D) -> SimpleResult, data: D): SimpleResult =
-        SimpleRequest(request, data).perform()
+        SimpleRequest(request, data).perform(isHedged = false)
 
-    suspend fun <R> performRequest(request: suspend P.() -> Result<R>): Result<R> = NoDataRequest(request).perform()
+    suspend fun <R> performRequest(request: suspend P.() -> Result<R>, isHedged: Boolean = false): Result<R> =
+        NoDataRequest(request).perform(isHedged)
 
     @JvmName("performRawResultRequest")
-    suspend fun <R> performRequest(request: suspend P.() -> R): Result<R> =
-        NoDataRequestWithIOException(request).perform()
+    suspend fun <R> performRequest(request: suspend P.() -> R, isHedged: Boolean = false): Result<R> =
+        NoDataRequestWithIOException(request).perform(isHedged)
+
+    private suspend fun <T : Any> Request<P, T>.perform(isHedged: Boolean): T {
+        return if (isHedged && providers.size > 1) performHedged() else performSequentially()
+    }
 
-    private suspend fun <T : Any> Request<P, T>.perform(): T {
-        lateinit var finalResult: T
+    private suspend fun <T : Any> Request<P, T>.performSequentially(
+        attemptedProviders: MutableSet<P> = mutableSetOf(),
+        lastResult: T? = null,
+    ): T {
+        var finalResult = lastResult
 
-        repeat(providers.size) {
-            if (this.lastProvider == currentProvider) currentProvider = providerIterator.next()
-            val result = this.performWith(currentProvider)
+        repeat(providers.size - attemptedProviders.size) {
+            val provider = providerSelector.select(excluded = attemptedProviders)
+            attemptedProviders.add(provider)
+
+            val result = performMeasured(provider)
             if (!isResultNetworkError(result)) {
                 return result
             } else {
-                val message = "Switchable publisher caught error: ${getErrorMessage(result)}."
-                ExceptionHandler.handleApiSwitch(
-                    currentHost = currentProvider.baseUrl,
-                    nextHost = providerIterator.peekNext().baseUrl,
-                    message = message,
-                )
+                reportSwitch(provider, result, attemptedProviders)
             }
             finalResult = result
         }
-        return finalResult
+        return requireNotNull(finalResult)
     }
 
-    private abstract class Request<P, T> {
-        var lastProvider: P? = null
+    private suspend fun <T : Any> Request<P, T>.performHedged(): T = coroutineScope {
+        HedgedRequestsMetrics.onRequest()
+        val attemptedProviders = mutableSetOf<P>()
+
+        val primary = providerSelector.select(excluded = attemptedProviders)
+        attemptedProviders.add(primary)
+        val primaryCall = async { performMeasured(primary) }
+
+        // await is cancelled by timeout, but the call itself keeps running
+        val primaryResult = withTimeoutOrNull(providerSelector.hedgeDelayMillis(primary)) { primaryCall.await() }
+        if (primaryResult != null) {
+            if (!isResultNetworkError(primaryResult)) return@coroutineScope primaryResult
 
+            reportSwitch(primary, primaryResult, attemptedProviders)
+            return@coroutineScope performSequentially(attemptedProviders, primaryResult)
+        }
+
+        val hedge = providerSelector.select(excluded = attemptedProviders)
+        attemptedProviders.add(hedge)
+        HedgedRequestsMetrics.onHedgeFired()
+        val hedgeCall = async { performMeasured(hedge) }
+
+        val (firstCall, firstResult) = select<Pair<Deferred<T>, T>> {
+            primaryCall.onAwait { primaryCall to it }
+            hedgeCall.onAwait { hedgeCall to it }
+        }
+        val secondCall = if (firstCall === primaryCall) hedgeCall else primaryCall
+
+        if (!isResultNetworkError(firstResult)) {
+            secondCall.cancel()
+            onHedgedResult(isHedgeWon = firstCall === hedgeCall, primary = primary)
+            return@coroutineScope firstResult
+        }
+
+        val secondResult = secondCall.await()
+        if (!isResultNetworkError(secondResult)) {
+            onHedgedResult(isHedgeWon = secondCall === hedgeCall, primary = primary)
+            return@coroutineScope secondResult
+        }
+
+        reportSwitch(hedge, secondResult, attemptedProviders)
+        performSequentially(attemptedProviders, secondResult)
+    }
+
+    private fun onHedgedResult(isHedgeWon: Boolean, primary: P) {
+        if (isHedgeWon) {
+            HedgedRequestsMetrics.onHedgeWon()
+        } else {
+            providerSelector.current = primary
+        }
+    }
+
+    private fun <T : Any> reportSwitch(provider: P, result: T, attemptedProviders: Set<P>) {
+        val nextProvider = providerSelector.peek(excluded = attemptedProviders) ?: provider
+        val message = "Switchable publisher caught error: ${getErrorMessage(result)}."
+        ExceptionHandler.handleApiSwitch(
+            currentHost = provider.baseUrl,
+            nextHost = nextProvider.baseUrl,
+            message = message,
+        )
+    }
+
+    private suspend fun <T : Any> Request<P, T>.performMeasured(provider: P): T {
+        val startTime = providerSelector.startTime()
+        var isCompleted = false
+        val result = try {
+            // a cancelled call, e.g. a losing hedge, may still return a failure, it isn't scored as one
+            performWith(provider).also {
+                currentCoroutineContext().ensureActive()
+                isCompleted = true
+            }
+        } finally {
+            if (!isCompleted) providerSelector.onCancel(provider)
+        }
+
+        if (isResultNetworkError(result)) {
+            providerSelector.onFailure(provider, startTime)
+        } else {
+            providerSelector.onSuccess(provider, startTime)
+        }
+        return result
+    }
+
+    private abstract class Request<P, T> {
         abstract suspend fun performWith(provider: P): T
     }
 
@@ -68,7 +177,6 @@ class MultiNetworkProvider<P : NetworkProvider>(
     ) : Request<P, Result<R>>() {
 
         override suspend fun performWith(provider: P): Result<R> {
-            lastProvider = provider
             return provider.request(data)
         }
     }
@@ -79,7 +187,6 @@ class MultiNetworkProvider<P : NetworkProvider>(
     ) : Request<P, Result<R>>() {
 
         override suspend fun performWith(provider: P): Result<R> {
-            lastProvider = provider
             return try {
                 Result.Success(provider.request(data))
             } catch (e: IOException) {
@@ -94,7 +201,6 @@ class MultiNetworkProvider<P : NetworkProvider>(
     ) : Request<P, SimpleResult>() {
 
         override suspend fun performWith(provider: P): SimpleResult {
-            lastProvider = provider
             return provider.request(data)
         }
     }
@@ -104,7 +210,6 @@ class MultiNetworkProvider<P : NetworkProvider>(
     ) : Request<P, Result<R>>() {
 
         override suspend fun performWith(provider: P): Result<R> {
-            lastProvider = provider
             return provider.request()
         }
     }
@@ -114,7 +219,6 @@ class MultiNetworkProvider<P : NetworkProvider>(
     ) : Request<P, Result<R>>() {
 
         override suspend fun performWith(provider: P): Result<R> {
-            lastProvider = provider
             return try {
                 Result.Success(provider.request())
             } catch (e: IOException) {
@@ -0,0 +1,98 @@
+package com.tangem.blockchain.network
+
+import com.tangem.blockchain.common.BlockchainSdkError
+import com.tangem.blockchain.extensions.Result
+import kotlinx.coroutines.delay
+import kotlinx.coroutines.sync.Semaphore
+import kotlinx.coroutines.sync.withPermit
+import retrofit2.HttpException
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.TimeUnit
+
+/**
+ * Limits number of requests in flight to one provider. When the provider answers 429, all its requests are paused
+ * for `Retry-After` seconds or for an exponentially growing delay if the header is absent, and the request is
+ * retried. Too long pauses aren't waited, the failure is returned so that [MultiNetworkProvider] switches provider
+ */
+internal class ProviderRequestLimiter(
+    maxConcurrentRequests: Int,
+    private val clock: () -> Long = { TimeUnit.NANOSECONDS.toMillis(System.nanoTime()) },
+) {
+
+    private val semaphore = Semaphore(maxConcurrentRequests)
+
+    private var pausedUntil = 0L
+    private var backoffMillis = INITIAL_BACKOFF_MILLIS
+
+    suspend fun <R> perform(request: suspend () -> Result<R>): Result<R> = semaphore.withPermit {
+        repeat(MAX_RATE_LIMIT_RETRIES) {
+            awaitPause()
+            val result = request()
+            val retryDelayMillis = result.getRateLimitRetryDelayMillis()
+                ?: return@withPermit result.also { resetBackoff() }
+
+            if (retryDelayMillis > MAX_RETRY_DELAY_MILLIS) return@withPermit result
+            pause(retryDelayMillis)
+        }
+        awaitPause()
+        request()
+    }
+
+    private suspend fun awaitPause() {
+        val pauseMillis = synchronized(this) { pausedUntil - clock() }
+        if (pauseMillis > 0) delay(pauseMillis)
+    }
+
+    @Synchronized
+    private fun pause(delayMillis: Long) {
+        pausedUntil = maxOf(pausedUntil, clock() + delayMillis)
+    }
+
+    @Synchronized
+    private fun resetBackoff() {
+        backoffMillis = INITIAL_BACKOFF_MILLIS
+    }
+
+    @Synchronized
+    private fun nextBackoffMillis(): Long {
+        return backoffMillis.also { backoffMillis = minOf(it * 2, MAX_RETRY_DELAY_MILLIS) }
+    }
+
+    /** Delay before retry if the request was rate limited, otherwise null */
+    private fun Result<*>.getRateLimitRetryDelayMillis(): Long? {
+        val error = (this as? Result.Failure)?.error as? BlockchainSdkError.WrappedThrowable ?: return null
+        val exception = error.cause as? HttpException ?: return null
+        if (exception.code() != HTTP_TOO_MANY_REQUESTS) return null
+
+        val retryAfterSeconds = exception.response()?.headers()?.get(RETRY_AFTER_HEADER)?.trim()?.toLongOrNull()
+        return retryAfterSeconds?.let(TimeUnit.SECONDS::toMillis) ?: nextBackoffMillis()
+    }
+
+    private companion object {
+        const val HTTP_TOO_MANY_REQUESTS = 429
+        const val RETRY_AFTER_HEADER = "Retry-After"
+
+        const val MAX_RATE_LIMIT_RETRIES = 3
+        const val INITIAL_BACKOFF_MILLIS = 500L
+        const val MAX_RETRY_DELAY_MILLIS = 8_000L
+    }
+}
+
+/**
+ * Process-wide [ProviderRequestLimiter]s keyed by provider base url, so limits apply to all wallet managers
+ * using the provider
+ */
+internal class ProviderRequestLimiters(private val maxConcurrentRequestsPerProvider: Int) {
+
+    private val limiters = ConcurrentHashMap<String, ProviderRequestLimiter>()
+
+    fun get(baseUrl: String): ProviderRequestLimiter {
+        return limiters.getOrPut(baseUrl) { ProviderRequestLimiter(maxConcurrentRequestsPerProvider) }
+    }
+
+    companion object {
+        private const val DEFAULT_MAX_CONCURRENT_REQUESTS_PER_PROVIDER = 8
+
+        val shared = ProviderRequestLimiters(DEFAULT_MAX_CONCURRENT_REQUESTS_PER_PROVIDER)
+    }
+}
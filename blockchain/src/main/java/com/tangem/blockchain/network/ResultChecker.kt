@@ -63,9 +63,18 @@ object ResultChecker {
     }
 
     private fun isError(result: Result.Success<*>): Boolean {
-        return result.data is EthereumResponse && result.data.error != null
+        return result.data.isEthereumError() || isEthereumBatchError(result.data)
     }
 
+    /** Batch is considered failed by the node if every item of it failed */
+    private fun isEthereumBatchError(data: Any?): Boolean {
+        if (data !is List<*> || data.isEmpty()) return false
+
+        return data.all { item -> item is Result.Failure || (item as? Result.Success<*>)?.data.isEthereumError() }
+    }
+
+    private fun Any?.isEthereumError(): Boolean = this is EthereumResponse && error != null
+
     private fun BlockchainSdkError.WrappedThrowable.isNetworkError(): Boolean {
         return cause is IOException || cause is HttpException || cause is JsonDataException || stellarNetworkError(
             cause,
@@ -7,8 +7,11 @@ import com.tangem.blockchain.blockchains.aptos.network.response.AptosResourceBod
 import com.tangem.blockchain.common.EnumeratedEnum
 import com.tangem.blockchain.common.network.interceptors.HttpLoggingInterceptor
 import com.tangem.blockchain.network.blockbook.network.responses.GetAddressResponse
+import okhttp3.ConnectionPool
+import okhttp3.Dispatcher
 import okhttp3.Interceptor
 import okhttp3.OkHttpClient
+import okhttp3.Protocol
 import retrofit2.Retrofit
 import retrofit2.converter.moshi.MoshiConverterFactory
 import java.math.BigDecimal
@@ -24,14 +27,71 @@ fun createRetrofitInstance(baseUrl: String, headerInterceptors: List<Interceptor
 object BlockchainSdkRetrofitBuilder {
 
     var interceptors: List<Interceptor> = emptyList()
+        set(value) {
+            field = value
+            resetSharedClient()
+        }
+
     var timeoutConfig: TimeoutConfig? = null
+        set(value) {
+            field = value
+            resetSharedClient()
+        }
+
+    var transportConfig: TransportConfig = TransportConfig.default()
+        set(value) {
+            field = value
+            resetSharedClient()
+        }
+
+    @Volatile
+    private var sharedClient: OkHttpClient? = null
 
+    /**
+     * Returns client for the provider. All clients are derived from one shared client via [OkHttpClient.newBuilder],
+     * so they use the same connection pool, dispatcher and TLS sessions and differ only by [internalInterceptors].
+     */
     internal fun build(internalInterceptors: List<Interceptor> = emptyList()): OkHttpClient {
+        if (internalInterceptors.isEmpty()) return getSharedClient()
+
+        val builder = getSharedClient().newBuilder()
+        internalInterceptors.forEach { builder.addInterceptor(it) }
+
+        return builder.build()
+    }
+
+    internal fun getSharedClient(): OkHttpClient {
+        return sharedClient ?: synchronized(this) {
+            sharedClient ?: createSharedClient().also { sharedClient = it }
+        }
+    }
+
+    private fun createSharedClient(): OkHttpClient {
         val builder = OkHttpClient.Builder()
+            .connectionPool(
+                ConnectionPool(
+                    transportConfig.maxIdleConnections,
+                    transportConfig.keepAlive.time,
+                    transportConfig.keepAlive.unit,
+                ),
+            )
+            .dispatcher(
+                Dispatcher().apply {
+                    maxRequests = transportConfig.maxRequests
+                    maxRequestsPerHost = transportConfig.maxRequestsPerHost
+                },
+            )
+            .protocols(
+                if (transportConfig.isHttp2Enabled) {
+                    listOf(Protocol.HTTP_2, Protocol.HTTP_1_1)
+                } else {
+                    listOf(Protocol.HTTP_1_1)
+                },
+            )
 
         val loggingInterceptors = listOf(HttpLoggingInterceptor)
 
-        (interceptors + loggingInterceptors + internalInterceptors).forEach { builder.addInterceptor(it) }
+        (interceptors + loggingInterceptors).forEach { builder.addInterceptor(it) }
         timeoutConfig?.let {
             builder.callTimeout(it.call.time, it.call.unit)
             builder.connectTimeout(it.connect.time, it.connect.unit)
@@ -41,6 +101,39 @@ object BlockchainSdkRetrofitBuilder {
 
         return builder.build()
     }
+
+    /** Already created clients keep working, new ones will be derived from the client with the actual settings */
+    private fun resetSharedClient() {
+        synchronized(this) { sharedClient = null }
+    }
+}
+
+/**
+ * Settings of the transport shared by all network providers
+ *
+ * @property maxIdleConnections maximum number of idle connections kept in the shared pool
+ * @property keepAlive          time to keep an idle connection in the pool
+ * @property maxRequests        maximum number of concurrent requests of the shared dispatcher
+ * @property maxRequestsPerHost maximum number of concurrent requests to one host
+ * @property isHttp2Enabled     allow HTTP/2 multiplexing for hosts that support it
+ */
+data class TransportConfig(
+    val maxIdleConnections: Int,
+    val keepAlive: Timeout,
+    val maxRequests: Int,
+    val maxRequestsPerHost: Int,
+    val isHttp2Enabled: Boolean,
+) {
+    companion object {
+
+        fun default(): TransportConfig = TransportConfig(
+            maxIdleConnections = 16,
+            keepAlive = Timeout(time = 5, unit = TimeUnit.MINUTES),
+            maxRequests = 128,
+            maxRequestsPerHost = 16,
+            isHttp2Enabled = true,
+        )
+    }
 }
 
 data class TimeoutConfig(
@@ -0,0 +1,60 @@
+package com.tangem.blockchain.network
+
+import com.tangem.blockchain.common.BlockchainError
+import com.tangem.blockchain.common.NetworkProvider
+import com.tangem.blockchain.common.Token
+import com.tangem.blockchain.extensions.Result
+import kotlinx.coroutines.async
+import kotlinx.coroutines.awaitAll
+import kotlinx.coroutines.coroutineScope
+
+/**
+ * Requests data of many tokens, one request per token, within limits of the providers.
+ * Failure of a token doesn't fail others, see [TokenBalances.errors]
+ */
+internal class TokenBalanceFetcher(
+    private val limiters: ProviderRequestLimiters = ProviderRequestLimiters.shared,
+) {
+
+    suspend fun <P : NetworkProvider, T> fetch(
+        multiProvider: MultiNetworkProvider<P>,
+        tokens: Collection<Token>,
+        request: suspend P.(Token) -> Result<T>,
+    ): TokenBalances<T> = coroutineScope {
+        val results = tokens
+            .map { token ->
+                async {
+                    token to multiProvider.performRequest { limiters.get(baseUrl).perform { request(token) } }
+                }
+            }
+            .awaitAll()
+
+        val balances = mutableMapOf<Token, T>()
+        val errors = mutableMapOf<Token, BlockchainError>()
+        results.forEach { (token, result) ->
+            when (result) {
+                is Result.Success -> balances[token] = result.data
+                is Result.Failure -> errors[token] = result.error
+            }
+        }
+        TokenBalances(balances = balances, errors = errors)
+    }
+}
+
+/**
+ * @property balances results of tokens requested successfully
+ * @property errors   errors of tokens failed to request
+ */
+data class TokenBalances<T>(
+    val balances: Map<Token, T>,
+    val errors: Map<Token, BlockchainError>,
+) {
+
+    operator fun plus(other: TokenBalances<T>): TokenBalances<T> {
+        return TokenBalances(balances = balances + other.balances, errors = errors + other.errors)
+    }
+
+    companion object {
+        fun <T> empty(): TokenBalances<T> = TokenBalances(balances = emptyMap(), errors = emptyMap())
+    }
+}
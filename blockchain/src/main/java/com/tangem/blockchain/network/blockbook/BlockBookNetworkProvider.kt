@@ -12,15 +12,23 @@ import com.tangem.blockchain.extensions.Result
 import com.tangem.blockchain.extensions.SimpleResult
 import com.tangem.blockchain.extensions.toBigDecimalOrDefault
 import com.tangem.blockchain.network.blockbook.config.BlockBookConfig
+import com.tangem.blockchain.network.blockbook.config.BlockBookRequest
+import com.tangem.blockchain.network.blockbook.network.BatchRejectedException
 import com.tangem.blockchain.network.blockbook.network.BlockBookApi
 import com.tangem.blockchain.network.blockbook.network.responses.GetAddressResponse
+import com.tangem.blockchain.network.blockbook.network.responses.GetFeeResponse
 import com.tangem.blockchain.network.blockbook.network.responses.GetUtxoResponseItem
 import com.tangem.common.extensions.hexToBytes
+import kotlinx.coroutines.CancellationException
 import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.async
+import kotlinx.coroutines.awaitAll
+import kotlinx.coroutines.coroutineScope
 import kotlinx.coroutines.withContext
 import java.math.BigDecimal
 import java.math.RoundingMode
 import java.util.Calendar
+import java.util.concurrent.ConcurrentHashMap
 
 class BlockBookNetworkProvider(
     val config: BlockBookConfig,
@@ -31,27 +39,47 @@ class BlockBookNetworkProvider(
 
     private val api: BlockBookApi = BlockBookApi(config, blockchain)
 
+    // output script of the address never changes, so the full transactions list is needed only once to get it
+    private val outputScripts = ConcurrentHashMap<String, String>()
+
+    @Volatile
+    private var isFeeBatchSupported = true
+
     override suspend fun getInfo(address: String): Result<BitcoinAddressInfo> {
         return try {
-            val getAddressResponse = withContext(Dispatchers.IO) { api.getAddress(address) }
-            val getUtxoResponseItems = withContext(Dispatchers.IO) { api.getUtxo(address) }
-            val balance = getAddressResponse.balance.toBigDecimalOrNull() ?: BigDecimal.ZERO
+            withContext(Dispatchers.IO) {
+                val getUtxoResponseItems = async { api.getUtxo(address) }
 
-            Result.Success(
-                BitcoinAddressInfo(
-                    balance = balance.movePointLeft(blockchain.decimals()),
-                    unspentOutputs = createUnspentOutputs(
-                        getUtxoResponseItems = getUtxoResponseItems,
-                        transactions = getAddressResponse.transactions.orEmpty(),
-                        address = address,
-                    ),
-                    recentTransactions = createRecentTransactions(
-                        transactions = getAddressResponse.transactions.orEmpty(),
-                        address = address,
+                val cachedOutputScript = outputScripts[address]
+                val getAddressResponse = if (cachedOutputScript == null) {
+                    api.getAddress(address)
+                } else {
+                    api.getAddress(address, BASIC_ADDRESS_REQUEST)
+                }
+                val transactions = getTransactions(
+                    address = address,
+                    getAddressResponse = getAddressResponse,
+                    isFullResponse = cachedOutputScript == null,
+                )
+                val outputScript = cachedOutputScript
+                    ?: findOutputScript(transactions, address)?.also { outputScripts[address] = it }
+                val balance = getAddressResponse.balance.toBigDecimalOrNull() ?: BigDecimal.ZERO
+
+                Result.Success(
+                    BitcoinAddressInfo(
+                        balance = balance.movePointLeft(blockchain.decimals()),
+                        unspentOutputs = createUnspentOutputs(
+                            getUtxoResponseItems = getUtxoResponseItems.await(),
+                            outputScript = outputScript,
+                        ),
+                        recentTransactions = createRecentTransactions(
+                            transactions = transactions,
+                            address = address,
+                        ),
+                        hasUnconfirmed = getAddressResponse.unconfirmedTxs != 0,
                     ),
-                    hasUnconfirmed = getAddressResponse.unconfirmedTxs != 0,
-                ),
-            )
+                )
+            }
         } catch (e: Exception) {
             Result.Failure(e.toBlockchainSdkError())
         }
@@ -59,12 +87,16 @@ class BlockBookNetworkProvider(
 
     override suspend fun getFee(): Result<BitcoinFee> {
         return try {
-            val minimalPerKb = getFeePerKb(param = MINIMAL_FEE_BLOCK_AMOUNT)
-            val normalPerKb = getFeePerKb(param = NORMAL_FEE_BLOCK_AMOUNT)
-            val priorityPerKb = getFeePerKb(param = PRIORITY_FEE_BLOCK_AMOUNT)
+            val feesPerKb = withContext(Dispatchers.IO) {
+                getFeesPerKb(params = FEE_BLOCK_AMOUNTS)
+            }
 
             Result.Success(
-                BitcoinFee(minimalPerKb, normalPerKb, priorityPerKb),
+                BitcoinFee(
+                    minimalPerKb = feesPerKb.getValue(MINIMAL_FEE_BLOCK_AMOUNT),
+                    normalPerKb = feesPerKb.getValue(NORMAL_FEE_BLOCK_AMOUNT),
+                    priorityPerKb = feesPerKb.getValue(PRIORITY_FEE_BLOCK_AMOUNT),
+                ),
             )
         } catch (e: Exception) {
             Result.Failure(e.toBlockchainSdkError())
@@ -86,21 +118,41 @@ class BlockBookNetworkProvider(
 
     override suspend fun getSignatureCount(address: String): Result<Int> {
         return try {
-            val response = withContext(Dispatchers.IO) { api.getAddress(address) }
+            val response = withContext(Dispatchers.IO) { api.getAddress(address, BASIC_ADDRESS_REQUEST) }
             Result.Success(response.txs.plus(response.unconfirmedTxs ?: 0))
         } catch (e: Exception) {
             Result.Failure(e.toBlockchainSdkError())
         }
     }
 
+    /**
+     * Returns transactions needed for the update. Full response already has them, otherwise only unconfirmed
+     * transactions are requested, they go first in the list
+     */
+    private suspend fun getTransactions(
+        address: String,
+        getAddressResponse: GetAddressResponse,
+        isFullResponse: Boolean,
+    ): List<GetAddressResponse.Transaction> {
+        if (isFullResponse) return getAddressResponse.transactions.orEmpty()
+
+        val unconfirmedTxs = getAddressResponse.unconfirmedTxs ?: 0
+        if (unconfirmedTxs == 0) return emptyList()
+
+        return api.getAddress(address, BlockBookRequest.GetAddress(pageSize = unconfirmedTxs)).transactions.orEmpty()
+    }
+
+    private fun findOutputScript(transactions: List<GetAddressResponse.Transaction>, address: String): String? {
+        return transactions.firstNotNullOfOrNull { transaction ->
+            transaction.vout.firstOrNull { it.addresses?.contains(address) == true }?.hex
+        }
+    }
+
     private fun createUnspentOutputs(
         getUtxoResponseItems: List<GetUtxoResponseItem>,
-        transactions: List<GetAddressResponse.Transaction>,
-        address: String,
+        outputScript: String?,
     ): List<BitcoinUnspentOutput> {
-        val outputScript = transactions.firstNotNullOfOrNull { transaction ->
-            transaction.vout.firstOrNull { it.addresses?.contains(address) == true }?.hex
-        } ?: return emptyList()
+        if (outputScript == null) return emptyList()
 
         return getUtxoResponseItems.mapNotNull {
             val amount = it.value.toBigDecimalOrNull()?.movePointLeft(blockchain.decimals())
@@ -168,12 +220,33 @@ class BlockBookNetworkProvider(
             }
     }
 
-    private suspend fun getFeePerKb(param: Int): BigDecimal {
-        val getFeeResponse = withContext(Dispatchers.IO) { api.getFee(param) }
+    /** Returns fee per kb for every number of blocks, requested with one batch if the node supports it */
+    private suspend fun getFeesPerKb(params: List<Int>): Map<Int, BigDecimal> = coroutineScope {
+        if (isFeeBatchSupported) {
+            try {
+                val responses = api.getFees(params).associateBy { it.id }
+                return@coroutineScope params.associateWith { param ->
+                    responses.getValue(param.toString()).toFeePerKb()
+                }
+            } catch (e: CancellationException) {
+                throw e
+            } catch (e: BatchRejectedException) {
+                isFeeBatchSupported = false
+            } catch (e: Exception) {
+                // transient failure, the batch is tried again next time
+            }
+        }
 
-        if (getFeeResponse.result.feerate <= 0) throw BlockchainSdkError.FailedToLoadFee
+        params
+            .map { param -> async { param to api.getFee(param).toFeePerKb() } }
+            .awaitAll()
+            .toMap()
+    }
+
+    private fun GetFeeResponse.toFeePerKb(): BigDecimal {
+        if (result.feerate <= 0) throw BlockchainSdkError.FailedToLoadFee
 
-        return getFeeResponse.result.feerate
+        return result.feerate
             .toBigDecimal()
             .setScale(blockchain.decimals(), RoundingMode.UP)
     }
@@ -182,5 +255,8 @@ class BlockBookNetworkProvider(
         const val MINIMAL_FEE_BLOCK_AMOUNT = 8
         const val NORMAL_FEE_BLOCK_AMOUNT = 4
         const val PRIORITY_FEE_BLOCK_AMOUNT = 1
+        val FEE_BLOCK_AMOUNTS = listOf(MINIMAL_FEE_BLOCK_AMOUNT, NORMAL_FEE_BLOCK_AMOUNT, PRIORITY_FEE_BLOCK_AMOUNT)
+
+        val BASIC_ADDRESS_REQUEST = BlockBookRequest.GetAddress(details = BlockBookRequest.GetAddress.Details.BASIC)
     }
 }
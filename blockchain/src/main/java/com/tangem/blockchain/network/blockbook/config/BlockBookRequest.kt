@@ -7,6 +7,7 @@ sealed class BlockBookRequest {
         val page: String? = null,
         val pageSize: Int? = null,
         val filterType: TransactionHistoryRequest.FilterType? = null,
+        val details: Details = Details.TXS,
     ) : BlockBookRequest() {
 
         fun params(): String = buildString {
@@ -19,6 +20,14 @@ sealed class BlockBookRequest {
             TransactionHistoryRequest.FilterType.Coin -> "&filter=0"
             is TransactionHistoryRequest.FilterType.Contract -> "&contract=$address"
         }
+
+        enum class Details(val param: String) {
+            /** Balances and transactions count only */
+            BASIC("basic"),
+
+            /** [BASIC] plus transactions with all their inputs and outputs */
+            TXS("txs"),
+        }
     }
 
     object GetFee : BlockBookRequest()
@@ -30,13 +30,16 @@ internal class BlockBookApi(private val config: BlockBookConfig, private val blo
         ),
     )
 
-    suspend fun getAddress(address: String): GetAddressResponse {
-        val requestBaseUrl = config.getRequestBaseUrl(BlockBookRequest.GetAddress(), blockchain)
+    suspend fun getAddress(
+        address: String,
+        request: BlockBookRequest.GetAddress = BlockBookRequest.GetAddress(),
+    ): GetAddressResponse {
+        val requestBaseUrl = config.getRequestBaseUrl(request, blockchain)
         return client
             .newCall(
                 request = Request.Builder()
                     .get()
-                    .url("$requestBaseUrl/address/$address?details=txs")
+                    .url("$requestBaseUrl/address/$address?details=${request.details.param}${request.params()}")
                     .build(),
             )
             .await()
@@ -79,6 +82,30 @@ internal class BlockBookApi(private val config: BlockBookConfig, private val blo
             .unpack()
     }
 
+    /**
+     * Requests fee for every number of blocks with a single JSON-RPC batch,
+     * id of every response is its number of blocks
+     *
+     * @throws BatchRejectedException if the node doesn't accept batches
+     */
+    suspend fun getFees(params: List<Int>): List<GetFeeResponse> {
+        val requests = params.map { GetFeeRequest.getFee(paramsList = listOf(it), id = it.toString()) }
+        return client
+            .newCall(
+                request = Request.Builder()
+                    .post(
+                        moshi
+                            .adapter<List<GetFeeRequest>>()
+                            .toJson(requests)
+                            .toRequestBody(APPLICATION_JSON_MEDIA_TYPE.toMediaTypeOrNull()),
+                    )
+                    .url(config.getRequestBaseUrl(BlockBookRequest.GetFee, blockchain))
+                    .build(),
+            )
+            .await()
+            .unpackBatch()
+    }
+
     suspend fun sendTransaction(txHex: String): SendTransactionResponse {
         val requestBaseUrl = config.getRequestBaseUrl(BlockBookRequest.SendTransaction, blockchain)
         return client
@@ -109,8 +136,19 @@ internal class BlockBookApi(private val config: BlockBookConfig, private val blo
             }
     }
 
-    private inline fun <reified T> Response.unpack(): T {
+    private inline fun <reified T> Response.unpackBatch(): List<T> {
         val responseBody = body?.string()
+        // node answered with an error status or a single object instead of array
+        val isRejected = code in BATCH_REJECTED_HTTP_CODES ||
+            isSuccessful && responseBody?.trimStart()?.startsWith('[') == false
+        if (isRejected) throw BatchRejectedException()
+
+        return unpack(responseBody)
+    }
+
+    private inline fun <reified T> Response.unpack(): T = unpack(body?.string())
+
+    private inline fun <reified T> Response.unpack(responseBody: String?): T {
         return if (isSuccessful && responseBody != null) {
             moshi.adapter<T>().fromJson(responseBody) ?: throw IOException("Response is null")
         } else {
@@ -121,5 +159,10 @@ internal class BlockBookApi(private val config: BlockBookConfig, private val blo
     private companion object {
         const val APPLICATION_JSON_MEDIA_TYPE = "application/json"
         const val TEXT_PLAIN_MEDIA_TYPE = "text/plain"
+
+        // bad request, method not allowed and payload too large
+        val BATCH_REJECTED_HTTP_CODES = setOf(400, 405, 413)
     }
 }
+
+internal class BatchRejectedException : IOException("JSON-RPC batch is rejected")
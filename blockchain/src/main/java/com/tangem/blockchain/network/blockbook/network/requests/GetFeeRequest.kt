@@ -12,10 +12,10 @@ internal class GetFeeRequest(
 ) {
     companion object {
 
-        fun getFee(paramsList: List<Int>, method: String = "estimatesmartfee"): GetFeeRequest {
+        fun getFee(paramsList: List<Int>, method: String = "estimatesmartfee", id: String = "id"): GetFeeRequest {
             return GetFeeRequest(
                 jsonrpc = "2.0",
-                id = "id",
+                id = id,
                 method = method,
                 params = paramsList,
             )
@@ -1,31 +1,30 @@
 package com.tangem.blockchain.network.electrum
 
 import com.tangem.blockchain.common.Blockchain
-import com.tangem.blockchain.common.BlockchainError
 import com.tangem.blockchain.common.BlockchainSdkError
 import com.tangem.blockchain.extensions.Result
 import com.tangem.blockchain.extensions.map
+import com.tangem.blockchain.extensions.successOr
 import com.tangem.blockchain.network.electrum.api.ElectrumApiService
-import com.tangem.blockchain.network.electrum.api.WebSocketElectrumApiService
+import com.tangem.blockchain.network.jsonrpc.WebSocketConnectionStatus
+import kotlinx.coroutines.CoroutineStart
 import kotlinx.coroutines.delay
-import okhttp3.OkHttpClient
-import java.util.concurrent.atomic.AtomicBoolean
+import kotlinx.coroutines.flow.Flow
+import kotlinx.coroutines.flow.channelFlow
+import kotlinx.coroutines.flow.filter
+import kotlinx.coroutines.flow.first
+import kotlinx.coroutines.launch
 
 internal class DefaultElectrumNetworkProvider(
     override val baseUrl: String,
     private val blockchain: Blockchain,
+    connectionRegistry: ElectrumConnectionRegistry = ElectrumConnectionRegistry.shared,
 ) : ElectrumNetworkProvider {
 
-    private val service: WebSocketElectrumApiService = WebSocketElectrumApiService(
-        wssUrl = baseUrl,
-        okHttpClient = OkHttpClient(),
-    )
-
-    private val serverVersionRequested = AtomicBoolean(false)
+    // protocol version is negotiated by the shared service on every opened connection
+    private val service: ElectrumApiService = connectionRegistry.get(baseUrl)
 
     override suspend fun getAccount(addressScriptHash: String): Result<ElectrumAccount> {
-        firstCheckServer()?.apply { return Result.Failure(this) }
-
         return retryCall {
             service.getBalance(addressScriptHash)
         }.map {
@@ -37,8 +36,6 @@ internal class DefaultElectrumNetworkProvider(
     }
 
     override suspend fun getUnspentUTXOs(addressScriptHash: String): Result<List<ElectrumUnspentUTXORecord>> {
-        firstCheckServer()?.apply { return Result.Failure(this) }
-
         return retryCall {
             service.getUnspentUTXOs(addressScriptHash)
         }.map { list ->
@@ -56,8 +53,6 @@ internal class DefaultElectrumNetworkProvider(
 
     // TODO
     // override suspend fun getTransaction(txHash: String): Result<ElectrumTransaction> {
-    //     firstCheckServer()?.apply { return Result.Failure(this) }
-    //
     //     return retryCall {
     //         service.getTransaction(txHash)
     //     }.map {
@@ -72,8 +67,6 @@ internal class DefaultElectrumNetworkProvider(
     // }
 
     override suspend fun getEstimateFee(numberConfirmationBlocks: Int): Result<ElectrumEstimateFee> {
-        firstCheckServer()?.apply { return Result.Failure(this) }
-
         return retryCall {
             service.getEstimateFee(numberConfirmationBlocks)
         }.map {
@@ -81,28 +74,24 @@ internal class DefaultElectrumNetworkProvider(
         }
     }
 
-    private suspend fun firstCheckServer(): BlockchainError? {
-        if (serverVersionRequested.get()) {
-            return null
-        }
-
-        return when (val serverInfo = service.getServerVersion()) {
-            is Result.Success -> {
-                if (serverInfo.data.versionNumber == ElectrumApiService.SUPPORTED_PROTOCOL_VERSION) {
-                    serverVersionRequested.set(true)
-                    null
-                } else { // node doesn't support requested electrum protocol version
-                    BlockchainSdkError.UnsupportedOperation(
-                        """
-                            Expected protocol version: ${ElectrumApiService.SUPPORTED_PROTOCOL_VERSION}"
-                            Protocol version supported by server: ${serverInfo.data.versionNumber}
-                        """.trimIndent(),
-                    )
-                }
-            }
-            is Result.Failure -> {
-                serverInfo.error
+    override fun subscribeStatus(addressScriptHash: String): Flow<String?> = channelFlow {
+        // subscriptions are pushed only while the connection is open
+        service.acquireKeepAlive()
+        try {
+            // collect before subscribing to not miss the change pushed right after the subscription
+            val changesJob = launch(start = CoroutineStart.UNDISPATCHED) {
+                service.scriptHashStatusChanges()
+                    .filter { it.scriptHash == addressScriptHash }
+                    .collect { send(it.status) }
             }
+
+            val status = service.subscribeScriptHash(addressScriptHash).successOr { throw it.error }
+            send(status.status)
+
+            service.connectionState.first { it == WebSocketConnectionStatus.DISCONNECTED }
+            changesJob.cancel()
+        } finally {
+            service.releaseKeepAlive()
         }
     }
 
@@ -0,0 +1,39 @@
+package com.tangem.blockchain.network.electrum
+
+import com.tangem.blockchain.network.BlockchainSdkRetrofitBuilder
+import com.tangem.blockchain.network.electrum.api.ElectrumApiService
+import com.tangem.blockchain.network.electrum.api.WebSocketElectrumApiService
+import java.util.concurrent.ConcurrentHashMap
+
+/**
+ * Process-wide storage of Electrum services keyed by wss url, so all providers of the same server
+ * share one socket with one ping loop, one disconnect timer and one protocol version handshake.
+ *
+ * Socket is opened on demand and closed by the idle timer unless it's held by subscriptions,
+ * see [ElectrumApiService.acquireKeepAlive]
+ */
+internal class ElectrumConnectionRegistry(
+    private val serviceFactory: (wssUrl: String) -> ElectrumApiService = ::createWebSocketService,
+) {
+
+    private val services = ConcurrentHashMap<String, ElectrumApiService>()
+
+    fun get(wssUrl: String): ElectrumApiService {
+        return services.getOrPut(wssUrl) { serviceFactory(wssUrl) }
+    }
+
+    companion object {
+        val shared = ElectrumConnectionRegistry()
+
+        // websockets share the pool and the dispatcher of sdk client, but not its http interceptors
+        private val webSocketClient by lazy {
+            BlockchainSdkRetrofitBuilder.getSharedClient().newBuilder()
+                .apply { interceptors().clear() }
+                .build()
+        }
+
+        private fun createWebSocketService(wssUrl: String): ElectrumApiService {
+            return WebSocketElectrumApiService(wssUrl = wssUrl, okHttpClient = webSocketClient)
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.tangem.blockchain.network.electrum
 
 import com.tangem.blockchain.extensions.Result
 import com.tangem.blockchain.network.MultiNetworkProvider
+import kotlinx.coroutines.flow.Flow
 
 internal class ElectrumMultiNetworkProvider(providers: List<ElectrumNetworkProvider>) : ElectrumNetworkProvider {
     override val baseUrl: String
@@ -17,4 +18,8 @@ internal class ElectrumMultiNetworkProvider(providers: List<ElectrumNetworkProvi
 
     override suspend fun getUnspentUTXOs(addressScriptHash: String): Result<List<ElectrumUnspentUTXORecord>> =
         multiProvider.performRequest(ElectrumNetworkProvider::getUnspentUTXOs, addressScriptHash)
+
+    // subscription is bound to the connection, so it's made on the provider which is currently in use
+    override fun subscribeStatus(addressScriptHash: String): Flow<String?> =
+        multiProvider.currentProvider.subscribeStatus(addressScriptHash)
 }
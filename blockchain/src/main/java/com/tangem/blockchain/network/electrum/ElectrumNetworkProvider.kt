@@ -2,6 +2,7 @@ package com.tangem.blockchain.network.electrum
 
 import com.tangem.blockchain.common.NetworkProvider
 import com.tangem.blockchain.extensions.Result
+import kotlinx.coroutines.flow.Flow
 
 interface ElectrumNetworkProvider : NetworkProvider {
 
@@ -10,4 +11,13 @@ interface ElectrumNetworkProvider : NetworkProvider {
     suspend fun getUnspentUTXOs(addressScriptHash: String): Result<List<ElectrumUnspentUTXORecord>>
 
     suspend fun getEstimateFee(numberConfirmationBlocks: Int): Result<ElectrumEstimateFee>
+
+    /**
+     * Subscribes to the status of the script hash. Status is a hash of the script hash history
+     * and changes with every new transaction, null means there is no history.
+     *
+     * The flow emits the current status first and then every status pushed by the server.
+     * It completes when the connection is lost, as the subscription is lost with it.
+     */
+    fun subscribeStatus(addressScriptHash: String): Flow<String?>
 }
@@ -1,13 +1,29 @@
 package com.tangem.blockchain.network.electrum.api
 
 import com.tangem.blockchain.extensions.Result
+import com.tangem.blockchain.network.jsonrpc.WebSocketConnectionStatus
+import kotlinx.coroutines.flow.Flow
+import kotlinx.coroutines.flow.StateFlow
 
 /**
  * Service to communicate with Electrum server
  */
 internal interface ElectrumApiService {
 
+    val connectionState: StateFlow<WebSocketConnectionStatus>
+
+    /**
+     * Opens connection which is held until every holder calls [releaseKeepAlive]
+     * or it's closed by the server or by an error.
+     * Subscriptions are valid only while the connection is alive
+     */
+    suspend fun acquireKeepAlive()
+
+    fun releaseKeepAlive()
+
     /**
+     * Negotiated automatically on every opened connection.
+     *
      * The client should send a server.version RPC call as early as possible
      * in order to negotiate the precise protocol version;
      * see its description for more detail.
@@ -31,6 +47,14 @@ internal interface ElectrumApiService {
 
     suspend fun getUnspentUTXOs(addressScriptHash: String): Result<List<ElectrumResponse.UnspentUTXORecord>>
 
+    /**
+     * Subscribes to the script hash and returns its current status.
+     * The following status changes are pushed to [scriptHashStatusChanges]
+     */
+    suspend fun subscribeScriptHash(addressScriptHash: String): Result<ElectrumResponse.ScriptHashStatus>
+
+    fun scriptHashStatusChanges(): Flow<ElectrumResponse.ScriptHashStatus>
+
     suspend fun getEstimateFee(numberConfirmationBlocks: Int): Result<ElectrumResponse.EstimateFee>
 
     companion object {
@@ -38,6 +38,12 @@ internal object ElectrumResponse {
         @Json(name = "tx_hash") val txHash: String,
     )
 
+    data class ScriptHashStatus(
+        val scriptHash: String,
+        // Hash of the script hash history, null if the script hash has no history
+        val status: String?,
+    )
+
     @JvmInline
     value class TxHex(
         val hash: String,
@@ -4,11 +4,18 @@ import com.squareup.moshi.JsonAdapter
 import com.squareup.moshi.adapter
 import com.tangem.blockchain.common.BlockchainSdkError
 import com.tangem.blockchain.common.JsonRPCRequest
+import com.tangem.blockchain.common.JsonRPCResponse
 import com.tangem.blockchain.extensions.Result
 import com.tangem.blockchain.extensions.fold
 import com.tangem.blockchain.extensions.map
+import com.tangem.blockchain.extensions.successOr
 import com.tangem.blockchain.network.jsonrpc.DefaultJsonRPCWebsocketService
+import com.tangem.blockchain.network.jsonrpc.WebSocketConnectionStatus
 import com.tangem.blockchain.network.moshi
+import kotlinx.coroutines.flow.Flow
+import kotlinx.coroutines.flow.StateFlow
+import kotlinx.coroutines.flow.filter
+import kotlinx.coroutines.flow.mapNotNull
 import okhttp3.OkHttpClient
 import java.math.BigDecimal
 
@@ -27,8 +34,15 @@ internal class WebSocketElectrumApiService(
             )
         },
         okHttpClient = okHttpClient,
+        onConnected = { negotiateProtocolVersion() },
     )
 
+    private val keepAliveLock = Any()
+    private var keepAliveHolders = 0
+
+    override val connectionState: StateFlow<WebSocketConnectionStatus>
+        get() = service.state
+
     private val blockTipAdapter: JsonAdapter<ElectrumResponse.BlockTip> by lazy {
         ElectrumResponse_BlockTipJsonAdapter(moshi)
     }
@@ -41,6 +55,35 @@ internal class WebSocketElectrumApiService(
         ElectrumResponse_TransactionJsonAdapter(moshi)
     }
 
+    override suspend fun acquireKeepAlive() {
+        synchronized(keepAliveLock) { keepAliveHolders++ }
+        runCatching { service.connect(keepAlive = true) }.onFailure {
+            releaseKeepAlive()
+            throw it
+        }
+    }
+
+    override fun releaseKeepAlive() {
+        synchronized(keepAliveLock) {
+            keepAliveHolders--
+            if (keepAliveHolders == 0) service.releaseKeepAlive()
+        }
+    }
+
+    /** Every opened socket negotiates the version, all the following responses of the socket use it */
+    private suspend fun negotiateProtocolVersion() {
+        val serverInfo = getServerVersion().successOr { throw it.error }
+        if (serverInfo.versionNumber != ElectrumApiService.SUPPORTED_PROTOCOL_VERSION) {
+            // node doesn't support requested electrum protocol version
+            throw BlockchainSdkError.UnsupportedOperation(
+                """
+                    Expected protocol version: ${ElectrumApiService.SUPPORTED_PROTOCOL_VERSION}"
+                    Protocol version supported by server: ${serverInfo.versionNumber}
+                """.trimIndent(),
+            )
+        }
+    }
+
     override suspend fun getServerVersion(
         clientName: String,
         supportedProtocolVersion: String,
@@ -125,6 +168,42 @@ internal class WebSocketElectrumApiService(
         )
     }
 
+    override suspend fun subscribeScriptHash(addressScriptHash: String): Result<ElectrumResponse.ScriptHashStatus> {
+        return service.call(
+            JsonRPCRequest(
+                method = SCRIPT_HASH_SUBSCRIBE_METHOD,
+                params = listOf(addressScriptHash),
+            ),
+        ).fold(
+            onSuccess = { response ->
+                // null result is a valid status of the script hash without history
+                response.toApiError()?.let { Result.Failure(it) } ?: Result.Success(
+                    ElectrumResponse.ScriptHashStatus(
+                        scriptHash = addressScriptHash,
+                        status = response.result as? String,
+                    ),
+                )
+            },
+            onFailure = {
+                Result.Failure(it.toSdkError())
+            },
+        )
+    }
+
+    override fun scriptHashStatusChanges(): Flow<ElectrumResponse.ScriptHashStatus> {
+        return service.notifications
+            .filter { it.method == SCRIPT_HASH_SUBSCRIBE_METHOD }
+            .mapNotNull { notification ->
+                // params: [scripthash, status]
+                val params = notification.params as? List<*> ?: return@mapNotNull null
+                val scriptHash = params.getOrNull(0) as? String ?: return@mapNotNull null
+                ElectrumResponse.ScriptHashStatus(
+                    scriptHash = scriptHash,
+                    status = params.getOrNull(1) as? String,
+                )
+            }
+    }
+
     override suspend fun getEstimateFee(numberConfirmationBlocks: Int): Result<ElectrumResponse.EstimateFee> {
         return requestNotNull<BigDecimal>(
             method = "blockchain.estimatefee",
@@ -169,8 +248,26 @@ internal class WebSocketElectrumApiService(
                 }
             },
             onFailure = {
-                Result.Failure(BlockchainSdkError.WrappedThrowable(it))
+                Result.Failure(it.toSdkError())
             },
         )
     }
+
+    // errors of the connection handshake are already sdk errors
+    private fun Throwable.toSdkError(): BlockchainSdkError {
+        return this as? BlockchainSdkError ?: BlockchainSdkError.WrappedThrowable(this)
+    }
+
+    private fun JsonRPCResponse.toApiError(): BlockchainSdkError? {
+        return error?.let {
+            BlockchainSdkError.ElectrumBlockchain.Api(
+                code = it.code,
+                message = it.message,
+            )
+        }
+    }
+
+    private companion object {
+        const val SCRIPT_HASH_SUBSCRIBE_METHOD = "blockchain.scripthash.subscribe"
+    }
 }
@@ -0,0 +1,131 @@
+package com.tangem.blockchain.network.health
+
+/**
+ * Rolling health of a single provider host: EWMA of latency and error rate plus a circuit breaker.
+ *
+ * Circuit opens after [ProviderHealthConfig.failureThreshold] consecutive network errors. After
+ * [ProviderHealthConfig.openCircuitMillis] it becomes half-open and lets exactly one probe request through,
+ * the probe result closes or reopens it.
+ */
+internal class ProviderHealth(
+    private val config: ProviderHealthConfig,
+    private val clock: () -> Long,
+) {
+
+    private var latencyMillis: Double? = null
+    private var errorRate = 0.0
+    private var consecutiveFailures = 0
+    private var state = State.CLOSED
+    private var openedAtMillis = 0L
+    private var isProbeInFlight = false
+
+    private val latencySamples = LongArray(config.latencySamplesCount)
+    private var latencySamplesCount = 0
+    private var nextLatencySampleIndex = 0
+
+    /** Score of the provider, the lower the better */
+    @Synchronized
+    fun score(): Double {
+        val latency = latencyMillis ?: config.unknownLatencyMillis
+        return latency * (1.0 + config.errorPenalty * errorRate)
+    }
+
+    /** Returns [percentile] of the latest successful latencies or null if there are not enough samples */
+    @Synchronized
+    fun latencyPercentile(percentile: Double): Long? {
+        if (latencySamplesCount < config.minLatencySamplesCount) return null
+
+        val sorted = latencySamples.copyOf(latencySamplesCount).apply { sort() }
+        val index = (percentile * latencySamplesCount).toInt().coerceIn(0, latencySamplesCount - 1)
+        return sorted[index]
+    }
+
+    /** Returns true if the circuit lets requests through right now, doesn't change the state */
+    @Synchronized
+    fun isAvailable(): Boolean {
+        return when (state) {
+            State.CLOSED -> true
+            State.OPEN -> isCooldownPassed()
+            State.HALF_OPEN -> !isProbeInFlight
+        }
+    }
+
+    /**
+     * Reserves a request slot. For an open circuit with passed cooldown it switches to half-open and makes
+     * the caller the probe.
+     *
+     * @return false if the circuit doesn't let the request through
+     */
+    @Synchronized
+    fun tryAcquire(): Boolean {
+        return when (state) {
+            State.CLOSED -> true
+            State.OPEN -> {
+                if (isCooldownPassed()) {
+                    state = State.HALF_OPEN
+                    isProbeInFlight = true
+                    true
+                } else {
+                    false
+                }
+            }
+            State.HALF_OPEN -> {
+                if (isProbeInFlight) {
+                    false
+                } else {
+                    isProbeInFlight = true
+                    true
+                }
+            }
+        }
+    }
+
+    @Synchronized
+    fun onSuccess(latencyMillis: Long) {
+        updateLatency(latencyMillis)
+        addLatencySample(latencyMillis)
+        errorRate = smooth(errorRate, 0.0)
+        consecutiveFailures = 0
+        state = State.CLOSED
+        isProbeInFlight = false
+    }
+
+    @Synchronized
+    fun onFailure(latencyMillis: Long) {
+        updateLatency(latencyMillis)
+        errorRate = smooth(errorRate, 1.0)
+        consecutiveFailures++
+        isProbeInFlight = false
+
+        if (state == State.HALF_OPEN || consecutiveFailures >= config.failureThreshold) {
+            state = State.OPEN
+            openedAtMillis = clock()
+        }
+    }
+
+    /** Releases a reserved slot without a result, e.g. when the request was cancelled */
+    @Synchronized
+    fun onCancel() {
+        isProbeInFlight = false
+    }
+
+    private fun isCooldownPassed(): Boolean = clock() - openedAtMillis >= config.openCircuitMillis
+
+    private fun updateLatency(sample: Long) {
+        latencyMillis = latencyMillis?.let { smooth(it, sample.toDouble()) } ?: sample.toDouble()
+    }
+
+    private fun addLatencySample(sample: Long) {
+        latencySamples[nextLatencySampleIndex] = sample
+        nextLatencySampleIndex = (nextLatencySampleIndex + 1) % latencySamples.size
+        latencySamplesCount = (latencySamplesCount + 1).coerceAtMost(latencySamples.size)
+    }
+
+    private fun smooth(current: Double, sample: Double): Double {
+        return current + config.latencySmoothing * (sample - current)
+    }
+
+    private enum class State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+}
@@ -0,0 +1,38 @@
+package com.tangem.blockchain.network.health
+
+/**
+ * Settings of the provider health scoring
+ *
+ * @property latencySmoothing       weight of the latest sample in latency and error rate EWMA, in (0, 1]
+ * @property unknownLatencyMillis   latency assumed for providers without samples yet
+ * @property errorPenalty           how much error rate increases the provider score
+ * @property switchThreshold        a provider must be this many times better than the current one to replace it
+ * @property failureThreshold       consecutive failures after that the circuit opens
+ * @property openCircuitMillis      time before an open circuit lets a single half-open probe through
+ * @property latencySamplesCount    number of the latest successful latencies kept for percentiles
+ * @property minLatencySamplesCount number of samples required to trust the latency percentile
+ * @property hedgePercentile        latency percentile of the provider after that a hedged request is fired
+ * @property minHedgeDelayMillis    lower bound of the hedge delay
+ * @property defaultHedgeDelayMillis hedge delay used until the provider has enough samples
+ */
+internal data class ProviderHealthConfig(
+    val latencySmoothing: Double = 0.3,
+    val unknownLatencyMillis: Double = 1_000.0,
+    val errorPenalty: Double = 4.0,
+    val switchThreshold: Double = 1.5,
+    val failureThreshold: Int = 3,
+    val openCircuitMillis: Long = 30_000L,
+    val latencySamplesCount: Int = 64,
+    val minLatencySamplesCount: Int = 8,
+    val hedgePercentile: Double = 0.95,
+    val minHedgeDelayMillis: Long = 50L,
+    val defaultHedgeDelayMillis: Long = 1_000L,
+) {
+    init {
+        require(latencySmoothing > 0.0 && latencySmoothing <= 1.0) { "latencySmoothing must be in (0, 1]" }
+        require(switchThreshold >= 1.0) { "switchThreshold must not be less than 1" }
+        require(failureThreshold > 0) { "failureThreshold must be positive" }
+        require(latencySamplesCount >= minLatencySamplesCount) { "Not enough latency samples to keep" }
+        require(hedgePercentile > 0.0 && hedgePercentile <= 1.0) { "hedgePercentile must be in (0, 1]" }
+    }
+}
@@ -0,0 +1,26 @@
+package com.tangem.blockchain.network.health
+
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.TimeUnit
+
+/**
+ * Process-wide storage of [ProviderHealth] keyed by provider base url, so every
+ * [com.tangem.blockchain.network.MultiNetworkProvider] pointing to the same host uses the same statistics
+ */
+internal class ProviderHealthRegistry(
+    private val config: ProviderHealthConfig = ProviderHealthConfig(),
+    private val clock: () -> Long = { TimeUnit.NANOSECONDS.toMillis(System.nanoTime()) },
+) {
+
+    private val healths = ConcurrentHashMap<String, ProviderHealth>()
+
+    fun get(baseUrl: String): ProviderHealth {
+        return healths.getOrPut(baseUrl) { ProviderHealth(config, clock) }
+    }
+
+    fun now(): Long = clock()
+
+    companion object {
+        val shared = ProviderHealthRegistry()
+    }
+}
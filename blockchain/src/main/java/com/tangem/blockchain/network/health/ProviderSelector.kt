@@ -0,0 +1,80 @@
+package com.tangem.blockchain.network.health
+
+import com.tangem.blockchain.common.NetworkProvider
+
+/**
+ * Chooses provider for the next attempt of a request by [ProviderHealth] score.
+ *
+ * Selection is sticky: the current provider stays until it becomes unavailable or another provider is better
+ * by [ProviderHealthConfig.switchThreshold], so providers order still defines priority when they perform alike.
+ */
+internal class ProviderSelector<P : NetworkProvider>(
+    private val providers: List<P>,
+    private val registry: ProviderHealthRegistry = ProviderHealthRegistry.shared,
+    private val config: ProviderHealthConfig = ProviderHealthConfig(),
+) {
+
+    @Volatile
+    var current: P = providers.first()
+
+    /**
+     * Selects and reserves a provider that isn't in [excluded]. If every circuit is open the best scored provider
+     * is returned anyway, because a request must be tried on all providers before giving up.
+     */
+    fun select(excluded: Set<P> = emptySet()): P {
+        val candidates = providers.filterNot { it in excluded }
+        require(candidates.isNotEmpty()) { "All providers are excluded" }
+
+        val ranked = rank(candidates)
+        val selected = ranked.firstOrNull { registry.get(it.baseUrl).tryAcquire() } ?: ranked.first()
+
+        current = selected
+        return selected
+    }
+
+    /** Returns provider that would be selected next without reserving it */
+    fun peek(excluded: Set<P> = emptySet()): P? {
+        val candidates = providers.filterNot { it in excluded }
+        if (candidates.isEmpty()) return null
+
+        val ranked = rank(candidates)
+        return ranked.firstOrNull { registry.get(it.baseUrl).isAvailable() } ?: ranked.first()
+    }
+
+    /** Returns time to wait for [provider] before firing a hedged request to the next one */
+    fun hedgeDelayMillis(provider: P): Long {
+        val percentile = registry.get(provider.baseUrl).latencyPercentile(config.hedgePercentile)
+            ?: return config.defaultHedgeDelayMillis
+
+        return percentile.coerceAtLeast(config.minHedgeDelayMillis)
+    }
+
+    fun startTime(): Long = registry.now()
+
+    fun onSuccess(provider: P, startTime: Long) {
+        registry.get(provider.baseUrl).onSuccess(latencyMillis = registry.now() - startTime)
+    }
+
+    fun onFailure(provider: P, startTime: Long) {
+        registry.get(provider.baseUrl).onFailure(latencyMillis = registry.now() - startTime)
+    }
+
+    fun onCancel(provider: P) {
+        registry.get(provider.baseUrl).onCancel()
+    }
+
+    private fun rank(candidates: List<P>): List<P> {
+        val scores = candidates.associateWith { registry.get(it.baseUrl).score() }
+        val sorted = candidates.sortedBy { scores.getValue(it) }
+
+        val sticky = current
+        val stickyScore = scores[sticky] ?: return sorted
+        val best = sorted.first()
+
+        return if (best != sticky && scores.getValue(best) * config.switchThreshold >= stickyScore) {
+            listOf(sticky) + sorted.filterNot { it == sticky }
+        } else {
+            sorted
+        }
+    }
+}
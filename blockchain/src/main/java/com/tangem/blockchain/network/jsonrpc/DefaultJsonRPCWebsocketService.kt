@@ -1,5 +1,7 @@
 package com.tangem.blockchain.network.jsonrpc
 
+import com.tangem.blockchain.common.JsonRPCNotification
+import com.tangem.blockchain.common.JsonRPCNotificationJsonAdapter
 import com.tangem.blockchain.common.JsonRPCRequest
 import com.tangem.blockchain.common.JsonRPCRequestJsonAdapter
 import com.tangem.blockchain.common.JsonRPCResponse
@@ -11,40 +13,56 @@ import kotlinx.coroutines.flow.*
 import kotlinx.coroutines.sync.Mutex
 import kotlinx.coroutines.sync.withLock
 import okhttp3.*
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.atomic.AtomicLong
+import kotlin.coroutines.AbstractCoroutineContextElement
+import kotlin.coroutines.CoroutineContext
 
 private const val PING_INTERVAL_MILLIS = 10000L
 private const val REQUEST_TIMEOUT_MILLIS = 30000L
 private const val DISCONNECT_TIMER_MILLIS = 60000L
 private const val WEBSOCKET_CONNECTION_CLOSE_NORMAL_STATUS = 1000
+private const val NOTIFICATIONS_BUFFER_CAPACITY = 64
 
 @OptIn(ExperimentalCoroutinesApi::class)
 internal class DefaultJsonRPCWebsocketService(
     private val wssUrl: String,
     private val pingPongRequestFactory: () -> JsonRPCRequest,
     private val okHttpClient: OkHttpClient = OkHttpClient(),
+    /** Handshake made on every opened socket before [connect] returns, connection is closed if it throws */
+    private val onConnected: suspend JsonRPCWebsocketService.() -> Unit = {},
 ) : JsonRPCWebsocketService {
 
     private val jsonRequestAdapter = JsonRPCRequestJsonAdapter(moshi)
     private val jsonResponseAdapter = JsonRPCResponseJsonAdapter(moshi)
+    private val jsonNotificationAdapter = JsonRPCNotificationJsonAdapter(moshi)
 
     override val state = MutableStateFlow(WebSocketConnectionStatus.DISCONNECTED)
 
-    private val responseMessages = MutableSharedFlow<JsonRPCResponse>(
-        replay = 100,
+    override val notifications = MutableSharedFlow<JsonRPCNotification>(
+        extraBufferCapacity = NOTIFICATIONS_BUFFER_CAPACITY,
         onBufferOverflow = BufferOverflow.DROP_OLDEST,
     )
 
+    /** Calls waiting for response, keyed by request id */
+    private val pendingCalls = ConcurrentHashMap<String, CompletableDeferred<JsonRPCResponse>>()
+    private val lastRequestId = AtomicLong()
+
     private val coroutineScope = CoroutineScope(Dispatchers.IO + SupervisorJob())
     private var disconnectTimerJob: Job? = null
-    private val requests = MutableStateFlow<List<Deferred<JsonRPCResponse>>>(emptyList())
     private var socket: WebSocket? = null
     private val keepAlive = MutableStateFlow(false)
     private val mutex = Mutex()
     private val internalConnectStatus = MutableStateFlow<ConnectStatus>(ConnectStatus.Disconnected)
     private var pingPongJob: Job? = null
 
-    override suspend fun connect(keepAlive: Boolean) = mutex.withLock {
+    override suspend fun connect(keepAlive: Boolean): Unit = mutex.withLock {
         if (state.value == WebSocketConnectionStatus.ESTABLISHED) {
+            // an already opened connection may only be upgraded to keepAlive, e.g. for subscriptions
+            if (keepAlive && !this.keepAlive.value) {
+                this.keepAlive.value = true
+                disconnectTimerJob?.cancel()
+            }
             return@withLock
         }
 
@@ -55,6 +73,7 @@ internal class DefaultJsonRPCWebsocketService(
             .build()
 
         internalConnectStatus.value = ConnectStatus.Connecting
+        state.value = WebSocketConnectionStatus.CONNECTING
         // establish connection (no exceptions here)
         socket = okHttpClient.newWebSocket(
             request,
@@ -71,13 +90,12 @@ internal class DefaultJsonRPCWebsocketService(
         }.onSuccess { status ->
             if (status is ConnectStatus.ConnectionError) {
                 internalConnectStatus.value = ConnectStatus.Disconnected
+                state.value = WebSocketConnectionStatus.DISCONNECTED
                 throw status.throwable
-            } else {
-                // connected successfully
-                state.value = WebSocketConnectionStatus.ESTABLISHED
             }
         }.onFailure { // timeout
             internalConnectStatus.value = ConnectStatus.Disconnected
+            state.value = WebSocketConnectionStatus.DISCONNECTED
             throw it
         }
 
@@ -86,6 +104,22 @@ internal class DefaultJsonRPCWebsocketService(
         pingPongJob = coroutineScope.launch {
             pingPong()
         }
+
+        // other callers see the connection only after the handshake, calls of the handshake itself skip connecting
+        runCatching { withContext(HandshakeContext(this)) { onConnected() } }.onFailure {
+            disconnect()
+            throw it
+        }
+
+        state.value = WebSocketConnectionStatus.ESTABLISHED
+        refreshDisconnectTimer()
+    }
+
+    override fun releaseKeepAlive() {
+        keepAlive.value = false
+        if (state.value == WebSocketConnectionStatus.ESTABLISHED) {
+            refreshDisconnectTimer()
+        }
     }
 
     private suspend fun pingPong() {
@@ -111,6 +145,8 @@ internal class DefaultJsonRPCWebsocketService(
 
     private fun refreshDisconnectTimer() {
         disconnectTimerJob?.cancel()
+        if (keepAlive.value) return
+
         disconnectTimerJob = coroutineScope.launch {
             delay(DISCONNECT_TIMER_MILLIS)
             disconnect()
@@ -135,77 +171,84 @@ internal class DefaultJsonRPCWebsocketService(
         }
 
         state.value = WebSocketConnectionStatus.DISCONNECTED
-
-        // clear all the responses
-        // we don't need them anymore
-        responseMessages.resetReplayCache()
     }
 
     override suspend fun call(jsonRPCRequest: JsonRPCRequest): Result<JsonRPCResponse> {
-        // connect only if connection wasn't already established
-        if (state.value == WebSocketConnectionStatus.DISCONNECTED && !keepAlive.value) {
+        connectIfNeeded()?.let { return Result.failure(it) }
+
+        // ids of the caller may repeat, so every call gets its own id to match the response with
+        val request = jsonRPCRequest.copy(id = nextRequestId())
+        val response = CompletableDeferred<JsonRPCResponse>()
+        pendingCalls[request.id] = response
+
+        return try {
+            // send request async
+            val isSent = socket?.send(jsonRequestAdapter.toJson(request)) ?: false
+            if (!isSent) {
+                Result.failure(RuntimeException("No connection or message buffer overflows (16 MiB)"))
+            } else {
+                // wait for response
+                runCatching {
+                    withTimeout(REQUEST_TIMEOUT_MILLIS) { response.await() }
+                }
+            }
+        } finally {
+            pendingCalls.remove(request.id)
+        }
+    }
+
+    /** Returns connection error or null if connection is established */
+    private suspend fun connectIfNeeded(): Throwable? {
+        if (currentCoroutineContext()[HandshakeContext]?.service === this) return null
+
+        // connect only if connection wasn't already established, connecting callers wait for the handshake
+        if (state.value != WebSocketConnectionStatus.ESTABLISHED) {
             val connectResult = runCatching {
                 connect()
             }
 
             if (connectResult.isFailure) {
-                return Result.failure(connectResult.exceptionOrNull()!!)
+                return connectResult.exceptionOrNull()
             }
         }
 
         // refresh timer on every call after which the websocket connection will be closed
         refreshDisconnectTimer()
-
-        // send request async
-        val json = jsonRequestAdapter.toJson(jsonRPCRequest)
-        socket?.send(json) ?: return Result.failure(
-            RuntimeException("No connection or message buffer overflows (16 MiB)"),
-        )
-
-        return coroutineScope {
-            val response = async {
-                withTimeout(REQUEST_TIMEOUT_MILLIS) {
-                    responseMessages.first { it.id == jsonRPCRequest.id }
-                }
-            }
-
-            requests.update { it + response }
-
-            // wait for response
-            val result = runCatching {
-                response.await()
-            }
-
-            requests.update { it - response }
-
-            result
-        }
+        return null
     }
 
+    private fun nextRequestId(): String = lastRequestId.incrementAndGet().toString()
+
     private fun close(ex: Throwable) {
         // terminate all waiting requests
-        requests.update { reqs ->
-            reqs.forEach {
-                it.cancel(CancellationException(message = ex.message, cause = ex))
-            }
-            emptyList()
-        }
+        val calls = pendingCalls.values.toList()
+        pendingCalls.clear()
+        calls.forEach { it.completeExceptionally(ex) }
+
+        // subscriptions are lost with the connection, so the next connection is not kept alive until requested
+        keepAlive.value = false
         state.value = WebSocketConnectionStatus.DISCONNECTED
     }
 
     private inner class InnerWebSocketListener : WebSocketListener() {
         override fun onOpen(webSocket: WebSocket, response: Response) {
             internalConnectStatus.value = ConnectStatus.Connected
-            state.value = WebSocketConnectionStatus.ESTABLISHED
-            refreshDisconnectTimer()
         }
 
         override fun onMessage(webSocket: WebSocket, text: String) {
             val response = runCatching {
                 jsonResponseAdapter.fromJson(text)
-            }.getOrNull() ?: return
+            }.getOrNull()
 
-            responseMessages.tryEmit(response)
+            if (response != null) {
+                pendingCalls.remove(response.id)?.complete(response)
+                return
+            }
+
+            // messages without id are notifications
+            runCatching {
+                jsonNotificationAdapter.fromJson(text)
+            }.getOrNull()?.let(notifications::tryEmit)
         }
 
         override fun onClosing(webSocket: WebSocket, code: Int, reason: String) {
@@ -224,6 +267,11 @@ internal class DefaultJsonRPCWebsocketService(
         }
     }
 
+    /** Marks the coroutine running [onConnected] of the [service] */
+    private class HandshakeContext(val service: DefaultJsonRPCWebsocketService) : AbstractCoroutineContextElement(Key) {
+        companion object Key : CoroutineContext.Key<HandshakeContext>
+    }
+
     private sealed class ConnectStatus {
         object Disconnected : ConnectStatus()
         object Connecting : ConnectStatus()
@@ -1,7 +1,9 @@
 package com.tangem.blockchain.network.jsonrpc
 
+import com.tangem.blockchain.common.JsonRPCNotification
 import com.tangem.blockchain.common.JsonRPCRequest
 import com.tangem.blockchain.common.JsonRPCResponse
+import kotlinx.coroutines.flow.Flow
 import kotlinx.coroutines.flow.StateFlow
 
 /**
@@ -13,11 +15,18 @@ internal interface JsonRPCWebsocketService {
 
     /**
      * Represents current connection state
+     * CONNECTING - socket is being opened or the handshake isn't finished yet
      * ESTABLISHED - ready to accept requests
      * DISCONNECTED - no websocket connection
      */
     val state: StateFlow<WebSocketConnectionStatus>
 
+    /**
+     * Notifications pushed by the node (messages without id), e.g. subscription updates.
+     * Notifications received while nobody collects the flow are dropped
+     */
+    val notifications: Flow<JsonRPCNotification>
+
     /**
      * Establish websocket connection
      * Synchronized method - returns after full connection
@@ -30,6 +39,11 @@ internal interface JsonRPCWebsocketService {
      */
     suspend fun connect(keepAlive: Boolean = false)
 
+    /**
+     * Lets the connection established with keepAlive == true be closed by the timer again
+     */
+    fun releaseKeepAlive()
+
     /**
      * Terminate connection
      * All [call] will be cancelled
@@ -1,6 +1,7 @@
 package com.tangem.blockchain.network.jsonrpc
 
 internal enum class WebSocketConnectionStatus {
+    CONNECTING,
     ESTABLISHED,
     DISCONNECTED,
 }
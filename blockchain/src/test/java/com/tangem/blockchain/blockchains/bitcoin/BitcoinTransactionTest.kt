@@ -14,11 +14,18 @@ import org.bitcoinj.core.NetworkParameters
 import org.bitcoinj.params.MainNetParams
 import org.bitcoinj.script.ScriptBuilder
 import org.junit.Test
+import java.math.BigDecimal
+import kotlin.random.Random
+import kotlin.system.measureTimeMillis
 
 class BitcoinTransactionTest {
 
     private val blockchain = Blockchain.Bitcoin
     private val networkParameters = MainNetParams()
+    private val publicKey = (
+        "04E3F3BE3CE3D8284DB3BA073AD0291040093D83C11A277B905D5555C9EC41073E103F4D9D299EDEA8285C51C3356A8681A5456" +
+            "18C174251B984DF841F49D2376F"
+        ).hexToBytes()
 
     @Test
     fun buildCorrectTransaction() {
@@ -135,6 +142,225 @@ class BitcoinTransactionTest {
         Truth.assertThat(signedTransaction).isEqualTo(expectedSignedTransaction)
     }
 
+    @Test
+    fun estimateSizeOfTransaction() {
+        // arrange
+        val walletPublicKey = (
+            "04E3F3BE3CE3D8284DB3BA073AD0291040093D83C11A277B905D5555C9EC41073E103F4D9D299EDEA8285C51C3356A8681A5456" +
+                "18C174251B984DF841F49D2376F"
+            ).hexToBytes()
+        val addresses = BitcoinAddressService(blockchain).makeAddresses(walletPublicKey)
+        val legacyAddress = addresses.find { it.type == AddressType.Legacy }!!.value
+        val segwitAddress = addresses.find { it.type == AddressType.Default }!!.value
+        val transactionBuilder = BitcoinTransactionBuilder(walletPublicKey, blockchain, addresses)
+        transactionBuilder.unspentOutputs =
+            prepareTwoUnspentOutputs(listOf(legacyAddress, segwitAddress), networkParameters)
+
+        val amountToSend = Amount("0.1".toBigDecimal(), blockchain, AmountType.Coin)
+        val transactionData = TransactionData(
+            sourceAddress = segwitAddress,
+            destinationAddress = "34gJYef7yHBmRhnmKzrXKJddWMzCuFkbBY",
+            amount = amountToSend,
+            fee = Fee.Common(Amount(amountToSend, "0.01".toBigDecimal())),
+        )
+
+        // act
+        val sizeResult = transactionBuilder.getEstimateSize(transactionData) as Result.Success
+
+        // assert
+        Truth.assertThat(sizeResult.data).isEqualTo(253) // size of the signed transaction in buildCorrectTransaction
+    }
+
+    @Test
+    fun estimateSizeOfMultisigTransaction() {
+        // arrange
+        val walletPublicKey = (
+            "04D2B9FB288540D54E5B32ECAF0381CD571F97F6F1ECD036B66BB11AA52FFE9981110D883080E2E255C6B1640586F7765E6FAA3" +
+                "25D1340F49B56B83D9DE56BC7ED"
+            ).hexToBytes()
+        val pairPublicKey = (
+            "0485D520C8B907F0BC5E03FCBBAC212CCD270764BBFF4990A28653A2FB0D656C342DF143C4D52C43582289E20A81D5D014C1384" +
+                "A1FFFEA1D121903AD7ED35A01EA"
+            ).hexToBytes()
+        val addresses = BitcoinAddressService(blockchain)
+            .makeMultisigAddresses(walletPublicKey, pairPublicKey)
+        val legacyAddress = addresses.find { it.type == AddressType.Legacy }!!.value
+        val segwitAddress = addresses.find { it.type == AddressType.Default }!!.value
+        val transactionBuilder = BitcoinTransactionBuilder(walletPublicKey, blockchain, addresses)
+        transactionBuilder.unspentOutputs =
+            prepareTwoUnspentOutputs(listOf(legacyAddress, segwitAddress), networkParameters)
+
+        val amountToSend = Amount("10000".toBigDecimal(), blockchain, AmountType.Coin)
+        val transactionData = TransactionData(
+            sourceAddress = segwitAddress,
+            destinationAddress = "1CM45rkJXtV9r8aUXeJnVKUh174EcKBQAJ",
+            amount = amountToSend,
+            fee = Fee.Common(Amount(amountToSend, "0.01".toBigDecimal())),
+        )
+
+        // act
+        val sizeResult = transactionBuilder.getEstimateSize(transactionData) as Result.Success
+
+        // assert
+        // signed transaction in buildCorrectMultisigTransaction has 272 bytes without witness and 150 bytes of
+        // witness, counting its shorter witness signature as a 72 bytes one
+        Truth.assertThat(sizeResult.data).isEqualTo(310)
+    }
+
+    @Test
+    fun preparedTransactionsDontAffectEachOther() {
+        // arrange
+        val walletPublicKey = (
+            "04E3F3BE3CE3D8284DB3BA073AD0291040093D83C11A277B905D5555C9EC41073E103F4D9D299EDEA8285C51C3356A8681A5456" +
+                "18C174251B984DF841F49D2376F"
+            ).hexToBytes()
+        val signature = (
+            "88E322D377878E83F25FD2E258344F0A7CC401654BF71C43DF96FC6B46766CAE30E97BD9018E9B2E918EF79E15E2747D4E00C55" +
+                "D69FA0B8ADFAFD07F41144F81337D7F3BD0798D66FDCE04B07C30984424B13B98BB2C3645744A696AD26ECC780157EA9D44" +
+                "DC41D0BCB420175A5D3F543079F4263AA2DBDE0EE2D33A877FC583"
+            ).hexToBytes()
+        val addresses = BitcoinAddressService(blockchain).makeAddresses(walletPublicKey)
+        val legacyAddress = addresses.find { it.type == AddressType.Legacy }!!.value
+        val segwitAddress = addresses.find { it.type == AddressType.Default }!!.value
+        val transactionBuilder = BitcoinTransactionBuilder(walletPublicKey, blockchain, addresses)
+        val unspentOutputs = prepareTwoUnspentOutputs(listOf(legacyAddress, segwitAddress), networkParameters)
+
+        fun transactionData(value: String): TransactionData {
+            val amountToSend = Amount(value.toBigDecimal(), blockchain, AmountType.Coin)
+            return TransactionData(
+                sourceAddress = segwitAddress,
+                destinationAddress = "34gJYef7yHBmRhnmKzrXKJddWMzCuFkbBY",
+                amount = amountToSend,
+                fee = Fee.Common(Amount(amountToSend, "0.01".toBigDecimal())),
+            )
+        }
+
+        // act
+        val first = transactionBuilder.prepareToSign(transactionData("0.1"), unspentOutputs) as Result.Success
+        val second = transactionBuilder.prepareToSign(transactionData("10000"), unspentOutputs) as Result.Success
+        val firstSigned = transactionBuilder.buildToSend(first.data, signature)
+
+        transactionBuilder.unspentOutputs = unspentOutputs
+        val firstHashes = transactionBuilder.buildToSign(transactionData("0.1")) as Result.Success
+        val firstBytes = transactionBuilder.buildToSend(signature)
+
+        // assert
+        Truth.assertThat(second.data.hashesToSign).hasSize(2)
+        Truth.assertThat(first.data.hashesToSign.map { it.toList() })
+            .isEqualTo(firstHashes.data.map { it.toList() })
+        Truth.assertThat(firstSigned.bytes).isEqualTo(firstBytes)
+        Truth.assertThat(firstSigned.hash).isEqualTo(transactionBuilder.getTransactionHash())
+    }
+
+    @Test
+    fun oneOutputIsSpentWhenSecondInputCostsMoreThanChange() {
+        // arrange
+        val addresses = BitcoinAddressService(blockchain).makeAddresses(publicKey)
+        val segwitAddress = addresses.find { it.type == AddressType.Default }!!.value
+        val transactionBuilder = BitcoinTransactionBuilder(publicKey, blockchain, addresses)
+        transactionBuilder.unspentOutputs = prepareUnspentOutputs(segwitAddress, listOf(5_000L, 10_300L, 5_000L))
+        val transactionData = TransactionData(
+            sourceAddress = segwitAddress,
+            destinationAddress = "34gJYef7yHBmRhnmKzrXKJddWMzCuFkbBY",
+            amount = Amount(BigDecimal("0.0001"), blockchain, AmountType.Coin),
+            fee = null,
+        )
+
+        // act
+        val fee = transactionBuilder.getFee(transactionData, BigDecimal.ONE, BigDecimal.ZERO) as Result.Success
+        val prepared = transactionBuilder.prepareToSign(transactionData.copy(fee = fee.data)) as Result.Success
+
+        // assert
+        // the output pays 69 satoshi for its input and 42 for the rest of the transaction, 189 satoshi left aren't
+        // enough for a change output, so they go to miners
+        Truth.assertThat(prepared.data.outputsToSend.map { it.amount.movePointRight(8).toLong() })
+            .containsExactly(10_300L)
+        Truth.assertThat(fee.data.amount.value).isEquivalentAccordingToCompareTo(BigDecimal("0.000003"))
+        Truth.assertThat(prepared.data.change.signum()).isEqualTo(0)
+    }
+
+    @Test
+    fun feeOfEveryRateIsCalculatedForOutputsSpentWithIt() {
+        // arrange
+        val addresses = BitcoinAddressService(blockchain).makeAddresses(publicKey)
+        val legacyAddress = addresses.find { it.type == AddressType.Legacy }!!.value
+        val segwitAddress = addresses.find { it.type == AddressType.Default }!!.value
+        val transactionBuilder = BitcoinTransactionBuilder(publicKey, blockchain, addresses)
+        val random = Random(22)
+        val unspentOutputs = prepareUnspentOutputs(legacyAddress, List(50) { random.nextLong(1_000, 200_000) }) +
+            prepareUnspentOutputs(segwitAddress, List(50) { random.nextLong(1_000, 200_000) })
+
+        repeat(100) {
+            val transactionData = TransactionData(
+                sourceAddress = segwitAddress,
+                destinationAddress = "34gJYef7yHBmRhnmKzrXKJddWMzCuFkbBY",
+                amount = Amount(random.nextLong(1_000, 2_000_000).toSatoshi(), blockchain, AmountType.Coin),
+                fee = null,
+            )
+            val satoshiPerByte = random.nextLong(1, 100).toBigDecimal()
+
+            // act
+            val fee = transactionBuilder.getFee(transactionData, satoshiPerByte, BigDecimal.ZERO, unspentOutputs)
+                as Result.Success
+            val dataToSend = transactionData.copy(fee = fee.data)
+            val prepared = transactionBuilder.prepareToSign(dataToSend, unspentOutputs) as Result.Success
+            val size = transactionBuilder.getEstimateSize(dataToSend, unspentOutputs) as Result.Success
+
+            // assert
+            Truth.assertThat(prepared.data.change.signum()).isAtLeast(0)
+            val feeForSize = satoshiPerByte.multiply(size.data.toBigDecimal()).toSatoshi()
+            Truth.assertThat(fee.data.amount.value).isAtLeast(feeForSize)
+        }
+    }
+
+    @Test
+    fun feeIsCalculatedAndTransactionIsPreparedFastForThousandsOfOutputs() {
+        // arrange
+        val addresses = BitcoinAddressService(blockchain).makeAddresses(publicKey)
+        val segwitAddress = addresses.find { it.type == AddressType.Default }!!.value
+        val transactionBuilder = BitcoinTransactionBuilder(publicKey, blockchain, addresses)
+        val random = Random(7)
+        transactionBuilder.unspentOutputs = prepareUnspentOutputs(
+            address = segwitAddress,
+            satoshis = List(5_000) { random.nextLong(546, 5_000_000) },
+        )
+        val amounts = List(20) { random.nextLong(10_000, 1_000_000_000) }
+
+        // act
+        val elapsedMillis = measureTimeMillis {
+            for (amount in amounts) {
+                val transactionData = TransactionData(
+                    sourceAddress = segwitAddress,
+                    destinationAddress = "34gJYef7yHBmRhnmKzrXKJddWMzCuFkbBY",
+                    amount = Amount(amount.toSatoshi(), blockchain, AmountType.Coin),
+                    fee = null,
+                )
+                val fee = transactionBuilder.getFee(transactionData, BigDecimal.TEN, BigDecimal.ZERO)
+                    as Result.Success
+                transactionBuilder.prepareToSign(transactionData.copy(fee = fee.data)) as Result.Success
+            }
+        }
+
+        // assert
+        Truth.assertThat(elapsedMillis).isLessThan(10_000L)
+    }
+
+    private fun Long.toSatoshi(): BigDecimal = toBigDecimal().toSatoshi()
+
+    private fun BigDecimal.toSatoshi(): BigDecimal = movePointLeft(blockchain.decimals())
+
+    private fun prepareUnspentOutputs(address: String, satoshis: List<Long>): List<BitcoinUnspentOutput> {
+        val outputScript = ScriptBuilder.createOutputScript(Address.fromString(networkParameters, address)).program
+        return satoshis.mapIndexed { index, value ->
+            BitcoinUnspentOutput(
+                amount = value.toSatoshi(),
+                outputIndex = index.toLong(),
+                transactionHash = Random(address.hashCode() + index).nextBytes(32),
+                outputScript = outputScript,
+            )
+        }
+    }
+
     companion object {
         fun prepareTwoUnspentOutputs(
             addresses: List<String>,
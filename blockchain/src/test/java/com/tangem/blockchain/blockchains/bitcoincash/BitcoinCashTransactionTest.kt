@@ -53,18 +53,13 @@ class BitcoinCashTransactionTest {
             fee = fee,
         )
 
-        val expectedHashToSign1 = "F430E42F4342382C32A043F0A3130E6CC1DF6378A2D6422794F8A21B2086C370"
-            .hexToBytes().toList()
-        val expectedHashToSign2 = "A9DD66EB35FACC8ECDACC48606CE988ED7B870E49238557C978FE6001C7905C5"
+        val expectedHashToSign1 = "451439F493FE8C94ED4C4B7E6B1DB9836BEE82CBED1301F683502370952C045A"
             .hexToBytes().toList()
         val expectedSignedTransaction = (
-            "0100000002B6A2673BDD04D57B5560F4E46CAC3C1F974E41463568F2A11E7D3175521D9C6D000000006B483045022100E2747D4" +
-                "E00C55D69FA0B8ADFAFD07F41144F888E322D377878E83F25FD2E258B02202E918EF79E151337D7F3BD0798D66FDCE04B07" +
-                "C30984424B13344F0A7CC40165412103EB30400CE9D1DEED12B84D4161A1FA922EF4185A155EF3EC208078B3807B126FFFF" +
-                "FFFFF3F86D67DC12F3E3E7EE47E3B02D30D476823B594CBCABF1123A8C272CC91F2AE490000006A47304402204BF71C43DF" +
-                "96FC6B46766CAE30E97BD9018E9B98BB2C3645744A696AD26ECC7802200157EA9D44DC41D0BCB420175A5D3F543079F4263" +
-                "AA2DBDE0EE2D33A877FC583412103EB30400CE9D1DEED12B84D4161A1FA922EF4185A155EF3EC208078B3807B126FFFFFFF" +
-                "FF0280969800000000001976A914F1C075A01882AE0972F95D3A4177C86C852B7D9188AC80790CD4E80000001976A91452D" +
+            "0100000001B6A2673BDD04D57B5560F4E46CAC3C1F974E41463568F2A11E7D3175521D9C6D000000006B483045022100E2747D4" +
+                "E00C55D69FA0B8ADFAFD07F41144F888E322D377878E83F25FD2E258B02202E918EF79E151337D7F3BD0798D66FDCE04B07C" +
+                "30984424B13344F0A7CC40165412103EB30400CE9D1DEED12B84D4161A1FA922EF4185A155EF3EC208078B3807B126FFFFFF" +
+                "FFF0280969800000000001976A914F1C075A01882AE0972F95D3A4177C86C852B7D9188AC4037FDD3E80000001976A91452D" +
                 "98CA1F2A0EE4420F852B8A456D8C15FE7B04888AC00000000"
             ).hexToBytes()
 
@@ -74,7 +69,7 @@ class BitcoinCashTransactionTest {
 
         // assert
         Truth.assertThat(buildToSignResult.data.map { it.toList() })
-            .containsExactly(expectedHashToSign1, expectedHashToSign2)
+            .containsExactly(expectedHashToSign1)
         Truth.assertThat(signedTransaction).isEqualTo(expectedSignedTransaction)
     }
 }
@@ -0,0 +1,153 @@
+package com.tangem.blockchain.blockchains.ethereum
+
+import com.google.common.truth.Truth
+import com.tangem.blockchain.blockchains.ethereum.network.EthereumFeeHistory
+import com.tangem.blockchain.common.Amount
+import com.tangem.blockchain.common.Blockchain
+import com.tangem.blockchain.common.BlockchainSdkError
+import com.tangem.blockchain.common.transaction.Fee
+import com.tangem.blockchain.extensions.Result
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.async
+import kotlinx.coroutines.awaitAll
+import kotlinx.coroutines.delay
+import kotlinx.coroutines.runBlocking
+import org.junit.Test
+import java.math.BigDecimal
+import java.math.BigInteger
+import java.util.concurrent.atomic.AtomicInteger
+
+internal class EthereumFeeOracleTest {
+
+    private val feeHistory = EthereumFeeHistory(
+        oldestBlock = "0x10",
+        baseFeePerGas = listOf("0x3b9aca00", "0x3b9aca00", "0x4a817c800"), // 1, 1 and 20 gwei
+        reward = listOf(
+            listOf("0x5f5e100", "0x3b9aca00", "0x77359400"), // 0.1, 1 and 2 gwei
+            listOf("0x11e1a300", "0x3b9aca00", "0xb2d05e00"), // 0.3, 1 and 3 gwei
+        ),
+    )
+
+    @Volatile
+    private var time = 0L
+    private val feeHistoryRequests = AtomicInteger()
+    private val gasPriceRequests = AtomicInteger()
+
+    @Test
+    fun concurrentRequestsLoadFeesOncePerBlock() = runBlocking {
+        val oracle = EthereumFeeOracle(clock = { time })
+        val load = loadFeeHistory(Result.Success(feeHistory))
+
+        val results = List(300) {
+            async(Dispatchers.Default) { oracle.getFees(Blockchain.Ethereum, load, loadGasPrice) }
+        }.awaitAll()
+
+        Truth.assertThat(feeHistoryRequests.get()).isEqualTo(1)
+        Truth.assertThat(gasPriceRequests.get()).isEqualTo(0)
+        Truth.assertThat(results.all { (it as Result.Success).data is EthereumNetworkFees.FeeMarket }).isTrue()
+
+        time = 11_999
+        oracle.getFees(Blockchain.Ethereum, load, loadGasPrice)
+        Truth.assertThat(feeHistoryRequests.get()).isEqualTo(1)
+
+        time = 12_000
+        oracle.getFees(Blockchain.Ethereum, load, loadGasPrice)
+        Truth.assertThat(feeHistoryRequests.get()).isEqualTo(2)
+    }
+
+    @Test
+    fun feesExpireWithBlockTimeOfNetwork() = runBlocking {
+        val oracle = EthereumFeeOracle(clock = { time })
+        val load = loadFeeHistory(Result.Success(feeHistory))
+
+        oracle.getFees(Blockchain.Arbitrum, load, loadGasPrice)
+        time = 250
+        oracle.getFees(Blockchain.Arbitrum, load, loadGasPrice)
+
+        Truth.assertThat(feeHistoryRequests.get()).isEqualTo(2)
+    }
+
+    @Test
+    fun feesOfOlderBlockDontReplaceNewerOnes() = runBlocking {
+        val oracle = EthereumFeeOracle(clock = { time })
+
+        oracle.getFees(Blockchain.Ethereum, loadFeeHistory(Result.Success(feeHistory)), loadGasPrice)
+        time = 12_000
+        val laggingFeeHistory = feeHistory.copy(oldestBlock = "0xf", baseFeePerGas = listOf("0x1", "0x1", "0x1"))
+        val loadLagging = loadFeeHistory(Result.Success(laggingFeeHistory))
+        val result = oracle.getFees(Blockchain.Ethereum, loadLagging, loadGasPrice)
+
+        val feeMarket = (result as Result.Success).data as EthereumNetworkFees.FeeMarket
+        Truth.assertThat(feeMarket.blockNumber).isEqualTo(0x11L)
+        Truth.assertThat(feeMarket.baseFee).isEqualTo(gwei(20))
+        Truth.assertThat(feeHistoryRequests.get()).isEqualTo(2)
+    }
+
+    @Test
+    fun feesAreCalculatedFromNextBaseFeeWithHeadroomAndRewardPercentiles() {
+        val feeMarket = EthereumNetworkFees.FeeMarket.fromFeeHistory(feeHistory)!!
+
+        Truth.assertThat(feeMarket.blockNumber).isEqualTo(0x11L)
+        Truth.assertThat(feeMarket.baseFee).isEqualTo(gwei(20))
+        Truth.assertThat(feeMarket.lowPriorityFee).isEqualTo(BigInteger.valueOf(200_000_000))
+        Truth.assertThat(feeMarket.normalPriorityFee).isEqualTo(gwei(1))
+        Truth.assertThat(feeMarket.highPriorityFee).isEqualTo(BigInteger.valueOf(2_500_000_000))
+
+        val fees = EthereumFeesCalculator().calculateFees(
+            amountParams = Amount(Blockchain.Ethereum),
+            gasLimit = BigInteger.valueOf(21_000),
+            feeMarket = feeMarket,
+        )
+        val minimum = fees.minimum as Fee.Ethereum
+        val normal = fees.normal as Fee.Ethereum
+        val priority = fees.priority as Fee.Ethereum
+
+        // base fee with headroom stays above the next base fee, priority is capped by max fee
+        Truth.assertThat(minimum.gasPrice).isEqualTo(BigInteger.valueOf(25_600_000_000))
+        Truth.assertThat(normal.gasPrice).isEqualTo(BigInteger.valueOf(33_200_000_000))
+        Truth.assertThat(priority.gasPrice).isEqualTo(BigInteger.valueOf(42_500_000_000))
+        Truth.assertThat(priority.amount.value).isEqualToIgnoringScale(BigDecimal("0.0008925"))
+    }
+
+    @Test
+    fun networkWithoutBaseFeeIsRememberedAndUsesGasPrice() = runBlocking {
+        val oracle = EthereumFeeOracle(clock = { time })
+        val load = loadFeeHistory(Result.Success(feeHistory.copy(baseFeePerGas = listOf("0x0", "0x0", "0x0"))))
+
+        val result = oracle.getFees(Blockchain.BSC, load, loadGasPrice)
+        time = 60_000
+        oracle.getFees(Blockchain.BSC, load, loadGasPrice)
+
+        Truth.assertThat((result as Result.Success).data).isInstanceOf(EthereumNetworkFees.Legacy::class.java)
+        Truth.assertThat(feeHistoryRequests.get()).isEqualTo(1)
+        Truth.assertThat(gasPriceRequests.get()).isEqualTo(2)
+    }
+
+    @Test
+    fun failedFeeHistoryIsNotCached() = runBlocking {
+        val oracle = EthereumFeeOracle(clock = { time })
+        val load = loadFeeHistory(Result.Failure(BlockchainSdkError.CustomError("timeout")))
+
+        val result = oracle.getFees(Blockchain.Ethereum, load, loadGasPrice)
+        oracle.getFees(Blockchain.Ethereum, load, loadGasPrice)
+
+        Truth.assertThat(((result as Result.Success).data as EthereumNetworkFees.Legacy).gasPrice).isEqualTo(gwei(5))
+        Truth.assertThat(feeHistoryRequests.get()).isEqualTo(2)
+        Truth.assertThat(gasPriceRequests.get()).isEqualTo(2)
+    }
+
+    private fun loadFeeHistory(
+        result: Result<EthereumFeeHistory?>,
+    ): suspend (Int, List<Int>) -> Result<EthereumFeeHistory?> = { _, _ ->
+        feeHistoryRequests.incrementAndGet()
+        delay(10)
+        result
+    }
+
+    private val loadGasPrice: suspend () -> Result<BigInteger> = {
+        gasPriceRequests.incrementAndGet()
+        Result.Success(gwei(5))
+    }
+
+    private fun gwei(value: Long): BigInteger = BigInteger.valueOf(value).multiply(BigInteger.valueOf(1_000_000_000))
+}
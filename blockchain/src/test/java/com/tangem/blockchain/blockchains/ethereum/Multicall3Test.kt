@@ -0,0 +1,57 @@
+package com.tangem.blockchain.blockchains.ethereum
+
+import com.google.common.truth.Truth
+import com.tangem.blockchain.blockchains.ethereum.multicall.Multicall3
+import com.tangem.common.extensions.hexToBytes
+import com.tangem.common.extensions.toHexString
+import org.junit.Test
+
+internal class Multicall3Test {
+
+    @Test
+    fun encodeAggregate3() {
+        val calls = listOf(
+            Multicall3.Call(
+                target = "0x0000000000000000000000000000000000000001",
+                callData = "AABBCCDD".hexToBytes(),
+            ),
+        )
+
+        val expected = "82AD56CB" +
+            word("20") + // offset of the array
+            word("01") + // array length
+            word("20") + // offset of the first call
+            word("01") + // target
+            word("01") + // allowFailure
+            word("60") + // offset of callData
+            word("04") + // callData length
+            "AABBCCDD".padEnd(length = 64, padChar = '0')
+
+        Truth.assertThat(Multicall3.encodeAggregate3(calls).toHexString()).isEqualTo(expected)
+    }
+
+    @Test
+    fun decodeAggregate3() {
+        val data = word("20") + // offset of the array
+            word("02") + // array length
+            word("40") + // offset of the first result
+            word("C0") + // offset of the second result
+            word("01") + word("40") + word("20") + word("05") + // success, 32 bytes of data
+            word("00") + word("40") + word("00") // failure, empty data
+
+        val results = Multicall3.decodeAggregate3(data.hexToBytes())
+
+        Truth.assertThat(results).hasSize(2)
+        Truth.assertThat(results[0].isSuccess).isTrue()
+        Truth.assertThat(results[0].returnData.toHexString()).isEqualTo(word("05"))
+        Truth.assertThat(results[1].isSuccess).isFalse()
+        Truth.assertThat(results[1].returnData).isEmpty()
+    }
+
+    @Test(expected = IllegalArgumentException::class)
+    fun decodeEmptyResult() {
+        Multicall3.decodeAggregate3(ByteArray(0))
+    }
+
+    private fun word(hex: String): String = hex.padStart(length = 64, padChar = '0')
+}
@@ -31,7 +31,7 @@ class KaspaTransactionTest {
                 "DC41D0BCB420175A5D3F543079F4263AA2DBDE0EE2D33A877FC583E2747D4E00C55D69FA0B8ADFAFD07F41144F888E322D3" +
                 "77878E83F25FD2E258B2E918EF79E151337D7F3BD0798D66FDCE04B07C30984424B13344F0A7CC40168"
             ).hexToBytes()
-        val sendValue = "0.001".toBigDecimal()
+        val sendValue = "5.15".toBigDecimal()
         val feeValue = "0.0003".toBigDecimal()
         val destinationAddress = "kaspa:qpsqw2aamda868dlgqczeczd28d5nc3rlrj3t87vu9q58l2tugpjs2psdm4fv"
 
@@ -68,11 +68,11 @@ class KaspaTransactionTest {
             fee = fee,
         )
 
-        val expectedHashToSign1 = "F5080102132C6DAB382DE67A427F1DF560BA7F5F0D7FA4DFA535C474761423C2"
+        val expectedHashToSign1 = "5F9C73AFBEC0C1BAB2C7CF30F802ACDD7C9763857D31BDDC5D1D617D5C052B4D"
             .hexToBytes().toList()
-        val expectedHashToSign2 = "90767E75D102556256E4B3C76F341292FDDBEF1683C49E3C03AC16A83FD1FB83"
+        val expectedHashToSign2 = "5AAD79BF84CF0D93FEFB85C05A88E95F0C85B232196DAA4DFD424CD5861017C3"
             .hexToBytes().toList()
-        val expectedHashToSign3 = "F9738FE93426667581DB4BA1AE4F432F384C393D0F098D3A9AA6087C4F62C4A4"
+        val expectedHashToSign3 = "2E3E4D3B5CE0772081F7EB6BF8607A2DEE8782F02B1C316B28278955E07E64E9"
             .hexToBytes().toList()
         val expectedSignedTransaction = KaspaTransactionBody(
             KaspaTransactionData(
@@ -80,7 +80,7 @@ class KaspaTransactionTest {
                 inputs = listOf(
                     KaspaInput(
                         previousOutpoint = KaspaPreviousOutpoint(
-                            transactionId = "ae96e819429e9da538e84cb213f62fbc8ad32e932d7c7f1fb9bd2fedf8fd7b4a",
+                            transactionId = "deb88e7dd734437c6232a636085ef917d1d13cc549fe14749765508b2782f2fb",
                             index = 0,
                         ),
                         signatureScript = "41E2747D4E00C55D69FA0B8ADFAFD07F41144F888E322D377878E83F25FD2E258B2E918EF" +
@@ -90,7 +90,7 @@ class KaspaTransactionTest {
                     ),
                     KaspaInput(
                         previousOutpoint = KaspaPreviousOutpoint(
-                            transactionId = "deb88e7dd734437c6232a636085ef917d1d13cc549fe14749765508b2782f2fb",
+                            transactionId = "304db39069dc409acedf544443dcd4a4f02bfad4aeb67116f8bf087822c456af",
                             index = 0,
                         ),
                         signatureScript = "414BF71C43DF96FC6B46766CAE30E97BD9018E9B98BB2C3645744A696AD26ECC780157EA9" +
@@ -100,7 +100,7 @@ class KaspaTransactionTest {
                     ),
                     KaspaInput(
                         previousOutpoint = KaspaPreviousOutpoint(
-                            transactionId = "304db39069dc409acedf544443dcd4a4f02bfad4aeb67116f8bf087822c456af",
+                            transactionId = "ae96e819429e9da538e84cb213f62fbc8ad32e932d7c7f1fb9bd2fedf8fd7b4a",
                             index = 0,
                         ),
                         signatureScript = "41E2747D4E00C55D69FA0B8ADFAFD07F41144F888E322D377878E83F25FD2E258B2E918EF" +
@@ -111,14 +111,14 @@ class KaspaTransactionTest {
                 ),
                 outputs = listOf(
                     KaspaOutput(
-                        amount = 100000,
+                        amount = 515000000,
                         scriptPublicKey = KaspaScriptPublicKey(
                             scriptPublicKey = "2060072BBDDB7A7D1DBF40302CE04D51DB49E223F8E5159FCCE14143FD4BE20328AC",
                             version = 0,
                         ),
                     ),
                     KaspaOutput(
-                        amount = 519870000,
+                        amount = 4970000,
                         scriptPublicKey = KaspaScriptPublicKey(
                             scriptPublicKey = "2103EB30400CE9D1DEED12B84D4161A1FA922EF4185A155EF3EC208078B3807B126FAB",
                             version = 0,
@@ -0,0 +1,55 @@
+package com.tangem.blockchain.common
+
+import com.google.common.truth.Truth
+import org.bouncycastle.crypto.digests.SHA256Digest
+import org.bouncycastle.crypto.ec.CustomNamedCurves
+import org.bouncycastle.crypto.params.ECDomainParameters
+import org.bouncycastle.crypto.params.ECPrivateKeyParameters
+import org.bouncycastle.crypto.signers.ECDSASigner
+import org.bouncycastle.crypto.signers.HMacDSAKCalculator
+import org.junit.Test
+import org.kethereum.crypto.api.ec.ECDSASignature
+import org.kethereum.crypto.determineRecId
+import org.kethereum.crypto.impl.ec.canonicalise
+import org.kethereum.model.PublicKey
+import java.math.BigInteger
+import java.security.MessageDigest
+
+internal class Secp256k1RecoveryTest {
+
+    private val curve = CustomNamedCurves.getByName("secp256k1")
+
+    @Test
+    fun recoveryIdsMatchPublicKeyRecovery() {
+        val privateKey = BigInteger("b3d2f5a47c2c1f9e4c8d1a0e3f6b7c8d9e0f1a2b3c4d5e6f708192a3b4c5d6e7", 16)
+        val point = curve.g.multiply(privateKey).normalize()
+        val compressedKey = point.getEncoded(true)
+        val rawKey = point.getEncoded(false).sliceArray(1..64)
+
+        val hashes = (0 until 16).map { MessageDigest.getInstance("SHA-256").digest("message $it".toByteArray()) }
+        val signatures = hashes.map { sign(it, privateKey) }
+
+        val expected = signatures.zip(hashes) { signature, hash -> signature.determineRecId(hash, PublicKey(rawKey)) }
+
+        Truth.assertThat(Secp256k1Recovery.recoveryIds(signatures, hashes, compressedKey)).isEqualTo(expected)
+        Truth.assertThat(Secp256k1Recovery.recoveryIds(signatures, hashes, rawKey)).isEqualTo(expected)
+    }
+
+    @Test(expected = IllegalStateException::class)
+    fun signatureOfAnotherKeyFails() {
+        val hash = MessageDigest.getInstance("SHA-256").digest("message".toByteArray())
+        val signature = sign(hash, BigInteger.valueOf(12345))
+        val anotherKey = curve.g.multiply(BigInteger.valueOf(54321)).getEncoded(true)
+
+        Secp256k1Recovery.recoveryId(signature, hash, anotherKey)
+    }
+
+    private fun sign(hash: ByteArray, privateKey: BigInteger): ECDSASignature {
+        val signer = ECDSASigner(HMacDSAKCalculator(SHA256Digest()))
+        val domain = ECDomainParameters(curve.curve, curve.g, curve.n, curve.h)
+        signer.init(true, ECPrivateKeyParameters(privateKey, domain))
+
+        val (r, s) = signer.generateSignature(hash)
+        return ECDSASignature(r, s).canonicalise()
+    }
+}
@@ -0,0 +1,101 @@
+package com.tangem.blockchain.common
+
+import com.google.common.truth.Truth
+import com.tangem.blockchain.common.address.Address
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.launch
+import kotlinx.coroutines.runBlocking
+import org.junit.Test
+import java.math.BigDecimal
+
+internal class WalletTest {
+
+    private val wallet = Wallet(
+        blockchain = Blockchain.Ethereum,
+        addresses = setOf(Address("0x1")),
+        publicKey = Wallet.PublicKey(seedKey = byteArrayOf(), derivationType = null),
+        tokens = emptySet(),
+    )
+
+    @Test
+    fun snapshotIsNotChangedByConfirmationAndAdding() {
+        val transaction = transaction(hash = "0xAB")
+        wallet.addOutgoingTransaction(transaction)
+        val snapshot = wallet.state.value
+
+        wallet.confirmRecentTransactions()
+        wallet.addOutgoingTransaction(transaction(hash = "0xCD"))
+
+        Truth.assertThat(snapshot.recentTransactions).hasSize(1)
+        Truth.assertThat(snapshot.recentTransactions.single().status).isEqualTo(TransactionStatus.Unconfirmed)
+        Truth.assertThat(wallet.recentTransactions.map { it.status })
+            .containsExactly(TransactionStatus.Confirmed, TransactionStatus.Unconfirmed)
+            .inOrder()
+    }
+
+    @Test
+    fun addedTransactionIsCopied() {
+        val transaction = transaction(hash = "0xAB")
+
+        wallet.addOutgoingTransaction(transaction)
+
+        Truth.assertThat(transaction.hash).isEqualTo("0xAB")
+        Truth.assertThat(transaction.date).isNull()
+        Truth.assertThat(wallet.recentTransactions.single().hash).isEqualTo("0xab")
+        Truth.assertThat(wallet.recentTransactions.single().date).isNotNull()
+    }
+
+    @Test
+    fun concurrentAddingAndConfirmationDontLoseUpdates() = runBlocking {
+        val count = 1_000
+
+        List(count) { index ->
+            launch(Dispatchers.Default) {
+                wallet.addOutgoingTransaction(transaction(hash = "0x$index"))
+                wallet.confirmRecentTransactions { it.hash == "0x$index" }
+            }
+        }.forEach { it.join() }
+
+        Truth.assertThat(wallet.recentTransactions).hasSize(count)
+        Truth.assertThat(wallet.recentTransactions.all { it.status == TransactionStatus.Confirmed }).isTrue()
+    }
+
+    @Test
+    fun duplicatesWithinOneBatchAreSkipped() {
+        wallet.addRecentTransactions(listOf(transaction(hash = "0xAB")))
+
+        wallet.addRecentTransactions(
+            listOf(transaction(hash = "0xab"), transaction(hash = "0xCD"), transaction(hash = "0xcd")),
+        )
+
+        Truth.assertThat(wallet.recentTransactions.map { it.hash }).containsExactly("0xAB", "0xCD").inOrder()
+    }
+
+    @Test
+    fun nullHashIsSkippedIfRecentOneHasNullHash() {
+        wallet.addRecentTransactions(listOf(transaction(hash = null), transaction(hash = null)))
+        wallet.addTransactionDummy()
+
+        Truth.assertThat(wallet.recentTransactions).hasSize(2)
+        Truth.assertThat(wallet.recentTransactions.all { it.hash == null }).isTrue()
+    }
+
+    @Test
+    fun removeAllTokensKeepsOnlyCoin() {
+        val token = Token(symbol = "USDT", contractAddress = "0x3", decimals = 6)
+        wallet.addTokenValue(BigDecimal.ONE, token)
+        wallet.setReserveValue(BigDecimal.TEN)
+
+        wallet.removeAllTokens()
+
+        Truth.assertThat(wallet.amounts.keys).containsExactly(AmountType.Coin)
+    }
+
+    private fun transaction(hash: String?) = TransactionData(
+        amount = Amount(wallet.blockchain),
+        fee = null,
+        sourceAddress = wallet.address,
+        destinationAddress = "0x2",
+        hash = hash,
+    )
+}
@@ -0,0 +1,64 @@
+package com.tangem.blockchain.common.cache
+
+import com.google.common.truth.Truth
+import com.tangem.blockchain.extensions.Result
+import kotlinx.coroutines.CompletableDeferred
+import kotlinx.coroutines.CoroutineStart
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.async
+import kotlinx.coroutines.awaitAll
+import kotlinx.coroutines.delay
+import kotlinx.coroutines.launch
+import kotlinx.coroutines.runBlocking
+import kotlinx.coroutines.withTimeout
+import org.junit.Test
+import java.util.concurrent.atomic.AtomicInteger
+
+internal class ExpiringCacheTest {
+
+    @Test
+    fun concurrentLoadsOfOneKeyAreCoalesced() = runBlocking {
+        var time = 0L
+        val cache = ExpiringCache<String, Int>(ttlMillis = 1_000, clock = { time })
+        val loadsCount = AtomicInteger()
+        val load: suspend () -> Result<Int> = {
+            loadsCount.incrementAndGet()
+            delay(10)
+            Result.Success(1)
+        }
+
+        List(100) { async(Dispatchers.Default) { cache.getOrLoad("key", load) } }.awaitAll()
+        Truth.assertThat(loadsCount.get()).isEqualTo(1)
+
+        time = 1_000
+        cache.getOrLoad("key", load)
+        Truth.assertThat(loadsCount.get()).isEqualTo(2)
+    }
+
+    @Test
+    fun slowLoadDoesNotBlockOtherKeys() = runBlocking {
+        val cache = ExpiringCache<String, Int>(ttlMillis = 1_000)
+        val slowLoad = CompletableDeferred<Result<Int>>()
+
+        val slowJob = launch(start = CoroutineStart.UNDISPATCHED) { cache.getOrLoad("slow") { slowLoad.await() } }
+        val fastResult = withTimeout(1_000) { cache.getOrLoad("fast") { Result.Success(2) } }
+
+        Truth.assertThat(fastResult).isEqualTo(Result.Success(2))
+        slowLoad.complete(Result.Success(1))
+        slowJob.join()
+    }
+
+    @Test
+    fun cancelledLoadIsRestartedByWaiter() = runBlocking {
+        val cache = ExpiringCache<String, Int>(ttlMillis = 1_000)
+        val neverCompleted = CompletableDeferred<Result<Int>>()
+
+        val cancelledJob = launch(start = CoroutineStart.UNDISPATCHED) {
+            cache.getOrLoad("key") { neverCompleted.await() }
+        }
+        val waiter = async(start = CoroutineStart.UNDISPATCHED) { cache.getOrLoad("key") { Result.Success(3) } }
+        cancelledJob.cancel()
+
+        Truth.assertThat(withTimeout(1_000) { waiter.await() }).isEqualTo(Result.Success(3))
+    }
+}
@@ -0,0 +1,106 @@
+package com.tangem.blockchain.common.utxo
+
+import com.google.common.truth.Truth
+import org.junit.Test
+import java.math.BigDecimal
+import kotlin.random.Random
+
+internal class CoinSelectorTest {
+
+    private val selector = CoinSelector()
+
+    @Test
+    fun changelessSelectionIsFoundAmongFragmentedOutputs() {
+        val utxos = listOf(1_000L, 7_000L, 2_500L, 40_000L, 3_000L, 600L, 12_000L)
+        val params = CoinSelectionParams(amount = 9_500, target = 10_000, costOfChange = 100)
+
+        val selection = selector.select(utxos, params) { it }!!
+
+        Truth.assertThat(selection.isChangeless).isTrue()
+        Truth.assertThat(selection.inputs).containsExactly(7_000L, 3_000L).inOrder()
+        Truth.assertThat(selection.waste).isEqualTo(0)
+        Truth.assertThat(selection.strategy).isEqualTo(BranchAndBoundStrategy::class.java.simpleName)
+    }
+
+    @Test
+    fun largerOutputIsTakenWhenSmallOnesExceedInputsLimit() {
+        val utxos = List(50) { 1_000L } + 1_000_000L
+        val params = CoinSelectionParams(amount = 20_000, target = 20_500, maxInputs = 20)
+
+        val selection = selector.select(utxos, params) { it }!!
+
+        Truth.assertThat(selection.inputs).containsExactly(1_000_000L)
+        Truth.assertThat(selection.isChangeless).isFalse()
+    }
+
+    @Test
+    fun outputsNotPayingForThemselvesAreSkipped() {
+        val utxos = listOf(50L, 80L, 5_000L)
+        val params = CoinSelectionParams(amount = 4_000, target = 4_000, costPerInput = 100)
+
+        val selection = selector.select(utxos, params) { it }!!
+
+        Truth.assertThat(selection.inputs).containsExactly(5_000L)
+        Truth.assertThat(selection.fee).isEqualTo(100)
+    }
+
+    @Test
+    fun inputsLimitIsRespected() {
+        val utxos = List(100) { 1_000L }
+
+        val fitting = CoinSelectionParams(amount = 10_000, target = 10_000, maxInputs = 10)
+        val exceeding = CoinSelectionParams(amount = 10_001, target = 10_001, maxInputs = 10)
+
+        Truth.assertThat(selector.select(utxos, fitting) { it }!!.inputs).hasSize(10)
+        Truth.assertThat(selector.select(utxos, exceeding) { it }).isNull()
+    }
+
+    @Test
+    fun coinsAreRoundedToSmallestUnitsInsteadOfThrowing() {
+        val params = CoinSelectionParams.of(
+            amount = BigDecimal("0.000000011"),
+            fee = BigDecimal("0.000000001"),
+            decimals = 8,
+        )!!
+        val utxos = listOf(BigDecimal("0.000000029"), BigDecimal("0.000000011"), BigDecimal("0.000000019"))
+
+        val selection = selector.select(utxos, params, decimals = 8) { it }!!
+
+        // amount and fee are rounded up to cover them, outputs are rounded down
+        Truth.assertThat(params.amount).isEqualTo(2)
+        Truth.assertThat(params.target).isEqualTo(3)
+        Truth.assertThat(selection.inputs).containsExactly(BigDecimal("0.000000029"), BigDecimal("0.000000011"))
+        Truth.assertThat(selection.total).isEqualTo(3)
+    }
+
+    @Test
+    fun valuesOutOfLongRangeAreNotSelected() {
+        val overflowing = BigDecimal("1E+30")
+
+        Truth.assertThat(CoinSelectionParams.of(amount = overflowing, fee = BigDecimal.ONE, decimals = 8)).isNull()
+        Truth.assertThat(
+            selector.select(listOf(overflowing), CoinSelectionParams(amount = 1, target = 1), decimals = 8) { it },
+        ).isNull()
+    }
+
+    @Test
+    fun syntheticSetsAreCoveredWithFewerInputsThanInOrderSelection() {
+        val random = Random(7)
+        var selectedCount = 0
+        var inOrderCount = 0
+        repeat(200) {
+            val utxos = List(random.nextInt(5, 200)) { random.nextLong(546, 5_000_000) }
+            val target = random.nextLong(1, utxos.sum())
+            val params = CoinSelectionParams(amount = target, target = target, costOfChange = 546)
+
+            val selection = selector.select(utxos, params) { it }!!
+
+            Truth.assertThat(selection.total).isAtLeast(target)
+            Truth.assertThat(selector.select(utxos, params) { it }!!.inputs).isEqualTo(selection.inputs)
+            selectedCount += selection.inputs.size
+            inOrderCount += utxos.runningFold(0L, Long::plus).indexOfFirst { it >= target }
+        }
+
+        Truth.assertThat(selectedCount).isLessThan(inOrderCount)
+    }
+}
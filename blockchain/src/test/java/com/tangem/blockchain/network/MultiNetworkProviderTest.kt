@@ -0,0 +1,43 @@
+package com.tangem.blockchain.network
+
+import com.google.common.truth.Truth
+import com.tangem.blockchain.common.BlockchainSdkError
+import com.tangem.blockchain.common.NetworkProvider
+import com.tangem.blockchain.extensions.Result
+import com.tangem.blockchain.network.health.ProviderHealthRegistry
+import kotlinx.coroutines.CancellationException
+import kotlinx.coroutines.awaitCancellation
+import kotlinx.coroutines.runBlocking
+import org.junit.Test
+import java.io.IOException
+
+internal class MultiNetworkProviderTest {
+
+    @Test
+    fun cancelledHedgeLoserIsNotScoredAsFailure() = runBlocking {
+        val slow = TestProvider("https://slow-hedge-loser.com/", isSlow = true)
+        val fast = TestProvider("https://fast-hedge-winner.com/", isSlow = false)
+        val unused = TestProvider("https://unused-hedge-provider.com/", isSlow = false)
+        val multiProvider = MultiNetworkProvider(listOf(slow, fast))
+
+        val result = multiProvider.performRequest(request = { request() }, isHedged = true)
+
+        Truth.assertThat(result).isEqualTo(Result.Success("fast-hedge-winner"))
+        Truth.assertThat(ProviderHealthRegistry.shared.get(slow.baseUrl).score())
+            .isEqualTo(ProviderHealthRegistry.shared.get(unused.baseUrl).score())
+    }
+
+    private class TestProvider(override val baseUrl: String, private val isSlow: Boolean) : NetworkProvider {
+
+        suspend fun request(): Result<String> {
+            if (!isSlow) return Result.Success(baseUrl.removePrefix("https://").removeSuffix(".com/"))
+
+            // like a provider wrapping every exception into a failure
+            return try {
+                awaitCancellation()
+            } catch (exception: CancellationException) {
+                Result.Failure(BlockchainSdkError.WrappedThrowable(IOException(exception)))
+            }
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.tangem.blockchain.network.health
+
+import com.google.common.truth.Truth
+import com.tangem.blockchain.common.NetworkProvider
+import org.junit.Test
+
+internal class ProviderSelectorTest {
+
+    private var now = 0L
+    private val config = ProviderHealthConfig(failureThreshold = 2, openCircuitMillis = 1_000L)
+    private val registry = ProviderHealthRegistry(config = config, clock = { now })
+
+    private val first = TestProvider("https://first.com/")
+    private val second = TestProvider("https://second.com/")
+    private val selector = ProviderSelector(listOf(first, second), registry, config)
+
+    @Test
+    fun keepsListOrderWithoutStatistics() {
+        Truth.assertThat(selector.select()).isEqualTo(first)
+        Truth.assertThat(selector.select(excluded = setOf(first))).isEqualTo(second)
+    }
+
+    @Test
+    fun switchesFromSlowProvider() {
+        repeat(times = 5) { registry.get(first.baseUrl).onSuccess(latencyMillis = 3_000L) }
+        repeat(times = 5) { registry.get(second.baseUrl).onSuccess(latencyMillis = 100L) }
+
+        Truth.assertThat(selector.select()).isEqualTo(second)
+    }
+
+    @Test
+    fun keepsCurrentProviderWithinSwitchThreshold() {
+        repeat(times = 5) { registry.get(first.baseUrl).onSuccess(latencyMillis = 120L) }
+        repeat(times = 5) { registry.get(second.baseUrl).onSuccess(latencyMillis = 100L) }
+
+        Truth.assertThat(selector.select()).isEqualTo(first)
+    }
+
+    @Test
+    fun opensCircuitAndProbesAfterCooldown() {
+        val health = registry.get(first.baseUrl)
+        repeat(times = 2) { health.onFailure(latencyMillis = 10L) }
+
+        Truth.assertThat(selector.select()).isEqualTo(second)
+
+        now += config.openCircuitMillis
+        Truth.assertThat(health.tryAcquire()).isTrue()
+        Truth.assertThat(health.tryAcquire()).isFalse()
+
+        health.onSuccess(latencyMillis = 10L)
+        Truth.assertThat(health.isAvailable()).isTrue()
+    }
+
+    @Test
+    fun selectsProviderEvenIfAllCircuitsAreOpen() {
+        repeat(times = 2) {
+            registry.get(first.baseUrl).onFailure(latencyMillis = 10L)
+            registry.get(second.baseUrl).onFailure(latencyMillis = 10L)
+        }
+
+        Truth.assertThat(selector.select()).isAnyOf(first, second)
+    }
+
+    @Test
+    fun hedgeDelayFollowsLatencyPercentile() {
+        Truth.assertThat(selector.hedgeDelayMillis(first)).isEqualTo(config.defaultHedgeDelayMillis)
+
+        (1L..100L).forEach { registry.get(first.baseUrl).onSuccess(latencyMillis = it * 10) }
+
+        // only the latest 64 samples are kept: 370..1000 ms
+        Truth.assertThat(selector.hedgeDelayMillis(first)).isEqualTo(970L)
+    }
+
+    private class TestProvider(override val baseUrl: String) : NetworkProvider
+}